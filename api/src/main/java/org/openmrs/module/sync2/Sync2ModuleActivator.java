@@ -11,22 +11,43 @@ package org.openmrs.module.sync2;
 
 import org.openmrs.api.context.Context;
 import org.openmrs.module.BaseModuleActivator;
+import org.openmrs.module.DaemonToken;
+import org.openmrs.module.DaemonTokenAware;
 import org.openmrs.module.sync2.api.scheduler.impl.SyncSchedulerServiceImpl;
+import org.openmrs.module.sync2.api.service.impl.SyncReconciliationServiceImpl;
+import org.openmrs.module.sync2.api.sync.PayloadPrefetcher;
+import org.openmrs.module.sync2.api.sync.SyncClientExecutor;
+import org.openmrs.module.sync2.api.sync.SyncEndpointGlobalPropertyListener;
+import org.openmrs.module.sync2.api.sync.SyncEndpointRegistry;
+import org.openmrs.module.sync2.api.sync.SyncLeaseManager;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.openmrs.module.sync2.client.reader.impl.AbstractFeedReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class contains the logic that is run every time this module is either started or shutdown
  */
-public class Sync2ModuleActivator extends BaseModuleActivator {
+public class Sync2ModuleActivator extends BaseModuleActivator implements DaemonTokenAware {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(Sync2ModuleActivator.class);
 
+	private final SyncEndpointGlobalPropertyListener endpointListener = new SyncEndpointGlobalPropertyListener();
+
+	/**
+	 * The token is used to run the real-time push as the daemon user, the same as the scheduled push.
+	 */
+	@Override
+	public void setDaemonToken(DaemonToken token) {
+		ContextUtils.setDaemonToken(token);
+	}
+
 	/**
 	 * @see #started()
 	 */
 	@Override
 	public void started() {
+		Context.getAdministrationService().addGlobalPropertyListener(endpointListener);
 		Context.getRegisteredComponents(SyncSchedulerServiceImpl.class).get(0).runSyncScheduler();
 		LOGGER.info("Started Sync2 Module");
 	}
@@ -37,6 +58,16 @@ public class Sync2ModuleActivator extends BaseModuleActivator {
 	@Override
 	public void stopped() {
 		Context.getRegisteredComponents(SyncSchedulerServiceImpl.class).get(0).shutdownSyncScheduler();
+		for (AbstractFeedReader feedReader : Context.getRegisteredComponents(AbstractFeedReader.class)) {
+			feedReader.shutdown();
+		}
+		SyncClientExecutor.shutdown();
+		PayloadPrefetcher.shutdown();
+		Context.getRegisteredComponent("sync2.syncLeaseManager", SyncLeaseManager.class).shutdown();
+		Context.getRegisteredComponent("sync2.syncReconciliationService", SyncReconciliationServiceImpl.class)
+				.shutdown();
+		Context.getAdministrationService().removeGlobalPropertyListener(endpointListener);
+		SyncEndpointRegistry.invalidate();
 		LOGGER.info("Shutdown Sync2 Module");
 	}
 	
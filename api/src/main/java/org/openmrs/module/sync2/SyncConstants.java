@@ -28,7 +28,21 @@ public class SyncConstants {
 
     public static final String SUCCESS_MESSAGE = "Success";
 
+    public static final String COALESCED_EVENTS_MESSAGE = "%s (coalesced %d feed events)";
+
     public static final String RESOURCE_PREFERRED_CLIENT = "sync2.resource.preferred.client";
+
+    public static final String CLUSTER_LEASE_TIME_PROPERTY = "sync2.cluster.leaseTime";
+
+    public static final String RECONCILIATION_INTERVAL_PROPERTY = "sync2.reconciliation.interval";
+
+    public static final String RECONCILIATION_MAX_REQUESTS_PROPERTY = "sync2.reconciliation.maxRequests";
+
+    public static final String BATCH_MAX_REQUESTS_PROPERTY = "sync2.batch.maxRequests";
+
+    public static final String COMPRESSION_THRESHOLD_PROPERTY = "sync2.compression.threshold";
+
+    public static final String COMPRESSION_MAX_REQUEST_SIZE_PROPERTY = "sync2.compression.maxRequestSize";
   
     public static final String AUDIT_MESSAGE_OPERATION_FIELD_NAME = "operation";
 
@@ -70,6 +84,12 @@ public class SyncConstants {
 
     public static final String SYNC2_REST_ENDPOINT = "/ws/rest/sync2";
 
+    public static final String SYNC2_BATCH_PATH = "/batch";
+
+    public static final String SYNC2_RECONCILIATION_DIGESTS_PATH = "/reconciliation/digests";
+
+    public static final String SYNC2_RECONCILIATION_HASHCODES_PATH = "/reconciliation/hashcodes";
+
     public static final String TAG_SERVICE_BEAN = "atomfeed.tagsService";
 
     public static final String MERGE_CONFLICT_ID_FIELD_NAME = "id";
@@ -82,5 +102,75 @@ public class SyncConstants {
 
     public static final String AUDIT_MESSAGE_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
 
+    public static final int DEFAULT_CONNECT_TIMEOUT = 30000;
+
+    public static final int DEFAULT_READ_TIMEOUT = 120000;
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+    public static final int DEFAULT_KEEP_ALIVE = 60;
+
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    public static final int DEFAULT_BATCH_MAX_REQUESTS = 1000;
+
+    public static final int DEFAULT_MAX_CONCURRENT_CATEGORIES = 4;
+
+    public static final int DEFAULT_EVENT_LANES = 1;
+
+    public static final int EVENTS_AHEAD_PER_LANE = 16;
+
+    public static final int DEFAULT_COALESCING_WINDOW = 1;
+
+    public static final int DEFAULT_PREFETCH_DEPTH = 0;
+
+    public static final int DEFAULT_PREFETCH_MAX_BYTES = 8 * 1024 * 1024;
+
+    public static final long PREFETCH_RESERVED_BYTES = 64 * 1024;
+
+    public static final int DEFAULT_PREFETCH_THREADS = 4;
+
+    public static final int DEFAULT_MIN_SCHEDULE = 60;
+
+    public static final long SCHEDULE_TOLERANCE_MILLIS = 5000L;
+
+    public static final int DEFAULT_REAL_TIME_DEBOUNCE = 2000;
+
+    public static final int DEFAULT_REAL_TIME_MAX_WAIT = 10000;
+
+    public static final int DEFAULT_REAL_TIME_QUEUE_SIZE = 50;
+
+    public static final String SYNC_ORIGIN_HEADER = "X-Sync2-Origin";
+
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    public static final int DEFAULT_COMPRESSION_MAX_REQUEST_SIZE = 50 * 1024 * 1024;
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    public static final int DEFAULT_CIRCUIT_OPEN_TIME = 30;
+
+    public static final int DEFAULT_IO_THREADS = 8;
+
+    public static final int DEFAULT_IO_QUEUE_SIZE = 64;
+
+    public static final int DEFAULT_RECONCILIATION_MAX_REQUESTS = 20;
+
+    public static final int RECONCILIATION_RANGES_PER_REQUEST = 64;
+
+    public static final int RECONCILIATION_FANOUT = 16;
+
+    public static final int RECONCILIATION_LEAF_SIZE = 32;
+
+    public static final int RECONCILIATION_SNAPSHOT_TTL = 600;
+
+    public static final int RECONCILIATION_READ_BATCH_SIZE = 100;
+
+    public static final int RECONCILIATION_PARALLEL_READS = 4;
+
+    public static final int RECONCILIATION_PAGE_SIZE = 1000;
+
+    public static final int RECONCILIATION_SNAPSHOT_READ_TIME = 60;
+
     private SyncConstants() {}
 }
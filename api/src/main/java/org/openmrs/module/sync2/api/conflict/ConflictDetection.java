@@ -1,8 +1,14 @@
 package org.openmrs.module.sync2.api.conflict;
 
+import org.openmrs.module.sync2.api.model.SyncObject;
 import org.openmrs.module.webservices.rest.SimpleObject;
 
 public interface ConflictDetection {
 
 	boolean detectConflict(SimpleObject currentObject, SimpleObject newObject);
+
+	/**
+	 * Detects the conflict using the cached hashcodes of the objects.
+	 */
+	boolean detectConflict(SyncObject currentObject, SyncObject newObject);
 }
@@ -2,6 +2,7 @@ package org.openmrs.module.sync2.api.conflict.impl;
 
 import org.openmrs.module.sync2.api.conflict.ConflictDetection;
 import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
+import org.openmrs.module.sync2.api.model.SyncObject;
 import org.openmrs.module.sync2.api.service.ParentObjectHashcodeService;
 import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
 import org.openmrs.module.webservices.rest.SimpleObject;
@@ -18,14 +19,17 @@ public class ConflictDetectionImpl implements ConflictDetection {
 
 	@Override
 	public boolean detectConflict(SimpleObject currentObject, SimpleObject newObject) {
+		return detectConflict(new SyncObject(null, currentObject), new SyncObject(null, newObject));
+	}
+
+	@Override
+	public boolean detectConflict(SyncObject currentObject, SyncObject newObject) {
 		boolean conflictDetect = false;
-		String currentHashCode = SyncHashcodeUtils.getHashcode(currentObject);
-		String newHashCode = SyncHashcodeUtils.getHashcode(newObject);
-		String objectUuid = currentObject.get(UUID_KEY);
+		String objectUuid = currentObject.getSimpleObject().get(UUID_KEY);
 		ParentObjectHashcode previousHashCode = parentObjectHashcodeService.getByObjectUuid(objectUuid);
 		if (previousHashCode != null
-				&& (!previousHashCode.getHashcode().equalsIgnoreCase(newHashCode)
-					|| !previousHashCode.getHashcode().equalsIgnoreCase(currentHashCode))) {
+				&& (!SyncHashcodeUtils.matchesHashcode(newObject, previousHashCode.getHashcode())
+					|| !SyncHashcodeUtils.matchesHashcode(currentObject, previousHashCode.getHashcode()))) {
 			conflictDetect = true;
 		}
 
@@ -1,6 +1,5 @@
 package org.openmrs.module.sync2.api.conflict.impl;
 
-import org.apache.commons.lang.StringUtils;
 import org.openmrs.module.fhir.api.merge.MergeBehaviour;
 import org.openmrs.module.fhir.api.merge.MergeConflict;
 import org.openmrs.module.fhir.api.merge.MergeResult;
@@ -29,18 +28,16 @@ public class RestrictConflictMergeBehaviourImpl implements MergeBehaviour<SyncOb
 	private MergeResult<SyncObject> revolveConflict(SyncObject source, SyncObject target) {
 		Class storedClass = SimpleObject.class;
 		MergeResult<SyncObject> result = new MergeConflict<>(storedClass, source.getSimpleObject(), target.getSimpleObject());
-		String sourceHashCode = SyncHashcodeUtils.getHashcode(source.getSimpleObject());
-		String targetHashCode = SyncHashcodeUtils.getHashcode(target.getSimpleObject());
 		String objectUuid = (source.getSimpleObject() != null ) ? source.getSimpleObject().get(UUID_KEY) : null;
 		ParentObjectHashcode previousHashCode = parentObjectHashcodeService.getByObjectUuid(objectUuid);
 
-		if (StringUtils.isNotBlank(sourceHashCode) && StringUtils.isNotBlank(targetHashCode)) {
+		if (source.getSimpleObject() != null && target.getSimpleObject() != null) {
 			if (previousHashCode == null) {
 				result = new MergeSuccess<>(storedClass, source.getSimpleObject(), target.getSimpleObject(),
 						source.getBaseObject(), true, false);
 			} else {
-				boolean sourceEquals = previousHashCode.getHashcode().equalsIgnoreCase(sourceHashCode);
-				boolean targetEquals = previousHashCode.getHashcode().equalsIgnoreCase(targetHashCode);
+				boolean sourceEquals = SyncHashcodeUtils.matchesHashcode(source, previousHashCode.getHashcode());
+				boolean targetEquals = SyncHashcodeUtils.matchesHashcode(target, previousHashCode.getHashcode());
 				if (sourceEquals && !targetEquals) {
 					result = new MergeSuccess<>(storedClass, source.getSimpleObject(), target.getSimpleObject(),
 							target.getBaseObject(), false, true);
@@ -0,0 +1,15 @@
+package org.openmrs.module.sync2.api.converter;
+
+import org.openmrs.module.sync2.api.model.BatchRequestWrapper;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BatchRequestWrapperToStringConverter implements Converter<BatchRequestWrapper, String> {
+
+	@Override
+	public String convert(BatchRequestWrapper wrapper) {
+		return SyncUtils.getDefaultGson().toJson(wrapper);
+	}
+}
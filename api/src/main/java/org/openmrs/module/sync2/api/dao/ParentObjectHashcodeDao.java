@@ -2,6 +2,10 @@ package org.openmrs.module.sync2.api.dao;
 
 import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public interface ParentObjectHashcodeDao {
 
 	ParentObjectHashcode getById(Integer id);
@@ -10,5 +14,18 @@ public interface ParentObjectHashcodeDao {
 
 	ParentObjectHashcode getByObjectUuid(String objectUuid);
 
+	/**
+	 * @return the hashcodes of the objects, the objects without the hashcodes are omitted
+	 */
+	List<ParentObjectHashcode> getByObjectUuids(Collection<String> objectUuids);
+
 	ParentObjectHashcode save(ParentObjectHashcode parentObjectHashcode);
+
+	/**
+	 * Reads the next page of the hashcodes which aren't voided of the existing objects of the class.
+	 *
+	 * @param afterUuid the last object uuid of the previous page, or null for the first page
+	 * @return the hashcodes of the objects following the given uuid, mapped by the object uuids in their order
+	 */
+	Map<String, String> getHashcodesOfClass(Class<?> clazz, String afterUuid, int maxResults);
 }
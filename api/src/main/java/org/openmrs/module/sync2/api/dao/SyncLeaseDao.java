@@ -0,0 +1,33 @@
+package org.openmrs.module.sync2.api.dao;
+
+import org.openmrs.module.sync2.api.model.SyncLease;
+
+import java.util.Date;
+
+public interface SyncLeaseDao {
+
+	/**
+	 * @return the current time of the database, which is shared by all nodes of the cluster
+	 */
+	Date getDatabaseTime();
+
+	SyncLease getLease(String operation, String category);
+
+	SyncLease save(SyncLease lease);
+
+	/**
+	 * Takes the lease if it is free, expired or already owned by the given owner.
+	 *
+	 * @return true if the lease was taken
+	 */
+	boolean claim(String operation, String category, String owner, Date now, Date expiresAt);
+
+	/**
+	 * Extends the lease if it is owned by the given owner.
+	 *
+	 * @return the number of the renewed leases, 0 if the lease is owned by another owner
+	 */
+	int renew(String operation, String category, String owner, Date now, Date expiresAt);
+
+	void release(String operation, String category, String owner, Date now);
+}
@@ -0,0 +1,18 @@
+package org.openmrs.module.sync2.api.dao;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface SyncReconciliationDao {
+
+	/**
+	 * Reads the next page of the uuids of the local objects of the class, the index of the reconciliation is read
+	 * for them.
+	 *
+	 * @param afterUuid the last uuid of the previous page, or null for the first page
+	 * @return the uuids following the given uuid in their order
+	 */
+	@Transactional(readOnly = true)
+	List<String> getObjectUuidsOfClass(Class<?> clazz, String afterUuid, int maxResults);
+}
@@ -6,12 +6,25 @@ import org.openmrs.api.db.hibernate.DbSessionFactory;
 import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.sync2.api.dao.ParentObjectHashcodeDao;
 import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
+import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
 @Repository
 public class ParentObjectHashcodeDaoImpl implements ParentObjectHashcodeDao {
 
+	/**
+	 * Limits the number of the query parameters of the bulk lookup
+	 */
+	private static final int MAX_UUIDS_PER_QUERY = 1000;
+
 	@Autowired
 	private DbSessionFactory sessionFactory;
 
@@ -43,9 +56,43 @@ public class ParentObjectHashcodeDaoImpl implements ParentObjectHashcodeDao {
 				.uniqueResult();
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<ParentObjectHashcode> getByObjectUuids(Collection<String> objectUuids) {
+		List<ParentObjectHashcode> result = new ArrayList<>();
+		List<String> uuids = new ArrayList<>(new LinkedHashSet<>(objectUuids));
+		for (int from = 0; from < uuids.size(); from += MAX_UUIDS_PER_QUERY) {
+			List<String> chunk = uuids.subList(from, Math.min(from + MAX_UUIDS_PER_QUERY, uuids.size()));
+			result.addAll(getSession()
+					.createCriteria(ParentObjectHashcode.class)
+					.add(Restrictions.in(SyncConstants.PARENT_OBJECT_HASHCODE_OBJECT_UUID_FIELD_NAME, chunk))
+					.list());
+		}
+		return result;
+	}
+
 	@Override
 	public ParentObjectHashcode save(ParentObjectHashcode parentObjectHashcode) {
 		getSession().saveOrUpdate(parentObjectHashcode);
 		return parentObjectHashcode;
 	}
+
+	@Override
+	public Map<String, String> getHashcodesOfClass(Class<?> clazz, String afterUuid, int maxResults) {
+		List<?> rows = getSession()
+				.createQuery(String.format("select o.uuid, h.hashcodeVersion, h.hashcodeDigest, h.hashcode "
+						+ "from %s o, %s h where h.objectUuid = o.uuid and h.voided = false and o.uuid > :afterUuid "
+						+ "order by o.uuid", clazz.getName(), ParentObjectHashcode.class.getName()))
+				.setParameter("afterUuid", afterUuid == null ? "" : afterUuid)
+				.setMaxResults(maxResults)
+				.list();
+		Map<String, String> result = new LinkedHashMap<>();
+		for (Object row : rows) {
+			Object[] columns = (Object[]) row;
+			String hashcode = columns[2] != null
+					? SyncHashcodeUtils.getHashcode((Integer) columns[1], (byte[]) columns[2]) : (String) columns[3];
+			result.put((String) columns[0], hashcode);
+		}
+		return result;
+	}
 }
@@ -0,0 +1,81 @@
+package org.openmrs.module.sync2.api.dao.impl;
+
+import org.hibernate.criterion.Restrictions;
+import org.openmrs.api.db.hibernate.DbSession;
+import org.openmrs.api.db.hibernate.DbSessionFactory;
+import org.openmrs.module.sync2.api.dao.SyncLeaseDao;
+import org.openmrs.module.sync2.api.model.SyncLease;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+
+/**
+ * The leases are taken and renewed by single conditional updates, so two nodes never own the same lease.
+ */
+@Repository
+public class SyncLeaseDaoImpl implements SyncLeaseDao {
+
+	@Autowired
+	private DbSessionFactory sessionFactory;
+
+	private DbSession getSession() {
+		return sessionFactory.getCurrentSession();
+	}
+
+	@Override
+	public Date getDatabaseTime() {
+		return (Date) getSession().createSQLQuery("select current_timestamp").uniqueResult();
+	}
+
+	@Override
+	public SyncLease getLease(String operation, String category) {
+		return (SyncLease) getSession()
+				.createCriteria(SyncLease.class)
+				.add(Restrictions.eq("operation", operation))
+				.add(Restrictions.eq("category", category))
+				.uniqueResult();
+	}
+
+	@Override
+	public SyncLease save(SyncLease lease) {
+		getSession().saveOrUpdate(lease);
+		return lease;
+	}
+
+	@Override
+	public boolean claim(String operation, String category, String owner, Date now, Date expiresAt) {
+		return getSession().createQuery("update SyncLease set owner = :owner, heartbeatAt = :now, "
+				+ "expiresAt = :expiresAt where operation = :operation and category = :category "
+				+ "and (owner is null or owner = :owner or expiresAt < :now)")
+				.setParameter("owner", owner)
+				.setParameter("now", now)
+				.setParameter("expiresAt", expiresAt)
+				.setParameter("operation", operation)
+				.setParameter("category", category)
+				.executeUpdate() > 0;
+	}
+
+	@Override
+	public int renew(String operation, String category, String owner, Date now, Date expiresAt) {
+		return getSession().createQuery("update SyncLease set heartbeatAt = :now, expiresAt = :expiresAt "
+				+ "where operation = :operation and category = :category and owner = :owner")
+				.setParameter("now", now)
+				.setParameter("expiresAt", expiresAt)
+				.setParameter("operation", operation)
+				.setParameter("category", category)
+				.setParameter("owner", owner)
+				.executeUpdate();
+	}
+
+	@Override
+	public void release(String operation, String category, String owner, Date now) {
+		getSession().createQuery("update SyncLease set owner = null, expiresAt = :now "
+				+ "where operation = :operation and category = :category and owner = :owner")
+				.setParameter("now", now)
+				.setParameter("operation", operation)
+				.setParameter("category", category)
+				.setParameter("owner", owner)
+				.executeUpdate();
+	}
+}
@@ -0,0 +1,31 @@
+package org.openmrs.module.sync2.api.dao.impl;
+
+import org.openmrs.api.db.hibernate.DbSession;
+import org.openmrs.api.db.hibernate.DbSessionFactory;
+import org.openmrs.module.sync2.api.dao.SyncReconciliationDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class SyncReconciliationDaoImpl implements SyncReconciliationDao {
+
+	@Autowired
+	private DbSessionFactory sessionFactory;
+
+	private DbSession getSession() {
+		return sessionFactory.getCurrentSession();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<String> getObjectUuidsOfClass(Class<?> clazz, String afterUuid, int maxResults) {
+		return getSession()
+				.createQuery(String.format("select o.uuid from %s o where o.uuid > :afterUuid order by o.uuid",
+						clazz.getName()))
+				.setParameter("afterUuid", afterUuid == null ? "" : afterUuid)
+				.setMaxResults(maxResults)
+				.list();
+	}
+}
@@ -0,0 +1,118 @@
+package org.openmrs.module.sync2.api.dao.liquibase;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts the stored hex hashcodes to their versions and binary digests, see
+ * {@link SyncHashcodeUtils#getHashcodeDigest(String)}. The rows are converted in batches and every batch
+ * is committed separately, so the conversion of a large table doesn't lock all rows until it is completed.
+ * The converted rows have no hex hashcode, so the interrupted conversion continues with the remaining rows.
+ */
+public class HashcodeDigestsChangeSet implements CustomTaskChange {
+
+	private static final int BATCH_SIZE = 1000;
+
+	private static final String SELECT_QUERY = "SELECT parent_object_hashcode_id, hashcode "
+			+ "FROM sync_parent_object_hashcode WHERE parent_object_hashcode_id > ? AND hashcode IS NOT NULL "
+			+ "ORDER BY parent_object_hashcode_id";
+
+	private static final String UPDATE_QUERY = "UPDATE sync_parent_object_hashcode "
+			+ "SET hashcode_version = ?, hashcode_digest = ?, hashcode = NULL WHERE parent_object_hashcode_id = ?";
+
+	private int convertedRows;
+
+	@Override
+	public void execute(Database database) throws CustomChangeException {
+		JdbcConnection connection = (JdbcConnection) database.getConnection();
+		try {
+			int lastId = 0;
+			Map<Integer, String> batch = readBatch(connection, lastId);
+			while (!batch.isEmpty()) {
+				convertBatch(connection, batch);
+				connection.commit();
+				for (Integer id : batch.keySet()) {
+					lastId = id;
+				}
+				batch = readBatch(connection, lastId);
+			}
+		}
+		catch (DatabaseException | SQLException e) {
+			throw new CustomChangeException("Error during converting the hashcodes to the binary digests", e);
+		}
+	}
+
+	/**
+	 * @return the hashcodes of the next rows mapped by the row ids, in the order of the ids
+	 */
+	private Map<Integer, String> readBatch(JdbcConnection connection, int lastId)
+			throws DatabaseException, SQLException {
+		Map<Integer, String> result = new LinkedHashMap<>();
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_QUERY)) {
+			statement.setMaxRows(BATCH_SIZE);
+			statement.setInt(1, lastId);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					result.put(resultSet.getInt(1), resultSet.getString(2));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The hashcodes which can't be restored exactly from their versions and digests are left as they are.
+	 */
+	private void convertBatch(JdbcConnection connection, Map<Integer, String> batch)
+			throws DatabaseException, SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(UPDATE_QUERY)) {
+			int rows = 0;
+			for (Map.Entry<Integer, String> hashcode : batch.entrySet()) {
+				byte[] digest = SyncHashcodeUtils.getHashcodeDigest(hashcode.getValue());
+				if (digest == null) {
+					continue;
+				}
+				statement.setInt(1, SyncHashcodeUtils.getHashcodeVersion(hashcode.getValue()));
+				statement.setBytes(2, digest);
+				statement.setInt(3, hashcode.getKey());
+				statement.addBatch();
+				rows++;
+			}
+			if (rows > 0) {
+				statement.executeBatch();
+				convertedRows += rows;
+			}
+		}
+	}
+
+	@Override
+	public String getConfirmationMessage() {
+		return String.format("Converted %d hashcodes to the binary digests", convertedRows);
+	}
+
+	@Override
+	public void setUp() throws SetupException {
+	}
+
+	@Override
+	public void setFileOpener(ResourceAccessor resourceAccessor) {
+	}
+
+	@Override
+	public ValidationErrors validate(Database database) {
+		return null;
+	}
+}
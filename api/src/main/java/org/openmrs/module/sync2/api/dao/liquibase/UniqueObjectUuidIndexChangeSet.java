@@ -0,0 +1,111 @@
+package org.openmrs.module.sync2.api.dao.liquibase;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.core.MySQLDatabase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Removes the duplicated hashcodes of the objects, only the latest hashcode of every object is kept, and adds
+ * the unique index of the object uuids. The hashcodes can be written while the index is being built, so a new
+ * duplicate can make the index fail. The duplicates are then removed again and the index is built again.
+ * On MySQL the index is built in place without locking the table.
+ */
+public class UniqueObjectUuidIndexChangeSet implements CustomTaskChange {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UniqueObjectUuidIndexChangeSet.class);
+
+	private static final int MAX_ATTEMPTS = 5;
+
+	private static final String MYSQL_DELETE_DUPLICATES_QUERY = "DELETE stored FROM sync_parent_object_hashcode stored "
+			+ "JOIN (SELECT object_uuid, MAX(parent_object_hashcode_id) AS latest_id "
+			+ "FROM sync_parent_object_hashcode GROUP BY object_uuid HAVING COUNT(*) > 1) duplicated "
+			+ "ON duplicated.object_uuid = stored.object_uuid "
+			+ "AND stored.parent_object_hashcode_id < duplicated.latest_id";
+
+	private static final String DELETE_DUPLICATES_QUERY = "DELETE FROM sync_parent_object_hashcode "
+			+ "WHERE parent_object_hashcode_id NOT IN (SELECT latest.latest_id "
+			+ "FROM (SELECT MAX(parent_object_hashcode_id) AS latest_id "
+			+ "FROM sync_parent_object_hashcode GROUP BY object_uuid) latest)";
+
+	private static final String COUNT_DUPLICATES_QUERY = "SELECT COUNT(*) FROM (SELECT object_uuid "
+			+ "FROM sync_parent_object_hashcode GROUP BY object_uuid HAVING COUNT(*) > 1) duplicated";
+
+	private static final String MYSQL_CREATE_INDEX_QUERY = "ALTER TABLE sync_parent_object_hashcode "
+			+ "ADD UNIQUE INDEX sync_parent_object_hashcode_object_uuid (object_uuid), ALGORITHM=INPLACE, LOCK=NONE";
+
+	private static final String CREATE_INDEX_QUERY = "CREATE UNIQUE INDEX sync_parent_object_hashcode_object_uuid "
+			+ "ON sync_parent_object_hashcode (object_uuid)";
+
+	private int removedRows;
+
+	@Override
+	public void execute(Database database) throws CustomChangeException {
+		JdbcConnection connection = (JdbcConnection) database.getConnection();
+		boolean mysql = database instanceof MySQLDatabase;
+		try {
+			for (int attempt = 1; ; attempt++) {
+				removedRows += executeUpdate(connection, mysql ? MYSQL_DELETE_DUPLICATES_QUERY : DELETE_DUPLICATES_QUERY);
+				connection.commit();
+				try {
+					executeUpdate(connection, mysql ? MYSQL_CREATE_INDEX_QUERY : CREATE_INDEX_QUERY);
+					connection.commit();
+					return;
+				}
+				catch (DatabaseException | SQLException e) {
+					connection.rollback();
+					if (attempt >= MAX_ATTEMPTS || !hasDuplicates(connection)) {
+						throw e;
+					}
+					LOGGER.info("The hashcodes were duplicated while the unique index was being built, retrying", e);
+				}
+			}
+		}
+		catch (DatabaseException | SQLException e) {
+			throw new CustomChangeException("Error during adding the unique index of the object uuids", e);
+		}
+	}
+
+	private int executeUpdate(JdbcConnection connection, String query) throws DatabaseException, SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(query)) {
+			return statement.executeUpdate();
+		}
+	}
+
+	private boolean hasDuplicates(JdbcConnection connection) throws DatabaseException, SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(COUNT_DUPLICATES_QUERY);
+				ResultSet resultSet = statement.executeQuery()) {
+			return resultSet.next() && resultSet.getInt(1) > 0;
+		}
+	}
+
+	@Override
+	public String getConfirmationMessage() {
+		return String.format("Removed %d duplicated hashcodes and added the unique index of the object uuids",
+				removedRows);
+	}
+
+	@Override
+	public void setUp() throws SetupException {
+	}
+
+	@Override
+	public void setFileOpener(ResourceAccessor resourceAccessor) {
+	}
+
+	@Override
+	public ValidationErrors validate(Database database) {
+		return null;
+	}
+}
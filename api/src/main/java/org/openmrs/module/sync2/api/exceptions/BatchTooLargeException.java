@@ -0,0 +1,11 @@
+package org.openmrs.module.sync2.api.exceptions;
+
+/**
+ * Thrown when the batch contains more requests than the instance accepts in a single round trip
+ */
+public class BatchTooLargeException extends SyncException {
+
+    public BatchTooLargeException(int maxRequests) {
+        super(String.format("The batch contains more than %d requests", maxRequests));
+    }
+}
@@ -0,0 +1,11 @@
+package org.openmrs.module.sync2.api.exceptions;
+
+/**
+ * Thrown when the request is rejected without being sent, because the target server is considered unavailable.
+ */
+public class CircuitOpenException extends SyncException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
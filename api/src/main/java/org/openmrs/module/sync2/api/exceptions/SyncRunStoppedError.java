@@ -0,0 +1,15 @@
+package org.openmrs.module.sync2.api.exceptions;
+
+/**
+ * Thrown by the feed worker to stop reading the feed when the budget of the run is exhausted or the run is cancelled.
+ * It is an error rather than an exception, so the feed client doesn't record the event as failed and rolls back
+ * the transaction of the event, leaving the marker at the last processed event.
+ */
+public class SyncRunStoppedError extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    public SyncRunStoppedError(String message) {
+        super(message);
+    }
+}
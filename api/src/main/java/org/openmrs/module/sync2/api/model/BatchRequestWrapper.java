@@ -0,0 +1,63 @@
+package org.openmrs.module.sync2.api.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The envelope of many inner requests sent to the parent in one round trip.
+ * The requests share the instance, client, class and category of the wrapper.
+ */
+public class BatchRequestWrapper extends RequestWrapper {
+
+	protected List<InnerRequest> requests;
+
+	public BatchRequestWrapper() {
+		requests = new ArrayList<>();
+	}
+
+	public List<InnerRequest> getRequests() {
+		return requests;
+	}
+
+	public void setRequests(List<InnerRequest> requests) {
+		this.requests = requests;
+	}
+
+	public void addRequest(InnerRequest request) {
+		requests.add(request);
+	}
+
+	/**
+	 * Creates the single request wrapper for the given inner request of this batch
+	 *
+	 * @param innerRequest one of the batched requests
+	 * @return wrapper which shares the instance, client, class and category with the batch
+	 */
+	public RequestWrapper toRequestWrapper(InnerRequest innerRequest) {
+		RequestWrapper wrapper = new RequestWrapper();
+		wrapper.setInstanceId(instanceId);
+		wrapper.setClientName(clientName);
+		wrapper.setClassName(className);
+		wrapper.setCategory(category);
+		wrapper.setRequest(innerRequest);
+		return wrapper;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof BatchRequestWrapper))
+			return false;
+		if (!super.equals(o))
+			return false;
+		BatchRequestWrapper that = (BatchRequestWrapper) o;
+		return Objects.equals(requests, that.requests);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(super.hashCode(), requests);
+	}
+}
@@ -0,0 +1,98 @@
+package org.openmrs.module.sync2.api.model;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the last processing of a single category feed.
+ */
+public class FeedProgress {
+
+	public enum Status {
+		IDLE, RUNNING, COMPLETED, FAILED, PAUSED
+	}
+
+	private final String category;
+
+	private final AtomicLong processedEvents = new AtomicLong();
+
+	private final AtomicLong failedEvents = new AtomicLong();
+
+	private volatile Status status = Status.IDLE;
+
+	private volatile Date startedAt;
+
+	private volatile Date finishedAt;
+
+	private volatile String error;
+
+	public FeedProgress(String category) {
+		this.category = category;
+	}
+
+	public synchronized void start() {
+		processedEvents.set(0);
+		failedEvents.set(0);
+		startedAt = new Date();
+		finishedAt = null;
+		error = null;
+		status = Status.RUNNING;
+	}
+
+	public synchronized void complete() {
+		finishedAt = new Date();
+		status = Status.COMPLETED;
+	}
+
+	public synchronized void fail(Throwable cause) {
+		finishedAt = new Date();
+		error = cause.getMessage();
+		status = Status.FAILED;
+	}
+
+	public synchronized void pause() {
+		status = Status.PAUSED;
+	}
+
+	public void eventProcessed() {
+		processedEvents.incrementAndGet();
+	}
+
+	public void eventFailed() {
+		failedEvents.incrementAndGet();
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public long getProcessedEvents() {
+		return processedEvents.get();
+	}
+
+	public long getFailedEvents() {
+		return failedEvents.get();
+	}
+
+	public Date getStartedAt() {
+		return startedAt;
+	}
+
+	public Date getFinishedAt() {
+		return finishedAt;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %s, processed: %d, failed: %d", category, status, getProcessedEvents(),
+				getFailedEvents());
+	}
+}
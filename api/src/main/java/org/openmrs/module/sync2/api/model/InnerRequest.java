@@ -5,6 +5,7 @@ import org.springframework.http.RequestEntity;
 
 import java.io.Serializable;
 import java.net.URI;
+import java.util.Map;
 import java.util.Objects;
 
 public class InnerRequest implements Serializable {
@@ -15,6 +16,8 @@ public class InnerRequest implements Serializable {
 
 	protected String body;
 
+	protected Map<String, String> headers;
+
 	public InnerRequest() {
 	}
 
@@ -22,6 +25,7 @@ public class InnerRequest implements Serializable {
 		this.method = entity.getMethod();
 		this.url = entity.getUrl();
 		this.body = (entity.getBody() != null) ? entity.getBody().toString() : null;
+		this.headers = entity.getHeaders().isEmpty() ? null : entity.getHeaders().toSingleValueMap();
 	}
 
 	public HttpMethod getMethod() {
@@ -48,6 +52,26 @@ public class InnerRequest implements Serializable {
 		this.body = body;
 	}
 
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	public void setHeaders(Map<String, String> headers) {
+		this.headers = headers;
+	}
+
+	public String getHeader(String name) {
+		if (headers == null) {
+			return null;
+		}
+		for (Map.Entry<String, String> header : headers.entrySet()) {
+			if (header.getKey().equalsIgnoreCase(name)) {
+				return header.getValue();
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
@@ -57,12 +81,13 @@ public class InnerRequest implements Serializable {
 		InnerRequest that = (InnerRequest) o;
 		return method == that.method &&
 				Objects.equals(url, that.url) &&
-				Objects.equals(body, that.body);
+				Objects.equals(body, that.body) &&
+				Objects.equals(headers, that.headers);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(method, url, body);
+		return Objects.hash(method, url, body, headers);
 	}
 
 	@Override
@@ -71,6 +96,7 @@ public class InnerRequest implements Serializable {
 				"\"method\":\"" + method + '\"' +
 				", \"url\":\"" + url + '\"' +
 				", \"body\":\"" + body + '\"' +
+				", \"headers\":\"" + headers + '\"' +
 				'}';
 	}
 }
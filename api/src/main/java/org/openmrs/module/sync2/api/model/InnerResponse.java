@@ -0,0 +1,80 @@
+package org.openmrs.module.sync2.api.model;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * The result of a single inner request executed as a part of a batch.
+ */
+public class InnerResponse implements Serializable {
+
+	protected URI url;
+
+	protected int statusCode;
+
+	protected String body;
+
+	public InnerResponse() {
+	}
+
+	public InnerResponse(URI url, ResponseEntity<String> entity) {
+		this.url = url;
+		this.statusCode = entity.getStatusCode().value();
+		this.body = entity.getBody();
+	}
+
+	public InnerResponse(URI url, HttpStatus status, String body) {
+		this.url = url;
+		this.statusCode = status.value();
+		this.body = body;
+	}
+
+	public URI getUrl() {
+		return url;
+	}
+
+	public void setUrl(URI url) {
+		this.url = url;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public void setStatusCode(int statusCode) {
+		this.statusCode = statusCode;
+	}
+
+	public HttpStatus getStatus() {
+		return HttpStatus.valueOf(statusCode);
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof InnerResponse))
+			return false;
+		InnerResponse that = (InnerResponse) o;
+		return statusCode == that.statusCode &&
+				Objects.equals(url, that.url) &&
+				Objects.equals(body, that.body);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(url, statusCode, body);
+	}
+}
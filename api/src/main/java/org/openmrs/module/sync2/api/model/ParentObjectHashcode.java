@@ -1,22 +1,31 @@
 package org.openmrs.module.sync2.api.model;
 
 import org.openmrs.BaseOpenmrsData;
+import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
 
 import java.util.Objects;
 
+/**
+ * The hashcode of the parent object stored during its last synchronization. The hashcode is stored as its version
+ * and its binary digest, only the hashcodes which can't be restored from them are stored as the strings.
+ */
 public class ParentObjectHashcode extends BaseOpenmrsData {
 
 	private Integer id;
 
 	private String objectUuid;
 
+	private Integer hashcodeVersion;
+
+	private byte[] hashcodeDigest;
+
 	private String hashcode;
 
 	public ParentObjectHashcode() {}
 
 	public ParentObjectHashcode(String objectUuid, String hashcode) {
 		this.objectUuid = objectUuid;
-		this.hashcode = hashcode;
+		setHashcode(hashcode);
 	}
 
 	public Integer getId() {
@@ -36,11 +45,21 @@ public class ParentObjectHashcode extends BaseOpenmrsData {
 	}
 
 	public String getHashcode() {
+		if (hashcodeDigest != null) {
+			return SyncHashcodeUtils.getHashcode(hashcodeVersion, hashcodeDigest);
+		}
 		return hashcode;
 	}
 
 	public void setHashcode(String hashcode) {
-		this.hashcode = hashcode;
+		this.hashcodeDigest = SyncHashcodeUtils.getHashcodeDigest(hashcode);
+		if (hashcodeDigest != null) {
+			this.hashcodeVersion = SyncHashcodeUtils.getHashcodeVersion(hashcode);
+			this.hashcode = null;
+		} else {
+			this.hashcodeVersion = null;
+			this.hashcode = hashcode;
+		}
 	}
 
 	@Override
@@ -54,11 +73,11 @@ public class ParentObjectHashcode extends BaseOpenmrsData {
 		ParentObjectHashcode that = (ParentObjectHashcode) o;
 		return Objects.equals(id, that.id) &&
 				Objects.equals(objectUuid, that.objectUuid) &&
-				Objects.equals(hashcode, that.hashcode);
+				Objects.equals(getHashcode(), that.getHashcode());
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(super.hashCode(), id, objectUuid, hashcode);
+		return Objects.hash(super.hashCode(), id, objectUuid, getHashcode());
 	}
 }
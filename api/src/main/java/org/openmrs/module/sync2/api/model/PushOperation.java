@@ -0,0 +1,68 @@
+package org.openmrs.module.sync2.api.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A single create, update or delete operation sent to the other instance as a part of a batch.
+ */
+public class PushOperation implements Serializable {
+
+	private static final long serialVersionUID = 4410985279421583113L;
+
+	private Object object;
+
+	private String resourceUrl;
+
+	private String action;
+
+	public PushOperation() {
+	}
+
+	public PushOperation(Object object, String resourceUrl, String action) {
+		this.object = object;
+		this.resourceUrl = resourceUrl;
+		this.action = action;
+	}
+
+	public Object getObject() {
+		return object;
+	}
+
+	public void setObject(Object object) {
+		this.object = object;
+	}
+
+	public String getResourceUrl() {
+		return resourceUrl;
+	}
+
+	public void setResourceUrl(String resourceUrl) {
+		this.resourceUrl = resourceUrl;
+	}
+
+	public String getAction() {
+		return action;
+	}
+
+	public void setAction(String action) {
+		this.action = action;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		PushOperation that = (PushOperation) o;
+		return Objects.equals(object, that.object) &&
+				Objects.equals(resourceUrl, that.resourceUrl) &&
+				Objects.equals(action, that.action);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(object, resourceUrl, action);
+	}
+}
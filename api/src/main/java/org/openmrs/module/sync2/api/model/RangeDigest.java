@@ -0,0 +1,94 @@
+package org.openmrs.module.sync2.api.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Digest of the hashcodes of the objects whose uuids are placed in the range of the hashcode range index.
+ * The range includes the position {@code from} and excludes the position {@code to}.
+ */
+public class RangeDigest implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private long from;
+
+	private long to;
+
+	private int count;
+
+	private String digest;
+
+	public RangeDigest() {
+	}
+
+	public RangeDigest(long from, long to) {
+		this.from = from;
+		this.to = to;
+	}
+
+	public RangeDigest(long from, long to, int count, String digest) {
+		this.from = from;
+		this.to = to;
+		this.count = count;
+		this.digest = digest;
+	}
+
+	public long getFrom() {
+		return from;
+	}
+
+	public void setFrom(long from) {
+		this.from = from;
+	}
+
+	public long getTo() {
+		return to;
+	}
+
+	public void setTo(long to) {
+		this.to = to;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+
+	public String getDigest() {
+		return digest;
+	}
+
+	public void setDigest(String digest) {
+		this.digest = digest;
+	}
+
+	public boolean matches(RangeDigest other) {
+		return other != null && count == other.count && Objects.equals(digest, other.digest);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		RangeDigest that = (RangeDigest) o;
+		return from == that.from && to == that.to && count == that.count && Objects.equals(digest, that.digest);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(from, to, count, digest);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%d, %d) count: %d digest: %s", from, to, count, digest);
+	}
+}
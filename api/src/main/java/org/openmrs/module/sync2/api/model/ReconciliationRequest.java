@@ -0,0 +1,78 @@
+package org.openmrs.module.sync2.api.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Request of the child for the digests or the hashcodes of the parent objects of the category in the given ranges.
+ */
+public class ReconciliationRequest implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String instanceId;
+
+	private String category;
+
+	private List<RangeDigest> ranges = new ArrayList<>();
+
+	public ReconciliationRequest() {
+	}
+
+	public ReconciliationRequest(String instanceId, String category, List<RangeDigest> ranges) {
+		this.instanceId = instanceId;
+		this.category = category;
+		this.ranges = ranges;
+	}
+
+	public String getInstanceId() {
+		return instanceId;
+	}
+
+	public void setInstanceId(String instanceId) {
+		this.instanceId = instanceId;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public void setCategory(String category) {
+		this.category = category;
+	}
+
+	public List<RangeDigest> getRanges() {
+		return ranges;
+	}
+
+	public void setRanges(List<RangeDigest> ranges) {
+		this.ranges = ranges;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		ReconciliationRequest that = (ReconciliationRequest) o;
+		return Objects.equals(instanceId, that.instanceId)
+				&& Objects.equals(category, that.category)
+				&& Objects.equals(ranges, that.ranges);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(instanceId, category, ranges);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ReconciliationRequest{instanceId=%s, category=%s, ranges=%s}",
+				instanceId, category, ranges);
+	}
+}
@@ -19,6 +19,8 @@ public class RequestWrapper implements Serializable {
 
 	protected String className;
 
+	protected String category;
+
 	protected InnerRequest request;
 
 	public RequestWrapper() {
@@ -52,6 +54,14 @@ public class RequestWrapper implements Serializable {
 		this.className = className;
 	}
 
+	public String getCategory() {
+		return category;
+	}
+
+	public void setCategory(String category) {
+		this.category = category;
+	}
+
 	public InnerRequest getRequest() {
 		return request;
 	}
@@ -70,19 +80,20 @@ public class RequestWrapper implements Serializable {
 		return Objects.equals(instanceId, that.instanceId) &&
 				Objects.equals(clientName, that.clientName) &&
 				Objects.equals(className, that.className) &&
+				Objects.equals(category, that.category) &&
 				Objects.equals(request, that.request);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(instanceId, clientName, className, request);
+		return Objects.hash(instanceId, clientName, className, category, request);
 	}
 
 	public static class RequestWrapperSerializer implements JsonSerializer<RequestWrapper> {
 
 		@Override
 		public JsonElement serialize(RequestWrapper src, Type typeOfSrc, JsonSerializationContext context) {
-			return SyncUtils.createDefaultGson().toJsonTree(src);
+			return SyncUtils.getDefaultGson().toJsonTree(src);
 		}
 	}
 
@@ -91,7 +102,7 @@ public class RequestWrapper implements Serializable {
 		@Override
 		public RequestWrapper deserialize(JsonElement json, Type type,
 				JsonDeserializationContext jsonDeserializationContext) {
-			return SyncUtils.createDefaultGson().fromJson(json, RequestWrapper.class);
+			return SyncUtils.getDefaultGson().fromJson(json, RequestWrapper.class);
 		}
 	}
 }
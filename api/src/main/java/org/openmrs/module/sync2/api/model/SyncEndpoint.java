@@ -0,0 +1,90 @@
+package org.openmrs.module.sync2.api.model;
+
+import org.openmrs.module.fhir.api.helper.ClientHelper;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+
+import java.util.Objects;
+
+/**
+ * The resolved address and credentials used to communicate with the instance using the given client.
+ * The objects are immutable, so they can be shared between threads.
+ */
+public final class SyncEndpoint {
+
+	private final String clientName;
+
+	private final OpenMRSSyncInstance instance;
+
+	private final String baseUrl;
+
+	private final String login;
+
+	private final String password;
+
+	private final boolean wrapped;
+
+	private final ClientHelper clientHelper;
+
+	public SyncEndpoint(String clientName, OpenMRSSyncInstance instance, String baseUrl, String login,
+			String password, boolean wrapped, ClientHelper clientHelper) {
+		this.clientName = clientName;
+		this.instance = instance;
+		this.baseUrl = baseUrl;
+		this.login = login;
+		this.password = password;
+		this.wrapped = wrapped;
+		this.clientHelper = clientHelper;
+	}
+
+	public String getClientName() {
+		return clientName;
+	}
+
+	public OpenMRSSyncInstance getInstance() {
+		return instance;
+	}
+
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+
+	public String getLogin() {
+		return login;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	/**
+	 * Returns true if the requests have to be wrapped and sent to the sync2 endpoint of the instance,
+	 * because the client doesn't have its own address
+	 */
+	public boolean isWrapped() {
+		return wrapped;
+	}
+
+	public ClientHelper getClientHelper() {
+		return clientHelper;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		SyncEndpoint that = (SyncEndpoint) o;
+		return wrapped == that.wrapped &&
+				Objects.equals(clientName, that.clientName) &&
+				instance == that.instance &&
+				Objects.equals(baseUrl, that.baseUrl) &&
+				Objects.equals(login, that.login) &&
+				Objects.equals(password, that.password);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(clientName, instance, baseUrl, login, password, wrapped);
+	}
+}
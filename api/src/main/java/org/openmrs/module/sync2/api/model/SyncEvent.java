@@ -0,0 +1,88 @@
+package org.openmrs.module.sync2.api.model;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The content of a single feed event which should be synchronized.
+ */
+public class SyncEvent implements Serializable {
+
+	private static final long serialVersionUID = -3349713536581958227L;
+
+	private String category;
+
+	private Map<String, String> resourceLinks;
+
+	private String action;
+
+	/**
+	 * The number of the feed events of the object which were coalesced into this event
+	 */
+	private int coalescedEvents = 1;
+
+	public SyncEvent() {
+	}
+
+	public SyncEvent(String category, Map<String, String> resourceLinks, String action) {
+		this.category = category;
+		this.resourceLinks = resourceLinks;
+		this.action = action;
+	}
+
+	public SyncEvent(String category, Map<String, String> resourceLinks, String action, int coalescedEvents) {
+		this(category, resourceLinks, action);
+		this.coalescedEvents = coalescedEvents;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public void setCategory(String category) {
+		this.category = category;
+	}
+
+	public Map<String, String> getResourceLinks() {
+		return resourceLinks;
+	}
+
+	public void setResourceLinks(Map<String, String> resourceLinks) {
+		this.resourceLinks = resourceLinks;
+	}
+
+	public String getAction() {
+		return action;
+	}
+
+	public void setAction(String action) {
+		this.action = action;
+	}
+
+	public int getCoalescedEvents() {
+		return coalescedEvents;
+	}
+
+	public void setCoalescedEvents(int coalescedEvents) {
+		this.coalescedEvents = coalescedEvents;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		SyncEvent that = (SyncEvent) o;
+		return Objects.equals(category, that.category) &&
+				Objects.equals(resourceLinks, that.resourceLinks) &&
+				Objects.equals(action, that.action) &&
+				coalescedEvents == that.coalescedEvents;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(category, resourceLinks, action, coalescedEvents);
+	}
+}
@@ -0,0 +1,121 @@
+package org.openmrs.module.sync2.api.model;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash tree of the object representation. Every field of the object and of its nested objects and arrays
+ * has its own node, and the hash of an object or an array is calculated from the names and the hashes
+ * of its children. Two representations can be compared by descending only into the subtrees whose hashes
+ * differ, so the changed fields are found without comparing the whole objects.
+ *
+ * The changed fields are identified by their paths in the dot notation, e.g. "person.names.0.givenName".
+ * The array elements are compared by their indexes.
+ */
+public class SyncHashTree {
+
+	private static final String PATH_SEPARATOR = ".";
+
+	private final byte[] hash;
+
+	private final Map<String, SyncHashTree> children;
+
+	private final boolean array;
+
+	/**
+	 * @param hash the hash of the node
+	 * @param children the children of the object or the array, null if the node is a value
+	 * @param array whether the node is an array, the children of the array are named by their indexes
+	 */
+	public SyncHashTree(byte[] hash, Map<String, SyncHashTree> children, boolean array) {
+		this.hash = hash;
+		this.children = children;
+		this.array = array;
+	}
+
+	public String getHash() {
+		return Hex.encodeHexString(hash);
+	}
+
+	public byte[] getHashBytes() {
+		return hash.clone();
+	}
+
+	public boolean isValue() {
+		return children == null;
+	}
+
+	public boolean isArray() {
+		return array;
+	}
+
+	/**
+	 * @return the children of the object or the array, empty if the node is a value
+	 */
+	public Map<String, SyncHashTree> getChildren() {
+		if (children == null) {
+			return Collections.emptyMap();
+		}
+		return Collections.unmodifiableMap(children);
+	}
+
+	/**
+	 * @param path the path of the field in the dot notation
+	 * @return the node of the field, null if the field doesn't exist
+	 */
+	public SyncHashTree getNode(String path) {
+		SyncHashTree node = this;
+		for (String name : path.split("\\.")) {
+			node = node.children != null ? node.children.get(name) : null;
+			if (node == null) {
+				return null;
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Finds the fields which differ between the trees. A field is reported as a whole if it was added,
+	 * removed or changed its type, otherwise only its changed nested fields are reported.
+	 *
+	 * @return the paths of the changed fields, empty if the trees are equal
+	 */
+	public List<String> diff(SyncHashTree other) {
+		List<String> result = new ArrayList<>();
+		diff(this, other, null, result);
+		return result;
+	}
+
+	public boolean isEqual(SyncHashTree other) {
+		return other != null && Arrays.equals(hash, other.hash);
+	}
+
+	private static void diff(SyncHashTree tree, SyncHashTree other, String path, List<String> result) {
+		if (tree.isEqual(other)) {
+			return;
+		}
+		if (tree.isValue() || other.isValue() || tree.array != other.array) {
+			result.add(path != null ? path : "");
+			return;
+		}
+		for (Map.Entry<String, SyncHashTree> child : tree.children.entrySet()) {
+			String childPath = path != null ? path + PATH_SEPARATOR + child.getKey() : child.getKey();
+			SyncHashTree otherChild = other.children.get(child.getKey());
+			if (otherChild == null) {
+				result.add(childPath);
+			} else {
+				diff(child.getValue(), otherChild, childPath, result);
+			}
+		}
+		for (String name : other.children.keySet()) {
+			if (!tree.children.containsKey(name)) {
+				result.add(path != null ? path + PATH_SEPARATOR + name : name);
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package org.openmrs.module.sync2.api.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Lease of a category feed shared by the nodes of the cluster. The feed is processed only by the node which owns
+ * the lease, the lease which isn't renewed before it expires can be taken over by another node.
+ */
+public class SyncLease implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Integer id;
+
+	private String operation;
+
+	private String category;
+
+	private String owner;
+
+	private Date heartbeatAt;
+
+	private Date expiresAt;
+
+	public SyncLease() {}
+
+	public SyncLease(String operation, String category) {
+		this.operation = operation;
+		this.category = category;
+		this.expiresAt = new Date(0L);
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public void setOperation(String operation) {
+		this.operation = operation;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public void setCategory(String category) {
+		this.category = category;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	public Date getHeartbeatAt() {
+		return heartbeatAt;
+	}
+
+	public void setHeartbeatAt(Date heartbeatAt) {
+		this.heartbeatAt = heartbeatAt;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		SyncLease that = (SyncLease) o;
+		return Objects.equals(id, that.id) &&
+				Objects.equals(operation, that.operation) &&
+				Objects.equals(category, that.category);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, operation, category);
+	}
+}
@@ -1,10 +1,15 @@
 package org.openmrs.module.sync2.api.model;
 
+import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
 import org.openmrs.module.webservices.rest.SimpleObject;
 
 import java.io.Serializable;
 import java.util.Objects;
 
+/**
+ * The synchronized object together with its unified representation. The hashcode and the hash tree
+ * of the representation are calculated once and cached until the representation or the object is replaced.
+ */
 public class SyncObject implements Serializable {
 
 	private static final long serialVersionUID = 1176269076155338012L;
@@ -13,6 +18,10 @@ public class SyncObject implements Serializable {
 
 	private SimpleObject simpleObject;
 
+	private transient String hashcode;
+
+	private transient SyncHashTree hashTree;
+
 	public SyncObject() { }
 
 	public SyncObject(Object baseObject) {
@@ -28,7 +37,16 @@ public class SyncObject implements Serializable {
 		return baseObject;
 	}
 
+	/**
+	 * Replaces the object. If it is a different object, the representation of the previous object
+	 * is dropped together with its hashcode.
+	 */
 	public void setBaseObject(Object baseObject) {
+		if (this.baseObject != baseObject) {
+			this.simpleObject = null;
+			this.hashcode = null;
+			this.hashTree = null;
+		}
 		this.baseObject = baseObject;
 	}
 
@@ -38,6 +56,28 @@ public class SyncObject implements Serializable {
 
 	public void setSimpleObject(SimpleObject simpleObject) {
 		this.simpleObject = simpleObject;
+		this.hashcode = null;
+		this.hashTree = null;
+	}
+
+	/**
+	 * @return the current version hashcode of the representation, null if there is no representation
+	 */
+	public String getHashcode() {
+		if (hashcode == null && simpleObject != null) {
+			hashcode = SyncHashcodeUtils.getHashcode(simpleObject);
+		}
+		return hashcode;
+	}
+
+	/**
+	 * @return the hash tree of the fields of the representation, null if there is no representation
+	 */
+	public SyncHashTree getHashTree() {
+		if (hashTree == null && simpleObject != null) {
+			hashTree = SyncHashcodeUtils.getHashTree(simpleObject);
+		}
+		return hashTree;
 	}
 
 	@Override
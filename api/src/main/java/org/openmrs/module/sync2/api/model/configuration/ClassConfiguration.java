@@ -1,6 +1,7 @@
 package org.openmrs.module.sync2.api.model.configuration;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Objects;
 
 public class ClassConfiguration implements Serializable {
@@ -17,6 +18,22 @@ public class ClassConfiguration implements Serializable {
 
     private String preferredClient;
 
+    /**
+     * Categories which have to be synchronized before this category
+     */
+    private List<String> dependsOn;
+
+    /**
+     * Interval (in seconds) of reading the category feed, if not set the schedule of the method is used.
+     * With the adaptive schedule it is the longest interval
+     */
+    private Integer schedule;
+
+    /**
+     * If true, the category is pushed shortly after its objects are changed, see RealTimePushQueue
+     */
+    private Boolean realTime;
+
     public ClassConfiguration() { }
 
     public ClassConfiguration(String classTitle, String category, String openMrsClass, boolean enabled) {
@@ -75,6 +92,30 @@ public class ClassConfiguration implements Serializable {
         this.preferredClient = preferredClient;
     }
 
+    public List<String> getDependsOn() {
+        return dependsOn;
+    }
+
+    public void setDependsOn(List<String> dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+
+    public Integer getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(Integer schedule) {
+        this.schedule = schedule;
+    }
+
+    public Boolean getRealTime() {
+        return realTime;
+    }
+
+    public void setRealTime(Boolean realTime) {
+        this.realTime = realTime;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -88,11 +129,15 @@ public class ClassConfiguration implements Serializable {
                 && Objects.equals(classTitle, that.classTitle)
                 && Objects.equals(category, that.category)
                 && Objects.equals(openMrsClass, that.openMrsClass)
-                && Objects.equals(preferredClient, that.preferredClient);
+                && Objects.equals(preferredClient, that.preferredClient)
+                && Objects.equals(dependsOn, that.dependsOn)
+                && Objects.equals(schedule, that.schedule)
+                && Objects.equals(realTime, that.realTime);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(classTitle, category, openMrsClass, enabled, preferredClient);
+        return Objects.hash(classTitle, category, openMrsClass, enabled, preferredClient, dependsOn, schedule,
+                realTime);
     }
 }
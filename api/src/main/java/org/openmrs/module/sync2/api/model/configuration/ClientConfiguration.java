@@ -13,6 +13,68 @@ public class ClientConfiguration implements Serializable {
 
 	private String password;
 
+	/**
+	 * Connection establishing timeout in milliseconds
+	 */
+	private Integer connectTimeout;
+
+	/**
+	 * Socket read timeout in milliseconds
+	 */
+	private Integer readTimeout;
+
+	/**
+	 * Maximum number of pooled connections kept per route
+	 */
+	private Integer maxConnectionsPerRoute;
+
+	/**
+	 * Time in seconds for which idle connections are kept alive, if the server doesn't specify it
+	 */
+	private Integer keepAlive;
+
+	/**
+	 * Whether the messages exchanged with the server should be compressed with gzip, enabled by default
+	 */
+	private Boolean compressionEnabled;
+
+	/**
+	 * Minimum size in bytes of the request body which is compressed
+	 */
+	private Integer compressionThreshold;
+
+	/**
+	 * Number of consecutive failed requests after which the server is considered unavailable
+	 */
+	private Integer failureThreshold;
+
+	/**
+	 * Time in seconds during which the requests to an unavailable server are rejected without being sent
+	 */
+	private Integer circuitOpenTime;
+
+	/**
+	 * Maximum number of requests per second sent to the parent server, not limited if not set
+	 */
+	private Integer requestRate;
+
+	/**
+	 * Number of requests which can be sent to the parent server at once after a quiet period,
+	 * equal to the request rate if not set
+	 */
+	private Integer requestBurst;
+
+	/**
+	 * Maximum number of requests per second of a single category sent to the parent server, not limited if not set
+	 */
+	private Integer categoryRequestRate;
+
+	/**
+	 * Number of requests of a single category which can be sent to the parent server at once after a quiet period,
+	 * equal to the category request rate if not set
+	 */
+	private Integer categoryRequestBurst;
+
 	public ClientConfiguration() { }
 
 	public ClientConfiguration(String hostAddress, String login, String password) {
@@ -45,6 +107,102 @@ public class ClientConfiguration implements Serializable {
 		this.password = password;
 	}
 
+	public Integer getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public void setConnectTimeout(Integer connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	public Integer getReadTimeout() {
+		return readTimeout;
+	}
+
+	public void setReadTimeout(Integer readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	public Integer getMaxConnectionsPerRoute() {
+		return maxConnectionsPerRoute;
+	}
+
+	public void setMaxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+	}
+
+	public Integer getKeepAlive() {
+		return keepAlive;
+	}
+
+	public void setKeepAlive(Integer keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	public Boolean getCompressionEnabled() {
+		return compressionEnabled;
+	}
+
+	public void setCompressionEnabled(Boolean compressionEnabled) {
+		this.compressionEnabled = compressionEnabled;
+	}
+
+	public Integer getCompressionThreshold() {
+		return compressionThreshold;
+	}
+
+	public void setCompressionThreshold(Integer compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	public Integer getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public void setFailureThreshold(Integer failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	public Integer getCircuitOpenTime() {
+		return circuitOpenTime;
+	}
+
+	public void setCircuitOpenTime(Integer circuitOpenTime) {
+		this.circuitOpenTime = circuitOpenTime;
+	}
+
+	public Integer getRequestRate() {
+		return requestRate;
+	}
+
+	public void setRequestRate(Integer requestRate) {
+		this.requestRate = requestRate;
+	}
+
+	public Integer getRequestBurst() {
+		return requestBurst;
+	}
+
+	public void setRequestBurst(Integer requestBurst) {
+		this.requestBurst = requestBurst;
+	}
+
+	public Integer getCategoryRequestRate() {
+		return categoryRequestRate;
+	}
+
+	public void setCategoryRequestRate(Integer categoryRequestRate) {
+		this.categoryRequestRate = categoryRequestRate;
+	}
+
+	public Integer getCategoryRequestBurst() {
+		return categoryRequestBurst;
+	}
+
+	public void setCategoryRequestBurst(Integer categoryRequestBurst) {
+		this.categoryRequestBurst = categoryRequestBurst;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
@@ -54,11 +212,25 @@ public class ClientConfiguration implements Serializable {
 		ClientConfiguration that = (ClientConfiguration) o;
 		return Objects.equals(hostAddress, that.hostAddress) &&
 				Objects.equals(login, that.login) &&
-				Objects.equals(password, that.password);
+				Objects.equals(password, that.password) &&
+				Objects.equals(connectTimeout, that.connectTimeout) &&
+				Objects.equals(readTimeout, that.readTimeout) &&
+				Objects.equals(maxConnectionsPerRoute, that.maxConnectionsPerRoute) &&
+				Objects.equals(keepAlive, that.keepAlive) &&
+				Objects.equals(compressionEnabled, that.compressionEnabled) &&
+				Objects.equals(compressionThreshold, that.compressionThreshold) &&
+				Objects.equals(failureThreshold, that.failureThreshold) &&
+				Objects.equals(circuitOpenTime, that.circuitOpenTime) &&
+				Objects.equals(requestRate, that.requestRate) &&
+				Objects.equals(requestBurst, that.requestBurst) &&
+				Objects.equals(categoryRequestRate, that.categoryRequestRate) &&
+				Objects.equals(categoryRequestBurst, that.categoryRequestBurst);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(hostAddress, login, password);
+		return Objects.hash(hostAddress, login, password, connectTimeout, readTimeout, maxConnectionsPerRoute,
+				keepAlive, compressionEnabled, compressionThreshold, failureThreshold, circuitOpenTime, requestRate,
+				requestBurst, categoryRequestRate, categoryRequestBurst);
 	}
 }
@@ -20,6 +20,22 @@ public class GeneralConfiguration implements Serializable {
 
     private LinkedHashMap<String, ClientConfiguration> clients;
 
+    /**
+     * Number of threads sending the asynchronous requests to the sync instances
+     */
+    private Integer ioThreads;
+
+    /**
+     * Number of the asynchronous requests waiting for a free thread, when the queue is full
+     * the requests are sent by the threads which made them
+     */
+    private Integer ioQueueSize;
+
+    /**
+     * Number of threads prefetching the objects of the feed events read ahead
+     */
+    private Integer prefetchThreads;
+
     public GeneralConfiguration() {
         clients = new LinkedHashMap<>();
     }
@@ -83,6 +99,30 @@ public class GeneralConfiguration implements Serializable {
         this.clients = clients;
     }
 
+    public Integer getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(Integer ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public Integer getIoQueueSize() {
+        return ioQueueSize;
+    }
+
+    public void setIoQueueSize(Integer ioQueueSize) {
+        this.ioQueueSize = ioQueueSize;
+    }
+
+    public Integer getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    public void setPrefetchThreads(Integer prefetchThreads) {
+        this.prefetchThreads = prefetchThreads;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -97,12 +137,15 @@ public class GeneralConfiguration implements Serializable {
                 && Objects.equals(localInstanceId, that.localInstanceId)
                 && Objects.equals(persistSuccessAudit, that.persistSuccessAudit)
                 && Objects.equals(persistFailureAudit, that.persistFailureAudit)
-                && Objects.deepEquals(clients, that.clients);
+                && Objects.deepEquals(clients, that.clients)
+                && Objects.equals(ioThreads, that.ioThreads)
+                && Objects.equals(ioQueueSize, that.ioQueueSize)
+                && Objects.equals(prefetchThreads, that.prefetchThreads);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(parentFeedLocation, localFeedLocation, localInstanceId,
-                persistSuccessAudit, persistFailureAudit, clients);
+                persistSuccessAudit, persistFailureAudit, clients, ioThreads, ioQueueSize, prefetchThreads);
     }
 }
@@ -15,6 +15,82 @@ public class SyncMethodConfiguration implements Serializable {
 
     private List<ClassConfiguration> classes;
 
+    /**
+     * Maximum number of operations sent to the other instance in a single batch request
+     */
+    private Integer batchSize;
+
+    /**
+     * Maximum number of category feeds processed at the same time
+     */
+    private Integer maxConcurrentCategories;
+
+    /**
+     * Number of lanes processing the events of a single category feed in parallel,
+     * the events of the same object are always processed by the same lane
+     */
+    private Integer eventLanes;
+
+    /**
+     * Number of feed events read before the events of the same object are coalesced and synchronized,
+     * the value 1 disables the coalescing
+     */
+    private Integer coalescingWindow;
+
+    /**
+     * Number of feed events read ahead of the synchronized event, their objects are prefetched
+     * while the current event is synchronized. The value 0 disables the prefetching
+     */
+    private Integer prefetchDepth;
+
+    /**
+     * Limit of the size (in bytes) of the prefetched objects kept in the memory, the size of the object
+     * is estimated as two bytes per character of its response body
+     */
+    private Integer prefetchMaxBytes;
+
+    /**
+     * If true, the feeds which have events are read every minSchedule seconds, and the reading
+     * of the empty feeds backs off exponentially up to their schedule
+     */
+    private Boolean adaptiveSchedule;
+
+    /**
+     * The shortest interval (in seconds) of reading the feeds with the adaptive schedule
+     */
+    private Integer minSchedule;
+
+    /**
+     * Quiet period (in milliseconds) of the real-time push, every change postpones the push until there are
+     * no changes for this long, so the changes made in quick succession are pushed together
+     */
+    private Integer realTimeDebounce;
+
+    /**
+     * The longest time (in milliseconds) the real-time push is postponed by the constantly changed category
+     */
+    private Integer realTimeMaxWait;
+
+    /**
+     * The maximal number of the scheduled real-time pushes
+     */
+    private Integer realTimeQueueSize;
+
+    /**
+     * The maximal random delay (in seconds) of the first scheduled run, which spreads the runs of the children
+     */
+    private Integer startJitter;
+
+    /**
+     * The maximal duration (in seconds) of a single run, the remaining events are processed by the next run
+     */
+    private Integer maxRunTime;
+
+    /**
+     * The maximal number of the events processed by a single run
+     */
+    private Integer maxRunEvents;
+
     public SyncMethodConfiguration() {
         classes = new ArrayList<ClassConfiguration>();
     }
@@ -49,6 +125,118 @@ public class SyncMethodConfiguration implements Serializable {
         this.classes = classes;
     }
 
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Integer getMaxConcurrentCategories() {
+        return maxConcurrentCategories;
+    }
+
+    public void setMaxConcurrentCategories(Integer maxConcurrentCategories) {
+        this.maxConcurrentCategories = maxConcurrentCategories;
+    }
+
+    public Integer getEventLanes() {
+        return eventLanes;
+    }
+
+    public void setEventLanes(Integer eventLanes) {
+        this.eventLanes = eventLanes;
+    }
+
+    public Integer getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
+    public void setCoalescingWindow(Integer coalescingWindow) {
+        this.coalescingWindow = coalescingWindow;
+    }
+
+    public Integer getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public void setPrefetchDepth(Integer prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    public Integer getPrefetchMaxBytes() {
+        return prefetchMaxBytes;
+    }
+
+    public void setPrefetchMaxBytes(Integer prefetchMaxBytes) {
+        this.prefetchMaxBytes = prefetchMaxBytes;
+    }
+
+    public Boolean getAdaptiveSchedule() {
+        return adaptiveSchedule;
+    }
+
+    public void setAdaptiveSchedule(Boolean adaptiveSchedule) {
+        this.adaptiveSchedule = adaptiveSchedule;
+    }
+
+    public Integer getMinSchedule() {
+        return minSchedule;
+    }
+
+    public void setMinSchedule(Integer minSchedule) {
+        this.minSchedule = minSchedule;
+    }
+
+    public Integer getRealTimeDebounce() {
+        return realTimeDebounce;
+    }
+
+    public void setRealTimeDebounce(Integer realTimeDebounce) {
+        this.realTimeDebounce = realTimeDebounce;
+    }
+
+    public Integer getRealTimeMaxWait() {
+        return realTimeMaxWait;
+    }
+
+    public void setRealTimeMaxWait(Integer realTimeMaxWait) {
+        this.realTimeMaxWait = realTimeMaxWait;
+    }
+
+    public Integer getRealTimeQueueSize() {
+        return realTimeQueueSize;
+    }
+
+    public void setRealTimeQueueSize(Integer realTimeQueueSize) {
+        this.realTimeQueueSize = realTimeQueueSize;
+    }
+
+    public Integer getStartJitter() {
+        return startJitter;
+    }
+
+    public void setStartJitter(Integer startJitter) {
+        this.startJitter = startJitter;
+    }
+
+    public Integer getMaxRunTime() {
+        return maxRunTime;
+    }
+
+    public void setMaxRunTime(Integer maxRunTime) {
+        this.maxRunTime = maxRunTime;
+    }
+
+    public Integer getMaxRunEvents() {
+        return maxRunEvents;
+    }
+
+    public void setMaxRunEvents(Integer maxRunEvents) {
+        this.maxRunEvents = maxRunEvents;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -60,11 +248,27 @@ public class SyncMethodConfiguration implements Serializable {
         SyncMethodConfiguration that = (SyncMethodConfiguration) o;
         return enabled == that.enabled
                 && Objects.equals(schedule, that.schedule)
-                && Objects.equals(classes, that.classes);
+                && Objects.equals(classes, that.classes)
+                && Objects.equals(batchSize, that.batchSize)
+                && Objects.equals(maxConcurrentCategories, that.maxConcurrentCategories)
+                && Objects.equals(eventLanes, that.eventLanes)
+                && Objects.equals(coalescingWindow, that.coalescingWindow)
+                && Objects.equals(prefetchDepth, that.prefetchDepth)
+                && Objects.equals(prefetchMaxBytes, that.prefetchMaxBytes)
+                && Objects.equals(adaptiveSchedule, that.adaptiveSchedule)
+                && Objects.equals(minSchedule, that.minSchedule)
+                && Objects.equals(realTimeDebounce, that.realTimeDebounce)
+                && Objects.equals(realTimeMaxWait, that.realTimeMaxWait)
+                && Objects.equals(realTimeQueueSize, that.realTimeQueueSize)
+                && Objects.equals(startJitter, that.startJitter)
+                && Objects.equals(maxRunTime, that.maxRunTime)
+                && Objects.equals(maxRunEvents, that.maxRunEvents);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(enabled, schedule, classes);
+        return Objects.hash(enabled, schedule, classes, batchSize, maxConcurrentCategories, eventLanes,
+                coalescingWindow, prefetchDepth, prefetchMaxBytes, adaptiveSchedule, minSchedule,
+                realTimeDebounce, realTimeMaxWait, realTimeQueueSize, startJitter, maxRunTime, maxRunEvents);
     }
 }
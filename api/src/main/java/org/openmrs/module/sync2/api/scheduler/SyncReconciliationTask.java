@@ -0,0 +1,38 @@
+package org.openmrs.module.sync2.api.scheduler;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.api.service.SyncReconciliationService;
+import org.openmrs.scheduler.tasks.AbstractTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SyncReconciliationTask extends AbstractTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyncReconciliationTask.class);
+
+    private SyncReconciliationService syncReconciliationService;
+
+    /**
+     * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+     */
+    @Override
+    public void execute() {
+        syncReconciliationService = Context.getRegisteredComponent("sync2.syncReconciliationService",
+                SyncReconciliationService.class);
+
+        if (!isExecuting) {
+            LOGGER.info("Starting Sync 2.0 Reconciliation Task...");
+
+            startExecuting();
+            try {
+                syncReconciliationService.reconcileCategories();
+            }
+            catch (Exception e) {
+                LOGGER.error("Error while Sync 2.0 Reconciling with parent:", e);
+            }
+            finally {
+                stopExecuting();
+            }
+        }
+    }
+
+}
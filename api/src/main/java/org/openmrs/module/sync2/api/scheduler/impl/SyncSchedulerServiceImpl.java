@@ -1,10 +1,13 @@
 package org.openmrs.module.sync2.api.scheduler.impl;
 
+import org.apache.commons.lang.StringUtils;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.module.sync2.api.service.SyncConfigurationService;
 import org.openmrs.module.sync2.api.exceptions.SyncException;
 import org.openmrs.module.sync2.api.scheduler.SyncSchedulerService;
+import org.openmrs.module.sync2.api.utils.SyncConfigurationUtils;
+import org.openmrs.module.sync2.client.reader.RealTimePushQueue;
 import org.openmrs.scheduler.SchedulerException;
 import org.openmrs.scheduler.TaskDefinition;
 import org.slf4j.Logger;
@@ -13,6 +16,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_INTERVAL_PROPERTY;
 
 @Service("sync2.syncSchedulerServiceImpl")
 public class SyncSchedulerServiceImpl extends BaseOpenmrsService implements SyncSchedulerService {
@@ -20,16 +27,23 @@ public class SyncSchedulerServiceImpl extends BaseOpenmrsService implements Sync
 
     private static final String PULL_TASK_NAME = "Sync 2.0 Pull";
     private static final String PUSH_TASK_NAME = "Sync 2.0 Push";
+    private static final String RECONCILIATION_TASK_NAME = "Sync 2.0 Reconciliation";
 
     private static final String PULL_TASK_CLASS = "org.openmrs.module.sync2.api.scheduler.SyncPullTask";
     private static final String PUSH_TASK_CLASS = "org.openmrs.module.sync2.api.scheduler.SyncPushTask";
+    private static final String RECONCILIATION_TASK_CLASS =
+            "org.openmrs.module.sync2.api.scheduler.SyncReconciliationTask";
 
     private static final String PULL_TASK_DESCRIPTION = "Task for Sync 2.0 pulling data from parent instance.";
     private static final String PUSH_TASK_DESCRIPTION = "Task for Sync 2.0 pushing data to the parent instance.";
+    private static final String RECONCILIATION_TASK_DESCRIPTION =
+            "Task for Sync 2.0 comparing the pulled data with the parent instance.";
 
     @Autowired
     private SyncConfigurationService syncConfigurationService;
 
+    @Autowired
+    private RealTimePushQueue realTimePushQueue;
 
     public void runSyncScheduler() {
         if (isPullEnabled()) {
@@ -38,21 +52,31 @@ public class SyncSchedulerServiceImpl extends BaseOpenmrsService implements Sync
             stopSyncTask(PULL_TASK_NAME);
         }
 
+        if (isPullEnabled() && getReconciliationIntervalInSeconds() > 0) {
+            scheduleReconciliationTask();
+        } else {
+            stopSyncTask(RECONCILIATION_TASK_NAME);
+        }
+
         if (isPushEnabled()) {
             schedulePushTask();
         } else {
             stopSyncTask(PUSH_TASK_NAME);
         }
+        realTimePushQueue.start(syncConfigurationService.getSyncConfiguration().getPush());
     }
 
     public void shutdownSyncScheduler() {
         stopSyncTask(PULL_TASK_NAME);
         stopSyncTask(PUSH_TASK_NAME);
+        stopSyncTask(RECONCILIATION_TASK_NAME);
+        realTimePushQueue.stop();
     }
 
     private void schedulePullTask() {
         TaskDefinition pullTask = createTask(PULL_TASK_NAME, PULL_TASK_DESCRIPTION, PULL_TASK_CLASS,
-                Long.valueOf(getPullIntervalInSeconds()));
+                Long.valueOf(getPullIntervalInSeconds()),
+                syncConfigurationService.getSyncConfiguration().getPull().getStartJitter());
 
         try {
             if (!Context.getSchedulerService().getScheduledTasks().contains(pullTask)) {
@@ -67,7 +91,8 @@ public class SyncSchedulerServiceImpl extends BaseOpenmrsService implements Sync
 
     private TaskDefinition schedulePushTask() {
         TaskDefinition pushTask = createTask(PUSH_TASK_NAME, PUSH_TASK_DESCRIPTION, PUSH_TASK_CLASS,
-                Long.valueOf(getPushIntervalInSeconds()));
+                Long.valueOf(getPushIntervalInSeconds()),
+                syncConfigurationService.getSyncConfiguration().getPush().getStartJitter());
 
         try {
             if (!Context.getSchedulerService().getScheduledTasks().contains(pushTask)) {
@@ -82,6 +107,22 @@ public class SyncSchedulerServiceImpl extends BaseOpenmrsService implements Sync
         }
     }
 
+    private void scheduleReconciliationTask() {
+        TaskDefinition reconciliationTask = createTask(RECONCILIATION_TASK_NAME, RECONCILIATION_TASK_DESCRIPTION,
+                RECONCILIATION_TASK_CLASS, Long.valueOf(getReconciliationIntervalInSeconds()),
+                syncConfigurationService.getSyncConfiguration().getPull().getStartJitter());
+
+        try {
+            if (!Context.getSchedulerService().getScheduledTasks().contains(reconciliationTask)) {
+                Context.getSchedulerService().scheduleTask(reconciliationTask);
+            } else {
+                Context.getSchedulerService().rescheduleTask(reconciliationTask);
+            }
+        } catch(SchedulerException e) {
+            LOGGER.error("Error during starting Sync 2.0 Reconciliation task:", e);
+        }
+    }
+
     private boolean isPullEnabled() {
         return syncConfigurationService.getSyncConfiguration().getPull().isEnabled();
     }
@@ -90,15 +131,31 @@ public class SyncSchedulerServiceImpl extends BaseOpenmrsService implements Sync
         return syncConfigurationService.getSyncConfiguration().getPush().isEnabled();
     }
 
+    /**
+     * The task only starts the category feeds which are due, so it runs as often as the most frequent category.
+     */
     private Integer getPullIntervalInSeconds() {
-        return syncConfigurationService.getSyncConfiguration().getPull().getSchedule();
+        return SyncConfigurationUtils.getSchedulerInterval(syncConfigurationService.getSyncConfiguration().getPull());
+    }
+
+    /**
+     * The reconciliation is disabled if the interval isn't positive.
+     */
+    private int getReconciliationIntervalInSeconds() {
+        String value = Context.getAdministrationService().getGlobalProperty(RECONCILIATION_INTERVAL_PROPERTY);
+        return StringUtils.isNumeric(value) && StringUtils.isNotEmpty(value) ? Integer.parseInt(value) : 0;
     }
 
     private Integer getPushIntervalInSeconds() {
-        return syncConfigurationService.getSyncConfiguration().getPush().getSchedule();
+        return SyncConfigurationUtils.getSchedulerInterval(syncConfigurationService.getSyncConfiguration().getPush());
     }
 
-    private TaskDefinition createTask(String taskName, String taskDescription, String taskClass, Long interval) {
+    /**
+     * @param startJitter the maximal random delay (in seconds) of the first run, so the children which are started
+     * at the same time don't synchronize with the parent at the same moment
+     */
+    private TaskDefinition createTask(String taskName, String taskDescription, String taskClass, Long interval,
+            Integer startJitter) {
         TaskDefinition result = Context.getSchedulerService().getTaskByName(taskName);
 
         if (result == null) {
@@ -109,7 +166,9 @@ public class SyncSchedulerServiceImpl extends BaseOpenmrsService implements Sync
         result.setDescription(taskDescription);
         result.setTaskClass(taskClass);
         result.setRepeatInterval(interval);
-        result.setStartTime(new Timestamp(System.currentTimeMillis()));
+        long delay = startJitter != null && startJitter > 0
+                ? ThreadLocalRandom.current().nextLong(TimeUnit.SECONDS.toMillis(startJitter)) : 0L;
+        result.setStartTime(new Timestamp(System.currentTimeMillis() + delay));
         result.setStartOnStartup(true);
 
         try {
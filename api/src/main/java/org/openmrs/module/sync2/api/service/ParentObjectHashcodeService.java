@@ -4,6 +4,10 @@ import org.openmrs.api.OpenmrsService;
 import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public interface ParentObjectHashcodeService extends OpenmrsService {
 
 	@Transactional
@@ -15,6 +19,14 @@ public interface ParentObjectHashcodeService extends OpenmrsService {
 	@Transactional
 	ParentObjectHashcode getByObjectUuid(String objectUuid);
 
+	/**
+	 * Reads the hashcodes of many objects at once.
+	 *
+	 * @return the hashcodes of the objects, the objects without the hashcodes are omitted
+	 */
+	@Transactional(readOnly = true)
+	List<ParentObjectHashcode> getByObjectUuids(Collection<String> objectUuids);
+
 	@Transactional
 	ParentObjectHashcode save(ParentObjectHashcode parentObjectHashcode);
 
@@ -23,4 +35,13 @@ public interface ParentObjectHashcodeService extends OpenmrsService {
 
 	@Transactional
 	void delete(ParentObjectHashcode parentObjectHashcode, String reason);
+
+	/**
+	 * Reads the next page of the stored hashcodes of the parent objects of the class which exist locally.
+	 *
+	 * @param afterUuid the last object uuid of the previous page, or null for the first page
+	 * @return the hashcodes mapped by the object uuids, in the order of the uuids
+	 */
+	@Transactional(readOnly = true)
+	Map<String, String> getHashcodesOfClass(Class<?> clazz, String afterUuid, int maxResults);
 }
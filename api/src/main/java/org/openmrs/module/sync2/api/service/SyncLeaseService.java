@@ -0,0 +1,27 @@
+package org.openmrs.module.sync2.api.service;
+
+import org.openmrs.api.OpenmrsService;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface SyncLeaseService extends OpenmrsService {
+
+	/**
+	 * Takes the lease of the category feed, unless it is owned by another node and hasn't expired yet.
+	 *
+	 * @param leaseTime the time in seconds after which the lease expires, unless it is renewed
+	 * @return true if the lease was taken
+	 */
+	@Transactional
+	boolean acquire(String operation, String category, String owner, int leaseTime);
+
+	/**
+	 * Extends the lease of the category feed, unless it was taken by another node.
+	 *
+	 * @return true if the lease was renewed
+	 */
+	@Transactional
+	boolean renew(String operation, String category, String owner, int leaseTime);
+
+	@Transactional
+	void release(String operation, String category, String owner);
+}
@@ -1,5 +1,6 @@
 package org.openmrs.module.sync2.api.service;
 
+import org.openmrs.module.sync2.api.model.SyncEvent;
 import org.openmrs.module.sync2.api.model.audit.AuditMessage;
 
 import java.util.List;
@@ -13,7 +14,21 @@ public interface SyncPullService {
     AuditMessage pullAndSaveObjectFromParent(String category, Map<String, String> resourceLinks,
             String action, String clientName, String uuid);
 
+    /**
+     * Pulls the object of the given event. The audit message notes the number of the feed events
+     * coalesced into the event.
+     */
+    AuditMessage pullAndSaveObjectFromParent(SyncEvent event);
+
     List<AuditMessage> pullAndSaveObjectFromParent(String category, String uuid);
 
+    /**
+     * Pulls the objects of the given events from the parent. The objects which were never synchronized
+     * are read in batches, the other objects are read only if they changed since their last synchronization.
+     *
+     * @return the audit message of every event, in the order of the events
+     */
+    List<AuditMessage> pullAndSaveObjectsFromParent(List<SyncEvent> events);
+
     void pullAndSaveObjectsFromParent(String category);
 }
@@ -1,5 +1,6 @@
 package org.openmrs.module.sync2.api.service;
 
+import org.openmrs.module.sync2.api.model.SyncEvent;
 import org.openmrs.module.sync2.api.model.audit.AuditMessage;
 
 import java.util.List;
@@ -12,8 +13,22 @@ public interface SyncPushService {
     AuditMessage readAndPushObjectToParent(String category, Map<String, String> resourceLinks, String action,
                                          String clientName, String uuid);
 
+    /**
+     * Pushes the object of the given event. The audit message notes the number of the feed events
+     * coalesced into the event.
+     */
+    AuditMessage readAndPushObjectToParent(SyncEvent event);
+
     List<AuditMessage> readAndPushObjectToParent(String category, String uuid);
 
+    /**
+     * Pushes the objects of the given events to the parent. The objects which should be synchronized are sent
+     * in batches, and the parent applies them in the order of the events.
+     *
+     * @return the audit message of every event, in the order of the events
+     */
+    List<AuditMessage> readAndPushObjectsToParent(List<SyncEvent> events);
+
     void readAndPushObjectsToParent(String category);
 
     AuditMessage mergeForcePush(Object merged, String category, Map<String, String> resourceLinks,
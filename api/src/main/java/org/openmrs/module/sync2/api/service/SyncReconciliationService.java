@@ -0,0 +1,36 @@
+package org.openmrs.module.sync2.api.service;
+
+import org.openmrs.module.sync2.api.model.RangeDigest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Anti-entropy reconciliation of the pulled categories. The child compares the digests of the ranges
+ * of the {@link org.openmrs.module.sync2.api.sync.HashcodeRangeIndex} built from the stored hashcodes
+ * of the parent objects with the digests of the same ranges of the parent. The ranges which differ are split
+ * until the objects which differ are found, and only these objects are pulled again.
+ */
+public interface SyncReconciliationService {
+
+	/**
+	 * Calculates the digests of the ranges of the local objects of the category. It is used by the parent.
+	 *
+	 * @return the digests in the order of the ranges, or null if the objects of the category are still being read
+	 */
+	List<RangeDigest> getRangeDigests(String category, List<RangeDigest> ranges);
+
+	/**
+	 * Reads the hashcodes of the local objects of the category in the ranges. It is used by the parent.
+	 *
+	 * @return the hashcodes mapped by the object uuids, or null if the objects of the category are still being read
+	 */
+	Map<String, String> getRangeHashcodes(String category, List<RangeDigest> ranges);
+
+	/**
+	 * Continues the reconciliation of the enabled pulled categories with the parent. The number of the requests
+	 * sent to the parent by a single run is limited, the reconciliation which isn't completed is continued
+	 * by the next run.
+	 */
+	void reconcileCategories();
+}
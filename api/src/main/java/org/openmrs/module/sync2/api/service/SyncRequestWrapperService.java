@@ -11,5 +11,10 @@ public interface SyncRequestWrapperService {
 
     ResponseEntity<String> deleteObject(RequestWrapper wrapper);
 
+    /**
+     * Dispatches the wrapped request to the proper operation basing on its HTTP method
+     */
+    ResponseEntity<String> resolveRequest(RequestWrapper wrapper);
+
     boolean isRequestAuthenticated(RequestWrapper requestWrapper);
 }
@@ -1,6 +1,5 @@
 package org.openmrs.module.sync2.api.service.impl;
 
-import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.openmrs.BaseOpenmrsData;
 import org.openmrs.module.atomfeed.api.model.FeedConfiguration;
@@ -10,6 +9,7 @@ import org.openmrs.module.fhir.api.merge.MergeResult;
 import org.openmrs.module.fhir.api.merge.MergeSuccess;
 import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.sync2.api.conflict.ConflictDetection;
+import org.openmrs.module.sync2.api.exceptions.CircuitOpenException;
 import org.openmrs.module.sync2.api.exceptions.MergeConflictException;
 import org.openmrs.module.sync2.api.mapper.MergeConflictMapper;
 import org.openmrs.module.sync2.api.model.SyncObject;
@@ -18,6 +18,7 @@ import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
 import org.openmrs.module.sync2.api.model.enums.SyncOperation;
 import org.openmrs.module.sync2.api.service.MergeConflictService;
 import org.openmrs.module.sync2.api.sync.SyncClient;
+import org.openmrs.module.sync2.api.sync.SyncClientExecutor;
 import org.openmrs.module.sync2.api.utils.SyncConfigurationUtils;
 import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
 import org.openmrs.module.sync2.api.utils.SyncUtils;
@@ -29,6 +30,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.openmrs.module.sync2.SyncConstants.ACTION_CREATED;
 import static org.openmrs.module.sync2.SyncConstants.ACTION_DELETED;
@@ -36,6 +38,7 @@ import static org.openmrs.module.sync2.SyncConstants.ACTION_RETIRED;
 import static org.openmrs.module.sync2.SyncConstants.ACTION_UPDATED;
 import static org.openmrs.module.sync2.SyncConstants.ACTION_VOIDED;
 import static org.openmrs.module.sync2.SyncConstants.AUDIT_MESSAGE_UUID_FIELD_NAME;
+import static org.openmrs.module.sync2.SyncConstants.COALESCED_EVENTS_MESSAGE;
 import static org.openmrs.module.sync2.SyncConstants.REST_CLIENT;
 import static org.openmrs.module.sync2.SyncConstants.SUCCESS_MESSAGE;
 import static org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance.CHILD;
@@ -88,9 +91,25 @@ public abstract class AbstractSynchronizationService {
     }
 
     protected AuditMessage failedMessage(AuditMessage base, Throwable e) {
-        getLogger().error(getFailedSynchronizationMessage(), e);
         base.setSuccess(false);
-        base.setDetails(ExceptionUtils.getFullStackTrace(e));
+        if (e instanceof CircuitOpenException) {
+            getLogger().warn("{}: {}", getFailedSynchronizationMessage(), e.getMessage());
+            base.setDetails(e.getMessage());
+        } else {
+            getLogger().error(getFailedSynchronizationMessage(), e);
+            base.setDetails(ExceptionUtils.getFullStackTrace(e));
+        }
+        return base;
+    }
+
+    /**
+     * Notes in the details of the audit message how many feed events of the object were coalesced
+     * into the single synchronization.
+     */
+    protected AuditMessage noteCoalescedEvents(AuditMessage base, int coalescedEvents) {
+        if (coalescedEvents > 1) {
+            base.setDetails(String.format(COALESCED_EVENTS_MESSAGE, base.getDetails(), coalescedEvents));
+        }
         return base;
     }
 
@@ -129,16 +148,26 @@ public abstract class AbstractSynchronizationService {
     }
 
     protected boolean shouldSynchronize(SimpleObject oldObject, SimpleObject newObject) {
-        String localHashCode = SyncHashcodeUtils.getHashcode(oldObject);
-        String pulledHashCode = SyncHashcodeUtils.getHashcode(newObject);
-        return oldObject == null || newObject == null || (StringUtils.isNotBlank(localHashCode) && StringUtils.isNotBlank(pulledHashCode)
-            && !localHashCode.equalsIgnoreCase(pulledHashCode));
+        return shouldSynchronize(new SyncObject(null, oldObject), new SyncObject(null, newObject));
+    }
+
+    /**
+     * Compares the cached hashcodes of the objects, so they are reused by the conflict detection.
+     */
+    protected boolean shouldSynchronize(SyncObject oldObject, SyncObject newObject) {
+        String localHashCode = oldObject.getHashcode();
+        String pulledHashCode = newObject.getHashcode();
+        return localHashCode == null || pulledHashCode == null || !localHashCode.equalsIgnoreCase(pulledHashCode);
     }
 
     protected SyncObject detectAndResolveConflict(SyncObject oldObject, SyncObject newObject, AuditMessage auditMessage)
             throws MergeConflictException {
-        boolean conflict = conflictDetection.detectConflict(oldObject.getSimpleObject(), newObject.getSimpleObject());
+        boolean conflict = conflictDetection.detectConflict(oldObject, newObject);
         if (conflict) {
+            if (getLogger().isDebugEnabled()) {
+                getLogger().debug(String.format("Conflicting fields of the object: %s",
+                        SyncHashcodeUtils.getChangedFields(oldObject, newObject)));
+            }
             MergeResult result = SyncUtils.getMergeBehaviour().resolveDiff(SyncObject.class, oldObject, newObject);
             if (result instanceof MergeSuccess) {
                 oldObject.setBaseObject(((MergeSuccess) result).getMerged());
@@ -196,10 +225,10 @@ public abstract class AbstractSynchronizationService {
         String localPullUrl = SyncUtils.getFullUrl(SyncUtils.getLocalBaseUrl(), restUrl);
         String parentPullUrl = SyncUtils.getFullUrl(SyncUtils.getParentBaseUrl(SyncConstants.REST_CLIENT), restUrl);
 
-        Object localObj = syncClient.pullData(category, SyncConstants.REST_CLIENT, localPullUrl, CHILD);
-        Object parentObj = syncClient.pullData(category, SyncConstants.REST_CLIENT, parentPullUrl, PARENT);
+        CompletableFuture<Object> localObj = syncClient.pullDataAsync(category, REST_CLIENT, localPullUrl, CHILD);
+        Object parentObj = syncClient.pullData(category, REST_CLIENT, parentPullUrl, PARENT);
 
-        return determineActionsBasingOnSyncType(localObj, parentObj);
+        return determineActionsBasingOnSyncType(SyncClientExecutor.join(localObj), parentObj);
     }
 
 }
@@ -8,7 +8,11 @@ import org.openmrs.module.sync2.api.service.ParentObjectHashcodeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 @Service("sync2.parentObjectHashcodeService")
 public class ParentObjectHashcodeServiceImpl extends BaseOpenmrsService implements ParentObjectHashcodeService {
@@ -31,11 +35,29 @@ public class ParentObjectHashcodeServiceImpl extends BaseOpenmrsService implemen
 		return parentObjectHashcodeDao.getByObjectUuid(objectUuid);
 	}
 
+	@Override
+	public List<ParentObjectHashcode> getByObjectUuids(Collection<String> objectUuids) {
+		if (objectUuids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return parentObjectHashcodeDao.getByObjectUuids(objectUuids);
+	}
+
+	/**
+	 * Updates the existing hashcode of the object, because the object uuids are unique. The voided hashcode
+	 * is restored.
+	 */
 	@Override
 	public ParentObjectHashcode save(ParentObjectHashcode newParentObjectHashcode) {
 		ParentObjectHashcode parentObjectHashcode = getByObjectUuid(newParentObjectHashcode.getObjectUuid());
 		if (parentObjectHashcode != null) {
 			parentObjectHashcode.setHashcode(newParentObjectHashcode.getHashcode());
+			if (Boolean.TRUE.equals(parentObjectHashcode.getVoided())) {
+				parentObjectHashcode.setVoided(false);
+				parentObjectHashcode.setVoidedBy(null);
+				parentObjectHashcode.setDateVoided(null);
+				parentObjectHashcode.setVoidReason(null);
+			}
 		} else {
 			parentObjectHashcode = newParentObjectHashcode;
 		}
@@ -59,4 +81,9 @@ public class ParentObjectHashcodeServiceImpl extends BaseOpenmrsService implemen
 		parentObjectHashcode.setVoidReason(reason);
 		parentObjectHashcodeDao.save(parentObjectHashcode);
 	}
+
+	@Override
+	public Map<String, String> getHashcodesOfClass(Class<?> clazz, String afterUuid, int maxResults) {
+		return parentObjectHashcodeDao.getHashcodesOfClass(clazz, afterUuid, maxResults);
+	}
 }
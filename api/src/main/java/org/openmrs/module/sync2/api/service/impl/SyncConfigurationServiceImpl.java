@@ -9,6 +9,9 @@ import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
 import org.openmrs.module.sync2.api.model.enums.SyncOperation;
 import org.openmrs.module.sync2.api.scheduler.SyncSchedulerService;
 import org.openmrs.module.sync2.api.service.SyncConfigurationService;
+import org.openmrs.module.sync2.api.sync.PayloadPrefetcher;
+import org.openmrs.module.sync2.api.sync.SyncClientExecutor;
+import org.openmrs.module.sync2.api.sync.SyncEndpointRegistry;
 import org.openmrs.module.sync2.api.validator.Errors;
 import org.openmrs.module.sync2.api.validator.SyncConfigurationValidator;
 import org.openmrs.util.OpenmrsUtil;
@@ -50,6 +53,9 @@ public class SyncConfigurationServiceImpl implements SyncConfigurationService {
     public void saveConfiguration(SyncConfiguration configuration) throws SyncException {
         writeSyncConfigurationToJsonFile(configuration, getConfigFilePath());
         this.syncConfiguration = configuration;
+        SyncEndpointRegistry.invalidate();
+        SyncClientExecutor.reconfigure();
+        PayloadPrefetcher.reconfigure();
         schedulerService.runSyncScheduler();
     }
 
@@ -59,6 +65,9 @@ public class SyncConfigurationServiceImpl implements SyncConfigurationService {
             SyncConfiguration customConfiguration = parseJsonStringToSyncConfiguration(jsonConfiguration);
             writeSyncConfigurationToJsonFile(customConfiguration, getConfigFilePath());
             this.syncConfiguration = customConfiguration;
+            SyncEndpointRegistry.invalidate();
+            SyncClientExecutor.reconfigure();
+            PayloadPrefetcher.reconfigure();
 
             schedulerService.runSyncScheduler();
         }
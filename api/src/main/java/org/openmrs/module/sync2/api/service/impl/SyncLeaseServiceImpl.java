@@ -0,0 +1,46 @@
+package org.openmrs.module.sync2.api.service.impl;
+
+import org.openmrs.api.impl.BaseOpenmrsService;
+import org.openmrs.module.sync2.api.dao.SyncLeaseDao;
+import org.openmrs.module.sync2.api.model.SyncLease;
+import org.openmrs.module.sync2.api.service.SyncLeaseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The times of the leases are taken from the database, so the expiry of the lease doesn't depend on the clocks
+ * of the nodes.
+ */
+@Service("sync2.syncLeaseService")
+public class SyncLeaseServiceImpl extends BaseOpenmrsService implements SyncLeaseService {
+
+	@Autowired
+	private SyncLeaseDao syncLeaseDao;
+
+	@Override
+	public boolean acquire(String operation, String category, String owner, int leaseTime) {
+		if (syncLeaseDao.getLease(operation, category) == null) {
+			syncLeaseDao.save(new SyncLease(operation, category));
+		}
+		Date now = syncLeaseDao.getDatabaseTime();
+		return syncLeaseDao.claim(operation, category, owner, now, getExpiryDate(now, leaseTime));
+	}
+
+	@Override
+	public boolean renew(String operation, String category, String owner, int leaseTime) {
+		Date now = syncLeaseDao.getDatabaseTime();
+		return syncLeaseDao.renew(operation, category, owner, now, getExpiryDate(now, leaseTime)) > 0;
+	}
+
+	@Override
+	public void release(String operation, String category, String owner) {
+		syncLeaseDao.release(operation, category, owner, syncLeaseDao.getDatabaseTime());
+	}
+
+	private Date getExpiryDate(Date now, int leaseTime) {
+		return new Date(now.getTime() + TimeUnit.SECONDS.toMillis(leaseTime));
+	}
+}
@@ -1,24 +1,35 @@
 package org.openmrs.module.sync2.api.service.impl;
 
+import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
+import org.openmrs.module.sync2.api.model.SyncEvent;
 import org.openmrs.module.sync2.api.model.SyncObject;
 import org.openmrs.module.sync2.api.model.enums.SyncOperation;
 import org.openmrs.module.sync2.api.service.ParentObjectHashcodeService;
 import org.openmrs.module.sync2.api.service.SyncAuditService;
+import org.openmrs.module.sync2.api.service.SyncConfigurationService;
 import org.openmrs.module.sync2.api.service.SyncPullService;
 import org.openmrs.module.sync2.api.filter.impl.PullFilterService;
 import org.openmrs.module.sync2.api.model.audit.AuditMessage;
 import org.openmrs.module.sync2.api.service.UnifyService;
-import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
+import org.openmrs.module.sync2.api.sync.SyncClientExecutor;
 import org.openmrs.module.sync2.api.utils.SyncUtils;
 import org.openmrs.module.sync2.client.reader.ParentFeedReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.openmrs.module.sync2.SyncConstants.PULL_OPERATION;
 import static org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance.CHILD;
@@ -47,11 +58,51 @@ public class SyncPullServiceImpl extends AbstractSynchronizationService implemen
     @Autowired
     private UnifyService unifyService;
 
+    @Autowired
+    private SyncConfigurationService configurationService;
+
     private static final String FAILED_SYNC_MESSAGE = "Problem with pulling from parent";
 
     @Override
     public AuditMessage pullAndSaveObjectFromParent(String category, Map<String, String> resourceLinks,
                                                   String action, String clientName, String uuid) {
+        return pullAndSaveObject(category, resourceLinks, action, clientName, uuid, 1);
+    }
+
+    @Override
+    public AuditMessage pullAndSaveObjectFromParent(SyncEvent event) {
+        String clientName = SyncUtils.selectAppropriateClientName(event.getResourceLinks(), event.getCategory(),
+                getOperation());
+        String uuid = extractUUIDFromResourceLinks(event.getResourceLinks());
+        return pullAndSaveObject(event.getCategory(), event.getResourceLinks(), event.getAction(), clientName, uuid,
+                event.getCoalescedEvents());
+    }
+
+    @Override
+    public List<AuditMessage> pullAndSaveObjectsFromParent(List<SyncEvent> events) {
+        Map<String, Object> parentObjects = pullNewParentObjects(events);
+        List<AuditMessage> result = new ArrayList<>();
+        for (SyncEvent event : events) {
+            String clientName = SyncUtils.selectAppropriateClientName(event.getResourceLinks(), event.getCategory(),
+                    getOperation());
+            String uuid = extractUUIDFromResourceLinks(event.getResourceLinks());
+            result.add(pullAndSaveObject(event.getCategory(), event.getResourceLinks(), event.getAction(), clientName,
+                    uuid, event.getCoalescedEvents(), parentObjects));
+        }
+        return result;
+    }
+
+    private AuditMessage pullAndSaveObject(String category, Map<String, String> resourceLinks, String action,
+            String clientName, String uuid, int coalescedEvents) {
+        return pullAndSaveObject(category, resourceLinks, action, clientName, uuid, coalescedEvents,
+                Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * @param parentObjects the parent objects which were already read, mapped by their resource urls
+     */
+    private AuditMessage pullAndSaveObject(String category, Map<String, String> resourceLinks, String action,
+            String clientName, String uuid, int coalescedEvents, Map<String, Object> parentObjects) {
         AuditMessage auditMessage = initSynchronization(category, resourceLinks, action, clientName);
         boolean shouldSynchronize = true;
 
@@ -60,26 +111,44 @@ public class SyncPullServiceImpl extends AbstractSynchronizationService implemen
             String localPull = getPullUrl(resourceLinks, clientName, CHILD);
             String localPush = getPushUrl(resourceLinks, clientName, CHILD);
 
-            SyncObject pulledObject = new SyncObject(getPulledObject(category, action, clientName, uuid, parentPull));
-            pulledObject.setSimpleObject(isDeleteAction(action) ? null :
-                    unifyService.unifyObject(pulledObject.getBaseObject(), category, clientName));
-            SyncObject localPulledObject = new SyncObject(syncClient.pullData(category, clientName, localPull, CHILD));
-            localPulledObject.setSimpleObject(unifyService.unifyObject(localPulledObject.getBaseObject(), category, clientName));
+            ResponseEntity<Object> parentResponse = parentObjects.containsKey(parentPull)
+                    ? toResponse(parentObjects.get(parentPull))
+                    : getPulledObject(category, action, clientName, uuid, parentPull);
+            if (HttpStatus.NOT_MODIFIED.equals(parentResponse.getStatusCode())) {
+                LOGGER.info(String.format("Parent object %s has not changed since the last synchronization", uuid));
+                shouldSynchronize = false;
+            } else {
+                // the local object is read while the parent object is unified
+                CompletableFuture<Object> localResponse =
+                        syncClient.pullDataAsync(category, clientName, localPull, CHILD);
+                SyncObject pulledObject = new SyncObject(parentResponse.getBody());
+                pulledObject.setSimpleObject(isDeleteAction(action) ? null :
+                        unifyService.unifyObject(pulledObject.getBaseObject(), category, clientName));
+                SyncObject localPulledObject = new SyncObject(SyncClientExecutor.join(localResponse));
+                localPulledObject.setSimpleObject(
+                        unifyService.unifyObject(localPulledObject.getBaseObject(), category, clientName));
 
-            shouldSynchronize = pullFilterService.shouldBeSynced(category, pulledObject.getBaseObject(), action)
-                && pulledObject.getBaseObject() != null
-                && shouldSynchronize(pulledObject.getSimpleObject(), localPulledObject.getSimpleObject());
+                boolean accepted = pullFilterService.shouldBeSynced(category, pulledObject.getBaseObject(), action)
+                    && pulledObject.getBaseObject() != null;
+                shouldSynchronize = accepted && shouldSynchronize(pulledObject, localPulledObject);
 
-            if (shouldSynchronize) {
-                String hashCode = null;
-                if (!isDeleteAction(action)) {
-                    pulledObject.setBaseObject(detectAndResolveConflict(
-                            pulledObject, localPulledObject, auditMessage).getBaseObject());
-                    hashCode = SyncHashcodeUtils.getHashcode(
-                            unifyService.unifyObject(pulledObject.getBaseObject(), category, clientName));
+                if (shouldSynchronize) {
+                    String hashCode = null;
+                    if (!isDeleteAction(action)) {
+                        pulledObject.setBaseObject(detectAndResolveConflict(
+                                pulledObject, localPulledObject, auditMessage).getBaseObject());
+                        if (pulledObject.getSimpleObject() == null) {
+                            pulledObject.setSimpleObject(
+                                    unifyService.unifyObject(pulledObject.getBaseObject(), category, clientName));
+                        }
+                        hashCode = pulledObject.getHashcode();
+                    }
+                    syncClient.pushData(category, pulledObject.getBaseObject(), clientName, localPush, action, CHILD);
+                    parentObjectHashcodeService.save(uuid, hashCode);
+                } else if (accepted && !isDeleteAction(action)) {
+                    // the local object is identical, so it was synchronized with this version of the parent object
+                    parentObjectHashcodeService.save(uuid, pulledObject.getHashcode());
                 }
-                syncClient.pushData(category, pulledObject.getBaseObject(), clientName, localPush, action, CHILD);
-                parentObjectHashcodeService.save(uuid, hashCode);
             }
 
             auditMessage = successfulMessage(auditMessage);
@@ -87,6 +156,7 @@ public class SyncPullServiceImpl extends AbstractSynchronizationService implemen
             auditMessage = failedMessage(auditMessage, e);
         } finally {
             if (shouldSynchronize) {
+                auditMessage = noteCoalescedEvents(auditMessage, coalescedEvents);
                 auditMessage = syncAuditService.saveAuditMessageDuringSync(auditMessage);
             }
         }
@@ -142,7 +212,70 @@ public class SyncPullServiceImpl extends AbstractSynchronizationService implemen
         return pullAndSaveObjectFromParent(category, resourceLinks, action, clientName, uuid);
     }
 
-    private Object getPulledObject(String category, String action, String clientName, String uuid, String parentPull) {
-        return pullData(category, action, clientName, uuid, parentPull, PARENT);
+    /**
+     * Reads the parent objects of the created and updated events which were never synchronized using the batch
+     * requests. The objects which were synchronized before are read later using the conditional requests,
+     * as they usually haven't changed. If the batch fails, its objects are read one by one.
+     *
+     * @return the read objects mapped by their resource urls
+     */
+    private Map<String, Object> pullNewParentObjects(List<SyncEvent> events) {
+        Map<String, SyncEvent> eventsByUuid = new LinkedHashMap<>();
+        for (SyncEvent event : events) {
+            if (!isDeleteAction(event.getAction())) {
+                eventsByUuid.put(extractUUIDFromResourceLinks(event.getResourceLinks()), event);
+            }
+        }
+        for (ParentObjectHashcode hashcode : parentObjectHashcodeService.getByObjectUuids(eventsByUuid.keySet())) {
+            if (hashcode.getHashcode() != null) {
+                eventsByUuid.remove(hashcode.getObjectUuid());
+            }
+        }
+
+        Map<String, Map<String, List<String>>> urlsByCategoryAndClient = new LinkedHashMap<>();
+        for (SyncEvent event : eventsByUuid.values()) {
+            String clientName = SyncUtils.selectAppropriateClientName(event.getResourceLinks(), event.getCategory(),
+                    getOperation());
+            urlsByCategoryAndClient.computeIfAbsent(event.getCategory(), key -> new LinkedHashMap<>())
+                    .computeIfAbsent(clientName, key -> new ArrayList<>())
+                    .add(getBaseResourceUrl(event.getResourceLinks(), clientName));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        int batchSize = getBatchSize();
+        for (Map.Entry<String, Map<String, List<String>>> category : urlsByCategoryAndClient.entrySet()) {
+            for (Map.Entry<String, List<String>> client : category.getValue().entrySet()) {
+                List<String> urls = client.getValue();
+                for (int from = 0; from < urls.size(); from += batchSize) {
+                    List<String> batch = urls.subList(from, Math.min(from + batchSize, urls.size()));
+                    try {
+                        result.putAll(syncClient.pullDataBatch(category.getKey(), client.getKey(), batch, PARENT));
+                    } catch (RuntimeException e) {
+                        LOGGER.warn("The batch of {} {} objects can't be read, they will be read one by one",
+                                batch.size(), category.getKey(), e);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private ResponseEntity<Object> toResponse(Object parentObject) {
+        return new ResponseEntity<>(parentObject, parentObject != null ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+    }
+
+    private int getBatchSize() {
+        Integer batchSize = configurationService.getSyncConfiguration().getPull().getBatchSize();
+        return batchSize != null && batchSize > 0 ? batchSize : SyncConstants.DEFAULT_BATCH_SIZE;
+    }
+
+    private ResponseEntity<Object> getPulledObject(String category, String action, String clientName, String uuid,
+            String parentPull) {
+        if (isDeleteAction(action)) {
+            return new ResponseEntity<Object>(uuid, HttpStatus.OK);
+        }
+        ParentObjectHashcode parentObjectHashcode = parentObjectHashcodeService.getByObjectUuid(uuid);
+        String hashCode = parentObjectHashcode != null ? parentObjectHashcode.getHashcode() : null;
+        return syncClient.pullDataIfModified(category, clientName, parentPull, PARENT, hashCode);
     }
 }
@@ -3,14 +3,19 @@ package org.openmrs.module.sync2.api.service.impl;
 import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.sync2.api.exceptions.SyncException;
 import org.openmrs.module.sync2.api.filter.impl.PushFilterService;
+import org.openmrs.module.sync2.api.model.InnerResponse;
+import org.openmrs.module.sync2.api.model.PushOperation;
+import org.openmrs.module.sync2.api.model.SyncEvent;
 import org.openmrs.module.sync2.api.model.SyncObject;
 import org.openmrs.module.sync2.api.model.enums.SyncOperation;
 import org.openmrs.module.sync2.api.model.audit.AuditMessage;
 import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
 import org.openmrs.module.sync2.api.service.ParentObjectHashcodeService;
 import org.openmrs.module.sync2.api.service.SyncAuditService;
+import org.openmrs.module.sync2.api.service.SyncConfigurationService;
 import org.openmrs.module.sync2.api.service.SyncPushService;
 import org.openmrs.module.sync2.api.service.UnifyService;
+import org.openmrs.module.sync2.api.sync.SyncClientExecutor;
 import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
 import org.openmrs.module.sync2.api.utils.SyncUtils;
 import org.openmrs.module.sync2.client.reader.LocalFeedReader;
@@ -19,8 +24,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance.CHILD;
 import static org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance.PARENT;
@@ -47,51 +54,50 @@ public class SyncPushServiceImpl extends AbstractSynchronizationService implemen
     @Autowired
     private UnifyService unifyService;
 
+    @Autowired
+    private SyncConfigurationService configurationService;
+
     private static final String FAILED_SYNC_MESSAGE = "Problem with pushing to parent";
 
     @Override
     public AuditMessage readAndPushObjectToParent(String category, Map<String, String> resourceLinks,
                                                 String action, String clientName, String uuid) {
+        return pushAndFinish(preparePush(category, resourceLinks, action, clientName, uuid));
+    }
 
-        AuditMessage auditMessage = initSynchronization(category, resourceLinks, action, clientName);
-        boolean shouldSynchronize = true;
-
-        try {
-            String parentPush = getBaseResourceUrl(resourceLinks, clientName);
-            String localPull = getPullUrl(resourceLinks, clientName, CHILD);
-            String parentPull = getPullUrl(resourceLinks, clientName, PARENT);
-
-            SyncObject localObj = new SyncObject(getLocalObject(category, action, clientName, uuid, localPull));
-            localObj.setSimpleObject(unifyService.unifyObject(localObj.getBaseObject(), category, clientName));
-            SyncObject parentObj = new SyncObject(syncClient.pullData(category, clientName, parentPull, PARENT));
-            parentObj.setSimpleObject(isDeleteAction(action) ? null :
-                    unifyService.unifyObject(parentObj.getBaseObject(), category, clientName));
+    @Override
+    public AuditMessage readAndPushObjectToParent(SyncEvent event) {
+        return pushAndFinish(preparePush(event));
+    }
 
-            shouldSynchronize = pushFilterService.shouldBeSynced(category, localObj.getBaseObject(), action)
-                    && localObj.getBaseObject() != null
-                    && shouldSynchronize(localObj.getSimpleObject(), parentObj.getSimpleObject());
+    @Override
+    public List<AuditMessage> readAndPushObjectsToParent(List<SyncEvent> events) {
+        List<PendingPush> pushes = new ArrayList<>();
+        for (SyncEvent event : events) {
+            pushes.add(preparePush(event));
+        }
 
-            if (shouldSynchronize) {
-                String hashCode = null;
-                if (!isDeleteAction(action)) {
-                    localObj.setBaseObject(detectAndResolveConflict(
-                            localObj, parentObj, auditMessage).getBaseObject());
-                    hashCode = SyncHashcodeUtils.getHashcode(
-                            unifyService.unifyObject(localObj.getBaseObject(), category, clientName));
-                }
-                syncClient.pushData(category, localObj.getBaseObject(), clientName, parentPush, action, PARENT);
-                parentObjectHashcodeService.save(uuid, hashCode);
+        int batchSize = getBatchSize();
+        List<PendingPush> batch = new ArrayList<>();
+        for (PendingPush push : pushes) {
+            if (!push.isReadyToSend()) {
+                continue;
             }
-
-            auditMessage = successfulMessage(auditMessage);
-        } catch (Error | Exception e) {
-            auditMessage = failedMessage(auditMessage, e);
-        } finally {
-            if (shouldSynchronize) {
-                auditMessage = syncAuditService.saveAuditMessageDuringSync(auditMessage);
+            if (!batch.isEmpty() && (batch.size() >= batchSize || !push.canBeBatchedWith(batch.get(0)))) {
+                pushBatch(batch);
+                batch = new ArrayList<>();
             }
+            batch.add(push);
         }
-        return auditMessage;
+        if (!batch.isEmpty()) {
+            pushBatch(batch);
+        }
+
+        List<AuditMessage> result = new ArrayList<>();
+        for (PendingPush push : pushes) {
+            result.add(finishPush(push));
+        }
+        return result;
     }
 
     @Override
@@ -164,6 +170,124 @@ public class SyncPushServiceImpl extends AbstractSynchronizationService implemen
         return readAndPushObjectToParent(category, resourceLinks, action, clientName, uuid);
     }
 
+    private PendingPush preparePush(SyncEvent event) {
+        String clientName = SyncUtils.selectAppropriateClientName(event.getResourceLinks(), event.getCategory(),
+                getOperation());
+        String uuid = extractUUIDFromResourceLinks(event.getResourceLinks());
+        PendingPush push = preparePush(event.getCategory(), event.getResourceLinks(), event.getAction(), clientName,
+                uuid);
+        push.setCoalescedEvents(event.getCoalescedEvents());
+        return push;
+    }
+
+    private PendingPush preparePush(String category, Map<String, String> resourceLinks, String action,
+            String clientName, String uuid) {
+        PendingPush push = new PendingPush(initSynchronization(category, resourceLinks, action, clientName),
+                category, action, clientName, uuid);
+
+        try {
+            String parentPush = getBaseResourceUrl(resourceLinks, clientName);
+            String localPull = getPullUrl(resourceLinks, clientName, CHILD);
+            String parentPull = getPullUrl(resourceLinks, clientName, PARENT);
+
+            CompletableFuture<Object> parentResponse = syncClient.pullDataAsync(category, clientName, parentPull,
+                    PARENT);
+            SyncObject localObj = new SyncObject(getLocalObject(category, action, clientName, uuid, localPull));
+            localObj.setSimpleObject(unifyService.unifyObject(localObj.getBaseObject(), category, clientName));
+            SyncObject parentObj = new SyncObject(SyncClientExecutor.join(parentResponse));
+            parentObj.setSimpleObject(isDeleteAction(action) ? null :
+                    unifyService.unifyObject(parentObj.getBaseObject(), category, clientName));
+
+            push.setShouldSynchronize(pushFilterService.shouldBeSynced(category, localObj.getBaseObject(), action)
+                    && localObj.getBaseObject() != null
+                    && shouldSynchronize(localObj, parentObj));
+
+            if (push.isShouldSynchronize()) {
+                if (!isDeleteAction(action)) {
+                    localObj.setBaseObject(detectAndResolveConflict(
+                            localObj, parentObj, push.getAuditMessage()).getBaseObject());
+                    if (localObj.getSimpleObject() == null) {
+                        localObj.setSimpleObject(
+                                unifyService.unifyObject(localObj.getBaseObject(), category, clientName));
+                    }
+                    push.setHashCode(localObj.getHashcode());
+                }
+                push.setObject(localObj.getBaseObject());
+                push.setPushUrl(parentPush);
+                push.setReadyToSend(true);
+            } else {
+                push.setAuditMessage(successfulMessage(push.getAuditMessage()));
+            }
+        } catch (Error | Exception e) {
+            push.setAuditMessage(failedMessage(push.getAuditMessage(), e));
+        }
+        return push;
+    }
+
+    private AuditMessage pushAndFinish(PendingPush push) {
+        if (push.isReadyToSend()) {
+            try {
+                syncClient.pushData(push.getCategory(), push.getObject(), push.getClientName(), push.getPushUrl(),
+                        push.getAction(), PARENT);
+                completePush(push);
+            } catch (Error | Exception e) {
+                push.setAuditMessage(failedMessage(push.getAuditMessage(), e));
+            }
+        }
+        return finishPush(push);
+    }
+
+    private void pushBatch(List<PendingPush> batch) {
+        PendingPush first = batch.get(0);
+        List<PushOperation> operations = new ArrayList<>();
+        for (PendingPush push : batch) {
+            operations.add(new PushOperation(push.getObject(), push.getPushUrl(), push.getAction()));
+        }
+
+        try {
+            List<InnerResponse> responses = syncClient.pushDataBatch(first.getCategory(), first.getClientName(),
+                    operations, PARENT);
+            for (int i = 0; i < batch.size(); i++) {
+                PendingPush push = batch.get(i);
+                try {
+                    if (i >= responses.size()) {
+                        throw new SyncException("Missing status of the batched operation");
+                    }
+                    InnerResponse response = responses.get(i);
+                    if (!response.getStatus().is2xxSuccessful()) {
+                        throw new SyncException(String.format("Object posting error. Code: %d. Details: \n%s",
+                                response.getStatusCode(), response.getBody()));
+                    }
+                    completePush(push);
+                } catch (Error | Exception e) {
+                    push.setAuditMessage(failedMessage(push.getAuditMessage(), e));
+                }
+            }
+        } catch (Error | Exception e) {
+            for (PendingPush push : batch) {
+                push.setAuditMessage(failedMessage(push.getAuditMessage(), e));
+            }
+        }
+    }
+
+    private void completePush(PendingPush push) {
+        parentObjectHashcodeService.save(push.getUuid(), push.getHashCode());
+        push.setAuditMessage(successfulMessage(push.getAuditMessage()));
+    }
+
+    private AuditMessage finishPush(PendingPush push) {
+        if (push.isShouldSynchronize()) {
+            noteCoalescedEvents(push.getAuditMessage(), push.getCoalescedEvents());
+            push.setAuditMessage(syncAuditService.saveAuditMessageDuringSync(push.getAuditMessage()));
+        }
+        return push.getAuditMessage();
+    }
+
+    private int getBatchSize() {
+        Integer batchSize = configurationService.getSyncConfiguration().getPush().getBatchSize();
+        return batchSize != null && batchSize > 0 ? batchSize : SyncConstants.DEFAULT_BATCH_SIZE;
+    }
+
     private Object getLocalObject(String category, String action, String clientName, String uuid, String localPull) {
         return pullData(category, action, clientName, uuid, localPull, CHILD);
     }
@@ -205,4 +329,116 @@ public class SyncPushServiceImpl extends AbstractSynchronizationService implemen
         }
         return combined;
     }
+
+    /**
+     * The object prepared to be pushed to the parent, together with its audit message.
+     */
+    private static class PendingPush {
+
+        private AuditMessage auditMessage;
+
+        private final String category;
+
+        private final String action;
+
+        private final String clientName;
+
+        private final String uuid;
+
+        private boolean shouldSynchronize = true;
+
+        private boolean readyToSend;
+
+        private Object object;
+
+        private String pushUrl;
+
+        private String hashCode;
+
+        private int coalescedEvents = 1;
+
+        PendingPush(AuditMessage auditMessage, String category, String action, String clientName, String uuid) {
+            this.auditMessage = auditMessage;
+            this.category = category;
+            this.action = action;
+            this.clientName = clientName;
+            this.uuid = uuid;
+        }
+
+        boolean canBeBatchedWith(PendingPush other) {
+            return category.equals(other.category) && clientName.equals(other.clientName);
+        }
+
+        AuditMessage getAuditMessage() {
+            return auditMessage;
+        }
+
+        void setAuditMessage(AuditMessage auditMessage) {
+            this.auditMessage = auditMessage;
+        }
+
+        String getCategory() {
+            return category;
+        }
+
+        String getAction() {
+            return action;
+        }
+
+        String getClientName() {
+            return clientName;
+        }
+
+        String getUuid() {
+            return uuid;
+        }
+
+        boolean isShouldSynchronize() {
+            return shouldSynchronize;
+        }
+
+        void setShouldSynchronize(boolean shouldSynchronize) {
+            this.shouldSynchronize = shouldSynchronize;
+        }
+
+        boolean isReadyToSend() {
+            return readyToSend;
+        }
+
+        void setReadyToSend(boolean readyToSend) {
+            this.readyToSend = readyToSend;
+        }
+
+        Object getObject() {
+            return object;
+        }
+
+        void setObject(Object object) {
+            this.object = object;
+        }
+
+        String getPushUrl() {
+            return pushUrl;
+        }
+
+        void setPushUrl(String pushUrl) {
+            this.pushUrl = pushUrl;
+        }
+
+        String getHashCode() {
+            return hashCode;
+        }
+
+        void setHashCode(String hashCode) {
+            this.hashCode = hashCode;
+        }
+
+        int getCoalescedEvents() {
+            return coalescedEvents;
+        }
+
+        void setCoalescedEvents(int coalescedEvents) {
+            this.coalescedEvents = coalescedEvents;
+        }
+    }
 }
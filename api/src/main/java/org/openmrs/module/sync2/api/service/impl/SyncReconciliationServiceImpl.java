@@ -0,0 +1,561 @@
+package org.openmrs.module.sync2.api.service.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.atomfeed.api.model.FeedConfiguration;
+import org.openmrs.module.atomfeed.api.service.FeedConfigurationService;
+import org.openmrs.module.sync2.SyncConstants;
+import org.openmrs.module.sync2.api.dao.SyncReconciliationDao;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
+import org.openmrs.module.sync2.api.model.RangeDigest;
+import org.openmrs.module.sync2.api.model.audit.AuditMessage;
+import org.openmrs.module.sync2.api.model.configuration.ClassConfiguration;
+import org.openmrs.module.sync2.api.model.enums.SyncOperation;
+import org.openmrs.module.sync2.api.service.ParentObjectHashcodeService;
+import org.openmrs.module.sync2.api.service.SyncConfigurationService;
+import org.openmrs.module.sync2.api.service.SyncPullService;
+import org.openmrs.module.sync2.api.service.SyncReconciliationService;
+import org.openmrs.module.sync2.api.service.UnifyService;
+import org.openmrs.module.sync2.api.sync.HashcodeRangeIndex;
+import org.openmrs.module.sync2.api.sync.SyncClient;
+import org.openmrs.module.sync2.api.sync.SyncClientExecutor;
+import org.openmrs.module.sync2.api.sync.SyncLeaseManager;
+import org.openmrs.module.sync2.api.sync.SyncRunBudget;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.openmrs.module.sync2.api.utils.SyncConfigurationUtils;
+import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+import org.openmrs.module.sync2.client.ClientHelperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.transaction.NotSupportedException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.openmrs.module.sync2.SyncConstants.AUDIT_MESSAGE_UUID_FIELD_NAME;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_RECONCILIATION_MAX_REQUESTS;
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_FANOUT;
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_LEAF_SIZE;
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_PAGE_SIZE;
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_PARALLEL_READS;
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_RANGES_PER_REQUEST;
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_READ_BATCH_SIZE;
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_SNAPSHOT_READ_TIME;
+import static org.openmrs.module.sync2.SyncConstants.RECONCILIATION_SNAPSHOT_TTL;
+import static org.openmrs.module.sync2.SyncConstants.REST_CLIENT;
+import static org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance.CHILD;
+
+@Component("sync2.syncReconciliationService")
+public class SyncReconciliationServiceImpl implements SyncReconciliationService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SyncReconciliationServiceImpl.class);
+
+	private static final String THREAD_NAME = "sync2-reconciliation";
+
+	private static final String REMOVED_OBJECT_REASON = "The object doesn't exist in the parent instance";
+
+	@Autowired
+	private ParentObjectHashcodeService parentObjectHashcodeService;
+
+	@Autowired
+	private SyncReconciliationDao syncReconciliationDao;
+
+	@Autowired
+	private SyncConfigurationService syncConfigurationService;
+
+	@Autowired
+	private FeedConfigurationService feedConfigurationService;
+
+	@Autowired
+	private SyncPullService syncPullService;
+
+	@Autowired
+	private UnifyService unifyService;
+
+	@Autowired
+	private SyncLeaseManager leaseManager;
+
+	private SyncClient syncClient = new SyncClient();
+
+	/**
+	 * The indexes of the local objects read for the children, mapped by the categories
+	 */
+	private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+	/**
+	 * The reconciliations which will be continued by the next run, mapped by the categories
+	 */
+	private final Map<String, Reconciliation> reconciliations = new ConcurrentHashMap<>();
+
+	/**
+	 * The hashcodes of the parent objects which were pulled, but not saved, e.g. because they were filtered out,
+	 * mapped by the categories. They are compared as the local objects, so they aren't pulled again until they change.
+	 */
+	private final Map<String, Map<String, String>> skippedObjects = new ConcurrentHashMap<>();
+
+	private ExecutorService snapshotExecutor;
+
+	private int firstCategory;
+
+	@Override
+	public List<RangeDigest> getRangeDigests(String category, List<RangeDigest> ranges) {
+		HashcodeRangeIndex index = getSnapshot(category);
+		if (index == null) {
+			return null;
+		}
+		List<RangeDigest> result = new ArrayList<>();
+		for (RangeDigest range : ranges) {
+			result.add(index.digest(range.getFrom(), range.getTo()));
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, String> getRangeHashcodes(String category, List<RangeDigest> ranges) {
+		HashcodeRangeIndex index = getSnapshot(category);
+		if (index == null) {
+			return null;
+		}
+		Map<String, String> result = new LinkedHashMap<>();
+		for (RangeDigest range : ranges) {
+			result.putAll(index.getHashcodes(range.getFrom(), range.getTo()));
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized void reconcileCategories() {
+		SyncConfigurationUtils.checkIfConfigurationIsValid();
+		List<String> categories = getEnabledCategories();
+		reconciliations.keySet().retainAll(categories);
+		skippedObjects.keySet().retainAll(categories);
+
+		int remainingRequests = getMaxRequests();
+		int start = firstCategory;
+		for (int i = 0; i < categories.size() && remainingRequests > 0; i++) {
+			int categoryIndex = (start + i) % categories.size();
+			String category = categories.get(categoryIndex);
+			SyncRunBudget budget = new SyncRunBudget(null, null);
+			if (!leaseManager.tryAcquire(SyncOperation.PULL, category, budget)) {
+				LOGGER.debug("The {} category is reconciled by another node", category);
+				continue;
+			}
+			try {
+				remainingRequests -= reconcileCategory(category, remainingRequests, budget);
+			}
+			catch (RuntimeException e) {
+				reconciliations.remove(category);
+				LOGGER.error("Error during the reconciliation of the {} category", category, e);
+			}
+			finally {
+				leaseManager.release(SyncOperation.PULL, category, budget);
+			}
+			firstCategory = reconciliations.containsKey(category) ? categoryIndex : categoryIndex + 1;
+		}
+	}
+
+	/**
+	 * The reconciliation stops when the budget is cancelled, i.e. when the lease of the category is lost,
+	 * and it is continued by the next run.
+	 *
+	 * @return the number of the requests sent to the parent
+	 */
+	private int reconcileCategory(String category, int maxRequests, SyncRunBudget budget) {
+		Reconciliation reconciliation = reconciliations.computeIfAbsent(category, this::startReconciliation);
+		int requests = 0;
+		while (requests < maxRequests && !reconciliation.pending.isEmpty() && !budget.isStopped()) {
+			List<RangeDigest> ranges = pollRanges(reconciliation.pending);
+			List<RangeDigest> parentDigests = syncClient.pullRangeDigests(category, ranges);
+			requests++;
+			if (parentDigests == null) {
+				LOGGER.info("The parent is reading the objects of the {} category, the reconciliation is postponed",
+						category);
+				returnRanges(reconciliation.pending, ranges);
+				return requests;
+			}
+
+			List<RangeDigest> leaves = new ArrayList<>();
+			for (int i = 0; i < ranges.size(); i++) {
+				RangeDigest local = reconciliation.index.digest(ranges.get(i).getFrom(), ranges.get(i).getTo());
+				RangeDigest parent = parentDigests.get(i);
+				if (local.matches(parent)) {
+					continue;
+				}
+				if (isLeaf(local, parent)) {
+					leaves.add(local);
+				} else {
+					reconciliation.pending.addAll(HashcodeRangeIndex.split(local, RECONCILIATION_FANOUT));
+				}
+			}
+
+			if (!leaves.isEmpty() && requests < maxRequests) {
+				Map<String, String> parentHashcodes = syncClient.pullRangeHashcodes(category, leaves);
+				requests++;
+				if (parentHashcodes == null) {
+					returnRanges(reconciliation.pending, leaves);
+					return requests;
+				}
+				reconciliation.synchronizedObjects += synchronizeObjects(category, reconciliation.index, leaves,
+						parentHashcodes);
+			} else {
+				returnRanges(reconciliation.pending, leaves);
+			}
+		}
+
+		if (reconciliation.pending.isEmpty()) {
+			reconciliations.remove(category);
+			LOGGER.info("The {} category is reconciled with the parent, {} objects were synchronized again",
+					category, reconciliation.synchronizedObjects);
+		}
+		return requests;
+	}
+
+	/**
+	 * The index is built from the pages of the stored hashcodes. The skipped objects which were saved
+	 * in the meantime are replaced by their stored hashcodes.
+	 */
+	private Reconciliation startReconciliation(String category) {
+		Class<?> clazz = ClientHelperFactory.createClient(REST_CLIENT).resolveClassByCategory(category);
+		Map<String, String> skipped = getSkippedObjects(category);
+		HashcodeRangeIndex.Builder index = new HashcodeRangeIndex.Builder();
+		String lastUuid = null;
+		Map<String, String> page;
+		do {
+			page = parentObjectHashcodeService.getHashcodesOfClass(clazz, lastUuid, RECONCILIATION_PAGE_SIZE);
+			for (Map.Entry<String, String> hashcode : page.entrySet()) {
+				skipped.remove(hashcode.getKey());
+				index.add(hashcode.getKey(), hashcode.getValue());
+				lastUuid = hashcode.getKey();
+			}
+		} while (page.size() >= RECONCILIATION_PAGE_SIZE);
+		return new Reconciliation(index.addAll(skipped).build());
+	}
+
+	/**
+	 * @return the number of the synchronized objects
+	 */
+	private int synchronizeObjects(String category, HashcodeRangeIndex index, List<RangeDigest> ranges,
+			Map<String, String> parentHashcodes) {
+		Map<String, String> localHashcodes = new HashMap<>();
+		for (RangeDigest range : ranges) {
+			localHashcodes.putAll(index.getHashcodes(range.getFrom(), range.getTo()));
+		}
+		Set<String> uuids = new LinkedHashSet<>(localHashcodes.keySet());
+		uuids.addAll(parentHashcodes.keySet());
+
+		int result = 0;
+		List<String> removedUuids = new ArrayList<>();
+		for (String uuid : uuids) {
+			String parentHashcode = parentHashcodes.get(uuid);
+			if (Objects.equals(localHashcodes.get(uuid), parentHashcode)) {
+				continue;
+			}
+			LOGGER.debug("The object {} of the {} category differs from the parent object", uuid, category);
+			if (parentHashcode == null) {
+				if (getSkippedObjects(category).remove(uuid) == null) {
+					removedUuids.add(uuid);
+				}
+			} else {
+				synchronizeObject(category, uuid, parentHashcode);
+			}
+			result++;
+		}
+		voidRemovedHashcodes(removedUuids);
+		return result;
+	}
+
+	/**
+	 * Pulls the object again. The pull stores the hashcode of the parent object when the object is saved or when
+	 * it is identical to the local object. The hashcode of the object which wasn't saved is only remembered,
+	 * so the next reconciliations don't pull the object again until it changes.
+	 */
+	private void synchronizeObject(String category, String uuid, String parentHashcode) {
+		Map<String, String> skipped = getSkippedObjects(category);
+		skipped.remove(uuid);
+		try {
+			boolean success = true;
+			for (AuditMessage auditMessage : syncPullService.pullAndSaveObjectFromParent(category, uuid)) {
+				success &= auditMessage == null || !Boolean.FALSE.equals(auditMessage.getSuccess());
+			}
+			if (success && !isStored(uuid)) {
+				LOGGER.debug("The object {} of the {} category wasn't saved by the reconciliation", uuid, category);
+				skipped.put(uuid, parentHashcode);
+			}
+		}
+		catch (RuntimeException e) {
+			LOGGER.error("Error during the reconciliation of the object {} of the {} category", uuid, category, e);
+		}
+	}
+
+	private boolean isStored(String uuid) {
+		ParentObjectHashcode stored = parentObjectHashcodeService.getByObjectUuid(uuid);
+		return stored != null && !Boolean.TRUE.equals(stored.getVoided());
+	}
+
+	private Map<String, String> getSkippedObjects(String category) {
+		return skippedObjects.computeIfAbsent(category, key -> new ConcurrentHashMap<>());
+	}
+
+	/**
+	 * Voids the stored hashcodes of the objects which don't exist in the parent anymore.
+	 */
+	private void voidRemovedHashcodes(List<String> uuids) {
+		for (ParentObjectHashcode stored : parentObjectHashcodeService.getByObjectUuids(uuids)) {
+			if (!Boolean.TRUE.equals(stored.getVoided())) {
+				parentObjectHashcodeService.delete(stored, REMOVED_OBJECT_REASON);
+			}
+		}
+	}
+
+	private boolean isLeaf(RangeDigest local, RangeDigest parent) {
+		return Math.max(local.getCount(), parent.getCount()) <= RECONCILIATION_LEAF_SIZE
+				|| local.getTo() - local.getFrom() <= 1L;
+	}
+
+	private List<RangeDigest> pollRanges(Deque<RangeDigest> pending) {
+		List<RangeDigest> result = new ArrayList<>();
+		while (result.size() < RECONCILIATION_RANGES_PER_REQUEST && !pending.isEmpty()) {
+			result.add(pending.pollFirst());
+		}
+		return result;
+	}
+
+	private void returnRanges(Deque<RangeDigest> pending, List<RangeDigest> ranges) {
+		for (int i = ranges.size() - 1; i >= 0; i--) {
+			pending.addFirst(ranges.get(i));
+		}
+	}
+
+	private List<String> getEnabledCategories() {
+		List<String> result = new ArrayList<>();
+		if (!syncConfigurationService.getSyncConfiguration().getPull().isEnabled()) {
+			return result;
+		}
+		for (ClassConfiguration classConf : syncConfigurationService.getSyncConfiguration().getPull().getClasses()) {
+			if (classConf.isEnabled()) {
+				result.add(classConf.getCategory());
+			}
+		}
+		return result;
+	}
+
+	private int getMaxRequests() {
+		String value = Context.getAdministrationService().getGlobalProperty(
+				SyncConstants.RECONCILIATION_MAX_REQUESTS_PROPERTY);
+		return StringUtils.isNumeric(value) && StringUtils.isNotEmpty(value) ? Integer.parseInt(value)
+				: DEFAULT_RECONCILIATION_MAX_REQUESTS;
+	}
+
+	/**
+	 * Returns the index of the local objects of the category. The index is read in the background, because
+	 * the hashcodes of all objects have to be calculated. It is read only on demand of the children, and every
+	 * request of the children continues the reading for at most {@link SyncConstants#RECONCILIATION_SNAPSHOT_READ_TIME}
+	 * seconds, so the categories which aren't reconciled aren't read at all. The expired index is used until
+	 * the new one is read.
+	 *
+	 * @return the index, or null if it is being read
+	 */
+	private HashcodeRangeIndex getSnapshot(String category) {
+		Snapshot snapshot = snapshots.computeIfAbsent(category, key -> new Snapshot());
+		synchronized (snapshot) {
+			if (snapshot.reading == null && (snapshot.building != null || snapshot.index == null
+					|| snapshot.isExpired())) {
+				IndexBuilding building = snapshot.building != null ? snapshot.building : new IndexBuilding();
+				snapshot.reading = CompletableFuture.supplyAsync(
+						ContextUtils.withCurrentUserContext(() -> readIndex(category, building)), getSnapshotExecutor());
+				snapshot.reading.whenComplete((read, e) -> completeSnapshot(category, snapshot, read, e));
+			}
+			return snapshot.index;
+		}
+	}
+
+	private void completeSnapshot(String category, Snapshot snapshot, IndexBuilding building, Throwable e) {
+		synchronized (snapshot) {
+			if (e != null) {
+				LOGGER.error("Error during reading the objects of the {} category for the reconciliation", category, e);
+				snapshot.building = null;
+			} else if (building.completed) {
+				snapshot.index = building.index.build();
+				snapshot.readAt = System.currentTimeMillis();
+				snapshot.building = null;
+				LOGGER.info("Read {} objects of the {} category for the reconciliation", snapshot.index.size(),
+						category);
+			} else {
+				snapshot.building = building;
+			}
+			snapshot.reading = null;
+		}
+	}
+
+	/**
+	 * Continues reading the objects of the category, the uuids are read in pages and the objects are read using
+	 * the batch requests, several batches are read at the same time by the {@link SyncClientExecutor}.
+	 * The index isn't completed if any batch fails, as the objects missing in the index would be removed
+	 * from the children.
+	 */
+	private IndexBuilding readIndex(String category, IndexBuilding building) {
+		FeedConfiguration configuration = feedConfigurationService.getFeedConfigurationByCategory(category);
+		if (configuration == null) {
+			throw new SyncException(String.format("The feed configuration of the %s category doesn't exist",
+					category));
+		}
+		Map<String, String> linkTemplates = configuration.getLinkTemplates();
+		String clientName = SyncUtils.selectAppropriateClientName(linkTemplates, category, SyncOperation.PULL);
+		Class<?> clazz = ClientHelperFactory.createClient(REST_CLIENT).resolveClassByCategory(category);
+
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(RECONCILIATION_SNAPSHOT_READ_TIME);
+		while (!building.completed && System.currentTimeMillis() < deadline) {
+			List<String> uuids = syncReconciliationDao.getObjectUuidsOfClass(clazz, building.lastUuid,
+					RECONCILIATION_PAGE_SIZE);
+			readPage(category, linkTemplates, clientName, uuids, building.index);
+			if (uuids.size() < RECONCILIATION_PAGE_SIZE) {
+				building.completed = true;
+			} else {
+				building.lastUuid = uuids.get(uuids.size() - 1);
+			}
+		}
+		return building;
+	}
+
+	private void readPage(String category, Map<String, String> linkTemplates, String clientName, List<String> uuids,
+			HashcodeRangeIndex.Builder index) {
+		Deque<CompletableFuture<Map<String, String>>> reading = new ArrayDeque<>();
+		for (int from = 0; from < uuids.size(); from += RECONCILIATION_READ_BATCH_SIZE) {
+			List<String> batch = new ArrayList<>(
+					uuids.subList(from, Math.min(from + RECONCILIATION_READ_BATCH_SIZE, uuids.size())));
+			if (reading.size() >= RECONCILIATION_PARALLEL_READS) {
+				index.addAll(SyncClientExecutor.join(reading.pollFirst()));
+			}
+			reading.addLast(SyncClientExecutor.supplyAsync(
+					() -> getLocalHashcodes(category, linkTemplates, clientName, batch)));
+		}
+		while (!reading.isEmpty()) {
+			index.addAll(SyncClientExecutor.join(reading.pollFirst()));
+		}
+	}
+
+	/**
+	 * Calculates the hashcodes the same way as the child calculates the hashcodes of the pulled objects.
+	 *
+	 * @return the hashcodes of the objects mapped by their uuids, the objects which can't be read are omitted
+	 */
+	private Map<String, String> getLocalHashcodes(String category, Map<String, String> linkTemplates,
+			String clientName, List<String> uuids) {
+		Map<String, String> uuidsByUrls = new LinkedHashMap<>();
+		for (String uuid : uuids) {
+			Map<String, String> resourceLinks = new HashMap<>();
+			for (Map.Entry<String, String> link : linkTemplates.entrySet()) {
+				resourceLinks.put(link.getKey(),
+						link.getValue().replace("{" + AUDIT_MESSAGE_UUID_FIELD_NAME + "}", uuid));
+			}
+			uuidsByUrls.put(SyncUtils.getPullUrl(resourceLinks, clientName, CHILD), uuid);
+		}
+
+		Map<String, Object> objects = syncClient.pullDataBatch(category, clientName,
+				new ArrayList<>(uuidsByUrls.keySet()), CHILD);
+		Map<String, String> result = new HashMap<>();
+		for (Map.Entry<String, String> entry : uuidsByUrls.entrySet()) {
+			if (!objects.containsKey(entry.getKey())) {
+				throw new SyncException(String.format("The object %s of the %s category wasn't read",
+						entry.getValue(), category));
+			}
+			String hashcode = getLocalHashcode(category, clientName, entry.getValue(), objects.get(entry.getKey()));
+			if (hashcode != null) {
+				result.put(entry.getValue(), hashcode);
+			}
+		}
+		return result;
+	}
+
+	private String getLocalHashcode(String category, String clientName, String uuid, Object object) {
+		try {
+			return object != null
+					? SyncHashcodeUtils.getHashcode(unifyService.unifyObject(object, category, clientName)) : null;
+		}
+		catch (NotSupportedException | RuntimeException e) {
+			LOGGER.warn("The hashcode of the object {} of the {} category can't be calculated", uuid, category, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stops reading the indexes, the indexes which are being read are dropped.
+	 */
+	public synchronized void shutdown() {
+		if (snapshotExecutor != null) {
+			snapshotExecutor.shutdownNow();
+			snapshotExecutor = null;
+		}
+		snapshots.clear();
+	}
+
+	private synchronized ExecutorService getSnapshotExecutor() {
+		if (snapshotExecutor == null) {
+			snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, THREAD_NAME);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return snapshotExecutor;
+	}
+
+	private static class Snapshot {
+
+		private HashcodeRangeIndex index;
+
+		private long readAt;
+
+		private IndexBuilding building;
+
+		private CompletableFuture<IndexBuilding> reading;
+
+		boolean isExpired() {
+			return System.currentTimeMillis() - readAt > TimeUnit.SECONDS.toMillis(RECONCILIATION_SNAPSHOT_TTL);
+		}
+	}
+
+	/**
+	 * The index which is being read, it is continued from the page following the last read uuid
+	 */
+	private static class IndexBuilding {
+
+		private final HashcodeRangeIndex.Builder index = new HashcodeRangeIndex.Builder();
+
+		private String lastUuid;
+
+		private boolean completed;
+	}
+
+	private static class Reconciliation {
+
+		private final HashcodeRangeIndex index;
+
+		private final Deque<RangeDigest> pending = new ArrayDeque<>(
+				Collections.singletonList(new RangeDigest(0L, HashcodeRangeIndex.RANGE_END)));
+
+		private int synchronizedObjects;
+
+		Reconciliation(HashcodeRangeIndex index) {
+			this.index = index;
+		}
+	}
+}
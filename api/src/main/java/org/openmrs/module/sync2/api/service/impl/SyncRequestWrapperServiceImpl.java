@@ -1,16 +1,23 @@
 package org.openmrs.module.sync2.api.service.impl;
 
 import org.openmrs.User;
-import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.fhir.api.helper.ClientHelper;
 import org.openmrs.module.sync2.api.model.RequestWrapper;
 import org.openmrs.module.sync2.api.service.SyncConfigurationService;
 import org.openmrs.module.sync2.api.service.SyncRequestWrapperService;
+import org.openmrs.module.sync2.api.service.UnifyService;
+import org.openmrs.module.sync2.api.sync.SyncOrigin;
+import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
 import org.openmrs.module.sync2.client.ClientHelperFactory;
+import org.openmrs.module.sync2.client.RestTemplateFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
@@ -18,21 +25,25 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
-import static org.openmrs.module.sync2.SyncConstants.LOCAL_PASSWORD_PROPERTY;
-import static org.openmrs.module.sync2.SyncConstants.LOCAL_USERNAME_PROPERTY;
+import static org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance.CHILD;
 
 @Component("sync2.syncRequestWrapperService")
 public class SyncRequestWrapperServiceImpl implements SyncRequestWrapperService {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(SyncRequestWrapperServiceImpl.class);
+
 	@Autowired
 	private SyncConfigurationService configuration;
 
+	@Autowired
+	private UnifyService unifyService;
+
 	@Override
 	public ResponseEntity<String> getObject(RequestWrapper wrapper) {
 		RestTemplate restTemplate = prepareRestTemplate(wrapper.getClientName());
 		try {
 			RequestEntity<String> req = new RequestEntity<>(wrapper.getRequest().getMethod(), wrapper.getRequest().getUrl());
-			return copyResponseWithContentType(restTemplate.exchange(req, String.class));
+			return applyEntityTag(wrapper, copyResponseWithContentType(restTemplate.exchange(req, String.class)));
 		}
 		catch (HttpClientErrorException e) {
 			return new ResponseEntity<>(e.getMessage(), e.getStatusCode());
@@ -46,7 +57,8 @@ public class SyncRequestWrapperServiceImpl implements SyncRequestWrapperService
 			ClientHelper helper = ClientHelperFactory.createClient(wrapper.getClientName());
 			Object object = helper.convertToObject(wrapper.getRequest().getBody(), wrapper.getClazz());
 
-			RequestEntity req = new RequestEntity<>(object, wrapper.getRequest().getMethod(), wrapper.getRequest().getUrl());
+			RequestEntity req = new RequestEntity<>(object, getSyncOriginHeaders(), wrapper.getRequest().getMethod(),
+					wrapper.getRequest().getUrl());
 			ResponseEntity<String> res = restTemplate.exchange(req, String.class);
 
 			return new ResponseEntity<>(res.getBody(), res.getStatusCode());
@@ -66,7 +78,7 @@ public class SyncRequestWrapperServiceImpl implements SyncRequestWrapperService
 			return restTemplate.exchange(
 					wrapper.getRequest().getUrl(),
 					wrapper.getRequest().getMethod(),
-					new HttpEntity<Object>(wrapper.getRequest().getBody()),
+					new HttpEntity<Object>(wrapper.getRequest().getBody(), getSyncOriginHeaders()),
 					String.class);
 		}
 		catch (HttpClientErrorException e) {
@@ -74,6 +86,21 @@ public class SyncRequestWrapperServiceImpl implements SyncRequestWrapperService
 		}
 	}
 
+	@Override
+	public ResponseEntity<String> resolveRequest(RequestWrapper wrapper) {
+		HttpMethod method = wrapper.getRequest().getMethod();
+
+		if (method.equals(HttpMethod.POST) || method.equals(HttpMethod.PUT)) {
+			return sendObject(wrapper);
+		} else if (method.equals(HttpMethod.GET)) {
+			return getObject(wrapper);
+		} else if (method.equals(HttpMethod.DELETE)) {
+			return deleteObject(wrapper);
+		} else {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+	}
+
 	@Override
 	public boolean isRequestAuthenticated(RequestWrapper requestWrapper) {
 		User user = Context.getAuthenticatedUser();
@@ -96,17 +123,55 @@ public class SyncRequestWrapperServiceImpl implements SyncRequestWrapperService
 		return !configuration.getSyncConfiguration().getWhitelist().isEnabled();
 	}
 
+	/**
+	 * The request sent by the synchronization of the local instance is passed on with its {@link SyncOrigin} mark.
+	 */
+	private HttpHeaders getSyncOriginHeaders() {
+		HttpHeaders headers = new HttpHeaders();
+		if (SyncOrigin.isSynchronizing()) {
+			headers.set(SyncConstants.SYNC_ORIGIN_HEADER, Boolean.TRUE.toString());
+		}
+		return headers;
+	}
+
 	private RestTemplate prepareRestTemplate(String client) {
-		RestTemplate restTemplate = new RestTemplate();
-		AdministrationService adminService = Context.getAdministrationService();
-		String username = adminService.getGlobalProperty(LOCAL_USERNAME_PROPERTY);
-		String password = adminService.getGlobalProperty(LOCAL_PASSWORD_PROPERTY);
+		return RestTemplateFactory.getRestTemplate(client, CHILD);
+	}
 
-		ClientHelper helper = ClientHelperFactory.createClient(client);
-		restTemplate.setInterceptors(helper.getCustomInterceptors(username, password));
-		restTemplate.setMessageConverters(helper.getCustomMessageConverter());
+	/**
+	 * Tags the response with the hashcode of the returned object, the same one which is stored by the child
+	 * after the synchronization. If the child already has this version of the object, the body is dropped
+	 * and NOT_MODIFIED is returned.
+	 */
+	private ResponseEntity<String> applyEntityTag(RequestWrapper wrapper, ResponseEntity<String> response) {
+		if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null
+				|| wrapper.getCategory() == null) {
+			return response;
+		}
+		String hashCode;
+		try {
+			ClientHelper helper = ClientHelperFactory.createClient(wrapper.getClientName());
+			Object object = helper.convertToObject(response.getBody(), wrapper.getClazz());
+			hashCode = SyncHashcodeUtils.getHashcode(
+					unifyService.unifyObject(object, wrapper.getCategory(), wrapper.getClientName()));
+		}
+		catch (Exception e) {
+			LOGGER.warn("Could not calculate the entity tag of " + wrapper.getRequest().getUrl(), e);
+			return response;
+		}
+		if (hashCode == null) {
+			return response;
+		}
 
-		return restTemplate;
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(response.getHeaders());
+		headers.setETag(SyncHashcodeUtils.getEntityTag(hashCode));
+		if (SyncHashcodeUtils.matchesEntityTag(wrapper.getRequest().getHeader(HttpHeaders.IF_NONE_MATCH), hashCode)) {
+			HttpHeaders notModifiedHeaders = new HttpHeaders();
+			notModifiedHeaders.setETag(headers.getETag());
+			return new ResponseEntity<>(notModifiedHeaders, HttpStatus.NOT_MODIFIED);
+		}
+		return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
 	}
 
 	private ResponseEntity<String> copyResponseWithContentType(ResponseEntity<?> response) {
@@ -1,10 +1,11 @@
 package org.openmrs.module.sync2.api.service.impl;
 
-import org.openmrs.module.fhir.api.helper.FHIRClientHelper;
+import org.openmrs.module.fhir.api.helper.ClientHelper;
 import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.sync2.api.model.audit.AuditMessage;
 import org.openmrs.module.sync2.api.model.enums.CategoryEnum;
 import org.openmrs.module.sync2.api.service.UnifyService;
+import org.openmrs.module.sync2.client.ClientHelperFactory;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.web.ConversionUtil;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
@@ -25,7 +26,7 @@ public class UnifyServiceImpl implements UnifyService {
 			CategoryEnum cat = CategoryEnum.getByCategory(category);
 
 			if (SyncConstants.FHIR_CLIENT.equals(clientName)) {
-				FHIRClientHelper helper = new FHIRClientHelper();
+				ClientHelper helper = ClientHelperFactory.createClient(clientName);
 				result = helper.convertToOpenMrsObject(object, category);
 				result = ConversionUtil.convertToRepresentation(result, Representation.FULL);
 			} else if (AuditMessage.class.isAssignableFrom(cat.getClazz())) {
@@ -0,0 +1,107 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.configuration.ClassConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Graph of the dependencies between the synchronized categories, declared by
+ * {@link ClassConfiguration#getDependsOn()}. The category has to be synchronized after all categories it depends
+ * on, while the independent categories can be synchronized at the same time. The dependencies on the categories
+ * which aren't part of the graph are ignored.
+ */
+public class CategoryDependencyGraph {
+
+	private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+	public CategoryDependencyGraph(List<ClassConfiguration> classes) {
+		for (ClassConfiguration classConf : classes) {
+			dependencies.put(classConf.getCategory(), new LinkedHashSet<>());
+		}
+		for (ClassConfiguration classConf : classes) {
+			if (classConf.getDependsOn() == null) {
+				continue;
+			}
+			for (String dependency : classConf.getDependsOn()) {
+				if (dependencies.containsKey(dependency) && !dependency.equals(classConf.getCategory())) {
+					dependencies.get(classConf.getCategory()).add(dependency);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the graph of the enabled categories.
+	 */
+	public static CategoryDependencyGraph ofEnabled(List<ClassConfiguration> classes) {
+		List<ClassConfiguration> enabled = new ArrayList<>();
+		for (ClassConfiguration classConf : classes) {
+			if (classConf.isEnabled()) {
+				enabled.add(classConf);
+			}
+		}
+		return new CategoryDependencyGraph(enabled);
+	}
+
+	public Set<String> getDependencies(String category) {
+		Set<String> result = dependencies.get(category);
+		return result != null ? Collections.unmodifiableSet(result) : Collections.<String>emptySet();
+	}
+
+	/**
+	 * Sorts the categories, so every category follows the categories it depends on. Apart from that the order
+	 * of the configuration is kept.
+	 *
+	 * @throws SyncException if the dependencies are cyclic
+	 */
+	public List<String> getCategoriesInDependencyOrder() {
+		List<String> result = new ArrayList<>();
+		Set<String> remaining = new LinkedHashSet<>(dependencies.keySet());
+		while (!remaining.isEmpty()) {
+			String next = null;
+			for (String category : remaining) {
+				if (result.containsAll(dependencies.get(category))) {
+					next = category;
+					break;
+				}
+			}
+			if (next == null) {
+				throw new SyncException(String.format("Cyclic dependencies between the categories: %s", remaining));
+			}
+			result.add(next);
+			remaining.remove(next);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the categories which are part of a cycle or depend on one, empty if the dependencies are valid
+	 */
+	public Set<String> findCyclicCategories() {
+		Set<String> result = new LinkedHashSet<>(dependencies.keySet());
+		result.removeAll(getResolvableCategories());
+		return result;
+	}
+
+	private Set<String> getResolvableCategories() {
+		Set<String> resolved = new LinkedHashSet<>();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+				if (!resolved.contains(entry.getKey()) && resolved.containsAll(entry.getValue())) {
+					resolved.add(entry.getKey());
+					changed = true;
+				}
+			}
+		}
+		return resolved;
+	}
+}
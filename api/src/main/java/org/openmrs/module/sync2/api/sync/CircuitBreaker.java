@@ -0,0 +1,123 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the availability of a single endpoint. After the configured number of consecutive failures the circuit
+ * opens and the requests are rejected without being sent. Once the open time elapses, a single probe request
+ * is let through (half-open state): its success closes the circuit, its failure opens it again.
+ */
+public class CircuitBreaker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final String endpoint;
+
+	private final int failureThreshold;
+
+	private final long openTimeMillis;
+
+	private State state = State.CLOSED;
+
+	private int failures;
+
+	private long openedAt;
+
+	private long rejected;
+
+	private boolean outageReported;
+
+	/**
+	 * @param endpoint the description of the endpoint used in the messages
+	 * @param failureThreshold the number of consecutive failures which opens the circuit
+	 * @param openTime the time in seconds after which the probe request is allowed
+	 */
+	public CircuitBreaker(String endpoint, int failureThreshold, int openTime) {
+		this.endpoint = endpoint;
+		this.failureThreshold = failureThreshold;
+		this.openTimeMillis = TimeUnit.SECONDS.toMillis(openTime);
+	}
+
+	/**
+	 * Checks if the request can be sent. In the half-open state only the first caller is allowed,
+	 * and it has to report the result using {@link #recordSuccess()} or {@link #recordFailure()}.
+	 */
+	public synchronized boolean tryAcquire() {
+		if (state == State.CLOSED) {
+			return true;
+		}
+		if (state == State.OPEN && isOpenTimeElapsed()) {
+			state = State.HALF_OPEN;
+			LOGGER.info("Probing the availability of {}", endpoint);
+			return true;
+		}
+		rejected++;
+		return false;
+	}
+
+	public synchronized void recordSuccess() {
+		failures = 0;
+		if (state != State.CLOSED) {
+			LOGGER.info("{} is available again, {} requests were rejected in the meantime", endpoint, rejected);
+			state = State.CLOSED;
+			rejected = 0;
+			outageReported = false;
+		}
+	}
+
+	public synchronized void recordFailure() {
+		failures++;
+		if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+			LOGGER.warn("{} is unavailable after {} consecutive failures, the requests will be rejected for {} ms",
+					endpoint, failures, openTimeMillis);
+			state = State.OPEN;
+			openedAt = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Returns true while the requests are being rejected, i.e. the circuit is open and the probe is not allowed yet,
+	 * or the probe request is in progress.
+	 */
+	public synchronized boolean isOpen() {
+		return state == State.HALF_OPEN || (state == State.OPEN && !isOpenTimeElapsed());
+	}
+
+	/**
+	 * Returns true only for the first call during the single outage, so the outage is reported once.
+	 */
+	public synchronized boolean markOutageReported() {
+		if (state == State.CLOSED || outageReported) {
+			return false;
+		}
+		outageReported = true;
+		return true;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	public synchronized int getFailures() {
+		return failures;
+	}
+
+	public synchronized long getRejected() {
+		return rejected;
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	private boolean isOpenTimeElapsed() {
+		return System.currentTimeMillis() - openedAt >= openTimeMillis;
+	}
+}
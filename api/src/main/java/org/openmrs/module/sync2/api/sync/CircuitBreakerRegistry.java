@@ -0,0 +1,47 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one {@link CircuitBreaker} per endpoint, identified by the instance and the scheme, host and port
+ * of the requested address.
+ */
+public class CircuitBreakerRegistry {
+
+	private static final Map<String, CircuitBreaker> CIRCUIT_BREAKERS = new ConcurrentHashMap<>();
+
+	public static CircuitBreaker getCircuitBreaker(OpenMRSSyncInstance instance, URI uri, int failureThreshold,
+			int openTime) {
+		String endpoint = getEndpoint(instance, uri);
+		return CIRCUIT_BREAKERS.computeIfAbsent(endpoint,
+				key -> new CircuitBreaker(endpoint, failureThreshold, openTime));
+	}
+
+	/**
+	 * Returns the circuit breaker of the given instance which currently rejects the requests,
+	 * or null if all endpoints of the instance are available.
+	 */
+	public static CircuitBreaker getOpenCircuitBreaker(OpenMRSSyncInstance instance) {
+		String prefix = instance.name() + " ";
+		for (Map.Entry<String, CircuitBreaker> entry : CIRCUIT_BREAKERS.entrySet()) {
+			if (entry.getKey().startsWith(prefix) && entry.getValue().isOpen()) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	public static void clear() {
+		CIRCUIT_BREAKERS.clear();
+	}
+
+	private static String getEndpoint(OpenMRSSyncInstance instance, URI uri) {
+		return instance.name() + " " + uri.getScheme() + "://" + uri.getAuthority();
+	}
+
+	private CircuitBreakerRegistry() { }
+}
@@ -0,0 +1,200 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.apache.commons.codec.binary.Hex;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.RangeDigest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the hashcodes of the objects, ordered by the positions of their uuids. The position is calculated
+ * from the digest of the uuid, so the objects are spread evenly over the positions from 0 to {@link #RANGE_END}
+ * and both instances place the same object at the same position.
+ *
+ * The digest of a range combines the digests of the uuids and the hashcodes of all objects in the range,
+ * independently of their order. If the digests of the same range of two instances differ, the range is split
+ * and only the ranges whose digests still differ are compared, until the objects which differ are found.
+ */
+public class HashcodeRangeIndex {
+
+	public static final long RANGE_END = 1L << 32;
+
+	private static final String UUID_ALGORITHM = "MD5";
+
+	private static final String ENTRY_ALGORITHM = "SHA-256";
+
+	private static final int POSITION_BYTES = 4;
+
+	private static final int DIGEST_BYTES = 32;
+
+	private static final char ENTRY_SEPARATOR = ':';
+
+	private final long[] positions;
+
+	private final String[] uuids;
+
+	private final String[] hashcodes;
+
+	/**
+	 * @param hashcodes the hashcodes of the objects mapped by their uuids
+	 */
+	public HashcodeRangeIndex(Map<String, String> hashcodes) {
+		this(new Builder().addAll(hashcodes).entries);
+	}
+
+	private HashcodeRangeIndex(List<Entry> entries) {
+		entries.sort(Comparator.comparingLong((Entry entry) -> entry.position).thenComparing(entry -> entry.uuid));
+
+		this.positions = new long[entries.size()];
+		this.uuids = new String[entries.size()];
+		this.hashcodes = new String[entries.size()];
+		for (int i = 0; i < entries.size(); i++) {
+			positions[i] = entries.get(i).position;
+			uuids[i] = entries.get(i).uuid;
+			this.hashcodes[i] = entries.get(i).hashcode;
+		}
+	}
+
+	public static long getPosition(String uuid) {
+		return getPosition(getDigest(UUID_ALGORITHM), uuid);
+	}
+
+	/**
+	 * Splits the range into the given number of ranges of equal width, or into ranges of the width 1
+	 * if the range is narrower.
+	 */
+	public static List<RangeDigest> split(RangeDigest range, int fanout) {
+		List<RangeDigest> result = new ArrayList<>();
+		long width = range.getTo() - range.getFrom();
+		long step = Math.max((width + fanout - 1) / fanout, 1L);
+		for (long from = range.getFrom(); from < range.getTo(); from += step) {
+			result.add(new RangeDigest(from, Math.min(from + step, range.getTo())));
+		}
+		return result;
+	}
+
+	public int size() {
+		return positions.length;
+	}
+
+	/**
+	 * @return the number of the objects in the range and the digest of their uuids and hashcodes
+	 */
+	public RangeDigest digest(long from, long to) {
+		byte[] combined = new byte[DIGEST_BYTES];
+		MessageDigest digest = getDigest(ENTRY_ALGORITHM);
+		int start = indexOf(from);
+		int end = indexOf(to);
+		for (int i = start; i < end; i++) {
+			digest.update(uuids[i].getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) ENTRY_SEPARATOR);
+			byte[] entry = digest.digest(hashcodes[i].getBytes(StandardCharsets.UTF_8));
+			for (int j = 0; j < DIGEST_BYTES; j++) {
+				combined[j] ^= entry[j];
+			}
+		}
+		return new RangeDigest(from, to, end - start, Hex.encodeHexString(combined));
+	}
+
+	/**
+	 * @return the hashcodes of the objects in the range mapped by their uuids, in the order of their positions
+	 */
+	public Map<String, String> getHashcodes(long from, long to) {
+		Map<String, String> result = new LinkedHashMap<>();
+		for (int i = indexOf(from); i < indexOf(to); i++) {
+			result.put(uuids[i], hashcodes[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the index of the first object placed at the position or after it
+	 */
+	private int indexOf(long position) {
+		int index = Arrays.binarySearch(positions, position);
+		if (index < 0) {
+			return -index - 1;
+		}
+		while (index > 0 && positions[index - 1] == position) {
+			index--;
+		}
+		return index;
+	}
+
+	private static long getPosition(MessageDigest digest, String uuid) {
+		byte[] bytes = digest.digest(uuid.getBytes(StandardCharsets.UTF_8));
+		long result = 0L;
+		for (int i = 0; i < POSITION_BYTES; i++) {
+			result = (result << Byte.SIZE) | (bytes[i] & 0xff);
+		}
+		return result;
+	}
+
+	private static MessageDigest getDigest(String algorithm) {
+		try {
+			return MessageDigest.getInstance(algorithm);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new SyncException("The " + algorithm + " digest isn't available", e);
+		}
+	}
+
+	/**
+	 * Builds the index from the pages of the hashcodes, so all hashcodes don't have to be read into one map.
+	 * Every object has to be added once, and the builder can't be used after the index is built.
+	 */
+	public static class Builder {
+
+		private final List<Entry> entries = new ArrayList<>();
+
+		private final MessageDigest digest = getDigest(UUID_ALGORITHM);
+
+		public Builder add(String uuid, String hashcode) {
+			if (uuid != null && hashcode != null) {
+				entries.add(new Entry(getPosition(digest, uuid), uuid, hashcode));
+			}
+			return this;
+		}
+
+		/**
+		 * @param hashcodes the hashcodes of the objects mapped by their uuids
+		 */
+		public Builder addAll(Map<String, String> hashcodes) {
+			for (Map.Entry<String, String> hashcode : hashcodes.entrySet()) {
+				add(hashcode.getKey(), hashcode.getValue());
+			}
+			return this;
+		}
+
+		public int size() {
+			return entries.size();
+		}
+
+		public HashcodeRangeIndex build() {
+			return new HashcodeRangeIndex(entries);
+		}
+	}
+
+	private static class Entry {
+
+		private final long position;
+
+		private final String uuid;
+
+		private final String hashcode;
+
+		Entry(long position, String uuid, String hashcode) {
+			this.position = position;
+			this.uuid = uuid;
+			this.hashcode = hashcode;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_PREFETCH_THREADS;
+import static org.openmrs.module.sync2.SyncConstants.PREFETCH_RESERVED_BYTES;
+
+/**
+ * Buffer of the payloads read ahead of the synchronization. The payloads are fetched by their own threads,
+ * so a {@link SyncClient} request waiting for the prefetched payload never blocks the threads which fetch them.
+ * Every payload is used at most once, by the first {@link SyncClient} request of the same resource. The size
+ * of the buffered payloads is limited, every prefetch reserves a part of the limit when it starts and the reservation
+ * is replaced by the size of the payload when it is fetched. The limit applies to the heap taken by the characters
+ * of the buffered bodies, estimated as two bytes per character, the response objects aren't counted. The payloads
+ * exceeding the limit are dropped and fetched again when they are needed.
+ * <p>
+ * The payloads are buffered as the raw response bodies, so they aren't read by the streaming message converters.
+ * The body is converted to the object only when it is taken, from the buffered string.
+ * <p>
+ * The resource can be prefetched with the hashcode of the object, the payload is then fetched only if the object
+ * has changed and it is used only by the request with the same hashcode.
+ */
+public class PayloadPrefetcher {
+
+	private static final String THREAD_NAME_PREFIX = "sync2-prefetch-";
+
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+
+	private static final SyncClient SYNC_CLIENT = new SyncClient();
+
+	private static final Map<String, Prefetch> PREFETCHED = new HashMap<>();
+
+	private static long bufferedBytes;
+
+	private static ThreadPoolExecutor executor;
+
+	/**
+	 * Starts fetching the resource, unless it is already prefetched or the buffer is full.
+	 *
+	 * @param hashCode the hashcode of the object sent as the entity tag, can be null
+	 * @param maxBytes the limit of the size of all buffered payloads
+	 */
+	public static synchronized void prefetch(String category, String clientName, String resourceUrl,
+			OpenMRSSyncInstance instance, String hashCode, long maxBytes) {
+		String key = getKey(clientName, resourceUrl, instance);
+		if (bufferedBytes + PREFETCH_RESERVED_BYTES > maxBytes || PREFETCHED.containsKey(key)) {
+			return;
+		}
+		Prefetch prefetch = new Prefetch(hashCode, CompletableFuture.supplyAsync(ContextUtils.withCurrentUserContext(
+				() -> SYNC_CLIENT.pullRawData(category, clientName, resourceUrl, instance, hashCode)), getExecutor()));
+		prefetch.size = PREFETCH_RESERVED_BYTES;
+		bufferedBytes += prefetch.size;
+		PREFETCHED.put(key, prefetch);
+		prefetch.response.whenComplete((response, e) -> countPayload(key, prefetch, response, maxBytes));
+	}
+
+	/**
+	 * Removes the prefetched payload of the resource from the buffer.
+	 *
+	 * @param hashCode the hashcode of the object sent by the request, can be null
+	 * @return the future of the response containing the payload, or null if the resource wasn't prefetched
+	 * with the same hashcode
+	 */
+	public static synchronized CompletableFuture<ResponseEntity<String>> take(String clientName, String resourceUrl,
+			OpenMRSSyncInstance instance, String hashCode) {
+		Prefetch prefetch = remove(getKey(clientName, resourceUrl, instance));
+		if (prefetch == null) {
+			return null;
+		}
+		if (!Objects.equals(prefetch.hashCode, hashCode)) {
+			prefetch.response.cancel(false);
+			return null;
+		}
+		return prefetch.response;
+	}
+
+	/**
+	 * Drops the payload of the resource which won't be used.
+	 */
+	public static synchronized void discard(String clientName, String resourceUrl, OpenMRSSyncInstance instance) {
+		Prefetch prefetch = remove(getKey(clientName, resourceUrl, instance));
+		if (prefetch != null) {
+			prefetch.response.cancel(false);
+		}
+	}
+
+	public static synchronized void shutdown() {
+		PREFETCHED.clear();
+		bufferedBytes = 0L;
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Applies the number of threads of the current configuration to the running executor.
+	 */
+	public static synchronized void reconfigure() {
+		if (executor != null) {
+			SyncClientExecutor.setPoolSize(executor, getPrefetchThreads());
+		}
+	}
+
+	private static synchronized void countPayload(String key, Prefetch prefetch, ResponseEntity<String> response,
+			long maxBytes) {
+		if (PREFETCHED.get(key) != prefetch) {
+			return;
+		}
+		if (response == null) {
+			remove(key);
+			return;
+		}
+		long size = response.getBody() != null ? (long) response.getBody().length() * Character.BYTES : 0L;
+		bufferedBytes += size - prefetch.size;
+		prefetch.size = size;
+		if (bufferedBytes > maxBytes) {
+			remove(key);
+		}
+	}
+
+	private static Prefetch remove(String key) {
+		Prefetch prefetch = PREFETCHED.remove(key);
+		if (prefetch != null) {
+			bufferedBytes -= prefetch.size;
+		}
+		return prefetch;
+	}
+
+	private static String getKey(String clientName, String resourceUrl, OpenMRSSyncInstance instance) {
+		return instance.name() + " " + clientName + " " + resourceUrl;
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			int threads = getPrefetchThreads();
+			executor = new ThreadPoolExecutor(threads, threads,
+					KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(),
+					createThreadFactory());
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	private static int getPrefetchThreads() {
+		return SyncClientExecutor.getValueOrDefault(SyncClientExecutor.getGeneralConfiguration().getPrefetchThreads(),
+				DEFAULT_PREFETCH_THREADS);
+	}
+
+	private static ThreadFactory createThreadFactory() {
+		AtomicInteger counter = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private static class Prefetch {
+
+		private final String hashCode;
+
+		private final CompletableFuture<ResponseEntity<String>> response;
+
+		private long size;
+
+		Prefetch(String hashCode, CompletableFuture<ResponseEntity<String>> response) {
+			this.hashCode = hashCode;
+			this.response = response;
+		}
+	}
+
+	private PayloadPrefetcher() { }
+}
@@ -0,0 +1,73 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.configuration.ClientConfiguration;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.utils.SyncConfigurationUtils;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link TokenBucket}s limiting the requests sent to the parent: one per endpoint, identified
+ * by the scheme, host and port of the requested address, and one per endpoint and category. The limits are taken
+ * from the {@link ClientConfiguration}, the requests aren't limited if the rate isn't configured.
+ */
+public class RateLimiterRegistry {
+
+	private static final Map<String, Optional<TokenBucket>> BUCKETS = new ConcurrentHashMap<>();
+
+	/**
+	 * Waits until the request of the category can be sent to the endpoint. The requests to the local instance
+	 * are never limited.
+	 */
+	public static void acquire(String category, String clientName, OpenMRSSyncInstance instance, URI uri) {
+		if (instance != OpenMRSSyncInstance.PARENT) {
+			return;
+		}
+		String endpoint = clientName + " " + uri.getScheme() + "://" + uri.getAuthority();
+		try {
+			acquire(BUCKETS.computeIfAbsent(endpoint, key -> createEndpointBucket(clientName)));
+			acquire(BUCKETS.computeIfAbsent(endpoint + " " + category, key -> createCategoryBucket(clientName)));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SyncException(String.format("Interrupted while waiting for the request to %s", uri), e);
+		}
+	}
+
+	/**
+	 * Drops all buckets, so the next requests will use the current configuration.
+	 */
+	public static void clear() {
+		BUCKETS.clear();
+	}
+
+	private static void acquire(Optional<TokenBucket> bucket) throws InterruptedException {
+		if (bucket.isPresent()) {
+			bucket.get().acquire();
+		}
+	}
+
+	private static Optional<TokenBucket> createEndpointBucket(String clientName) {
+		ClientConfiguration conf = SyncConfigurationUtils.getClientConfiguration(clientName);
+		return conf == null ? Optional.empty() : createBucket(conf.getRequestRate(), conf.getRequestBurst());
+	}
+
+	private static Optional<TokenBucket> createCategoryBucket(String clientName) {
+		ClientConfiguration conf = SyncConfigurationUtils.getClientConfiguration(clientName);
+		return conf == null ? Optional.empty()
+				: createBucket(conf.getCategoryRequestRate(), conf.getCategoryRequestBurst());
+	}
+
+	private static Optional<TokenBucket> createBucket(Integer rate, Integer burst) {
+		if (rate == null || rate <= 0) {
+			return Optional.empty();
+		}
+		return Optional.of(new TokenBucket(rate, burst != null && burst > 0 ? burst : rate));
+	}
+
+	private RateLimiterRegistry() { }
+}
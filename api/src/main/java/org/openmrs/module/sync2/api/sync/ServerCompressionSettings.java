@@ -0,0 +1,83 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.apache.commons.lang.StringUtils;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
+
+import static org.openmrs.module.sync2.SyncConstants.COMPRESSION_MAX_REQUEST_SIZE_PROPERTY;
+import static org.openmrs.module.sync2.SyncConstants.COMPRESSION_THRESHOLD_PROPERTY;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_COMPRESSION_MAX_REQUEST_SIZE;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_COMPRESSION_THRESHOLD;
+
+/**
+ * The gzip settings of the Sync 2.0 endpoints of this instance. They are applied to every request, so they are
+ * read from the global properties once and cached until {@link SyncEndpointGlobalPropertyListener} invalidates
+ * them because one of the properties changed.
+ */
+public class ServerCompressionSettings {
+
+	private static volatile ServerCompressionSettings settings;
+
+	private final int threshold;
+
+	private final int maxRequestSize;
+
+	private final boolean compressedByOpenmrs;
+
+	private ServerCompressionSettings(int threshold, int maxRequestSize, boolean compressedByOpenmrs) {
+		this.threshold = threshold;
+		this.maxRequestSize = maxRequestSize;
+		this.compressedByOpenmrs = compressedByOpenmrs;
+	}
+
+	public static ServerCompressionSettings get() {
+		ServerCompressionSettings current = settings;
+		return current != null ? current : load();
+	}
+
+	public static synchronized void invalidate() {
+		settings = null;
+	}
+
+	/**
+	 * @return the minimal size of the response body which is compressed
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @return the maximal size of the decompressed request body
+	 */
+	public int getMaxRequestSize() {
+		return maxRequestSize;
+	}
+
+	/**
+	 * The OpenMRS GZIPFilter compresses all responses when enabled, so they mustn't be compressed twice.
+	 */
+	public boolean isCompressedByOpenmrs() {
+		return compressedByOpenmrs;
+	}
+
+	private static synchronized ServerCompressionSettings load() {
+		if (settings == null) {
+			AdministrationService administrationService = Context.getAdministrationService();
+			settings = new ServerCompressionSettings(
+					getIntegerProperty(administrationService, COMPRESSION_THRESHOLD_PROPERTY,
+							DEFAULT_COMPRESSION_THRESHOLD),
+					getIntegerProperty(administrationService, COMPRESSION_MAX_REQUEST_SIZE_PROPERTY,
+							DEFAULT_COMPRESSION_MAX_REQUEST_SIZE),
+					Boolean.parseBoolean(
+							administrationService.getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED)));
+		}
+		return settings;
+	}
+
+	private static int getIntegerProperty(AdministrationService administrationService, String property,
+			int defaultValue) {
+		String value = administrationService.getGlobalProperty(property);
+		return StringUtils.isNumeric(value) && StringUtils.isNotEmpty(value) ? Integer.parseInt(value) : defaultValue;
+	}
+}
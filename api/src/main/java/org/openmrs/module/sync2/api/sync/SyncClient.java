@@ -1,56 +1,79 @@
 package org.openmrs.module.sync2.api.sync;
 
+import com.google.gson.reflect.TypeToken;
 import org.openmrs.module.fhir.api.helper.ClientHelper;
 import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.BatchRequestWrapper;
 import org.openmrs.module.sync2.api.model.InnerRequest;
+import org.openmrs.module.sync2.api.model.InnerResponse;
+import org.openmrs.module.sync2.api.model.PushOperation;
+import org.openmrs.module.sync2.api.model.RangeDigest;
+import org.openmrs.module.sync2.api.model.ReconciliationRequest;
 import org.openmrs.module.sync2.api.model.RequestWrapper;
 import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.utils.BatchResponseUtils;
+import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
 import org.openmrs.module.sync2.api.utils.SyncUtils;
 import org.openmrs.module.sync2.client.ClientHelperFactory;
-import org.openmrs.module.sync2.client.RequestWrapperConverter;
+import org.openmrs.module.sync2.client.RestTemplateFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.openmrs.module.sync2.SyncConstants.ACTION_CREATED;
 import static org.openmrs.module.sync2.SyncConstants.ACTION_DELETED;
 import static org.openmrs.module.sync2.SyncConstants.ACTION_RETIRED;
 import static org.openmrs.module.sync2.SyncConstants.ACTION_UPDATED;
 import static org.openmrs.module.sync2.SyncConstants.ACTION_VOIDED;
+import static org.openmrs.module.sync2.SyncConstants.REST_CLIENT;
+import static org.openmrs.module.sync2.SyncConstants.SYNC2_BATCH_PATH;
+import static org.openmrs.module.sync2.SyncConstants.SYNC2_RECONCILIATION_DIGESTS_PATH;
+import static org.openmrs.module.sync2.SyncConstants.SYNC2_RECONCILIATION_HASHCODES_PATH;
 import static org.openmrs.module.sync2.SyncConstants.SYNC2_REST_ENDPOINT;
-import static org.openmrs.module.sync2.api.utils.SyncUtils.getLocalBaseUrl;
-import static org.openmrs.module.sync2.api.utils.SyncUtils.getParentBaseUrl;
+import static org.openmrs.module.sync2.SyncConstants.SYNC_ORIGIN_HEADER;
 import static org.openmrs.module.sync2.api.utils.SyncUtils.getSyncConfigurationService;
 
 public class SyncClient {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(SyncClient.class);
 
-	private String username;
+	private static final Type RANGE_DIGESTS_TYPE = new TypeToken<List<RangeDigest>>() {}.getType();
 
-	private String password;
-
-	private RestTemplate restTemplate = new RestTemplate();
+	private static final Type RANGE_HASHCODES_TYPE = new TypeToken<Map<String, String>>() {}.getType();
 
 	public Object pullData(String category, String clientName, String resourceUrl, OpenMRSSyncInstance instance) {
+		ResponseEntity<Object> prefetched = takePrefetched(category, clientName, resourceUrl, instance, null);
+		if (prefetched != null) {
+			return prefetched.getBody();
+		}
 		Object result = null;
-		setUpCredentials(clientName, instance);
-
-		ClientHelper clientHelper = ClientHelperFactory.createClient(clientName);
-		prepareRestTemplate(clientHelper);
 		String destinationUrl = getDestinationUri(instance, clientName);
 
 		try {
@@ -70,13 +93,113 @@ public class SyncClient {
 		return result;
 	}
 
+	/**
+	 * Asynchronous version of {@link #pullData(String, String, String, OpenMRSSyncInstance)},
+	 * executed by the {@link SyncClientExecutor}
+	 */
+	public CompletableFuture<Object> pullDataAsync(String category, String clientName, String resourceUrl,
+			OpenMRSSyncInstance instance) {
+		return SyncClientExecutor.supplyAsync(() -> pullData(category, clientName, resourceUrl, instance));
+	}
+
+	/**
+	 * Asynchronous version of {@link #pullDataIfModified(String, String, String, OpenMRSSyncInstance, String)},
+	 * executed by the {@link SyncClientExecutor}
+	 */
+	public CompletableFuture<ResponseEntity<Object>> pullDataIfModifiedAsync(String category, String clientName,
+			String resourceUrl, OpenMRSSyncInstance instance, String hashCode) {
+		return SyncClientExecutor.supplyAsync(
+				() -> pullDataIfModified(category, clientName, resourceUrl, instance, hashCode));
+	}
+
+	/**
+	 * Asynchronous version of {@link #pushData(String, Object, String, String, String, OpenMRSSyncInstance)},
+	 * executed by the {@link SyncClientExecutor}
+	 */
+	public CompletableFuture<ResponseEntity<String>> pushDataAsync(String category, Object object, String clientName,
+			String resourceUrl, String action, OpenMRSSyncInstance instance) {
+		return SyncClientExecutor.supplyAsync(
+				() -> pushData(category, object, clientName, resourceUrl, action, instance));
+	}
+
+	/**
+	 * Retrieves the object only if it has changed since it was synchronized. If the messages are wrapped,
+	 * the hashcode is sent as the entity tag and the parent responds with NOT_MODIFIED if it still matches.
+	 * The response prefetched with the same hashcode is used instead of the request.
+	 *
+	 * @param hashCode the hashcode of the object stored during the last synchronization, can be null
+	 * @return the response containing the retrieved object, or the NOT_MODIFIED response without a body,
+	 * or the NOT_FOUND response if the object doesn't exist
+	 */
+	public ResponseEntity<Object> pullDataIfModified(String category, String clientName, String resourceUrl,
+			OpenMRSSyncInstance instance, String hashCode) {
+		ResponseEntity<Object> prefetched = takePrefetched(category, clientName, resourceUrl, instance, hashCode);
+		if (prefetched != null) {
+			return prefetched;
+		}
+		if (hashCode == null || !shouldWrappMessage(clientName, instance)) {
+			Object result = pullData(category, clientName, resourceUrl, instance);
+			return new ResponseEntity<>(result, result != null ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+		}
+		String destinationUrl = getDestinationUri(instance, clientName);
+
+		try {
+			return retrieveObjectIfModified(category, resourceUrl, destinationUrl, clientName, instance, hashCode);
+		}
+		catch (HttpClientErrorException e) {
+			if (e.getStatusCode().equals(HttpStatus.UNAUTHORIZED)) {
+				throw new SyncException("Unauthorized error during reading parent object: ", e);
+			}
+			if (!e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
+				throw new SyncException("Error during reading local object: ", e);
+			}
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+		catch (URISyntaxException e) {
+			throw new SyncException("Incorrect resource url: ", e);
+		}
+	}
+
+	/**
+	 * Retrieves several objects of the same category. If the messages are wrapped, all objects are fetched
+	 * using a single request to the batch endpoint, otherwise they are fetched one by one.
+	 *
+	 * @return the objects mapped by their resource urls. Objects which don't exist are mapped to null,
+	 * the urls the other instance didn't respond to are omitted.
+	 */
+	public Map<String, Object> pullDataBatch(String category, String clientName, List<String> resourceUrls,
+			OpenMRSSyncInstance instance) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		if (resourceUrls.isEmpty()) {
+			return result;
+		}
+		if (!shouldWrappMessage(clientName, instance)) {
+			for (String resourceUrl : resourceUrls) {
+				result.put(resourceUrl, pullData(category, clientName, resourceUrl, instance));
+			}
+			return result;
+		}
+
+		String destinationUrl = getDestinationUri(instance, clientName) + SYNC2_BATCH_PATH;
+		try {
+			retrieveObjects(category, resourceUrls, destinationUrl, clientName, instance, result);
+		}
+		catch (HttpClientErrorException e) {
+			if (e.getStatusCode().equals(HttpStatus.UNAUTHORIZED)) {
+				throw new SyncException("Unauthorized error during reading parent objects: ", e);
+			}
+			throw new SyncException("Error during reading objects: ", e);
+		}
+		catch (URISyntaxException e) {
+			LOGGER.error(e.getMessage());
+		}
+		return result;
+	}
+
 	public ResponseEntity<String> pushData(String category, Object object, String clientName,
 			String resourceUrl, String action, OpenMRSSyncInstance instance) {
 		ResponseEntity<String> result = null;
-		setUpCredentials(clientName, instance);
 		String destinationUrl = getDestinationUri(instance, clientName);
-		ClientHelper clientHelper = ClientHelperFactory.createClient(clientName);
-		prepareRestTemplate(clientHelper);
 
 		try {
 			switch (action) {
@@ -106,17 +229,115 @@ public class SyncClient {
 		return result;
 	}
 
-	private void setUpCredentials(String clientName, OpenMRSSyncInstance instance) {
-		this.username = SyncUtils.getClientLogin(clientName, instance);
-		this.password = SyncUtils.getClientPassword(clientName, instance);
+	/**
+	 * Sends many create, update and delete operations of the same category. If the messages are wrapped,
+	 * all operations are sent in a single request and the other instance applies them in the given order.
+	 *
+	 * @return the status of every operation, in the order of the operations
+	 */
+	public List<InnerResponse> pushDataBatch(String category, String clientName, List<PushOperation> operations,
+			OpenMRSSyncInstance instance) {
+		if (operations.isEmpty()) {
+			return new ArrayList<>();
+		}
+		for (PushOperation operation : operations) {
+			if (!isSupportedAction(operation.getAction())) {
+				throw new SyncException(String.format("Sync push exception. Unrecognized action: %s",
+						operation.getAction()));
+			}
+		}
+		String destinationUrl = getDestinationUri(instance, clientName);
+
+		try {
+			return sendObjects(category, operations, destinationUrl, clientName, instance);
+		}
+		catch (HttpClientErrorException | HttpServerErrorException e) {
+			throw new SyncException(String.format("Batch posting error. Code: %d. Details: \n%s",
+					e.getStatusCode().value(), e.getResponseBodyAsString()), e);
+		}
+		catch (URISyntaxException e) {
+			throw new SyncException("Incorrect resource url: ", e);
+		}
 	}
 
-	private void prepareRestTemplate(ClientHelper clientHelper) {
-		restTemplate.setInterceptors(clientHelper.getCustomInterceptors(this.username, this.password));
+	/**
+	 * Retrieves the digests of the parent objects of the category in the given ranges.
+	 *
+	 * @return the digests in the order of the ranges, or null if the parent isn't ready to compare the category yet
+	 */
+	public List<RangeDigest> pullRangeDigests(String category, List<RangeDigest> ranges) {
+		return reconcile(category, ranges, SYNC2_RECONCILIATION_DIGESTS_PATH, RANGE_DIGESTS_TYPE);
+	}
 
-		List<HttpMessageConverter<?>> converters = new ArrayList<>(clientHelper.getCustomMessageConverter());
-		converters.add(new RequestWrapperConverter());
-		restTemplate.setMessageConverters(converters);
+	/**
+	 * Retrieves the hashcodes of the parent objects of the category in the given ranges.
+	 *
+	 * @return the hashcodes mapped by the object uuids, or null if the parent isn't ready to compare
+	 * the category yet
+	 */
+	public Map<String, String> pullRangeHashcodes(String category, List<RangeDigest> ranges) {
+		return reconcile(category, ranges, SYNC2_RECONCILIATION_HASHCODES_PATH, RANGE_HASHCODES_TYPE);
+	}
+
+	/**
+	 * Reads the object without converting it. If the messages are wrapped and the hashcode is given,
+	 * the object is read only if it has changed, as in
+	 * {@link #pullDataIfModified(String, String, String, OpenMRSSyncInstance, String)}.
+	 *
+	 * @return the response containing the object, or the NOT_MODIFIED or NOT_FOUND response without a body
+	 */
+	ResponseEntity<String> pullRawData(String category, String clientName, String resourceUrl,
+			OpenMRSSyncInstance instance, String hashCode) {
+		String destinationUrl = getDestinationUri(instance, clientName);
+		try {
+			RequestEntity<?> request = ClientHelperFactory.createClient(clientName).retrieveRequest(resourceUrl);
+			if (shouldWrappMessage(clientName, instance)) {
+				if (hashCode != null) {
+					request = withHeader(request, HttpHeaders.IF_NONE_MATCH, SyncHashcodeUtils.getEntityTag(hashCode));
+				}
+				request = sendRequest(category, destinationUrl, clientName, new InnerRequest(request));
+			}
+			ResponseEntity<?> response = exchange(category, request, String.class, clientName, instance);
+			return new ResponseEntity<>((String) response.getBody(), response.getStatusCode());
+		}
+		catch (HttpClientErrorException e) {
+			if (e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
+				return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+			}
+			throw e;
+		}
+		catch (URISyntaxException e) {
+			throw new SyncException("Incorrect resource url: ", e);
+		}
+	}
+
+	/**
+	 * @return the prefetched response, or null if the object wasn't prefetched with the same hashcode
+	 * or it couldn't be read
+	 */
+	private ResponseEntity<Object> takePrefetched(String category, String clientName, String resourceUrl,
+			OpenMRSSyncInstance instance, String hashCode) {
+		CompletableFuture<ResponseEntity<String>> prefetched =
+				PayloadPrefetcher.take(clientName, resourceUrl, instance, hashCode);
+		if (prefetched == null) {
+			return null;
+		}
+		try {
+			ResponseEntity<String> response = SyncClientExecutor.join(prefetched);
+			if (HttpStatus.NOT_MODIFIED.equals(response.getStatusCode())) {
+				return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+			}
+			if (response.getBody() == null) {
+				return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+			}
+			ClientHelper helper = ClientHelperFactory.createClient(clientName);
+			Object result = helper.convertToObject(response.getBody(), helper.resolveClassByCategory(category));
+			return new ResponseEntity<>(result, HttpStatus.OK);
+		}
+		catch (RuntimeException e) {
+			LOGGER.debug("The prefetched object {} is not available, it will be read again", resourceUrl, e);
+			return null;
+		}
 	}
 
 	private Object retrieveObject(String category, String resourceUrl, String destinationUrl, String clientName,
@@ -129,7 +350,154 @@ public class SyncClient {
 		if (shouldWrappMessage(clientName, instance)) {
 			request = sendRequest(category, destinationUrl, clientName, new InnerRequest(request));
 		}
-		return exchange(request, clazz).getBody();
+		return exchange(category, request, clazz, clientName, instance).getBody();
+	}
+
+	private List<InnerResponse> sendObjects(String category, List<PushOperation> operations, String destinationUrl,
+			String clientName, OpenMRSSyncInstance instance) throws RestClientException, URISyntaxException {
+		ClientHelper helper = ClientHelperFactory.createClient(clientName);
+		Class<?> clazz = helper.resolveClassByCategory(category);
+		List<InnerResponse> result = new ArrayList<>();
+
+		if (!shouldWrappMessage(clientName, instance)) {
+			for (PushOperation operation : operations) {
+				RequestEntity request = helper.createRequest(operation.getResourceUrl(), operation.getObject());
+				try {
+					result.add(new InnerResponse(request.getUrl(),
+							exchange(category, request, String.class, clientName, instance)));
+				}
+				catch (HttpStatusCodeException e) {
+					result.add(new InnerResponse(request.getUrl(), e.getStatusCode(), e.getResponseBodyAsString()));
+				}
+			}
+			return result;
+		}
+
+		BatchRequestWrapper wrapper = new BatchRequestWrapper();
+		fillWrapper(wrapper, category, clazz, clientName);
+		for (PushOperation operation : operations) {
+			wrapper.addRequest(new InnerRequest(helper.createRequest(operation.getResourceUrl(), operation.getObject())));
+		}
+		executeBatch(wrapper, destinationUrl + SYNC2_BATCH_PATH, clientName, instance, result::add);
+		return result;
+	}
+
+	private ResponseEntity<Object> retrieveObjectIfModified(String category, String resourceUrl,
+			String destinationUrl, String clientName, OpenMRSSyncInstance instance, String hashCode)
+			throws RestClientException, URISyntaxException {
+		ClientHelper helper = ClientHelperFactory.createClient(clientName);
+		Class<?> clazz = helper.resolveClassByCategory(category);
+
+		RequestEntity<?> request = withHeader(helper.retrieveRequest(resourceUrl), HttpHeaders.IF_NONE_MATCH,
+				SyncHashcodeUtils.getEntityTag(hashCode));
+
+		ResponseEntity<?> response = exchange(category,
+				sendRequest(category, destinationUrl, clientName, new InnerRequest(request)), clazz, clientName, instance);
+		return new ResponseEntity<Object>(response.getBody(), response.getStatusCode());
+	}
+
+	private RequestEntity<?> withHeader(RequestEntity<?> request, String name, String value) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(request.getHeaders());
+		headers.set(name, value);
+		return new RequestEntity<>(request.getBody(), headers, request.getMethod(), request.getUrl());
+	}
+
+	private void retrieveObjects(String category, List<String> resourceUrls, String destinationUrl,
+			String clientName, OpenMRSSyncInstance instance, Map<String, Object> result)
+			throws RestClientException, URISyntaxException {
+		ClientHelper helper = ClientHelperFactory.createClient(clientName);
+		Class<?> clazz = helper.resolveClassByCategory(category);
+
+		BatchRequestWrapper wrapper = new BatchRequestWrapper();
+		fillWrapper(wrapper, category, clazz, clientName);
+		Map<URI, String> resourceUrlsByRequestUrl = new HashMap<>();
+		for (String resourceUrl : resourceUrls) {
+			InnerRequest request = new InnerRequest(helper.retrieveRequest(resourceUrl));
+			if (resourceUrlsByRequestUrl.put(request.getUrl(), resourceUrl) == null) {
+				wrapper.addRequest(request);
+			}
+		}
+
+		executeBatch(wrapper, destinationUrl, clientName, instance, innerResponse -> {
+			String resourceUrl = resourceUrlsByRequestUrl.get(innerResponse.getUrl());
+			if (resourceUrl == null) {
+				LOGGER.warn("Unexpected response to {} in the batch of {} objects", innerResponse.getUrl(), category);
+				return;
+			}
+			result.put(resourceUrl, extractObject(helper, clazz, innerResponse));
+		});
+	}
+
+	private void executeBatch(BatchRequestWrapper wrapper, String destinationUrl, String clientName,
+			OpenMRSSyncInstance instance, Consumer<InnerResponse> consumer)
+			throws RestClientException, URISyntaxException {
+		RequestCallback requestCallback = request -> {
+			request.getHeaders().setContentType(new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8));
+			if (instance == OpenMRSSyncInstance.CHILD) {
+				request.getHeaders().set(SYNC_ORIGIN_HEADER, Boolean.TRUE.toString());
+			}
+			Writer writer = new OutputStreamWriter(request.getBody(), StandardCharsets.UTF_8);
+			SyncUtils.getDefaultGson().toJson(wrapper, writer);
+			writer.flush();
+		};
+		ResponseExtractor<Void> responseExtractor = response -> {
+			BatchResponseUtils.readInnerResponses(response.getBody(), consumer);
+			return null;
+		};
+
+		URI uri = new URI(destinationUrl);
+		RateLimiterRegistry.acquire(wrapper.getCategory(), clientName, instance, uri);
+		RestTemplateFactory.getRestTemplate(clientName, instance)
+				.execute(uri, HttpMethod.POST, requestCallback, responseExtractor);
+	}
+
+	private <T> T reconcile(String category, List<RangeDigest> ranges, String path, Type type) {
+		String instanceId = getSyncConfigurationService().getSyncConfiguration().getGeneral().getLocalInstanceId();
+		ReconciliationRequest reconciliationRequest = new ReconciliationRequest(instanceId, category, ranges);
+		RequestCallback requestCallback = request -> {
+			request.getHeaders().setContentType(new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8));
+			Writer writer = new OutputStreamWriter(request.getBody(), StandardCharsets.UTF_8);
+			SyncUtils.getDefaultGson().toJson(reconciliationRequest, writer);
+			writer.flush();
+		};
+		ResponseExtractor<T> responseExtractor = response -> {
+			if (HttpStatus.ACCEPTED.equals(response.getStatusCode())) {
+				return null;
+			}
+			Reader reader = new InputStreamReader(response.getBody(), StandardCharsets.UTF_8);
+			return SyncUtils.getDefaultGson().fromJson(reader, type);
+		};
+
+		try {
+			URI uri = new URI(getDestinationUri(OpenMRSSyncInstance.PARENT, REST_CLIENT) + path);
+			RateLimiterRegistry.acquire(category, REST_CLIENT, OpenMRSSyncInstance.PARENT, uri);
+			return RestTemplateFactory.getRestTemplate(REST_CLIENT, OpenMRSSyncInstance.PARENT)
+					.execute(uri, HttpMethod.POST, requestCallback, responseExtractor);
+		}
+		catch (HttpClientErrorException | HttpServerErrorException e) {
+			throw new SyncException(String.format("Reconciliation error. Code: %d. Details: \n%s",
+					e.getStatusCode().value(), e.getResponseBodyAsString()), e);
+		}
+		catch (URISyntaxException e) {
+			throw new SyncException("Incorrect resource url: ", e);
+		}
+	}
+
+	private Object extractObject(ClientHelper helper, Class<?> clazz, InnerResponse response) {
+		HttpStatus status = response.getStatus();
+		if (status.is2xxSuccessful()) {
+			return helper.convertToObject(response.getBody(), clazz);
+		}
+		if (status.equals(HttpStatus.UNAUTHORIZED)) {
+			throw new SyncException(String.format("Unauthorized error during reading parent object: %s",
+					response.getUrl()));
+		}
+		if (!status.equals(HttpStatus.NOT_FOUND)) {
+			throw new SyncException(String.format("Error during reading object: %s. Code: %d. Details: \n%s",
+					response.getUrl(), response.getStatusCode(), response.getBody()));
+		}
+		return null;
 	}
 
 	private ResponseEntity<String> createObject(String category, String resourceUrl, String destinationUrl, Object object,
@@ -140,7 +508,7 @@ public class SyncClient {
 		if (shouldWrappMessage(clientName, instance)) {
 			request = sendRequest(category, destinationUrl, clientName, new InnerRequest(request));
 		}
-		return exchange(request, String.class);
+		return exchange(category, request, String.class, clientName, instance);
 	}
 
 	private ResponseEntity<String> deleteObject(String category, String resourceUrl, String destinationUrl, String uuid,
@@ -151,7 +519,7 @@ public class SyncClient {
 		if (shouldWrappMessage(clientName, instance)) {
 			request = sendRequest(category, destinationUrl, clientName, new InnerRequest(request));
 		}
-		return exchange(request, String.class);
+		return exchange(category, request, String.class, clientName, instance);
 	}
 
 	private ResponseEntity<String> updateObject(String category, String resourceUrl, String destinationUrl, Object object,
@@ -162,42 +530,59 @@ public class SyncClient {
 		if (shouldWrappMessage(clientName, instance)) {
 			request = sendRequest(category, destinationUrl, clientName, new InnerRequest(request));
 		}
-		return exchange(request, String.class);
+		return exchange(category, request, String.class, clientName, instance);
 	}
 
-	private ResponseEntity exchange(RequestEntity request, Class clazz) {
-		return restTemplate.exchange(request, clazz);
+	/**
+	 * The requests to the local instance are marked with the {@link SyncOrigin} header, so the objects saved
+	 * by the synchronization aren't pushed back by the real-time push.
+	 */
+	private ResponseEntity exchange(String category, RequestEntity request, Class clazz, String clientName,
+			OpenMRSSyncInstance instance) {
+		RateLimiterRegistry.acquire(category, clientName, instance, request.getUrl());
+		RequestEntity<?> sentRequest = instance == OpenMRSSyncInstance.CHILD
+				? withHeader(request, SYNC_ORIGIN_HEADER, Boolean.TRUE.toString()) : request;
+		return RestTemplateFactory.getRestTemplate(clientName, instance).exchange(sentRequest, clazz);
 	}
 
 	private RequestEntity<RequestWrapper> sendRequest(String category, String destinationUrl, String clientName,
 			InnerRequest request) throws URISyntaxException {
 		ClientHelper clientHelper = ClientHelperFactory.createClient(clientName);
 		Class<?> clazz = clientHelper.resolveClassByCategory(category);
-		String instanceId = getSyncConfigurationService().getSyncConfiguration().getGeneral().getLocalInstanceId();
 
 		RequestWrapper wrapper = new RequestWrapper();
+		fillWrapper(wrapper, category, clazz, clientName);
+		wrapper.setRequest(request);
+
+		return new RequestEntity<>(wrapper, HttpMethod.POST, new URI(destinationUrl));
+	}
+
+	private void fillWrapper(RequestWrapper wrapper, String category, Class<?> clazz, String clientName) {
+		String instanceId = getSyncConfigurationService().getSyncConfiguration().getGeneral().getLocalInstanceId();
 		wrapper.setInstanceId(instanceId);
 		wrapper.setClassName(clazz.getCanonicalName());
+		wrapper.setCategory(category);
 		wrapper.setClientName(clientName);
-		wrapper.setRequest(request);
+	}
 
-		return new RequestEntity<>(wrapper, HttpMethod.POST, new URI(destinationUrl));
+	private boolean isSupportedAction(String action) {
+		switch (action) {
+			case ACTION_CREATED:
+			case ACTION_UPDATED:
+			case ACTION_VOIDED:
+			case ACTION_DELETED:
+			case ACTION_RETIRED:
+				return true;
+			default:
+				return false;
+		}
 	}
 
 	private boolean shouldWrappMessage(String clientName, OpenMRSSyncInstance instance) {
-		return !SyncUtils.clientHasSpecificAddress(clientName, instance);
+		return SyncEndpointRegistry.getEndpoint(clientName, instance).isWrapped();
 	}
 
 	private String getDestinationUri(OpenMRSSyncInstance instance, String clientName) {
-		String uri = "";
-		switch (instance) {
-			case PARENT:
-				uri = getParentBaseUrl(clientName);
-				break;
-			case CHILD:
-				uri = getLocalBaseUrl();
-				break;
-		}
-		return uri + SYNC2_REST_ENDPOINT;
+		return SyncEndpointRegistry.getEndpoint(clientName, instance).getBaseUrl() + SYNC2_REST_ENDPOINT;
 	}
 }
@@ -0,0 +1,125 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.openmrs.api.APIException;
+import org.openmrs.module.sync2.api.model.configuration.GeneralConfiguration;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_IO_QUEUE_SIZE;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_IO_THREADS;
+
+/**
+ * Bounded executor of the asynchronous {@link SyncClient} requests. The tasks run in their own OpenMRS session,
+ * with the user context of the thread which submitted them. When all threads are busy and the queue is full,
+ * the submitting thread runs the task itself, which slows the producers down instead of rejecting the work.
+ * The number of threads and the size of the queue are read from the general sync configuration.
+ */
+public class SyncClientExecutor {
+
+	private static final String THREAD_NAME_PREFIX = "sync2-io-";
+
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+
+	private static ThreadPoolExecutor executor;
+
+	public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+		return CompletableFuture.supplyAsync(ContextUtils.withCurrentUserContext(supplier), getExecutor());
+	}
+
+	/**
+	 * Waits for the result of the future. The exception thrown by the task is rethrown as it is,
+	 * so the callers can handle it the same way as for the synchronous calls.
+	 */
+	public static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new APIException("Interrupted while waiting for the sync request", e);
+		}
+		catch (ExecutionException | CompletionException e) {
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new APIException(cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * Applies the number of threads of the current configuration to the running executor.
+	 * The size of the queue is applied when the executor is created again.
+	 */
+	public static synchronized void reconfigure() {
+		if (executor != null) {
+			setPoolSize(executor, getValueOrDefault(getGeneralConfiguration().getIoThreads(), DEFAULT_IO_THREADS));
+		}
+	}
+
+	public static synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			GeneralConfiguration conf = getGeneralConfiguration();
+			int threads = getValueOrDefault(conf.getIoThreads(), DEFAULT_IO_THREADS);
+			executor = new ThreadPoolExecutor(threads, threads,
+					KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(getValueOrDefault(conf.getIoQueueSize(), DEFAULT_IO_QUEUE_SIZE)),
+					createThreadFactory(),
+					new ThreadPoolExecutor.CallerRunsPolicy());
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	/**
+	 * Changes the number of threads of the fixed size pool.
+	 */
+	public static void setPoolSize(ThreadPoolExecutor executor, int threads) {
+		if (threads > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(threads);
+			executor.setCorePoolSize(threads);
+		} else {
+			executor.setCorePoolSize(threads);
+			executor.setMaximumPoolSize(threads);
+		}
+	}
+
+	static GeneralConfiguration getGeneralConfiguration() {
+		return SyncUtils.getSyncConfigurationService().getSyncConfiguration().getGeneral();
+	}
+
+	static int getValueOrDefault(Integer value, int defaultValue) {
+		return value != null && value > 0 ? value : defaultValue;
+	}
+
+	private static ThreadFactory createThreadFactory() {
+		AtomicInteger counter = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private SyncClientExecutor() { }
+}
@@ -0,0 +1,51 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.GlobalPropertyListener;
+import org.openmrs.util.OpenmrsConstants;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.openmrs.module.sync2.SyncConstants.COMPRESSION_MAX_REQUEST_SIZE_PROPERTY;
+import static org.openmrs.module.sync2.SyncConstants.COMPRESSION_THRESHOLD_PROPERTY;
+import static org.openmrs.module.sync2.SyncConstants.LOCAL_PASSWORD_PROPERTY;
+import static org.openmrs.module.sync2.SyncConstants.LOCAL_USERNAME_PROPERTY;
+import static org.openmrs.module.sync2.SyncConstants.PARENT_PASSWORD_PROPERTY;
+import static org.openmrs.module.sync2.SyncConstants.PARENT_USERNAME_PROPERTY;
+
+/**
+ * Invalidates the {@link SyncEndpointRegistry} when the credentials stored in the global properties change,
+ * and the {@link ServerCompressionSettings} when the compression properties change.
+ */
+public class SyncEndpointGlobalPropertyListener implements GlobalPropertyListener {
+
+	private static final List<String> CREDENTIAL_PROPERTIES = Arrays.asList(PARENT_USERNAME_PROPERTY,
+			PARENT_PASSWORD_PROPERTY, LOCAL_USERNAME_PROPERTY, LOCAL_PASSWORD_PROPERTY);
+
+	private static final List<String> COMPRESSION_PROPERTIES = Arrays.asList(COMPRESSION_THRESHOLD_PROPERTY,
+			COMPRESSION_MAX_REQUEST_SIZE_PROPERTY, OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED);
+
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return CREDENTIAL_PROPERTIES.contains(propertyName) || COMPRESSION_PROPERTIES.contains(propertyName);
+	}
+
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		invalidate(newValue.getProperty());
+	}
+
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		invalidate(propertyName);
+	}
+
+	private void invalidate(String propertyName) {
+		if (COMPRESSION_PROPERTIES.contains(propertyName)) {
+			ServerCompressionSettings.invalidate();
+		} else {
+			SyncEndpointRegistry.invalidate();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.openmrs.module.sync2.api.model.SyncEndpoint;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+import org.openmrs.module.sync2.client.ClientHelperFactory;
+import org.openmrs.module.sync2.client.RestTemplateFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Table of the resolved {@link SyncEndpoint}s. Resolving an endpoint reads the sync configuration and
+ * the global properties, so it is done once per (client, instance) pair instead of for every request.
+ * The table is immutable and replaced as a whole (copy on write), so the readers never see a partially
+ * updated table. It is invalidated when the configuration or the credentials change.
+ */
+public class SyncEndpointRegistry {
+
+	private static volatile Map<String, SyncEndpoint> endpoints = Collections.emptyMap();
+
+	public static SyncEndpoint getEndpoint(String clientName, OpenMRSSyncInstance instance) {
+		SyncEndpoint endpoint = endpoints.get(getKey(clientName, instance));
+		return endpoint != null ? endpoint : addEndpoint(clientName, instance);
+	}
+
+	/**
+	 * Replaces the table with the empty one, so the endpoints are resolved again using the current configuration
+	 * and credentials. The cached RestTemplates are dropped as well, because they hold the previous credentials,
+	 * together with the rate limits and the circuit breakers of the previous configuration.
+	 */
+	public static synchronized void invalidate() {
+		endpoints = Collections.emptyMap();
+		RestTemplateFactory.clearCache();
+		RateLimiterRegistry.clear();
+		CircuitBreakerRegistry.clear();
+	}
+
+	private static synchronized SyncEndpoint addEndpoint(String clientName, OpenMRSSyncInstance instance) {
+		String key = getKey(clientName, instance);
+		SyncEndpoint endpoint = endpoints.get(key);
+		if (endpoint == null) {
+			endpoint = resolveEndpoint(clientName, instance);
+			Map<String, SyncEndpoint> extended = new HashMap<>(endpoints);
+			extended.put(key, endpoint);
+			endpoints = Collections.unmodifiableMap(extended);
+		}
+		return endpoint;
+	}
+
+	private static SyncEndpoint resolveEndpoint(String clientName, OpenMRSSyncInstance instance) {
+		String baseUrl = instance == OpenMRSSyncInstance.CHILD ? SyncUtils.getLocalBaseUrl()
+				: SyncUtils.getParentBaseUrl(clientName);
+		return new SyncEndpoint(clientName, instance, baseUrl,
+				SyncUtils.getClientLogin(clientName, instance),
+				SyncUtils.getClientPassword(clientName, instance),
+				!SyncUtils.clientHasSpecificAddress(clientName, instance),
+				ClientHelperFactory.createClient(clientName));
+	}
+
+	private static String getKey(String clientName, OpenMRSSyncInstance instance) {
+		return clientName + ":" + instance.name();
+	}
+
+	private SyncEndpointRegistry() { }
+}
@@ -0,0 +1,230 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.apache.commons.lang.StringUtils;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.SyncConstants;
+import org.openmrs.module.sync2.api.model.enums.SyncOperation;
+import org.openmrs.module.sync2.api.service.SyncLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distributes the category feeds between the nodes of the cluster. Before the feed is processed, the node takes
+ * its lease stored in the database, so the feed is never processed by two nodes at once, and the nodes share
+ * the categories between them. The leases of the node are renewed by the heartbeat while their feeds are processed,
+ * the leases of the node which stopped are taken over by the other nodes once they expire. If the lease can't be
+ * renewed, the runs using it are cancelled, because the feed may be already processed by another node.
+ * The leases are used only if the {@link SyncConstants#CLUSTER_LEASE_TIME_PROPERTY} is set.
+ */
+@Component("sync2.syncLeaseManager")
+public class SyncLeaseManager {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SyncLeaseManager.class);
+
+	private static final String THREAD_NAME = "sync2-lease-heartbeat";
+
+	private static final int HEARTBEATS_PER_LEASE = 3;
+
+	private final String nodeId = createNodeId();
+
+	/**
+	 * The leases of this node mapped by their keys, the lease is released when the last run using it ends
+	 */
+	private final Map<String, HeldLease> heldLeases = new ConcurrentHashMap<>();
+
+	/**
+	 * The locks of the leases, so the lease is taken once by the concurrent runs of this node, while the other
+	 * leases are taken at the same time
+	 */
+	private final Map<String, Object> leaseLocks = new ConcurrentHashMap<>();
+
+	private ScheduledExecutorService heartbeat;
+
+	/**
+	 * Takes the lease of the category feed.
+	 *
+	 * @param budget the budget of the run, it is cancelled if the lease is lost
+	 * @return false if the feed is processed by another node
+	 */
+	public boolean tryAcquire(SyncOperation operation, String category, SyncRunBudget budget) {
+		int leaseTime = getLeaseTime();
+		if (leaseTime <= 0) {
+			return true;
+		}
+		String key = getKey(operation, category);
+		synchronized (leaseLocks.computeIfAbsent(key, k -> new Object())) {
+			HeldLease lease = heldLeases.get(key);
+			if (lease != null) {
+				lease.addRun(budget);
+				return true;
+			}
+			boolean acquired;
+			try {
+				acquired = getLeaseService().acquire(operation.name(), category, nodeId, leaseTime);
+			}
+			catch (RuntimeException e) {
+				LOGGER.debug("The lease of the {} {} feed was taken by another node", operation, category, e);
+				acquired = false;
+			}
+			if (acquired) {
+				heldLeases.put(key, new HeldLease(operation, category, budget));
+				startHeartbeat(leaseTime);
+			}
+			return acquired;
+		}
+	}
+
+	public void release(SyncOperation operation, String category, SyncRunBudget budget) {
+		String key = getKey(operation, category);
+		synchronized (leaseLocks.computeIfAbsent(key, k -> new Object())) {
+			HeldLease lease = heldLeases.get(key);
+			if (lease == null || lease.removeRun(budget) > 0) {
+				return;
+			}
+			heldLeases.remove(key);
+			try {
+				getLeaseService().release(operation.name(), category, nodeId);
+			}
+			catch (RuntimeException e) {
+				LOGGER.warn("The lease of the {} {} feed can't be released, it will expire", operation, category, e);
+			}
+		}
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public synchronized void shutdown() {
+		if (heartbeat != null) {
+			heartbeat.shutdown();
+			heartbeat = null;
+		}
+	}
+
+	private synchronized void startHeartbeat(int leaseTime) {
+		if (heartbeat != null) {
+			return;
+		}
+		heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, THREAD_NAME);
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(TimeUnit.SECONDS.toMillis(leaseTime) / HEARTBEATS_PER_LEASE, 1L);
+		heartbeat.scheduleAtFixedRate(this::renewLeases, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	private void renewLeases() {
+		if (heldLeases.isEmpty()) {
+			return;
+		}
+		Context.openSession();
+		try {
+			int leaseTime = getLeaseTime();
+			for (Map.Entry<String, HeldLease> entry : heldLeases.entrySet()) {
+				renewLease(entry.getKey(), entry.getValue(), leaseTime);
+			}
+		}
+		finally {
+			Context.closeSession();
+		}
+	}
+
+	/**
+	 * The lease is lost if it was taken by another node, or it wasn't renewed within the lease time, so it might
+	 * have expired and been taken.
+	 */
+	private void renewLease(String key, HeldLease lease, int leaseTime) {
+		boolean renewed;
+		try {
+			renewed = getLeaseService().renew(lease.operation.name(), lease.category, nodeId, leaseTime);
+		}
+		catch (RuntimeException e) {
+			LOGGER.warn("The lease of the {} {} feed can't be renewed", lease.operation, lease.category, e);
+			renewed = !lease.isOlderThan(leaseTime);
+		}
+		if (renewed) {
+			lease.renewedAt = System.nanoTime();
+		} else if (heldLeases.remove(key, lease)) {
+			LOGGER.warn("The lease of the {} {} feed was lost, its runs are cancelled", lease.operation,
+					lease.category);
+			lease.cancelRuns();
+		}
+	}
+
+	private int getLeaseTime() {
+		String value = Context.getAdministrationService().getGlobalProperty(SyncConstants.CLUSTER_LEASE_TIME_PROPERTY);
+		return StringUtils.isNumeric(value) && StringUtils.isNotEmpty(value) ? Integer.parseInt(value) : 0;
+	}
+
+	private SyncLeaseService getLeaseService() {
+		return Context.getService(SyncLeaseService.class);
+	}
+
+	private String getKey(SyncOperation operation, String category) {
+		return operation.name() + " " + category;
+	}
+
+	private static String createNodeId() {
+		String host;
+		try {
+			host = InetAddress.getLocalHost().getHostName();
+		}
+		catch (UnknownHostException e) {
+			host = "unknown";
+		}
+		return host + "-" + UUID.randomUUID();
+	}
+
+	private static class HeldLease {
+
+		private final SyncOperation operation;
+
+		private final String category;
+
+		private final List<SyncRunBudget> runs = new ArrayList<>();
+
+		private volatile long renewedAt = System.nanoTime();
+
+		HeldLease(SyncOperation operation, String category, SyncRunBudget budget) {
+			this.operation = operation;
+			this.category = category;
+			runs.add(budget);
+		}
+
+		synchronized void addRun(SyncRunBudget budget) {
+			runs.add(budget);
+		}
+
+		/**
+		 * @return the number of the remaining runs
+		 */
+		synchronized int removeRun(SyncRunBudget budget) {
+			runs.remove(budget);
+			return runs.size();
+		}
+
+		synchronized void cancelRuns() {
+			for (SyncRunBudget budget : runs) {
+				budget.cancel();
+			}
+		}
+
+		boolean isOlderThan(int leaseTime) {
+			return System.nanoTime() - renewedAt >= TimeUnit.SECONDS.toNanos(leaseTime);
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.openmrs.module.sync2.SyncConstants;
+
+/**
+ * Marks the threads which save the objects synchronized from the other instance. The requests sent to the local
+ * instance by the synchronization carry the {@link SyncConstants#SYNC_ORIGIN_HEADER} header and the thread handling
+ * such request is marked, so its changes aren't pushed back by the real-time push.
+ */
+public class SyncOrigin {
+
+	private static final ThreadLocal<Boolean> SYNCHRONIZING = new ThreadLocal<>();
+
+	public static void begin() {
+		SYNCHRONIZING.set(Boolean.TRUE);
+	}
+
+	public static void end() {
+		SYNCHRONIZING.remove();
+	}
+
+	public static boolean isSynchronizing() {
+		return Boolean.TRUE.equals(SYNCHRONIZING.get());
+	}
+
+	private SyncOrigin() { }
+}
@@ -0,0 +1,56 @@
+package org.openmrs.module.sync2.api.sync;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the time and the number of events of a single synchronization run. The run stops reading the feeds when
+ * the budget is exhausted or the run is cancelled, the remaining events are processed by the next run.
+ */
+public class SyncRunBudget {
+
+	private final long deadlineMillis;
+
+	private final long maxEvents;
+
+	private final AtomicLong events = new AtomicLong();
+
+	private volatile boolean cancelled;
+
+	/**
+	 * @param maxDuration the maximal duration of the run in seconds, not limited if null or not positive
+	 * @param maxEvents the maximal number of the events, not limited if null or not positive
+	 */
+	public SyncRunBudget(Integer maxDuration, Integer maxEvents) {
+		this.deadlineMillis = maxDuration != null && maxDuration > 0
+				? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(maxDuration) : Long.MAX_VALUE;
+		this.maxEvents = maxEvents != null && maxEvents > 0 ? maxEvents : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Counts the next event of the run.
+	 *
+	 * @return false if the event is over the budget and shouldn't be processed
+	 */
+	public boolean tryAcquireEvent() {
+		return !isStopped() && events.incrementAndGet() <= maxEvents;
+	}
+
+	public boolean isStopped() {
+		return cancelled || events.get() >= maxEvents || System.currentTimeMillis() >= deadlineMillis;
+	}
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public String getStopReason() {
+		if (cancelled) {
+			return "the run was cancelled";
+		}
+		if (events.get() >= maxEvents) {
+			return String.format("the budget of %d events is exhausted", maxEvents);
+		}
+		return "the time budget is exhausted";
+	}
+}
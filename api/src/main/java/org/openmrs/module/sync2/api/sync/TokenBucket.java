@@ -0,0 +1,56 @@
+package org.openmrs.module.sync2.api.sync;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting the rate of the requests. The bucket is refilled with the given number of tokens per second
+ * and holds at most the burst number of tokens, so after a quiet period the burst of requests can be sent at once.
+ * Every request takes one token, the request which finds the bucket empty reserves the next token and waits
+ * until it is refilled, so the waiting requests are spread evenly.
+ */
+public class TokenBucket {
+
+	private final double tokensPerNano;
+
+	private final double capacity;
+
+	private final LongSupplier nanoClock;
+
+	private double tokens;
+
+	private long refilledAt;
+
+	public TokenBucket(double tokensPerSecond, int burst) {
+		this(tokensPerSecond, burst, System::nanoTime);
+	}
+
+	TokenBucket(double tokensPerSecond, int burst, LongSupplier nanoClock) {
+		this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+		this.capacity = Math.max(burst, 1);
+		this.nanoClock = nanoClock;
+		this.tokens = capacity;
+		this.refilledAt = nanoClock.getAsLong();
+	}
+
+	/**
+	 * Takes the token and returns the time (in nanoseconds) the caller has to wait before using it.
+	 */
+	public synchronized long reserve() {
+		long now = nanoClock.getAsLong();
+		tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+		refilledAt = now;
+		tokens -= 1;
+		return tokens >= 0 ? 0L : (long) Math.ceil(-tokens / tokensPerNano);
+	}
+
+	/**
+	 * Takes the token, waiting until it is available.
+	 */
+	public void acquire() throws InterruptedException {
+		long waitNanos = reserve();
+		if (waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package org.openmrs.module.sync2.api.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.openmrs.module.sync2.api.exceptions.BatchTooLargeException;
+import org.openmrs.module.sync2.api.model.BatchRequestWrapper;
+import org.openmrs.module.sync2.api.model.InnerRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the batch of the wrapped requests sent to the batch endpoint. The body is parsed from the stream,
+ * so the whole batch is never buffered as a single String, and the reading stops as soon as the batch
+ * contains more requests than allowed.
+ */
+public class BatchRequestUtils {
+
+	private static final String INSTANCE_ID_FIELD_NAME = "instanceId";
+
+	private static final String CLIENT_NAME_FIELD_NAME = "clientName";
+
+	private static final String CLASS_NAME_FIELD_NAME = "className";
+
+	private static final String CATEGORY_FIELD_NAME = "category";
+
+	private static final String REQUESTS_FIELD_NAME = "requests";
+
+	/**
+	 * @param in the body of the batch request
+	 * @param maxRequests the maximal number of the inner requests
+	 * @throws BatchTooLargeException if the batch contains more inner requests
+	 */
+	public static BatchRequestWrapper readBatchRequest(InputStream in, int maxRequests) throws IOException {
+		JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		BatchRequestWrapper wrapper = new BatchRequestWrapper();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+				case INSTANCE_ID_FIELD_NAME:
+					wrapper.setInstanceId(readString(reader));
+					break;
+				case CLIENT_NAME_FIELD_NAME:
+					wrapper.setClientName(readString(reader));
+					break;
+				case CLASS_NAME_FIELD_NAME:
+					wrapper.setClassName(readString(reader));
+					break;
+				case CATEGORY_FIELD_NAME:
+					wrapper.setCategory(readString(reader));
+					break;
+				case REQUESTS_FIELD_NAME:
+					readInnerRequests(reader, wrapper, maxRequests);
+					break;
+				default:
+					reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return wrapper;
+	}
+
+	private static void readInnerRequests(JsonReader reader, BatchRequestWrapper wrapper, int maxRequests)
+			throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return;
+		}
+		reader.beginArray();
+		while (reader.hasNext()) {
+			if (wrapper.getRequests().size() >= maxRequests) {
+				throw new BatchTooLargeException(maxRequests);
+			}
+			wrapper.addRequest(SyncUtils.getDefaultGson().<InnerRequest>fromJson(reader, InnerRequest.class));
+		}
+		reader.endArray();
+	}
+
+	private static String readString(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		return reader.nextString();
+	}
+
+	private BatchRequestUtils() { }
+}
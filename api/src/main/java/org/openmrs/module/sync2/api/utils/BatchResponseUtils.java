@@ -0,0 +1,102 @@
+package org.openmrs.module.sync2.api.utils;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.openmrs.module.sync2.api.model.InnerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes and reads the array of inner responses returned by the batch endpoint.
+ * Both directions work on streams, so the whole batch is never buffered as a single String.
+ */
+public class BatchResponseUtils {
+
+	private static final String URL_FIELD_NAME = "url";
+
+	private static final String STATUS_CODE_FIELD_NAME = "statusCode";
+
+	private static final String BODY_FIELD_NAME = "body";
+
+	/**
+	 * Writes a single inner response as an element of the batch array
+	 *
+	 * @param writer the writer of the batch array
+	 * @param response the response to write
+	 * @param jsonBody if true the body is embedded as raw JSON, otherwise it is written as a string
+	 */
+	public static void writeInnerResponse(JsonWriter writer, InnerResponse response, boolean jsonBody)
+			throws IOException {
+		writer.beginObject();
+		writer.name(URL_FIELD_NAME).value(response.getUrl() != null ? response.getUrl().toString() : null);
+		writer.name(STATUS_CODE_FIELD_NAME).value(response.getStatusCode());
+		writer.name(BODY_FIELD_NAME);
+		if (response.getBody() == null) {
+			writer.nullValue();
+		} else if (jsonBody) {
+			writer.jsonValue(response.getBody());
+		} else {
+			writer.value(response.getBody());
+		}
+		writer.endObject();
+	}
+
+	/**
+	 * Reads the batch array and passes every inner response to the consumer as soon as it is parsed
+	 *
+	 * @param in the body of the batch response
+	 * @param consumer the consumer of inner responses
+	 */
+	public static void readInnerResponses(InputStream in, Consumer<InnerResponse> consumer) throws IOException {
+		JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		reader.beginArray();
+		while (reader.hasNext()) {
+			consumer.accept(readInnerResponse(reader));
+		}
+		reader.endArray();
+	}
+
+	private static InnerResponse readInnerResponse(JsonReader reader) throws IOException {
+		InnerResponse response = new InnerResponse();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+				case URL_FIELD_NAME:
+					String url = readValueAsString(reader);
+					response.setUrl(url != null ? URI.create(url) : null);
+					break;
+				case STATUS_CODE_FIELD_NAME:
+					response.setStatusCode(reader.nextInt());
+					break;
+				case BODY_FIELD_NAME:
+					response.setBody(readValueAsString(reader));
+					break;
+				default:
+					reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return response;
+	}
+
+	private static String readValueAsString(JsonReader reader) throws IOException {
+		switch (reader.peek()) {
+			case NULL:
+				reader.nextNull();
+				return null;
+			case BEGIN_OBJECT:
+			case BEGIN_ARRAY:
+				return new JsonParser().parse(reader).toString();
+			default:
+				return reader.nextString();
+		}
+	}
+
+	private BatchResponseUtils() { }
+}
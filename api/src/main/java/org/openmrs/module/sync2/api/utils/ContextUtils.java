@@ -2,6 +2,9 @@ package org.openmrs.module.sync2.api.utils;
 
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.Daemon;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.module.DaemonToken;
 import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.sync2.api.exceptions.SyncException;
 import org.slf4j.Logger;
@@ -9,11 +12,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.convert.ConversionService;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 public class ContextUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ContextUtils.class);
 
+    private static volatile DaemonToken daemonToken;
+
     public static <T> T getRegisteredComponentSafely(String beanName, Class<T> clazz) {
         try {
             return Context.getRegisteredComponent(beanName, clazz);
@@ -36,5 +42,60 @@ public class ContextUtils {
         return Context.getRegisteredComponent("conversionService", ConversionService.class);
     }
 
+    /**
+     * Wraps the supplier, so it can be executed by another thread using the user context of the current thread.
+     * The wrapped supplier opens its own session, unless it is executed by the current thread.
+     */
+    public static <T> Supplier<T> withCurrentUserContext(Supplier<T> supplier) {
+        UserContext userContext = getCurrentUserContext();
+        Thread submitter = Thread.currentThread();
+        return () -> {
+            if (Thread.currentThread() == submitter) {
+                return supplier.get();
+            }
+            Context.openSession();
+            try {
+                if (userContext != null) {
+                    Context.setUserContext(userContext);
+                }
+                return supplier.get();
+            } finally {
+                Context.closeSession();
+            }
+        };
+    }
+
+    /**
+     * Sets the token of the module, passed to the module activator when the module is started.
+     */
+    public static void setDaemonToken(DaemonToken token) {
+        daemonToken = token;
+    }
+
+    /**
+     * Runs the task as the daemon user, the same one which runs the scheduled tasks, and waits until it is done.
+     * The task is executed by its own thread with its own session, so it has to handle its failures.
+     */
+    public static void runAsDaemon(Runnable task) {
+        DaemonToken token = daemonToken;
+        if (token == null) {
+            throw new SyncException("The daemon token of the module isn't available");
+        }
+        try {
+            Daemon.runInDaemonThread(task, token).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SyncException("Interrupted while waiting for the daemon task", e);
+        }
+    }
+
+    private static UserContext getCurrentUserContext() {
+        try {
+            return Context.getUserContext();
+        } catch (APIException e) {
+            return null;
+        }
+    }
+
     private ContextUtils() {}
 }
@@ -0,0 +1,69 @@
+package org.openmrs.module.sync2.api.utils;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Helpers used to negotiate and apply the gzip content coding between the sync instances.
+ */
+public class GzipUtils {
+
+	public static final String GZIP = "gzip";
+
+	private static final String QUALITY_PARAMETER = "q=";
+
+	/**
+	 * Checks whether the value of an Accept-Encoding header allows the gzip coding.
+	 * Codings explicitly rejected with the zero quality are not accepted.
+	 *
+	 * @param acceptEncoding the value of the header, can be null
+	 * @return true if gzip is acceptable
+	 */
+	public static boolean acceptsGzip(String acceptEncoding) {
+		if (StringUtils.isBlank(acceptEncoding)) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim();
+			if (GZIP.equalsIgnoreCase(name) || "*".equals(name)) {
+				return !hasZeroQuality(parts);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the value of a Content-Encoding header states that the body is compressed with gzip
+	 */
+	public static boolean isGzipEncoded(String contentEncoding) {
+		return contentEncoding != null && GZIP.equalsIgnoreCase(contentEncoding.trim());
+	}
+
+	public static byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(data.length / 4, 32));
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	private static boolean hasZeroQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i].trim();
+			if (parameter.startsWith(QUALITY_PARAMETER)) {
+				try {
+					return Double.parseDouble(parameter.substring(QUALITY_PARAMETER.length())) == 0;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+	private GzipUtils() { }
+}
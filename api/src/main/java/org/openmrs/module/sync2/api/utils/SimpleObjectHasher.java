@@ -0,0 +1,459 @@
+package org.openmrs.module.sync2.api.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.apache.commons.codec.binary.Hex;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.SyncHashTree;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashes the objects by streaming their JSON representation directly into the digest. The bytes fed into
+ * the digest are the same as the compact JSON written by the default Gson after the object was cloned
+ * through JSON, so e.g. a date and its formatted string have the same hash. The skipped fields are
+ * omitted while the object is written, so the object is neither cloned nor serialized to a string.
+ * Only the values which aren't JSON types already, e.g. dates or hyperlinks, are converted by Gson.
+ *
+ * The hash trees are built from the same bytes, every value is hashed separately and the objects and
+ * arrays are hashed from the names and hashes of their children.
+ *
+ * The instances aren't thread-safe, every thread reuses its own instance.
+ */
+final class SimpleObjectHasher {
+
+	private static final String ALGORITHM = "SHA-512";
+
+	private static final int BUFFER_SIZE = 512;
+
+	private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+
+	private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+
+	private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+
+	private static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
+			'a', 'b', 'c', 'd', 'e', 'f' };
+
+	private static final Gson GSON = SyncUtils.getDefaultGson();
+
+	private static final ThreadLocal<SimpleObjectHasher> INSTANCES =
+			ThreadLocal.withInitial(SimpleObjectHasher::new);
+
+	private final MessageDigest digest;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private int position;
+
+	private boolean sortedKeys;
+
+	private Set<String> skippedNestedFields;
+
+	private SimpleObjectHasher() {
+		try {
+			digest = MessageDigest.getInstance(ALGORITHM);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new SyncException("The " + ALGORITHM + " digest isn't available", e);
+		}
+	}
+
+	/**
+	 * Calculates the hex encoded hash of the map, the keys are written in the order of the maps.
+	 *
+	 * @param skippedFields the fields skipped in the map itself
+	 * @param skippedNestedFields the fields skipped in the map and in the maps nested in it
+	 */
+	static String hash(Map<?, ?> map, Set<String> skippedFields, Set<String> skippedNestedFields) {
+		SimpleObjectHasher hasher = INSTANCES.get();
+		hasher.sortedKeys = false;
+		hasher.skippedNestedFields = skippedNestedFields;
+		try {
+			hasher.writeMap(map, skippedFields, true);
+			hasher.flush();
+			return Hex.encodeHexString(hasher.digest.digest());
+		}
+		finally {
+			hasher.position = 0;
+			hasher.digest.reset();
+		}
+	}
+
+	/**
+	 * Builds the hash tree of the map. The keys are always sorted, so the tree doesn't depend
+	 * on the order of the maps.
+	 *
+	 * @param skippedFields the fields skipped in the map itself
+	 * @param skippedNestedFields the fields skipped in the map and in the maps nested in it
+	 */
+	static SyncHashTree hashTree(Map<?, ?> map, Set<String> skippedFields, Set<String> skippedNestedFields) {
+		SimpleObjectHasher hasher = INSTANCES.get();
+		hasher.sortedKeys = true;
+		hasher.skippedNestedFields = skippedNestedFields;
+		try {
+			return hasher.buildMapTree(map, skippedFields, true);
+		}
+		finally {
+			hasher.position = 0;
+			hasher.digest.reset();
+		}
+	}
+
+	private SyncHashTree buildTree(Object value, boolean stripped, boolean inArray) {
+		if (value instanceof Map) {
+			return buildMapTree((Map<?, ?>) value, Collections.<String>emptySet(), stripped);
+		} else if (value instanceof Collection) {
+			return buildArrayTree((Collection<?>) value, stripped && !inArray);
+		} else if (value instanceof JsonElement) {
+			JsonElement element = (JsonElement) value;
+			if (element.isJsonObject()) {
+				Map<String, JsonElement> members = new LinkedHashMap<>();
+				for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+					members.put(member.getKey(), member.getValue());
+				}
+				return buildMapTree(members, Collections.<String>emptySet(), stripped);
+			} else if (element.isJsonArray()) {
+				return buildArrayTree(element.getAsJsonArray(), stripped && !inArray);
+			}
+		} else if (value != null && !(value instanceof String || value instanceof Character
+				|| value instanceof Boolean || value instanceof Number)) {
+			return buildTree(GSON.toJsonTree(value), stripped, inArray);
+		}
+		writeValue(value, stripped, inArray);
+		return new SyncHashTree(finish(), null, false);
+	}
+
+	private SyncHashTree buildMapTree(Map<?, ?> map, Set<String> skipped, boolean stripped) {
+		Map<String, SyncHashTree> children = new LinkedHashMap<>();
+		for (Object key : getKeys(map.keySet())) {
+			Object value = map.get(key);
+			String name = String.valueOf(key);
+			if (!isNull(value) && !skipped.contains(name) && !(stripped && skippedNestedFields.contains(name))) {
+				children.put(name, buildTree(value, stripped, false));
+			}
+		}
+		write('{');
+		boolean first = true;
+		for (Map.Entry<String, SyncHashTree> child : children.entrySet()) {
+			first = writeName(child.getKey(), first);
+			write(child.getValue().getHashBytes());
+		}
+		write('}');
+		return new SyncHashTree(finish(), children, false);
+	}
+
+	private SyncHashTree buildArrayTree(Iterable<?> elements, boolean stripped) {
+		Map<String, SyncHashTree> children = new LinkedHashMap<>();
+		for (Object element : elements) {
+			children.put(String.valueOf(children.size()), buildTree(element, stripped, true));
+		}
+		write('[');
+		boolean first = true;
+		for (SyncHashTree child : children.values()) {
+			if (!first) {
+				write(',');
+			}
+			first = false;
+			write(child.getHashBytes());
+		}
+		write(']');
+		return new SyncHashTree(finish(), children, true);
+	}
+
+	private byte[] finish() {
+		flush();
+		return digest.digest();
+	}
+
+	/**
+	 * Writes the value. The nested fields are skipped in the maps nested in the maps and in the arrays
+	 * of the maps, but not in the arrays nested in the arrays.
+	 *
+	 * @param stripped whether the nested fields are skipped in the maps of the value
+	 * @param inArray whether the value is an element of an array
+	 */
+	private void writeValue(Object value, boolean stripped, boolean inArray) {
+		if (value == null) {
+			write(NULL);
+		} else if (value instanceof String || value instanceof Character) {
+			writeString(value.toString());
+		} else if (value instanceof Boolean) {
+			write((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof Number) {
+			writeNumber((Number) value);
+		} else if (value instanceof Map) {
+			writeMap((Map<?, ?>) value, Collections.<String>emptySet(), stripped);
+		} else if (value instanceof Collection) {
+			writeArray((Collection<?>) value, stripped && !inArray);
+		} else if (value instanceof JsonElement) {
+			writeElement((JsonElement) value, stripped, inArray);
+		} else {
+			writeElement(GSON.toJsonTree(value), stripped, inArray);
+		}
+	}
+
+	private void writeMap(Map<?, ?> map, Set<String> skipped, boolean stripped) {
+		write('{');
+		boolean first = true;
+		for (Object key : getKeys(map.keySet())) {
+			Object value = map.get(key);
+			String name = String.valueOf(key);
+			if (!isNull(value) && !skipped.contains(name) && !(stripped && skippedNestedFields.contains(name))) {
+				first = writeName(name, first);
+				writeValue(value, stripped, false);
+			}
+		}
+		write('}');
+	}
+
+	private void writeArray(Iterable<?> elements, boolean stripped) {
+		write('[');
+		boolean first = true;
+		for (Object element : elements) {
+			if (!first) {
+				write(',');
+			}
+			first = false;
+			writeValue(element, stripped, true);
+		}
+		write(']');
+	}
+
+	private void writeElement(JsonElement element, boolean stripped, boolean inArray) {
+		if (element.isJsonNull()) {
+			write(NULL);
+		} else if (element.isJsonObject()) {
+			writeJsonObject(element.getAsJsonObject(), stripped);
+		} else if (element.isJsonArray()) {
+			writeArray(element.getAsJsonArray(), stripped && !inArray);
+		} else {
+			JsonPrimitive primitive = element.getAsJsonPrimitive();
+			if (primitive.isBoolean()) {
+				write(primitive.getAsBoolean() ? TRUE : FALSE);
+			} else if (primitive.isNumber()) {
+				writeNumber(primitive.getAsNumber());
+			} else {
+				writeString(primitive.getAsString());
+			}
+		}
+	}
+
+	private void writeJsonObject(JsonObject object, boolean stripped) {
+		write('{');
+		boolean first = true;
+		if (sortedKeys) {
+			List<String> names = new ArrayList<>();
+			for (Map.Entry<String, JsonElement> member : object.entrySet()) {
+				names.add(member.getKey());
+			}
+			Collections.sort(names);
+			for (String name : names) {
+				first = writeMember(name, object.get(name), stripped, first);
+			}
+		} else {
+			for (Map.Entry<String, JsonElement> member : object.entrySet()) {
+				first = writeMember(member.getKey(), member.getValue(), stripped, first);
+			}
+		}
+		write('}');
+	}
+
+	private boolean writeMember(String name, JsonElement value, boolean stripped, boolean first) {
+		if (isNull(value) || stripped && skippedNestedFields.contains(name)) {
+			return first;
+		}
+		boolean result = writeName(name, first);
+		writeElement(value, stripped, false);
+		return result;
+	}
+
+	/**
+	 * The null fields aren't written by Gson, so they are skipped as well.
+	 */
+	private boolean isNull(Object value) {
+		return value == null || value instanceof JsonElement && ((JsonElement) value).isJsonNull();
+	}
+
+	private Iterable<?> getKeys(Set<?> keys) {
+		if (!sortedKeys) {
+			return keys;
+		}
+		List<String> names = new ArrayList<>(keys.size());
+		for (Object key : keys) {
+			names.add(String.valueOf(key));
+		}
+		Collections.sort(names);
+		return names;
+	}
+
+	private boolean writeName(String name, boolean first) {
+		if (!first) {
+			write(',');
+		}
+		writeString(name);
+		write(':');
+		return false;
+	}
+
+	/**
+	 * Writes the number the way it is written after it was parsed back from JSON, i.e. the integers
+	 * are written as they are and the other numbers as doubles.
+	 */
+	private void writeNumber(Number number) {
+		if (number instanceof Integer || number instanceof Long || number instanceof Short
+				|| number instanceof Byte) {
+			writeLong(number.longValue());
+			return;
+		}
+		String text = number.toString();
+		if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+			writeAscii(Double.toString(Double.parseDouble(text)));
+		} else {
+			writeAscii(new BigInteger(text).toString());
+		}
+	}
+
+	private void writeLong(long value) {
+		if (value == Long.MIN_VALUE) {
+			writeAscii(Long.toString(value));
+			return;
+		}
+		long remaining = value;
+		if (remaining < 0) {
+			write('-');
+			remaining = -remaining;
+		}
+		long divisor = 1;
+		while (remaining / divisor >= 10) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			write((byte) ('0' + remaining / divisor % 10));
+		}
+	}
+
+	/**
+	 * Writes the quoted string encoded in UTF-8 and escaped the same way as by the HTML safe Gson writer.
+	 * The unpaired surrogates are replaced the same way as by {@link String#getBytes(java.nio.charset.Charset)}.
+	 */
+	private void writeString(String value) {
+		write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				writeAsciiChar(c);
+			} else if (c < 0x800) {
+				write((byte) (0xc0 | c >> 6));
+				write((byte) (0x80 | c & 0x3f));
+			} else if (c == '\u2028' || c == '\u2029') {
+				writeUnicodeEscape(c);
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				write((byte) (0xf0 | codePoint >> 18));
+				write((byte) (0x80 | codePoint >> 12 & 0x3f));
+				write((byte) (0x80 | codePoint >> 6 & 0x3f));
+				write((byte) (0x80 | codePoint & 0x3f));
+			} else if (Character.isSurrogate(c)) {
+				write('?');
+			} else {
+				write((byte) (0xe0 | c >> 12));
+				write((byte) (0x80 | c >> 6 & 0x3f));
+				write((byte) (0x80 | c & 0x3f));
+			}
+		}
+		write('"');
+	}
+
+	private void writeAsciiChar(char c) {
+		switch (c) {
+			case '"':
+			case '\\':
+				write('\\');
+				write(c);
+				break;
+			case '\t':
+				writeEscape('t');
+				break;
+			case '\b':
+				writeEscape('b');
+				break;
+			case '\n':
+				writeEscape('n');
+				break;
+			case '\r':
+				writeEscape('r');
+				break;
+			case '\f':
+				writeEscape('f');
+				break;
+			case '<':
+			case '>':
+			case '&':
+			case '=':
+			case '\'':
+				writeUnicodeEscape(c);
+				break;
+			default:
+				if (c < 0x20) {
+					writeUnicodeEscape(c);
+				} else {
+					write(c);
+				}
+		}
+	}
+
+	private void writeEscape(char c) {
+		write('\\');
+		write(c);
+	}
+
+	private void writeUnicodeEscape(char c) {
+		write('\\');
+		write('u');
+		write(HEX_DIGITS[c >> 12 & 0xf]);
+		write(HEX_DIGITS[c >> 8 & 0xf]);
+		write(HEX_DIGITS[c >> 4 & 0xf]);
+		write(HEX_DIGITS[c & 0xf]);
+	}
+
+	private void writeAscii(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			write(value.charAt(i));
+		}
+	}
+
+	private void write(byte[] bytes) {
+		for (byte b : bytes) {
+			write(b);
+		}
+	}
+
+	private void write(char c) {
+		write((byte) c);
+	}
+
+	private void write(byte b) {
+		if (position == buffer.length) {
+			flush();
+		}
+		buffer[position++] = b;
+	}
+
+	private void flush() {
+		digest.update(buffer, 0, position);
+		position = 0;
+	}
+}
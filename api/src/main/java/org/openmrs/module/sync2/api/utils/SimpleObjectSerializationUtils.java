@@ -8,6 +8,8 @@ import java.io.IOException;
 
 public class SimpleObjectSerializationUtils {
 
+	private static final SimpleObjectMessageConverter CONVERTER = new SimpleObjectMessageConverter();
+
 	/**
 	 * Serializes SimpleObject to the JSON representation
 	 *
@@ -15,8 +17,7 @@ public class SimpleObjectSerializationUtils {
 	 * @return JSON representation
 	 */
 	public static String serialize(SimpleObject simpleObject) {
-		SimpleObjectMessageConverter converter = new SimpleObjectMessageConverter();
-		return converter.convertToJson(simpleObject);
+		return CONVERTER.convertToJson(simpleObject);
 	}
 
 	/**
@@ -6,10 +6,13 @@ import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.util.DefaultPrettyPrinter;
+import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.sync2.api.exceptions.SyncException;
 import org.openmrs.module.sync2.api.exceptions.SyncValidationException;
+import org.openmrs.module.sync2.api.model.configuration.ClassConfiguration;
 import org.openmrs.module.sync2.api.model.configuration.ClientConfiguration;
 import org.openmrs.module.sync2.api.model.configuration.SyncConfiguration;
+import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
 import org.openmrs.module.sync2.api.model.enums.ResourcePathType;
 import org.openmrs.module.sync2.api.validator.Errors;
 
@@ -129,4 +132,42 @@ public class SyncConfigurationUtils {
         }
         return configuration;
     }
+
+    /**
+     * Returns the interval (in seconds) of reading the category feed, with the adaptive schedule it is the longest
+     * interval.
+     */
+    public static int getCategorySchedule(SyncMethodConfiguration methodConf, ClassConfiguration classConf) {
+        Integer schedule = classConf.getSchedule();
+        return schedule != null && schedule > 0 ? schedule : methodConf.getSchedule();
+    }
+
+    /**
+     * Returns the shortest interval (in seconds) of reading the feeds with the adaptive schedule.
+     */
+    public static int getMinSchedule(SyncMethodConfiguration methodConf) {
+        Integer minSchedule = methodConf.getMinSchedule();
+        return minSchedule != null && minSchedule > 0 ? minSchedule : SyncConstants.DEFAULT_MIN_SCHEDULE;
+    }
+
+    public static boolean isAdaptiveSchedule(SyncMethodConfiguration methodConf) {
+        return Boolean.TRUE.equals(methodConf.getAdaptiveSchedule());
+    }
+
+    /**
+     * Returns the interval (in seconds) of the scheduler task, which has to be short enough to read every
+     * category feed on time.
+     */
+    public static int getSchedulerInterval(SyncMethodConfiguration methodConf) {
+        int result = methodConf.getSchedule();
+        for (ClassConfiguration classConf : methodConf.getClasses()) {
+            if (classConf.isEnabled()) {
+                result = Math.min(result, getCategorySchedule(methodConf, classConf));
+            }
+        }
+        if (isAdaptiveSchedule(methodConf)) {
+            result = Math.min(result, getMinSchedule(methodConf));
+        }
+        return result;
+    }
 }
@@ -1,66 +1,216 @@
 package org.openmrs.module.sync2.api.utils;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.openmrs.module.sync2.client.SimpleObjectMessageConverter;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.SyncHashTree;
+import org.openmrs.module.sync2.api.model.SyncObject;
 import org.openmrs.module.webservices.rest.SimpleObject;
 
-import java.util.AbstractMap;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
+/**
+ * Calculates the hashcodes of the objects, which are used to detect their changes. The links, the audit info
+ * and the voided/retired fields don't change the hashcode.
+ *
+ * The hashcodes are versioned, so the stored hashcodes can be verified after the algorithm changes. The hashcodes
+ * of the version 1 are plain SHA-512 hex strings, the later versions will be prefixed with the version number,
+ * e.g. "2:" followed by the hex string. The hashcodes are stored as the version and the binary digest,
+ * see {@link #getHashcodeDigest(String)}.
+ * <p>
+ * The version 1 hashes the object with the keys in the order of the object. Its hashcodes are the same as
+ * the SHA-512 of the compact JSON of the object cloned through JSON, without the skipped fields, which was
+ * calculated by the previous module versions.
+ */
 public class SyncHashcodeUtils {
-	private static final SimpleObjectMessageConverter converter = new SimpleObjectMessageConverter();
 
-	private static final List<String> STOP_WORDS = Arrays.asList("links", "auditInfo");
+	public static final int HASHCODE_VERSION_1 = 1;
+
+	/**
+	 * The version of the new hashcodes. It is kept at the version 1, because the hashcodes are compared
+	 * with the entity tags and hashcodes calculated by the instances running the previous module versions.
+	 */
+	public static final int CURRENT_HASHCODE_VERSION = HASHCODE_VERSION_1;
+
+	/**
+	 * The length of the SHA-512 digest of the hashcodes
+	 */
+	public static final int HASHCODE_DIGEST_BYTES = 64;
+
+	private static final String VERSION_SEPARATOR = ":";
+
+	private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList("links", "auditInfo"));
+
+	private static final Set<String> VOIDED_FIELDS = new HashSet<>(Arrays.asList("dateVoided", "voided",
+			"voidedBy", "voidReason", "dateRetired", "retired", "retiredBy", "retireReason"));
+
+	private static final String ETAG_QUOTE = "\"";
+
+	private static final String WEAK_ETAG_PREFIX = "W/";
 
 	public static String getHashcode(SimpleObject simpleObject) {
+		return getHashcode(simpleObject, CURRENT_HASHCODE_VERSION);
+	}
+
+	/**
+	 * Calculates the hashcode of the object in the given version of the algorithm
+	 *
+	 * @throws SyncException if the version isn't supported
+	 */
+	public static String getHashcode(SimpleObject simpleObject, int version) {
 		if (simpleObject == null) {
 			return null;
 		}
-		return createUuidFromString(converter.convertToJson(removeFields(simpleObject)));
+		switch (version) {
+			case HASHCODE_VERSION_1:
+				return SimpleObjectHasher.hash(simpleObject, VOIDED_FIELDS, STOP_WORDS);
+			default:
+				throw new SyncException(String.format("Unsupported hashcode version: %d", version));
+		}
 	}
 
-	private static String createUuidFromString(String data) {
-		return DigestUtils.sha512Hex(data);
+	/**
+	 * Builds the hash tree of the fields of the object, the same fields are skipped as by the hashcode.
+	 * The hash of the root of the tree isn't equal to the hashcode of the object.
+	 *
+	 * @return the hash tree, null if the object is null
+	 */
+	public static SyncHashTree getHashTree(SimpleObject simpleObject) {
+		if (simpleObject == null) {
+			return null;
+		}
+		return SimpleObjectHasher.hashTree(simpleObject, VOIDED_FIELDS, STOP_WORDS);
 	}
 
-	private static SimpleObject removeFields(SimpleObject simpleObject) {
-		SimpleObject result = SimpleObjectSerializationUtils.clone(simpleObject);
-		removeVoided(result);
-		removeStopWords(result);
-		return result;
+	/**
+	 * Finds the fields which differ between the objects, using their cached hash trees.
+	 *
+	 * @return the paths of the changed fields in the dot notation, empty if the objects are equal
+	 * or one of them has no representation
+	 */
+	public static List<String> getChangedFields(SyncObject syncObject, SyncObject other) {
+		if (syncObject.getHashTree() == null || other.getHashTree() == null) {
+			return Collections.emptyList();
+		}
+		return syncObject.getHashTree().diff(other.getHashTree());
 	}
 
-	private static void removeStopWords(AbstractMap<String, Object> result) {
-		for (String word : STOP_WORDS) {
-			result.remove(word);
+	/**
+	 * @return the version of the algorithm which calculated the hashcode
+	 */
+	public static int getHashcodeVersion(String hashCode) {
+		int separator = hashCode.indexOf(VERSION_SEPARATOR);
+		if (separator < 0) {
+			return HASHCODE_VERSION_1;
+		}
+		try {
+			return Integer.parseInt(hashCode.substring(0, separator));
 		}
+		catch (NumberFormatException e) {
+			throw new SyncException(String.format("Invalid hashcode version: %s", hashCode), e);
+		}
+	}
 
-		for (Map.Entry<String, Object> entry : result.entrySet()) {
-			Object value = entry.getValue();
-			if (value instanceof Map<?,?>) {
-				removeStopWords((AbstractMap) value);
-			}
-			if (value instanceof List<?>) {
-				for (Object element : (List) value) {
-					if (element instanceof Map<?,?>) {
-						removeStopWords((AbstractMap) element);
-					}
-				}
-			}
+	/**
+	 * Decodes the digest of the hashcode, so it can be stored in the fixed width binary form. The hashcode
+	 * is restored by {@link #getHashcode(int, byte[])}.
+	 *
+	 * @param hashCode the hashcode, can be null
+	 * @return the digest, or null if the hashcode can't be restored exactly from its version and digest
+	 */
+	public static byte[] getHashcodeDigest(String hashCode) {
+		if (hashCode == null) {
+			return null;
 		}
+		String hex = hashCode.substring(hashCode.indexOf(VERSION_SEPARATOR) + 1);
+		if (hex.length() != HASHCODE_DIGEST_BYTES * 2) {
+			return null;
+		}
+		try {
+			byte[] digest = Hex.decodeHex(hex.toCharArray());
+			return hashCode.equals(getHashcode(getHashcodeVersion(hashCode), digest)) ? digest : null;
+		}
+		catch (DecoderException | SyncException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Restores the hashcode from its version and digest
+	 */
+	public static String getHashcode(int version, byte[] digest) {
+		String hex = Hex.encodeHexString(digest);
+		return version == HASHCODE_VERSION_1 ? hex : version + VERSION_SEPARATOR + hex;
+	}
+
+	/**
+	 * Checks whether the hashcode represents the current state of the object. The hashcode of the object
+	 * is calculated in the version of the given hashcode, so the hashcodes stored by the previous
+	 * versions of the algorithm are still recognized.
+	 *
+	 * @param simpleObject the object, can be null
+	 * @param hashCode the hashcode, can be null
+	 * @return true if the hashcode represents the object
+	 */
+	public static boolean matchesHashcode(SimpleObject simpleObject, String hashCode) {
+		if (simpleObject == null || hashCode == null) {
+			return false;
+		}
+		return hashCode.equalsIgnoreCase(getHashcode(simpleObject, getHashcodeVersion(hashCode)));
 	}
 
-	private static void removeVoided(final SimpleObject result) {
-		result.remove("dateVoided");
-		result.remove("voided");
-		result.remove("voidedBy");
-		result.remove("voidReason");
+	/**
+	 * Checks whether the hashcode represents the object. The cached hashcode of the object is used,
+	 * unless the given hashcode was calculated by a different version of the algorithm.
+	 *
+	 * @param syncObject the object, can be null
+	 * @param hashCode the hashcode, can be null
+	 * @return true if the hashcode represents the object
+	 */
+	public static boolean matchesHashcode(SyncObject syncObject, String hashCode) {
+		if (syncObject == null || syncObject.getSimpleObject() == null || hashCode == null) {
+			return false;
+		}
+		if (getHashcodeVersion(hashCode) == CURRENT_HASHCODE_VERSION) {
+			return hashCode.equalsIgnoreCase(syncObject.getHashcode());
+		}
+		return matchesHashcode(syncObject.getSimpleObject(), hashCode);
+	}
+
+	/**
+	 * Creates the strong entity tag representing the object with the given hashcode
+	 */
+	public static String getEntityTag(String hashCode) {
+		return ETAG_QUOTE + hashCode + ETAG_QUOTE;
+	}
 
-		result.remove("dateRetired");
-		result.remove("retired");
-		result.remove("retiredBy");
-		result.remove("retireReason");
+	/**
+	 * Checks whether the value of an If-None-Match header matches the given hashcode
+	 *
+	 * @param ifNoneMatch the value of the header, can be null
+	 * @param hashCode the hashcode of the current state of the object, can be null
+	 * @return true if one of the listed tags represents the hashcode
+	 */
+	public static boolean matchesEntityTag(String ifNoneMatch, String hashCode) {
+		if (ifNoneMatch == null || hashCode == null) {
+			return false;
+		}
+		String entityTag = getEntityTag(hashCode);
+		for (String tag : ifNoneMatch.split(",")) {
+			String trimmed = tag.trim();
+			if (trimmed.startsWith(WEAK_ETAG_PREFIX)) {
+				trimmed = trimmed.substring(WEAK_ETAG_PREFIX.length());
+			}
+			if (entityTag.equals(trimmed) || "*".equals(trimmed)) {
+				return true;
+			}
+		}
+		return false;
 	}
+
+	private SyncHashcodeUtils() { }
 }
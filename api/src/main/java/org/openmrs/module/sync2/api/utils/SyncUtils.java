@@ -23,6 +23,7 @@ import org.openmrs.module.sync2.api.model.enums.AtomfeedTagContent;
 import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
 import org.openmrs.module.sync2.api.model.enums.SyncOperation;
 import org.openmrs.module.sync2.api.service.SyncConfigurationService;
+import org.openmrs.module.sync2.api.sync.SyncEndpointRegistry;
 import org.openmrs.module.sync2.client.ClientHelperFactory;
 import org.openmrs.module.webservices.rest.web.ConversionUtil;
 import org.slf4j.Logger;
@@ -95,12 +96,12 @@ public class SyncUtils {
 	}
 
 	public static String getPullUrl(Map<String, String> resourceLinks, String clientName, OpenMRSSyncInstance instance) {
-		String base = instance.equals(CHILD) ? getLocalBaseUrl() : getParentBaseUrl(clientName);
+		String base = SyncEndpointRegistry.getEndpoint(clientName, instance).getBaseUrl();
 		return getFullUrl(base, resourceLinks.get(clientName));
 	}
 
 	public static String getPushUrl(Map<String, String> resourceLinks, String clientName, OpenMRSSyncInstance instance) {
-		String base = instance.equals(CHILD) ? getLocalBaseUrl() : getParentBaseUrl(clientName);
+		String base = SyncEndpointRegistry.getEndpoint(clientName, instance).getBaseUrl();
 		return getFullUrl(base, getPushPath(resourceLinks.get(clientName)));
 	}
 
@@ -341,6 +342,15 @@ public class SyncUtils {
 		return Context.getService(SyncConfigurationService.class);
 	}
 
+	/**
+	 * Returns the shared Gson instance configured by {@link #createDefaultGson()}.
+	 * Gson is thread-safe, so it should be preferred over creating new instances.
+	 * @return definitive null safe Gson instance
+	 */
+	public static Gson getDefaultGson() {
+		return DefaultGsonHolder.INSTANCE;
+	}
+
 	/**
 	 * This method configures Gson.
 	 * We need to use workaround for null dates.
@@ -366,6 +376,11 @@ public class SyncUtils {
 				.create();
 	}
 
+	private static class DefaultGsonHolder {
+
+		private static final Gson INSTANCE = createDefaultGson();
+	}
+
 	public static MergeBehaviour getMergeBehaviour() {
 		String behavior = Context.getAdministrationService().getGlobalProperty(SyncConstants.SYNC_2_MERGE_BEHAVIOR);
 		if (behavior == null) {
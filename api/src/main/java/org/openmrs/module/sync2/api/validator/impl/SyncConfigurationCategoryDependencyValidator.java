@@ -0,0 +1,26 @@
+package org.openmrs.module.sync2.api.validator.impl;
+
+import org.openmrs.module.sync2.api.model.configuration.SyncConfiguration;
+import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
+import org.openmrs.module.sync2.api.sync.CategoryDependencyGraph;
+import org.openmrs.module.sync2.api.validator.Errors;
+import org.openmrs.module.sync2.api.validator.SyncConfigurationValidator;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SyncConfigurationCategoryDependencyValidator implements SyncConfigurationValidator {
+
+    private static final String ERROR_CODE = "sync2.error.cyclicCategoryDependencies";
+
+    @Override
+    public void validate(SyncConfiguration syncConfiguration, Errors errors) {
+        if (hasCyclicDependencies(syncConfiguration.getPush()) || hasCyclicDependencies(syncConfiguration.getPull())) {
+            errors.addErrorCode(ERROR_CODE);
+        }
+    }
+
+    private boolean hasCyclicDependencies(SyncMethodConfiguration methodConfiguration) {
+        return methodConfiguration != null && methodConfiguration.getClasses() != null
+                && !new CategoryDependencyGraph(methodConfiguration.getClasses()).findCyclicCategories().isEmpty();
+    }
+}
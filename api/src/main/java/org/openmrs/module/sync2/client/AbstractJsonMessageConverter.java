@@ -0,0 +1,88 @@
+package org.openmrs.module.sync2.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.openmrs.module.sync2.api.utils.SyncUtils.getDefaultGson;
+
+/**
+ * Base of the JSON message converters. The messages are parsed and written by Gson directly
+ * over the message streams, so the bodies are never buffered as a whole. Unless the message declares
+ * a different charset, UTF-8 is used.
+ */
+public abstract class AbstractJsonMessageConverter<T> extends AbstractHttpMessageConverter<T> {
+
+	protected static final Charset CHARSET = StandardCharsets.UTF_8;
+
+	private static final String TYPE = "application";
+
+	private static final String SUBTYPE = "json";
+
+	protected final Gson defaultJsonParser;
+
+	protected AbstractJsonMessageConverter() {
+		super(new MediaType(TYPE, SUBTYPE, CHARSET));
+		defaultJsonParser = getDefaultGson();
+	}
+
+	@Override
+	protected T readInternal(Class<? extends T> clazz, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		try {
+			JsonReader reader = defaultJsonParser.newJsonReader(
+					new InputStreamReader(inputMessage.getBody(), getCharset(inputMessage.getHeaders())));
+			return read(clazz, reader);
+		}
+		catch (IOException | JsonParseException e) {
+			throw new HttpMessageNotReadableException("Could not read JSON: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	protected void writeInternal(T object, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		try {
+			Writer writer = new OutputStreamWriter(outputMessage.getBody(), getCharset(outputMessage.getHeaders()));
+			write(object, defaultJsonParser.newJsonWriter(writer));
+			writer.flush();
+		}
+		catch (IOException | JsonParseException e) {
+			throw new HttpMessageNotWritableException("Could not serialize object. Msg: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads the object of the given class. By default it is deserialized by the default Gson.
+	 */
+	protected T read(Class<? extends T> clazz, JsonReader reader) throws IOException {
+		return defaultJsonParser.fromJson(reader, clazz);
+	}
+
+	/**
+	 * Writes the given object. By default it is serialized by the default Gson.
+	 */
+	protected void write(T object, JsonWriter writer) throws IOException {
+		defaultJsonParser.toJson(object, object.getClass(), writer);
+	}
+
+	protected Charset getCharset(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		return contentType != null && contentType.getCharSet() != null ? contentType.getCharSet() : CHARSET;
+	}
+}
@@ -0,0 +1,63 @@
+package org.openmrs.module.sync2.client;
+
+import org.openmrs.module.sync2.api.exceptions.CircuitOpenException;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.sync.CircuitBreaker;
+import org.openmrs.module.sync2.api.sync.CircuitBreakerRegistry;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Rejects the requests to the endpoints considered unavailable, see {@link CircuitBreaker}.
+ * The I/O errors and the gateway error responses (502, 503, 504) are counted as failures,
+ * any other response means the endpoint is available.
+ */
+public class CircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+
+	private final OpenMRSSyncInstance instance;
+
+	private final int failureThreshold;
+
+	private final int openTime;
+
+	public CircuitBreakerInterceptor(OpenMRSSyncInstance instance, int failureThreshold, int openTime) {
+		this.instance = instance;
+		this.failureThreshold = failureThreshold;
+		this.openTime = openTime;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		CircuitBreaker circuitBreaker = CircuitBreakerRegistry.getCircuitBreaker(instance, request.getURI(),
+				failureThreshold, openTime);
+		if (!circuitBreaker.tryAcquire()) {
+			throw new CircuitOpenException(String.format("%s is unavailable, the request to %s was not sent",
+					circuitBreaker.getEndpoint(), request.getURI()));
+		}
+
+		boolean succeeded = false;
+		try {
+			ClientHttpResponse response = execution.execute(request, body);
+			succeeded = !isGatewayError(response.getRawStatusCode());
+			return response;
+		}
+		finally {
+			if (succeeded) {
+				circuitBreaker.recordSuccess();
+			} else {
+				circuitBreaker.recordFailure();
+			}
+		}
+	}
+
+	private boolean isGatewayError(int statusCode) {
+		return statusCode == HttpStatus.BAD_GATEWAY.value() || statusCode == HttpStatus.SERVICE_UNAVAILABLE.value()
+				|| statusCode == HttpStatus.GATEWAY_TIMEOUT.value();
+	}
+}
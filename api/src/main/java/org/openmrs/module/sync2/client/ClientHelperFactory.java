@@ -2,26 +2,76 @@ package org.openmrs.module.sync2.client;
 
 import org.openmrs.module.fhir.api.helper.ClientHelper;
 import org.openmrs.module.fhir.api.helper.FHIRClientHelper;
+import org.openmrs.module.sync2.api.sync.SyncEndpointRegistry;
 import org.openmrs.module.sync2.client.rest.RESTClientHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.openmrs.module.sync2.SyncConstants.FHIR_CLIENT;
 import static org.openmrs.module.sync2.SyncConstants.REST_CLIENT;
 
+/**
+ * Registry of the client helpers and their message converters. The helpers are thread-safe singletons created
+ * on the first use. Other modules can provide their own clients using {@link #registerClient(String, ClientHelper)}.
+ */
 public class ClientHelperFactory {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ClientHelperFactory.class);
 
+	private static final Map<String, ClientHelper> CLIENT_HELPERS = new ConcurrentHashMap<>();
+
+	private static final Map<String, List<HttpMessageConverter<?>>> MESSAGE_CONVERTERS = new ConcurrentHashMap<>();
+
 	public static ClientHelper createClient(final String clientType) {
+		ClientHelper helper = CLIENT_HELPERS.get(clientType);
+		if (helper != null) {
+			return helper;
+		}
 		switch (clientType) {
 			case REST_CLIENT:
-				return new RESTClientHelper();
+				return CLIENT_HELPERS.computeIfAbsent(REST_CLIENT, key -> new RESTClientHelper());
 			case FHIR_CLIENT:
-				return new FHIRClientHelper();
+				return CLIENT_HELPERS.computeIfAbsent(FHIR_CLIENT, key -> new FHIRClientHelper());
 			default:
 				LOGGER.warn(String.format("Unrecognized clientType: %s. The REST Client will be used.", clientType));
-				return new RESTClientHelper();
+				return createClient(REST_CLIENT);
 		}
 	}
+
+	/**
+	 * Returns the message converters of the given client, extended with the converter of wrapped requests.
+	 * The returned list is shared and can't be modified.
+	 */
+	public static List<HttpMessageConverter<?>> getMessageConverters(final String clientType) {
+		return MESSAGE_CONVERTERS.computeIfAbsent(clientType, key -> {
+			List<HttpMessageConverter<?>> converters = new ArrayList<>(createClient(key).getCustomMessageConverter());
+			converters.add(new RequestWrapperConverter());
+			return Collections.unmodifiableList(converters);
+		});
+	}
+
+	/**
+	 * Registers the helper which will be used for the given client name. It replaces the previously
+	 * registered helper, including the built-in ones. The helper has to be thread-safe.
+	 */
+	public static void registerClient(final String clientType, final ClientHelper clientHelper) {
+		CLIENT_HELPERS.put(clientType, clientHelper);
+		MESSAGE_CONVERTERS.remove(clientType);
+		SyncEndpointRegistry.invalidate();
+	}
+
+	public static void unregisterClient(final String clientType) {
+		CLIENT_HELPERS.remove(clientType);
+		MESSAGE_CONVERTERS.remove(clientType);
+		SyncEndpointRegistry.invalidate();
+	}
+
+	private ClientHelperFactory() { }
 }
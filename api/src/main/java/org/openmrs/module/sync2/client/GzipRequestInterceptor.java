@@ -0,0 +1,47 @@
+package org.openmrs.module.sync2.client;
+
+import org.openmrs.module.sync2.api.utils.GzipUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Compresses the bodies of outgoing requests with gzip. The requests are compressed only after the server
+ * advertised, using the Accept-Encoding response header, that it accepts gzip encoded requests (RFC 7694),
+ * so the servers which don't support it keep receiving plain requests.
+ */
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private final int threshold;
+
+	private volatile boolean gzipAccepted;
+
+	/**
+	 * @param threshold the minimum size in bytes of the compressed bodies
+	 */
+	public GzipRequestInterceptor(int threshold) {
+		this.threshold = threshold;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		byte[] content = body;
+		HttpHeaders headers = request.getHeaders();
+		if (gzipAccepted && body.length >= threshold && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			content = GzipUtils.compress(body);
+			headers.set(HttpHeaders.CONTENT_ENCODING, GzipUtils.GZIP);
+			headers.setContentLength(content.length);
+		}
+
+		ClientHttpResponse response = execution.execute(request, content);
+		if (!gzipAccepted && GzipUtils.acceptsGzip(response.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING))) {
+			gzipAccepted = true;
+		}
+		return response;
+	}
+}
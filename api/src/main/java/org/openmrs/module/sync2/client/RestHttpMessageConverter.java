@@ -1,36 +1,27 @@
 package org.openmrs.module.sync2.client;
 
-import com.google.gson.Gson;
 import org.apache.commons.io.IOUtils;
 import org.openmrs.module.sync2.api.utils.ContextUtils;
 import org.openmrs.module.sync2.client.rest.resource.RestResource;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
-import org.springframework.http.MediaType;
-import org.springframework.http.converter.AbstractHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
 
-import static org.openmrs.module.sync2.api.utils.SyncUtils.createDefaultGson;
-
-public class RestHttpMessageConverter extends AbstractHttpMessageConverter<RestResource> {
-
-    private static final String CHARSET = "UTF-8";
-    private static final String TYPE = "application";
-    private static final String SUBTYPE = "json";
-
-    private final Gson defaultJsonParser;
+/**
+ * Resources with a registered String converter are converted using the conversion service,
+ * the others are streamed by the default Gson.
+ */
+public class RestHttpMessageConverter extends AbstractJsonMessageConverter<RestResource> {
 
     private ConversionService conversionService;
 
     public RestHttpMessageConverter() {
-        super(new MediaType(TYPE, SUBTYPE, Charset.forName(CHARSET)));
+        super();
         conversionService = ContextUtils.getConversionService();
-        defaultJsonParser = createDefaultGson();
     }
 
     @Override
@@ -41,9 +32,12 @@ public class RestHttpMessageConverter extends AbstractHttpMessageConverter<RestR
     @Override
     protected RestResource readInternal(Class<? extends RestResource> clazz, HttpInputMessage inputMessage)
             throws IOException, HttpMessageNotReadableException {
+        if (!conversionService.canConvert(String.class, clazz)) {
+            return super.readInternal(clazz, inputMessage);
+        }
         try {
-            String json = IOUtils.toString(inputMessage.getBody());
-            return convertJsonToGivenClass(json, clazz);
+            String json = IOUtils.toString(inputMessage.getBody(), getCharset(inputMessage.getHeaders()).name());
+            return conversionService.convert(json, clazz);
         } catch (IOException e) {
             throw new HttpMessageNotReadableException("Could not read JSON: " + e.getMessage(), e);
         }
@@ -52,9 +46,13 @@ public class RestHttpMessageConverter extends AbstractHttpMessageConverter<RestR
     @Override
     protected void writeInternal(RestResource restResource, HttpOutputMessage outputMessage)
             throws IOException, HttpMessageNotWritableException {
+        if (!conversionService.canConvert(restResource.getClass(), String.class)) {
+            super.writeInternal(restResource, outputMessage);
+            return;
+        }
         try {
-            String json = convertToJson(restResource);
-            outputMessage.getBody().write(json.getBytes());
+            String json = conversionService.convert(restResource, String.class);
+            outputMessage.getBody().write(json.getBytes(getCharset(outputMessage.getHeaders())));
         } catch (IOException e) {
             throw new HttpMessageNotWritableException("Could not serialize object. Msg: " + e.getMessage(), e);
         }
@@ -0,0 +1,156 @@
+package org.openmrs.module.sync2.client;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openmrs.module.sync2.api.model.SyncEndpoint;
+import org.openmrs.module.sync2.api.model.configuration.ClientConfiguration;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.sync.SyncEndpointRegistry;
+import org.openmrs.module.sync2.api.utils.SyncConfigurationUtils;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_CIRCUIT_OPEN_TIME;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_COMPRESSION_THRESHOLD;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_CONNECT_TIMEOUT;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_FAILURE_THRESHOLD;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_KEEP_ALIVE;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_READ_TIMEOUT;
+
+/**
+ * Builds and caches the RestTemplates used to communicate with the local and parent instances.
+ * Every (client, instance) pair gets its own template backed by a pooled, keep-alive HTTP client.
+ * Unless disabled in the client configuration, the responses are requested with gzip and the requests are
+ * compressed once the server declares it accepts compressed bodies. The requests to the endpoints which keep failing
+ * are rejected by the {@link CircuitBreakerInterceptor}.
+ * The templates are fully configured before they are published, so they can be shared between threads,
+ * but they must not be modified by the callers. The template and its request factory are cached and evicted
+ * together, the HTTP client of the evicted template is closed when its running requests complete,
+ * see {@link SharedRequestFactory}.
+ */
+public class RestTemplateFactory {
+
+	private static final int MAX_ROUTES_PER_TEMPLATE = 2;
+
+	private static final Map<String, CachedTemplate> REST_TEMPLATES = new ConcurrentHashMap<>();
+
+	public static RestTemplate getRestTemplate(String clientName, OpenMRSSyncInstance instance) {
+		return getCachedTemplate(clientName, instance).restTemplate;
+	}
+
+	/**
+	 * Drops all cached templates, so the next call will build them using the current configuration.
+	 * The HTTP clients of the dropped templates are closed together with their connection pools
+	 * once the requests which are still running complete.
+	 */
+	public static void clearCache() {
+		for (String key : REST_TEMPLATES.keySet()) {
+			CachedTemplate removed = REST_TEMPLATES.remove(key);
+			if (removed != null) {
+				removed.requestFactory.retire();
+			}
+		}
+	}
+
+	static SharedRequestFactory getRequestFactory(String clientName, OpenMRSSyncInstance instance) {
+		return getCachedTemplate(clientName, instance).requestFactory;
+	}
+
+	private static CachedTemplate getCachedTemplate(String clientName, OpenMRSSyncInstance instance) {
+		return REST_TEMPLATES.computeIfAbsent(getKey(clientName, instance),
+				key -> createRestTemplate(clientName, instance));
+	}
+
+	private static CachedTemplate createRestTemplate(String clientName, OpenMRSSyncInstance instance) {
+		SyncEndpoint endpoint = SyncEndpointRegistry.getEndpoint(clientName, instance);
+		ClientConfiguration configuration = SyncConfigurationUtils.getClientConfiguration(clientName);
+		ClientConfiguration conf = configuration != null ? configuration : new ClientConfiguration();
+
+		List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+		interceptors.add(new CircuitBreakerInterceptor(instance,
+				getValueOrDefault(conf.getFailureThreshold(), DEFAULT_FAILURE_THRESHOLD),
+				getValueOrDefault(conf.getCircuitOpenTime(), DEFAULT_CIRCUIT_OPEN_TIME)));
+		interceptors.addAll(endpoint.getClientHelper().getCustomInterceptors(endpoint.getLogin(),
+				endpoint.getPassword()));
+		if (isCompressionEnabled(conf)) {
+			interceptors.add(new GzipRequestInterceptor(
+					getValueOrDefault(conf.getCompressionThreshold(), DEFAULT_COMPRESSION_THRESHOLD)));
+		}
+
+		SharedRequestFactory requestFactory = new SharedRequestFactory(clientName, instance,
+				createRequestFactory(conf));
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		restTemplate.setInterceptors(interceptors);
+		restTemplate.setMessageConverters(ClientHelperFactory.getMessageConverters(clientName));
+		return new CachedTemplate(restTemplate, requestFactory);
+	}
+
+	private static HttpComponentsClientHttpRequestFactory createRequestFactory(ClientConfiguration conf) {
+		int connectTimeout = getValueOrDefault(conf.getConnectTimeout(), DEFAULT_CONNECT_TIMEOUT);
+		int readTimeout = getValueOrDefault(conf.getReadTimeout(), DEFAULT_READ_TIMEOUT);
+		int maxPerRoute = getValueOrDefault(conf.getMaxConnectionsPerRoute(), DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+		int keepAlive = getValueOrDefault(conf.getKeepAlive(), DEFAULT_KEEP_ALIVE);
+
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+		connectionManager.setMaxTotal(maxPerRoute * MAX_ROUTES_PER_TEMPLATE);
+
+		HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
+				.setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(createKeepAliveStrategy(TimeUnit.SECONDS.toMillis(keepAlive)));
+		if (!isCompressionEnabled(conf)) {
+			httpClientBuilder.disableContentCompression();
+		}
+		HttpClient httpClient = httpClientBuilder.build();
+
+		HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+		requestFactory.setConnectTimeout(connectTimeout);
+		requestFactory.setConnectionRequestTimeout(connectTimeout);
+		requestFactory.setReadTimeout(readTimeout);
+		return requestFactory;
+	}
+
+	private static ConnectionKeepAliveStrategy createKeepAliveStrategy(long defaultKeepAlive) {
+		return (response, context) -> {
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return keepAlive > 0 ? keepAlive : defaultKeepAlive;
+		};
+	}
+
+	private static boolean isCompressionEnabled(ClientConfiguration conf) {
+		return conf.getCompressionEnabled() == null || conf.getCompressionEnabled();
+	}
+
+	private static int getValueOrDefault(Integer value, int defaultValue) {
+		return value != null && value > 0 ? value : defaultValue;
+	}
+
+	private static String getKey(String clientName, OpenMRSSyncInstance instance) {
+		return clientName + ":" + instance.name();
+	}
+
+	private static class CachedTemplate {
+
+		private final RestTemplate restTemplate;
+
+		private final SharedRequestFactory requestFactory;
+
+		CachedTemplate(RestTemplate restTemplate, SharedRequestFactory requestFactory) {
+			this.restTemplate = restTemplate;
+			this.requestFactory = requestFactory;
+		}
+	}
+
+	private RestTemplateFactory() { }
+}
@@ -0,0 +1,189 @@
+package org.openmrs.module.sync2.client;
+
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * The request factory of the cached RestTemplate, it counts the requests which are running. The factory evicted
+ * from the cache is retired and its HTTP client is closed together with the connection pool when the last running
+ * request completes, i.e. when its response is closed. Every created request has to be executed, as the RestTemplate
+ * does right after its interceptors. The request of the template which was read from the cache before the factory
+ * was closed is created by the factory of the current template.
+ */
+class SharedRequestFactory implements ClientHttpRequestFactory {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SharedRequestFactory.class);
+
+	private final String clientName;
+
+	private final OpenMRSSyncInstance instance;
+
+	private final HttpComponentsClientHttpRequestFactory delegate;
+
+	private int runningRequests;
+
+	private boolean retired;
+
+	private boolean closed;
+
+	SharedRequestFactory(String clientName, OpenMRSSyncInstance instance,
+			HttpComponentsClientHttpRequestFactory delegate) {
+		this.clientName = clientName;
+		this.instance = instance;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		if (!acquire()) {
+			return RestTemplateFactory.getRequestFactory(clientName, instance).createRequest(uri, httpMethod);
+		}
+		try {
+			return new TrackedRequest(delegate.createRequest(uri, httpMethod));
+		}
+		catch (IOException | RuntimeException e) {
+			release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes the HTTP client as soon as there are no running requests.
+	 */
+	synchronized void retire() {
+		retired = true;
+		closeIfUnused();
+	}
+
+	synchronized boolean isClosed() {
+		return closed;
+	}
+
+	private synchronized boolean acquire() {
+		if (closed) {
+			return false;
+		}
+		runningRequests++;
+		return true;
+	}
+
+	private synchronized void release() {
+		runningRequests--;
+		closeIfUnused();
+	}
+
+	private void closeIfUnused() {
+		if (!retired || closed || runningRequests > 0) {
+			return;
+		}
+		closed = true;
+		try {
+			delegate.destroy();
+		}
+		catch (Exception e) {
+			LOGGER.warn("Error while closing the HTTP client of the evicted RestTemplate", e);
+		}
+	}
+
+	private class TrackedRequest implements ClientHttpRequest {
+
+		private final ClientHttpRequest request;
+
+		TrackedRequest(ClientHttpRequest request) {
+			this.request = request;
+		}
+
+		@Override
+		public ClientHttpResponse execute() throws IOException {
+			try {
+				return new TrackedResponse(request.execute());
+			}
+			catch (IOException | RuntimeException e) {
+				release();
+				throw e;
+			}
+		}
+
+		@Override
+		public OutputStream getBody() throws IOException {
+			return request.getBody();
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return request.getMethod();
+		}
+
+		@Override
+		public URI getURI() {
+			return request.getURI();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return request.getHeaders();
+		}
+	}
+
+	private class TrackedResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse response;
+
+		private boolean released;
+
+		TrackedResponse(ClientHttpResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return response.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return response.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return response.getStatusText();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			return response.getBody();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return response.getHeaders();
+		}
+
+		@Override
+		public void close() {
+			try {
+				response.close();
+			}
+			finally {
+				if (!released) {
+					released = true;
+					release();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package org.openmrs.module.sync2.client.reader;
+
+import java.util.List;
+
+/**
+ * The worker which can process several feed events at once, so the objects of the events can be synchronized
+ * using the batch requests.
+ */
+public interface BatchEventWorker extends CoalescedEventWorker {
+
+	/**
+	 * Processes the events in the given order.
+	 */
+	void process(List<CoalescedEvent> events);
+}
@@ -0,0 +1,63 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.module.sync2.api.exceptions.SyncRunStoppedError;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.sync.CircuitBreaker;
+import org.openmrs.module.sync2.api.sync.CircuitBreakerRegistry;
+import org.openmrs.module.sync2.api.sync.SyncRunBudget;
+
+/**
+ * Stops reading the feed when the budget of the current run is exhausted, see {@link SyncRunBudget},
+ * or when the parent becomes unavailable, see {@link CircuitBreakerRegistry}. The event which stopped the run
+ * is not passed to the delegated worker and the feed marker stays before it, so the feed is read from this
+ * event by the next run.
+ */
+public class BudgetFeedEventWorker implements FeedEventWorker {
+
+	private final FeedEventWorker delegate;
+
+	private volatile SyncRunBudget budget = new SyncRunBudget(null, null);
+
+	private volatile String stopReason;
+
+	public BudgetFeedEventWorker(FeedEventWorker delegate) {
+		this.delegate = delegate;
+	}
+
+	public void setBudget(SyncRunBudget budget) {
+		this.budget = budget;
+		this.stopReason = null;
+	}
+
+	/**
+	 * @return the reason why the feed was stopped, or null if it wasn't stopped since the budget was set
+	 */
+	public String getStopReason() {
+		return stopReason;
+	}
+
+	@Override
+	public void process(Event event) {
+		CircuitBreaker circuitBreaker = CircuitBreakerRegistry.getOpenCircuitBreaker(OpenMRSSyncInstance.PARENT);
+		if (circuitBreaker != null) {
+			stop(event, String.format("%s is unavailable", circuitBreaker.getEndpoint()));
+		}
+		if (!budget.tryAcquireEvent()) {
+			stop(event, budget.getStopReason());
+		}
+		delegate.process(event);
+	}
+
+	@Override
+	public void cleanUp(Event event) {
+		delegate.cleanUp(event);
+	}
+
+	private void stop(Event event, String reason) {
+		stopReason = reason;
+		throw new SyncRunStoppedError(String.format("The feed event (id: %s) is not processed, %s",
+				event.getId(), reason));
+	}
+}
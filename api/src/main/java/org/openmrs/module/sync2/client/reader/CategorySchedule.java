@@ -0,0 +1,72 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.openmrs.module.sync2.api.model.FeedProgress;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedule of a single category feed. With the fixed schedule the feed is read every maximal interval.
+ * With the adaptive schedule the feed which had events, or which was paused before its end, e.g. by the budget
+ * of the run or by the open circuit breaker, is read again after the minimal interval, while the interval
+ * of the feed which had no events (or couldn't be read) is doubled, up to the maximal interval.
+ */
+public class CategorySchedule {
+
+	private final String category;
+
+	private long intervalSeconds;
+
+	private long nextRunMillis;
+
+	public CategorySchedule(String category) {
+		this.category = category;
+	}
+
+	/**
+	 * @param toleranceMillis how early the feed can be read, so it isn't delayed by the whole scheduler period
+	 * when the scheduler runs a bit before the planned time
+	 */
+	public synchronized boolean isDue(long nowMillis, long toleranceMillis) {
+		return nowMillis + toleranceMillis >= nextRunMillis;
+	}
+
+	/**
+	 * Plans the next reading of the feed.
+	 *
+	 * @param startedMillis the time when the last reading started
+	 * @param hadEvents true if the last reading processed any events or it was paused before the end of the feed
+	 */
+	public synchronized void completed(long startedMillis, boolean hadEvents, boolean adaptive,
+			long minIntervalSeconds, long maxIntervalSeconds) {
+		if (!adaptive) {
+			intervalSeconds = maxIntervalSeconds;
+		} else if (hadEvents) {
+			intervalSeconds = minIntervalSeconds;
+		} else {
+			intervalSeconds = Math.min(Math.max(intervalSeconds * 2, minIntervalSeconds), maxIntervalSeconds);
+		}
+		nextRunMillis = startedMillis + TimeUnit.SECONDS.toMillis(intervalSeconds);
+	}
+
+	/**
+	 * The feed which was paused still has events, so it isn't idle even if none of them was processed.
+	 *
+	 * @return true if the reading of the feed processed any events or it was paused before the end of the feed
+	 */
+	public static boolean hadEvents(FeedProgress progress) {
+		return progress.getStatus() == FeedProgress.Status.PAUSED
+				|| progress.getStatus() != FeedProgress.Status.FAILED && progress.getProcessedEvents() > 0;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public synchronized long getIntervalSeconds() {
+		return intervalSeconds;
+	}
+
+	public synchronized long getNextRunMillis() {
+		return nextRunMillis;
+	}
+}
@@ -0,0 +1,26 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+
+/**
+ * The feed event which stands for the given number of the coalesced feed events of the same object.
+ */
+public class CoalescedEvent {
+
+	private final Event event;
+
+	private final int coalescedEvents;
+
+	public CoalescedEvent(Event event, int coalescedEvents) {
+		this.event = event;
+		this.coalescedEvents = coalescedEvents;
+	}
+
+	public Event getEvent() {
+		return event;
+	}
+
+	public int getCoalescedEvents() {
+		return coalescedEvents;
+	}
+}
@@ -0,0 +1,15 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+
+/**
+ * The worker which can process the event standing for several coalesced feed events of the same object.
+ */
+public interface CoalescedEventWorker extends FeedEventWorker {
+
+	/**
+	 * Processes the event which stands for the given number of the coalesced feed events.
+	 */
+	void process(Event event, int coalescedEvents);
+}
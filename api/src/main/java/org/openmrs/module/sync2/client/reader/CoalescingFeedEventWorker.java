@@ -0,0 +1,208 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.openmrs.module.sync2.SyncConstants.ACTION_CREATED;
+import static org.openmrs.module.sync2.SyncConstants.ACTION_DELETED;
+import static org.openmrs.module.sync2.SyncConstants.ACTION_UPDATED;
+
+/**
+ * Coalesces the feed events of the same object before they are synchronized. The events are collected until
+ * the window is full or {@link #flush()} is called, and then every object is synchronized once with its effective
+ * action: the object which was created and updated is created, and the object which was deleted is deleted
+ * regardless of the preceding events. The voided and retired events are never merged, they only close
+ * the preceding events of the object. The objects are synchronized in the order of their first event.
+ * The synchronization always reads the current state of the object, so the coalesced events are represented
+ * by one of the original events. If the delegated worker supports it, the collected objects are synchronized
+ * as a single batch, see {@link BatchEventWorker}. The collected events are kept in the {@link FeedEventJournal}
+ * until their object is synchronized. If the synchronization fails, the event which represents the object is kept
+ * as the failed event of the feed.
+ */
+public class CoalescingFeedEventWorker implements FeedEventWorker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingFeedEventWorker.class);
+
+	private final FeedEventWorker delegate;
+
+	private final FeedEventJournal journal;
+
+	private List<EventGroup> pending = new ArrayList<>();
+
+	private final Map<String, EventGroup> openGroups = new HashMap<>();
+
+	private int buffered;
+
+	private volatile int windowSize = 1;
+
+	public CoalescingFeedEventWorker(FeedEventWorker delegate, FeedEventJournal journal) {
+		this.delegate = delegate;
+		this.journal = journal;
+	}
+
+	/**
+	 * Sets the number of events collected before they are coalesced, the value 1 disables the coalescing.
+	 */
+	public void setWindowSize(int windowSize) {
+		this.windowSize = Math.max(windowSize, 1);
+	}
+
+	@Override
+	public void process(Event event) {
+		if (getBuffered() >= windowSize) {
+			flush();
+		}
+		if (windowSize <= 1) {
+			delegate.process(event);
+			return;
+		}
+		journal.defer(event);
+		add(event);
+	}
+
+	@Override
+	public void cleanUp(Event event) {
+		delegate.cleanUp(event);
+	}
+
+	/**
+	 * Synchronizes the collected events. The failure of the object doesn't stop the synchronization
+	 * of the other objects.
+	 */
+	public void flush() {
+		List<EventGroup> groups = drain();
+		if (groups.size() > 1 && delegate instanceof BatchEventWorker) {
+			flushBatch(groups);
+			return;
+		}
+		for (EventGroup group : groups) {
+			if (group.events.size() > 1) {
+				LOGGER.debug("Coalesced {} feed events into the event (id: {})", group.events.size(),
+						group.getEvent().getId());
+			}
+			try {
+				FeedEventUtils.process(delegate, group.getEvent(), group.events.size());
+				complete(group);
+			}
+			catch (RuntimeException e) {
+				LOGGER.error("Error during processing of the coalesced feed event (id: {})",
+						group.getEvent().getId(), e);
+				fail(group, e);
+			}
+		}
+	}
+
+	private void flushBatch(List<EventGroup> groups) {
+		List<CoalescedEvent> events = new ArrayList<>();
+		for (EventGroup group : groups) {
+			events.add(new CoalescedEvent(group.getEvent(), group.events.size()));
+		}
+		try {
+			FeedEventUtils.process(delegate, events);
+			for (EventGroup group : groups) {
+				complete(group);
+			}
+		}
+		catch (RuntimeException e) {
+			LOGGER.error("Error during processing of the batch of {} coalesced feed events", groups.size(), e);
+			for (EventGroup group : groups) {
+				fail(group, e);
+			}
+		}
+	}
+
+	private void complete(EventGroup group) {
+		for (Event event : group.events) {
+			journal.complete(event);
+		}
+	}
+
+	/**
+	 * The synchronization always reads the current state of the object, so only the event which represents
+	 * the object is kept as failed.
+	 */
+	private void fail(EventGroup group, RuntimeException failure) {
+		Event failed = group.getEvent();
+		for (Event event : group.events) {
+			if (event == failed) {
+				journal.fail(event, failure);
+			} else {
+				journal.complete(event);
+			}
+		}
+	}
+
+	private synchronized int getBuffered() {
+		return buffered;
+	}
+
+	private synchronized void add(Event event) {
+		String uuid = FeedEventUtils.getObjectUuid(event);
+		String action = FeedEventUtils.getAction(event);
+		boolean mergeable = uuid != null && isMergeable(action);
+
+		EventGroup group = mergeable ? openGroups.get(uuid) : null;
+		if (group == null) {
+			if (uuid != null) {
+				openGroups.remove(uuid);
+			}
+			group = new EventGroup();
+			pending.add(group);
+			if (mergeable) {
+				openGroups.put(uuid, group);
+			}
+		}
+		group.add(event, action);
+		if (ACTION_DELETED.equalsIgnoreCase(action)) {
+			openGroups.remove(uuid);
+		}
+		buffered++;
+	}
+
+	private synchronized List<EventGroup> drain() {
+		List<EventGroup> groups = pending;
+		pending = new ArrayList<>();
+		openGroups.clear();
+		buffered = 0;
+		return groups;
+	}
+
+	private boolean isMergeable(String action) {
+		return ACTION_CREATED.equalsIgnoreCase(action) || ACTION_UPDATED.equalsIgnoreCase(action)
+				|| ACTION_DELETED.equalsIgnoreCase(action);
+	}
+
+	/**
+	 * The events of the same object which are synchronized together.
+	 */
+	private static class EventGroup {
+
+		private final List<Event> events = new ArrayList<>();
+
+		private Event createdEvent;
+
+		private Event lastEvent;
+
+		private String lastAction;
+
+		void add(Event event, String action) {
+			if (createdEvent == null && ACTION_CREATED.equalsIgnoreCase(action)) {
+				createdEvent = event;
+			}
+			lastEvent = event;
+			lastAction = action;
+			events.add(event);
+		}
+
+		Event getEvent() {
+			return createdEvent == null || ACTION_DELETED.equalsIgnoreCase(lastAction) ? lastEvent : createdEvent;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package org.openmrs.module.sync2.client.reader;
+
+import java.util.TreeSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Numbers the events in the order they are read from the feed and tracks the watermark, i.e. the sequence
+ * number of the last event which was completed together with all events read before it. The events
+ * can be completed in any order.
+ */
+public class EventSequenceTracker {
+
+	private final Lock lock = new ReentrantLock();
+
+	private final Condition changed = lock.newCondition();
+
+	private final TreeSet<Long> inProgress = new TreeSet<>();
+
+	private long lastStarted;
+
+	/**
+	 * Starts the next event. Waits while the next event would be more than maxAhead events ahead
+	 * of the watermark.
+	 *
+	 * @return the sequence number of the started event
+	 */
+	public long begin(int maxAhead) throws InterruptedException {
+		lock.lock();
+		try {
+			while (lastStarted + 1 - getWatermark() > maxAhead) {
+				changed.await();
+			}
+			lastStarted++;
+			inProgress.add(lastStarted);
+			return lastStarted;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	public void complete(long sequence) {
+		lock.lock();
+		try {
+			inProgress.remove(sequence);
+			changed.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until all started events are completed.
+	 */
+	public void awaitCompletion() throws InterruptedException {
+		lock.lock();
+		try {
+			while (!inProgress.isEmpty()) {
+				changed.await();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	public long getWatermark() {
+		lock.lock();
+		try {
+			return inProgress.isEmpty() ? lastStarted : inProgress.first() - 1;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+}
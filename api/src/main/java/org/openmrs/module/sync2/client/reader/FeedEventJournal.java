@@ -0,0 +1,188 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.apache.commons.lang.exception.ExceptionUtils;
+import org.ict4h.atomfeed.client.domain.Event;
+import org.ict4h.atomfeed.client.domain.FailedEvent;
+import org.ict4h.atomfeed.client.repository.AllFailedEvents;
+import org.ict4h.atomfeed.transaction.AFTransactionManager;
+import org.ict4h.atomfeed.transaction.AFTransactionWork;
+import org.ict4h.atomfeed.transaction.AFTransactionWorkWithoutResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the feed events which were accepted by the worker, but whose synchronization was deferred, e.g. to another
+ * thread or to the end of the coalescing window. The feed marker moves past such event before it is synchronized,
+ * so the event is stored as the failed event of the feed when it is deferred for the first time. The row is added
+ * in the transaction which moves the marker, so the event is replayed by
+ * {@link org.openmrs.module.atomfeed.client.AtomFeedClient#processFailedEntries()} if the instance stops before
+ * the event is synchronized.
+ * <p>
+ * The event can be deferred several times, by every worker which buffers it, and every worker reports
+ * the result of its deferral. When the feed is processed, {@link #commit()} removes the rows of the synchronized
+ * events and stores the error of the events which failed, so they are retried as the other failed events.
+ */
+public class FeedEventJournal {
+
+	private static final String PENDING_MESSAGE = "The feed event is being synchronized";
+
+	private final AllFailedEvents allFailedEvents;
+
+	private final AFTransactionManager transactionManager;
+
+	private final Map<String, Entry> entries = new HashMap<>();
+
+	private volatile String feedUri;
+
+	public FeedEventJournal(AllFailedEvents allFailedEvents, AFTransactionManager transactionManager) {
+		this.allFailedEvents = allFailedEvents;
+		this.transactionManager = transactionManager;
+	}
+
+	/**
+	 * Sets the uri of the processed feed, it has to be the same as the uri of the feed client.
+	 */
+	public void setFeedUri(String feedUri) {
+		this.feedUri = feedUri;
+	}
+
+	/**
+	 * Notes that the synchronization of the event is deferred. It has to be called before the event is buffered,
+	 * if it fails, the event has to be handled by the caller.
+	 */
+	public synchronized void defer(Event event) {
+		Entry entry = entries.get(event.getId());
+		if (entry == null) {
+			store(new FailedEvent(feedUri, event, PENDING_MESSAGE, 0));
+			entry = new Entry(event);
+			entries.put(event.getId(), entry);
+		}
+		entry.pending++;
+	}
+
+	/**
+	 * Notes that the deferred event was synchronized.
+	 */
+	public synchronized void complete(Event event) {
+		Entry entry = getEntry(event);
+		entry.pending--;
+		entry.completed = true;
+	}
+
+	/**
+	 * Notes that the synchronization of the deferred event failed, the event will be kept as the failed event.
+	 */
+	public synchronized void fail(Event event, Throwable failure) {
+		Entry entry = getEntry(event);
+		entry.pending--;
+		if (entry.failure == null) {
+			entry.failure = failure;
+		}
+	}
+
+	/**
+	 * Withdraws the deferral of the event which couldn't be buffered. The failure is handled by the caller,
+	 * which has to report it, unless it is the feed client.
+	 */
+	public synchronized void release(Event event) {
+		getEntry(event).pending--;
+	}
+
+	public void complete(List<CoalescedEvent> events) {
+		for (CoalescedEvent event : events) {
+			complete(event.getEvent());
+		}
+	}
+
+	public void fail(List<CoalescedEvent> events, Throwable failure) {
+		for (CoalescedEvent event : events) {
+			fail(event.getEvent(), failure);
+		}
+	}
+
+	/**
+	 * Removes the synchronized events from the failed events of the feed and stores the errors of the events which
+	 * failed. The events which are still deferred are committed by the next call, the events which were only
+	 * released are left as they are.
+	 */
+	public void commit() {
+		List<Entry> committed = drain();
+		if (committed.isEmpty()) {
+			return;
+		}
+		transactionManager.executeWithTransaction(new AFTransactionWorkWithoutResult() {
+
+			@Override
+			protected void doInTransaction() {
+				for (Entry entry : committed) {
+					if (entry.failure != null) {
+						allFailedEvents.addOrUpdate(new FailedEvent(feedUri, entry.event,
+								ExceptionUtils.getFullStackTrace(entry.failure), 0));
+					} else if (entry.completed) {
+						allFailedEvents.remove(new FailedEvent(feedUri, entry.event, PENDING_MESSAGE, 0));
+					}
+				}
+			}
+
+			@Override
+			public AFTransactionWork.PropagationDefinition getTxPropagationDefinition() {
+				return AFTransactionWork.PropagationDefinition.PROPAGATION_REQUIRES_NEW;
+			}
+		});
+	}
+
+	private void store(FailedEvent failedEvent) {
+		transactionManager.executeWithTransaction(new AFTransactionWorkWithoutResult() {
+
+			@Override
+			protected void doInTransaction() {
+				allFailedEvents.addOrUpdate(failedEvent);
+			}
+
+			@Override
+			public AFTransactionWork.PropagationDefinition getTxPropagationDefinition() {
+				return AFTransactionWork.PropagationDefinition.PROPAGATION_REQUIRED;
+			}
+		});
+	}
+
+	private Entry getEntry(Event event) {
+		Entry entry = entries.get(event.getId());
+		if (entry == null) {
+			throw new IllegalStateException(String.format("The feed event (id: %s) wasn't deferred", event.getId()));
+		}
+		return entry;
+	}
+
+	private synchronized List<Entry> drain() {
+		List<Entry> drained = new ArrayList<>();
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.pending <= 0) {
+				drained.add(entry);
+				iterator.remove();
+			}
+		}
+		return drained;
+	}
+
+	private static class Entry {
+
+		private final Event event;
+
+		private int pending;
+
+		private boolean completed;
+
+		private Throwable failure;
+
+		Entry(Event event) {
+			this.event = event;
+		}
+	}
+}
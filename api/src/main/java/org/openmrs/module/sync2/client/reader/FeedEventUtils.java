@@ -0,0 +1,62 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.enums.AtomfeedTagContent;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+
+import java.util.List;
+
+public class FeedEventUtils {
+
+	/**
+	 * Passes the event to the worker, together with the number of the coalesced events if the worker supports it.
+	 */
+	public static void process(FeedEventWorker worker, Event event, int coalescedEvents) {
+		if (coalescedEvents > 1 && worker instanceof CoalescedEventWorker) {
+			((CoalescedEventWorker) worker).process(event, coalescedEvents);
+		} else {
+			worker.process(event);
+		}
+	}
+
+	/**
+	 * Passes the events to the worker at once if the worker supports it, otherwise passes them one by one.
+	 */
+	public static void process(FeedEventWorker worker, List<CoalescedEvent> events) {
+		if (events.size() > 1 && worker instanceof BatchEventWorker) {
+			((BatchEventWorker) worker).process(events);
+		} else {
+			for (CoalescedEvent event : events) {
+				process(worker, event.getEvent(), event.getCoalescedEvents());
+			}
+		}
+	}
+
+	/**
+	 * @return the UUID of the object the event is about, or null if it can't be read from the event content
+	 */
+	public static String getObjectUuid(Event event) {
+		try {
+			return SyncUtils.extractUUIDFromResourceLinks(SyncUtils.getLinks(event.getContent()));
+		}
+		catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the action of the event, or null if the event has no action tag
+	 */
+	public static String getAction(Event event) {
+		try {
+			return SyncUtils.getValueOfAtomfeedEventTag(event.getCategories(), AtomfeedTagContent.EVENT_ACTION);
+		}
+		catch (SyncException e) {
+			return null;
+		}
+	}
+
+	private FeedEventUtils() {}
+}
@@ -1,10 +1,30 @@
 package org.openmrs.module.sync2.client.reader;
 
 import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.FeedProgress;
+
+import java.util.Collection;
 
 public interface LocalFeedReader {
 
 	void readAndPushAllFeeds();
 
+	/**
+	 * Processes only the category feeds whose schedule is due
+	 */
+	void readAndPushScheduledFeeds();
+
 	void readAndPushAllFeeds(String category) throws SyncException;
+
+	/**
+	 * Returns the progress of the last processing of each category feed
+	 */
+	Collection<FeedProgress> getProgress();
+
+	/**
+	 * Cancels the runs in progress, they stop after the events which are being processed
+	 *
+	 * @return the number of the cancelled runs
+	 */
+	int cancelRuns();
 }
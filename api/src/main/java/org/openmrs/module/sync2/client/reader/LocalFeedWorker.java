@@ -2,34 +2,57 @@ package org.openmrs.module.sync2.client.reader;
 
 import org.ict4h.atomfeed.client.domain.Event;
 import org.openmrs.api.context.Context;
-import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.module.sync2.api.model.SyncEvent;
 import org.openmrs.module.sync2.api.model.enums.AtomfeedTagContent;
 import org.openmrs.module.sync2.api.service.SyncPushService;
 import org.openmrs.module.sync2.api.utils.SyncUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 
-public class LocalFeedWorker implements FeedEventWorker {
+public class LocalFeedWorker implements BatchEventWorker {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(LocalFeedWorker.class);
 
 	@Override
 	public void process(Event event) {
+		process(event, 1);
+	}
+
+	@Override
+	public void process(Event event, int coalescedEvents) {
 		LOGGER.info("Started local feed event processing (id: {})", event.getId());
 		SyncPushService pushService = Context.getRegisteredComponent("sync2.syncPushService", SyncPushService.class);
-		List tags = event.getCategories();
 
-		pushService.readAndPushObjectToParent(
-				SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.CATEGORY),
-				SyncUtils.getLinks(event.getContent()),
-				SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.EVENT_ACTION)
-		);
+		pushService.readAndPushObjectToParent(toSyncEvent(event, coalescedEvents));
+	}
+
+	@Override
+	public void process(List<CoalescedEvent> events) {
+		LOGGER.info("Started processing of {} local feed events", events.size());
+		SyncPushService pushService = Context.getRegisteredComponent("sync2.syncPushService", SyncPushService.class);
+
+		List<SyncEvent> syncEvents = new ArrayList<>();
+		for (CoalescedEvent event : events) {
+			syncEvents.add(toSyncEvent(event.getEvent(), event.getCoalescedEvents()));
+		}
+		pushService.readAndPushObjectsToParent(syncEvents);
 	}
 
 	@Override
 	public void cleanUp(Event event) {
 		LOGGER.info("Started local feed cleanUp processing (id: {})", event.getId());
 	}
+
+	private SyncEvent toSyncEvent(Event event, int coalescedEvents) {
+		List tags = event.getCategories();
+		return new SyncEvent(
+				SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.CATEGORY),
+				SyncUtils.getLinks(event.getContent()),
+				SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.EVENT_ACTION),
+				coalescedEvents
+		);
+	}
 }
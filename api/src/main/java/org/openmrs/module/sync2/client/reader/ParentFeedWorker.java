@@ -6,17 +6,18 @@ import org.openmrs.api.context.Context;
 import org.openmrs.module.atomfeed.api.filter.FeedFilter;
 import org.openmrs.module.atomfeed.api.filter.GenericFeedFilterStrategy;
 import org.openmrs.module.atomfeed.api.service.TagService;
-import org.openmrs.module.atomfeed.client.FeedEventWorker;
 import org.openmrs.module.sync2.SyncConstants;
+import org.openmrs.module.sync2.api.model.SyncEvent;
 import org.openmrs.module.sync2.api.model.enums.AtomfeedTagContent;
 import org.openmrs.module.sync2.api.service.SyncPullService;
 import org.openmrs.module.sync2.api.utils.SyncUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 
-public class ParentFeedWorker implements FeedEventWorker {
+public class ParentFeedWorker implements BatchEventWorker {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ParentFeedWorker.class);
 
@@ -24,40 +25,69 @@ public class ParentFeedWorker implements FeedEventWorker {
 
 	@Override
 	public void process(Event event) {
+		process(event, 1);
+	}
+
+	@Override
+	public void process(Event event, int coalescedEvents) {
 		LOGGER.info("Started feed event processing (id: {})", event.getId());
 		pullService = Context.getRegisteredComponent("sync2.syncPullService", SyncPullService.class);
+
+		SyncEvent syncEvent = toSyncEvent(event, coalescedEvents);
+		if (syncEvent != null) {
+			pullService.pullAndSaveObjectFromParent(syncEvent);
+		}
+	}
+
+	@Override
+	public void process(List<CoalescedEvent> events) {
+		LOGGER.info("Started processing of {} feed events", events.size());
+		pullService = Context.getRegisteredComponent("sync2.syncPullService", SyncPullService.class);
+
+		List<SyncEvent> syncEvents = new ArrayList<>();
+		for (CoalescedEvent event : events) {
+			SyncEvent syncEvent = toSyncEvent(event.getEvent(), event.getCoalescedEvents());
+			if (syncEvent != null) {
+				syncEvents.add(syncEvent);
+			}
+		}
+		if (!syncEvents.isEmpty()) {
+			pullService.pullAndSaveObjectsFromParent(syncEvents);
+		}
+	}
+
+	@Override
+	public void cleanUp(Event event) {
+		LOGGER.info("Started feed cleanUp processing (id: {})", event.getId());
+	}
+
+	/**
+	 * @return the event which should be synchronized, or null if the event is filtered out by its tags
+	 */
+	private SyncEvent toSyncEvent(Event event, int coalescedEvents) {
 		List tags = event.getCategories();
 
 		TagService tagService = Context.getRegisteredComponent(SyncConstants.TAG_SERVICE_BEAN, TagService.class);
 		List<FeedFilter> feedFilters = tagService.getFeedFiltersFromTags(tags);
 
-		boolean shouldBeSynced = true;
 		for (FeedFilter feedFilter : feedFilters) {
 			GenericFeedFilterStrategy bean;
 			try {
 				bean = Context.getRegisteredComponent(feedFilter.getBeanName(), GenericFeedFilterStrategy.class);
 			} catch (APIException e) {
 				LOGGER.warn("Bean not found: {}", feedFilter.getBeanName());
-				shouldBeSynced = true;
 				break;
 			}
 			if (!bean.isFilterTagValid(feedFilter.getFilter())) {
-				shouldBeSynced = false;
-				break;
+				return null;
 			}
 		}
 
-		if (shouldBeSynced) {
-			pullService.pullAndSaveObjectFromParent(
-					SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.CATEGORY),
-					SyncUtils.getLinks(event.getContent()),
-					SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.EVENT_ACTION)
-			);
-		}
-	}
-
-	@Override
-	public void cleanUp(Event event) {
-		LOGGER.info("Started feed cleanUp processing (id: {})", event.getId());
+		return new SyncEvent(
+				SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.CATEGORY),
+				SyncUtils.getLinks(event.getContent()),
+				SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.EVENT_ACTION),
+				coalescedEvents
+		);
 	}
 }
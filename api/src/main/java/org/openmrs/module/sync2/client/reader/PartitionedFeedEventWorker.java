@@ -0,0 +1,235 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Spreads the events of a single feed over the ordered lanes. The lane is selected using the UUID
+ * of the synchronized object, so the events of the same object are processed one after another in the feed
+ * order, while the different objects are synchronized in parallel. The feed is read at most
+ * the given number of events ahead of the last event completed together with all events before it,
+ * so the feed marker can't run far ahead of the completed work. With a single lane the events are processed
+ * by the calling thread. The batch of events is split between the lanes, every lane processes its part
+ * as a single batch. The events passed to the lanes are kept in the {@link FeedEventJournal} until they are
+ * processed, the events which failed are kept as the failed events of the feed, and the first failure is rethrown
+ * by {@link #awaitCompletion()}.
+ */
+public class PartitionedFeedEventWorker implements BatchEventWorker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedFeedEventWorker.class);
+
+	private static final long LANE_KEEP_ALIVE_SECONDS = 60L;
+
+	private final FeedEventWorker delegate;
+
+	private final String name;
+
+	private final FeedEventJournal journal;
+
+	private final EventSequenceTracker tracker = new EventSequenceTracker();
+
+	private RuntimeException failure;
+
+	private volatile ExecutorService[] lanes = new ExecutorService[0];
+
+	private volatile int maxAhead;
+
+	public PartitionedFeedEventWorker(FeedEventWorker delegate, String name, FeedEventJournal journal) {
+		this.delegate = delegate;
+		this.name = name;
+		this.journal = journal;
+	}
+
+	/**
+	 * Sets the number of lanes and the maximal distance between the read event and the watermark.
+	 * It has to be called when the worker is idle, i.e. before the feed is processed.
+	 */
+	public synchronized void configure(int laneCount, int maxAhead) {
+		this.maxAhead = Math.max(maxAhead, laneCount);
+		if (laneCount == lanes.length || (laneCount <= 1 && lanes.length == 0)) {
+			return;
+		}
+		shutdownLanes();
+		ExecutorService[] created = new ExecutorService[laneCount > 1 ? laneCount : 0];
+		for (int i = 0; i < created.length; i++) {
+			created[i] = createLane(i);
+		}
+		lanes = created;
+	}
+
+	@Override
+	public void process(Event event) {
+		process(event, 1);
+	}
+
+	@Override
+	public void process(Event event, int coalescedEvents) {
+		ExecutorService[] lanes = this.lanes;
+		if (lanes.length == 0) {
+			FeedEventUtils.process(delegate, event, coalescedEvents);
+			return;
+		}
+		dispatch(lanes[selectLane(event, lanes.length)], Collections.singletonList(
+				new CoalescedEvent(event, coalescedEvents)));
+	}
+
+	@Override
+	public void process(List<CoalescedEvent> events) {
+		ExecutorService[] lanes = this.lanes;
+		if (lanes.length == 0) {
+			FeedEventUtils.process(delegate, events);
+			return;
+		}
+
+		List<List<CoalescedEvent>> parts = new ArrayList<>();
+		for (int i = 0; i < lanes.length; i++) {
+			parts.add(new ArrayList<>());
+		}
+		for (CoalescedEvent event : events) {
+			parts.get(selectLane(event.getEvent(), lanes.length)).add(event);
+		}
+		for (int i = 0; i < lanes.length; i++) {
+			if (!parts.get(i).isEmpty()) {
+				dispatch(lanes[i], parts.get(i));
+			}
+		}
+	}
+
+	@Override
+	public void cleanUp(Event event) {
+		delegate.cleanUp(event);
+	}
+
+	/**
+	 * Waits until all events passed to the lanes are processed.
+	 *
+	 * @throws RuntimeException the first failure of the lanes since the previous call
+	 */
+	public void awaitCompletion() {
+		try {
+			tracker.awaitCompletion();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SyncException("Interrupted while waiting for the feed events to complete", e);
+		}
+		RuntimeException laneFailure = pollFailure();
+		if (laneFailure != null) {
+			throw laneFailure;
+		}
+	}
+
+	public synchronized void shutdown() {
+		shutdownLanes();
+		lanes = new ExecutorService[0];
+	}
+
+	/**
+	 * If the events can't be passed to the lane, their deferral is withdrawn and the failure is rethrown,
+	 * so it is handled by the caller.
+	 */
+	private void dispatch(ExecutorService lane, List<CoalescedEvent> events) {
+		List<CoalescedEvent> deferred = new ArrayList<>();
+		try {
+			for (CoalescedEvent event : events) {
+				journal.defer(event.getEvent());
+				deferred.add(event);
+			}
+			long sequence = tracker.begin(maxAhead);
+			try {
+				lane.execute(toRunnable(events, sequence));
+			}
+			catch (RuntimeException e) {
+				tracker.complete(sequence);
+				throw e;
+			}
+		}
+		catch (InterruptedException e) {
+			release(deferred);
+			Thread.currentThread().interrupt();
+			throw new SyncException("Interrupted while waiting for the feed events to complete", e);
+		}
+		catch (RuntimeException e) {
+			release(deferred);
+			throw e;
+		}
+	}
+
+	private Runnable toRunnable(List<CoalescedEvent> events, long sequence) {
+		Supplier<Void> supplier = ContextUtils.withCurrentUserContext(() -> {
+			FeedEventUtils.process(delegate, events);
+			return null;
+		});
+		return () -> {
+			try {
+				supplier.get();
+				journal.complete(events);
+			}
+			catch (RuntimeException e) {
+				LOGGER.error("Error during processing of the feed event (id: {})", events.get(0).getEvent().getId(), e);
+				journal.fail(events, e);
+				addFailure(e);
+			}
+			finally {
+				tracker.complete(sequence);
+			}
+		};
+	}
+
+	private void release(List<CoalescedEvent> events) {
+		for (CoalescedEvent event : events) {
+			journal.release(event.getEvent());
+		}
+	}
+
+	private synchronized void addFailure(RuntimeException e) {
+		if (failure == null) {
+			failure = e;
+		}
+	}
+
+	private synchronized RuntimeException pollFailure() {
+		RuntimeException result = failure;
+		failure = null;
+		return result;
+	}
+
+	private int selectLane(Event event, int laneCount) {
+		String key = FeedEventUtils.getObjectUuid(event);
+		if (key == null) {
+			key = event.getId();
+		}
+		return key == null ? 0 : Math.floorMod(key.hashCode(), laneCount);
+	}
+
+	private ExecutorService createLane(int index) {
+		ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, LANE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "sync2-" + name + "-lane-" + index);
+					thread.setDaemon(true);
+					return thread;
+				});
+		lane.allowCoreThreadTimeOut(true);
+		return lane;
+	}
+
+	private void shutdownLanes() {
+		for (ExecutorService lane : lanes) {
+			lane.shutdown();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.module.sync2.api.model.FeedProgress;
+
+import java.util.List;
+
+/**
+ * Counts the events processed by the delegated worker in the progress of the category feed.
+ */
+public class ProgressFeedEventWorker implements BatchEventWorker {
+
+	private final FeedEventWorker delegate;
+
+	private final FeedProgress progress;
+
+	public ProgressFeedEventWorker(FeedEventWorker delegate, FeedProgress progress) {
+		this.delegate = delegate;
+		this.progress = progress;
+	}
+
+	@Override
+	public void process(Event event) {
+		process(event, 1);
+	}
+
+	@Override
+	public void process(Event event, int coalescedEvents) {
+		try {
+			FeedEventUtils.process(delegate, event, coalescedEvents);
+			progress.eventProcessed();
+		} catch (RuntimeException e) {
+			progress.eventFailed();
+			throw e;
+		}
+	}
+
+	@Override
+	public void process(List<CoalescedEvent> events) {
+		try {
+			FeedEventUtils.process(delegate, events);
+			for (int i = 0; i < events.size(); i++) {
+				progress.eventProcessed();
+			}
+		} catch (RuntimeException e) {
+			for (int i = 0; i < events.size(); i++) {
+				progress.eventFailed();
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public void cleanUp(Event event) {
+		delegate.cleanUp(event);
+	}
+}
@@ -0,0 +1,254 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
+import org.openmrs.module.sync2.api.model.enums.AtomfeedTagContent;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.model.enums.SyncOperation;
+import org.openmrs.module.sync2.api.service.ParentObjectHashcodeService;
+import org.openmrs.module.sync2.api.sync.PayloadPrefetcher;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.openmrs.module.sync2.SyncConstants.ACTION_CREATED;
+import static org.openmrs.module.sync2.SyncConstants.ACTION_UPDATED;
+
+/**
+ * Reads the feed events ahead of their synchronization. The objects of the events waiting in the buffer are
+ * prefetched by the {@link PayloadPrefetcher}, so reading the next objects overlaps with the synchronization
+ * of the current one. The buffered events are synchronized in the feed order, the remaining events are
+ * synchronized by {@link #flush()}. The objects which were prefetched but not used are dropped
+ * by {@link #releasePrefetched()}. The batches of events are passed on after the buffered events, their objects
+ * aren't prefetched, as they are read using the batch requests.
+ * <p>
+ * The buffered events are kept in the {@link FeedEventJournal} until they are synchronized. The events which
+ * failed are stored as the failed events of the feed and the first failure is rethrown by {@link #flush()}.
+ */
+public class ReadAheadFeedEventWorker implements BatchEventWorker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReadAheadFeedEventWorker.class);
+
+	private static final OpenMRSSyncInstance[] PREFETCHED_INSTANCES = { OpenMRSSyncInstance.CHILD,
+			OpenMRSSyncInstance.PARENT };
+
+	private final FeedEventWorker delegate;
+
+	private final SyncOperation operation;
+
+	private final FeedEventJournal journal;
+
+	private final Deque<PendingEvent> pending = new ArrayDeque<>();
+
+	private List<PendingEvent> dispatched = new ArrayList<>();
+
+	private RuntimeException failure;
+
+	private volatile int depth;
+
+	private volatile long maxBytes;
+
+	public ReadAheadFeedEventWorker(FeedEventWorker delegate, SyncOperation operation, FeedEventJournal journal) {
+		this.delegate = delegate;
+		this.operation = operation;
+		this.journal = journal;
+	}
+
+	/**
+	 * Sets the number of the events read ahead and the limit of the size of their prefetched objects.
+	 * The depth 0 disables the reading ahead.
+	 */
+	public void configure(int depth, long maxBytes) {
+		this.depth = Math.max(depth, 0);
+		this.maxBytes = maxBytes;
+	}
+
+	@Override
+	public void process(Event event) {
+		process(event, 1);
+	}
+
+	@Override
+	public void process(Event event, int coalescedEvents) {
+		while (getPendingCount() > 0 && getPendingCount() >= depth) {
+			processNext();
+		}
+		if (depth == 0) {
+			FeedEventUtils.process(delegate, event, coalescedEvents);
+			return;
+		}
+		journal.defer(event);
+		PendingEvent pendingEvent = new PendingEvent(event, coalescedEvents);
+		prefetch(pendingEvent);
+		addPending(pendingEvent);
+	}
+
+	@Override
+	public void process(List<CoalescedEvent> events) {
+		processPending();
+		FeedEventUtils.process(delegate, events);
+	}
+
+	@Override
+	public void cleanUp(Event event) {
+		delegate.cleanUp(event);
+	}
+
+	/**
+	 * Synchronizes all buffered events and rethrows the first failure since the last flush.
+	 */
+	public void flush() {
+		processPending();
+		RuntimeException e = pollFailure();
+		if (e != null) {
+			throw e;
+		}
+	}
+
+	/**
+	 * Drops the prefetched objects of the synchronized events which weren't used, e.g. because the event
+	 * was filtered out. It has to be called when the synchronization of the events is completed.
+	 */
+	public void releasePrefetched() {
+		for (PendingEvent pendingEvent : pollDispatched()) {
+			pendingEvent.discardPrefetched();
+		}
+	}
+
+	private void processPending() {
+		while (getPendingCount() > 0) {
+			processNext();
+		}
+	}
+
+	private void processNext() {
+		PendingEvent next = pollPending();
+		try {
+			FeedEventUtils.process(delegate, next.event, next.coalescedEvents);
+			journal.complete(next.event);
+		}
+		catch (RuntimeException e) {
+			LOGGER.error("Error during processing of the feed event read ahead (id: {})", next.event.getId(), e);
+			journal.fail(next.event, e);
+			addFailure(e);
+		}
+		finally {
+			addDispatched(next);
+		}
+	}
+
+	private void prefetch(PendingEvent pendingEvent) {
+		String action = FeedEventUtils.getAction(pendingEvent.event);
+		if (!ACTION_CREATED.equalsIgnoreCase(action) && !ACTION_UPDATED.equalsIgnoreCase(action)) {
+			return;
+		}
+		try {
+			List tags = pendingEvent.event.getCategories();
+			String category = SyncUtils.getValueOfAtomfeedEventTag(tags, AtomfeedTagContent.CATEGORY);
+			Map<String, String> resourceLinks = SyncUtils.getLinks(pendingEvent.event.getContent());
+			String clientName = SyncUtils.selectAppropriateClientName(resourceLinks, category, operation);
+			for (OpenMRSSyncInstance instance : PREFETCHED_INSTANCES) {
+				String resourceUrl = SyncUtils.getPullUrl(resourceLinks, clientName, instance);
+				String hashCode = getStoredHashcode(resourceLinks, instance);
+				PayloadPrefetcher.prefetch(category, clientName, resourceUrl, instance, hashCode, maxBytes);
+				pendingEvent.prefetched.add(new Prefetched(clientName, resourceUrl, instance));
+			}
+		}
+		catch (RuntimeException e) {
+			LOGGER.debug("The object of the feed event (id: {}) can't be prefetched", pendingEvent.event.getId(), e);
+		}
+	}
+
+	/**
+	 * The parent object is pulled only if it has changed since it was synchronized, so it is prefetched
+	 * with the same hashcode as the one sent by the synchronization.
+	 */
+	private String getStoredHashcode(Map<String, String> resourceLinks, OpenMRSSyncInstance instance) {
+		if (operation != SyncOperation.PULL || instance != OpenMRSSyncInstance.PARENT) {
+			return null;
+		}
+		ParentObjectHashcode hashcode = Context.getService(ParentObjectHashcodeService.class)
+				.getByObjectUuid(SyncUtils.extractUUIDFromResourceLinks(resourceLinks));
+		return hashcode != null ? hashcode.getHashcode() : null;
+	}
+
+	private synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	private synchronized void addPending(PendingEvent pendingEvent) {
+		pending.addLast(pendingEvent);
+	}
+
+	private synchronized PendingEvent pollPending() {
+		return pending.pollFirst();
+	}
+
+	private synchronized void addDispatched(PendingEvent pendingEvent) {
+		if (!pendingEvent.prefetched.isEmpty()) {
+			dispatched.add(pendingEvent);
+		}
+	}
+
+	private synchronized List<PendingEvent> pollDispatched() {
+		List<PendingEvent> result = dispatched;
+		dispatched = new ArrayList<>();
+		return result;
+	}
+
+	private synchronized void addFailure(RuntimeException e) {
+		if (failure == null) {
+			failure = e;
+		}
+	}
+
+	private synchronized RuntimeException pollFailure() {
+		RuntimeException result = failure;
+		failure = null;
+		return result;
+	}
+
+	private static class PendingEvent {
+
+		private final Event event;
+
+		private final int coalescedEvents;
+
+		private final List<Prefetched> prefetched = new ArrayList<>();
+
+		PendingEvent(Event event, int coalescedEvents) {
+			this.event = event;
+			this.coalescedEvents = coalescedEvents;
+		}
+
+		void discardPrefetched() {
+			for (Prefetched resource : prefetched) {
+				PayloadPrefetcher.discard(resource.clientName, resource.resourceUrl, resource.instance);
+			}
+			prefetched.clear();
+		}
+	}
+
+	private static class Prefetched {
+
+		private final String clientName;
+
+		private final String resourceUrl;
+
+		private final OpenMRSSyncInstance instance;
+
+		Prefetched(String clientName, String resourceUrl, OpenMRSSyncInstance instance) {
+			this.clientName = clientName;
+			this.resourceUrl = resourceUrl;
+			this.instance = instance;
+		}
+	}
+}
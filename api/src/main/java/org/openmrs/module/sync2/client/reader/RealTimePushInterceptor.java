@@ -0,0 +1,74 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+import org.hibernate.type.Type;
+import org.openmrs.module.sync2.api.sync.SyncOrigin;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Notes the categories of the objects saved, updated or deleted by the transaction and passes them
+ * to the {@link RealTimePushQueue} when the transaction is committed, together with the feed events
+ * of these objects. The changes made by the synchronization itself, see {@link SyncOrigin}, aren't pushed back.
+ */
+@Component("sync2.realTimePushInterceptor")
+public class RealTimePushInterceptor extends EmptyInterceptor {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<Set<String>> CHANGED_CATEGORIES = new ThreadLocal<>();
+
+	@Autowired
+	private transient RealTimePushQueue pushQueue;
+
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		noteChange(entity);
+		return false;
+	}
+
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+			String[] propertyNames, Type[] types) {
+		noteChange(entity);
+		return false;
+	}
+
+	@Override
+	public void onDelete(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		noteChange(entity);
+	}
+
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		Set<String> categories = CHANGED_CATEGORIES.get();
+		if (categories == null) {
+			return;
+		}
+		CHANGED_CATEGORIES.remove();
+		if (tx.wasCommitted()) {
+			pushQueue.categoriesChanged(categories);
+		}
+	}
+
+	private void noteChange(Object entity) {
+		if (!pushQueue.isActive() || SyncOrigin.isSynchronizing()) {
+			return;
+		}
+		String category = pushQueue.getCategory(entity.getClass());
+		if (category == null) {
+			return;
+		}
+		Set<String> categories = CHANGED_CATEGORIES.get();
+		if (categories == null) {
+			categories = new LinkedHashSet<>();
+			CHANGED_CATEGORIES.set(categories);
+		}
+		categories.add(category);
+	}
+}
@@ -0,0 +1,176 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.SyncConstants;
+import org.openmrs.module.sync2.api.model.configuration.ClassConfiguration;
+import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the categories marked as {@link ClassConfiguration#getRealTime()} shortly after their objects were changed,
+ * instead of waiting for the push task. The changes of the category are debounced: every change postpones the push
+ * until the category isn't changed for {@link SyncMethodConfiguration#getRealTimeDebounce()} milliseconds, but
+ * no longer than {@link SyncMethodConfiguration#getRealTimeMaxWait()} milliseconds after the first pending change,
+ * so the constantly changed category is still pushed. The scheduled pushes are executed one at a time and their
+ * number is limited by {@link SyncMethodConfiguration#getRealTimeQueueSize()}, the changes which don't fit
+ * are pushed by the push task.
+ * The pushes are run as the daemon user, the same as the push task, regardless of the user who changed the objects.
+ */
+@Component("sync2.realTimePushQueue")
+public class RealTimePushQueue {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealTimePushQueue.class);
+
+	private static final String THREAD_NAME = "sync2-push-realtime";
+
+	private volatile Map<String, String> categoriesByClass = Collections.emptyMap();
+
+	private final Map<String, PendingPush> pending = new LinkedHashMap<>();
+
+	private long debounceNanos;
+
+	private long maxWaitNanos;
+
+	private int queueSize;
+
+	private ScheduledExecutorService executor;
+
+	/**
+	 * Starts pushing the real-time categories of the push configuration, or stops if there are none.
+	 */
+	public synchronized void start(SyncMethodConfiguration pushConf) {
+		Map<String, String> categories = new HashMap<>();
+		if (pushConf.isEnabled()) {
+			for (ClassConfiguration classConf : pushConf.getClasses()) {
+				if (classConf.isEnabled() && Boolean.TRUE.equals(classConf.getRealTime())) {
+					categories.put(classConf.getOpenMrsClass(), classConf.getCategory());
+				}
+			}
+		}
+		if (categories.isEmpty()) {
+			stop();
+			return;
+		}
+		Integer debounce = pushConf.getRealTimeDebounce();
+		debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounce != null && debounce >= 0 ? debounce
+				: SyncConstants.DEFAULT_REAL_TIME_DEBOUNCE);
+		Integer maxWait = pushConf.getRealTimeMaxWait();
+		maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWait != null && maxWait >= 0 ? maxWait
+				: SyncConstants.DEFAULT_REAL_TIME_MAX_WAIT);
+		Integer size = pushConf.getRealTimeQueueSize();
+		queueSize = size != null && size > 0 ? size : SyncConstants.DEFAULT_REAL_TIME_QUEUE_SIZE;
+		categoriesByClass = Collections.unmodifiableMap(categories);
+		if (executor == null) {
+			executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, THREAD_NAME);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		LOGGER.info("Started the real-time push of the categories: {}", categories.values());
+	}
+
+	public synchronized void stop() {
+		categoriesByClass = Collections.emptyMap();
+		pending.clear();
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	public boolean isActive() {
+		return !categoriesByClass.isEmpty();
+	}
+
+	/**
+	 * Returns the real-time category of the object class, or of its closest superclass, null if there is none.
+	 */
+	public String getCategory(Class<?> objectClass) {
+		Map<String, String> categories = categoriesByClass;
+		for (Class<?> clazz = objectClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+			String category = categories.get(clazz.getName());
+			if (category != null) {
+				return category;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Schedules or postpones the push of the categories whose objects were changed by the committed transaction.
+	 */
+	public synchronized void categoriesChanged(Collection<String> categories) {
+		if (executor == null) {
+			return;
+		}
+		long now = System.nanoTime();
+		for (String category : categories) {
+			PendingPush push = pending.get(category);
+			if (push == null) {
+				if (pending.size() >= queueSize) {
+					LOGGER.debug("The real-time push queue is full, the {} category will be pushed by the push task",
+							category);
+					continue;
+				}
+				push = new PendingPush(now + maxWaitNanos);
+				pending.put(category, push);
+			} else if (!push.future.cancel(false)) {
+				// the push has already started and it will read the changes once it gets the lock
+				continue;
+			}
+			final PendingPush scheduled = push;
+			long delay = Math.max(0L, Math.min(debounceNanos, push.deadline - now));
+			push.future = executor.schedule(() -> push(category, scheduled), delay, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void push(String category, PendingPush scheduled) {
+		synchronized (this) {
+			if (!pending.remove(category, scheduled)) {
+				return;
+			}
+		}
+		try {
+			ContextUtils.runAsDaemon(() -> {
+				try {
+					Context.getRegisteredComponent("sync2.localFeedReader", LocalFeedReader.class)
+							.readAndPushAllFeeds(category);
+				}
+				catch (RuntimeException e) {
+					LOGGER.error("Error during the real-time push of the {} category:", category, e);
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			LOGGER.error("The real-time push of the {} category can't be started:", category, e);
+		}
+	}
+
+	private static class PendingPush {
+
+		/**
+		 * The time (System.nanoTime) after which the push isn't postponed any more
+		 */
+		private final long deadline;
+
+		private ScheduledFuture<?> future;
+
+		PendingPush(long deadline) {
+			this.deadline = deadline;
+		}
+	}
+}
@@ -1,34 +1,135 @@
 package org.openmrs.module.sync2.client.reader.impl;
 
+import org.ict4h.atomfeed.client.repository.jdbc.AllFailedEventsJdbcImpl;
 import org.openmrs.module.atomfeed.api.utils.AtomfeedUtils;
 import org.openmrs.module.atomfeed.client.AtomFeedClient;
 import org.openmrs.module.atomfeed.client.AtomFeedClientFactory;
 import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.module.atomfeed.transaction.support.AtomFeedSpringTransactionManager;
 import org.openmrs.module.sync2.SyncConstants;
 import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.exceptions.SyncRunStoppedError;
+import org.openmrs.module.sync2.api.model.FeedProgress;
+import org.openmrs.module.sync2.api.model.audit.AuditMessage;
 import org.openmrs.module.sync2.api.model.configuration.ClassConfiguration;
 import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.model.enums.SyncOperation;
+import org.openmrs.module.sync2.api.service.SyncAuditService;
 import org.openmrs.module.sync2.api.service.SyncConfigurationService;
+import org.openmrs.module.sync2.api.sync.CategoryDependencyGraph;
+import org.openmrs.module.sync2.api.sync.CircuitBreaker;
+import org.openmrs.module.sync2.api.sync.CircuitBreakerRegistry;
+import org.openmrs.module.sync2.api.sync.SyncClientExecutor;
+import org.openmrs.module.sync2.api.sync.SyncLeaseManager;
+import org.openmrs.module.sync2.api.sync.SyncRunBudget;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.openmrs.module.sync2.api.utils.SyncAuditUtils;
 import org.openmrs.module.sync2.api.utils.SyncConfigurationUtils;
+import org.openmrs.module.sync2.client.reader.BudgetFeedEventWorker;
+import org.openmrs.module.sync2.client.reader.CategorySchedule;
+import org.openmrs.module.sync2.client.reader.CoalescingFeedEventWorker;
+import org.openmrs.module.sync2.client.reader.FeedEventJournal;
+import org.openmrs.module.sync2.client.reader.PartitionedFeedEventWorker;
+import org.openmrs.module.sync2.client.reader.ProgressFeedEventWorker;
+import org.openmrs.module.sync2.client.reader.ReadAheadFeedEventWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public abstract class AbstractFeedReader {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractFeedReader.class);
+
 	protected static final String WS_ATOMFEED = "/ws/atomfeed/";
 
-	protected AtomFeedClient atomFeedClient;
+	private static final String OUTAGE_MESSAGE_FORMAT = "%s is unavailable after %d consecutive failures. "
+			+ "The feed processing is paused until it is back, %d requests were rejected so far.";
+
+	private static final String THREAD_NAME_PREFIX = "sync2-feed-";
+
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+
+	private final FeedEventWorker feedEventWorker;
+
+	private final Map<String, CategoryFeed> feeds = new ConcurrentHashMap<>();
+
+	private final Map<String, FeedProgress> progress = new ConcurrentHashMap<>();
+
+	private final Map<String, CategorySchedule> schedules = new ConcurrentHashMap<>();
+
+	private final Set<SyncRunBudget> activeRuns = ConcurrentHashMap.newKeySet();
+
+	private ThreadPoolExecutor executor;
 
 	@Autowired
 	protected SyncConfigurationService configurationService;
 
+	@Autowired
+	private SyncAuditService syncAuditService;
+
+	@Autowired
+	private SyncLeaseManager leaseManager;
+
 	protected AbstractFeedReader(FeedEventWorker feedEventWorker) {
-		this.atomFeedClient = AtomFeedClientFactory.createClient(feedEventWorker);
-		AtomfeedUtils.disableMaxFailedEventCondition(atomFeedClient);
+		this.feedEventWorker = feedEventWorker;
+	}
+
+	/**
+	 * Returns the progress of the last processing of each category feed
+	 */
+	public Collection<FeedProgress> getProgress() {
+		return Collections.unmodifiableCollection(progress.values());
+	}
+
+	/**
+	 * Cancels the runs in progress. The runs stop after the events which are being processed, so the feeds
+	 * are read from the next event by the following run.
+	 *
+	 * @return the number of the cancelled runs
+	 */
+	public int cancelRuns() {
+		int cancelled = 0;
+		for (SyncRunBudget budget : activeRuns) {
+			budget.cancel();
+			cancelled++;
+		}
+		return cancelled;
+	}
+
+	/**
+	 * Stops the threads of the reader, the categories which are being processed are finished first.
+	 */
+	public synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+		for (CategoryFeed feed : feeds.values()) {
+			feed.worker.shutdown();
+		}
 	}
 
 	protected void readAndProcessAllFeeds() {
@@ -36,6 +137,40 @@ public abstract class AbstractFeedReader {
 		readAndProcessFeedsByConfiguration(getSyncMethodConf().getClasses());
 	}
 
+	/**
+	 * Processes the enabled categories whose schedule is due, see {@link CategorySchedule}. The due categories
+	 * are processed in the order of their dependencies, the dependencies on the categories which aren't due
+	 * are ignored, as these categories were processed by one of the previous runs.
+	 */
+	protected void readAndProcessScheduledFeeds() {
+		SyncConfigurationUtils.checkIfConfigurationIsValid();
+		SyncMethodConfiguration methodConf = getSyncMethodConf();
+		long startedMillis = System.currentTimeMillis();
+		List<ClassConfiguration> dueClasses = new ArrayList<>();
+		for (ClassConfiguration classConf : methodConf.getClasses()) {
+			if (classConf.isEnabled() && getCategorySchedule(classConf.getCategory())
+					.isDue(startedMillis, SyncConstants.SCHEDULE_TOLERANCE_MILLIS)) {
+				dueClasses.add(classConf);
+			}
+		}
+		if (dueClasses.isEmpty()) {
+			return;
+		}
+
+		try {
+			readAndProcessFeedsByConfiguration(dueClasses);
+		} finally {
+			boolean adaptive = SyncConfigurationUtils.isAdaptiveSchedule(methodConf);
+			for (ClassConfiguration classConf : dueClasses) {
+				boolean hadEvents = CategorySchedule.hadEvents(getCategoryProgress(classConf.getCategory()));
+				int maxSchedule = SyncConfigurationUtils.getCategorySchedule(methodConf, classConf);
+				int minSchedule = Math.min(SyncConfigurationUtils.getMinSchedule(methodConf), maxSchedule);
+				getCategorySchedule(classConf.getCategory())
+						.completed(startedMillis, hadEvents, adaptive, minSchedule, maxSchedule);
+			}
+		}
+	}
+
 	protected void readAndProcessFeedsForCategory(String category) throws SyncException {
 		SyncConfigurationUtils.checkIfConfigurationIsValid();
 		List<ClassConfiguration> confClasses = getSyncMethodConf().getClasses()
@@ -53,27 +188,415 @@ public abstract class AbstractFeedReader {
 		return getBaseUri() + WS_ATOMFEED + category + "/" + SyncConstants.RECENT_FEED;
 	}
 
+	/**
+	 * Every category has its own feed client, so it has its own marker and can be processed at the same time
+	 * as the other categories. The single category is never processed by two threads at once, but its events
+	 * can be spread over {@link SyncMethodConfiguration#getEventLanes()} lanes, see {@link PartitionedFeedEventWorker},
+	 * the events of the same object can be coalesced, see {@link CoalescingFeedEventWorker}, and the objects
+	 * of the next events can be prefetched, see {@link ReadAheadFeedEventWorker}.
+	 */
 	protected void readAndProcessFeedByCategory(String category) {
+		SyncRunBudget budget = startRun();
 		try {
-			URI uri = new URI(getResourceUrlWithCategory(category));
-			atomFeedClient.setUri(uri);
-			atomFeedClient.process();
-		} catch (URISyntaxException e) {
-			throw new SyncException("Atomfeed URI is not correct. ", e);
-		} catch (Exception e) {
-			throw new SyncException(String.format("Error during processing atomfeeds for category %s: ", category), e);
+			readAndProcessFeedByCategory(category, budget);
+		} finally {
+			activeRuns.remove(budget);
 		}
 	}
 
+	/**
+	 * The feed is read until the budget of the run is exhausted, see {@link BudgetFeedEventWorker}.
+	 * The events which were already read are processed, so the markers stay consistent. In the cluster the feed
+	 * is processed only by the node which holds its lease, see {@link SyncLeaseManager}, the run is cancelled
+	 * if the lease is lost.
+	 */
+	private void readAndProcessFeedByCategory(String category, SyncRunBudget budget) {
+		FeedProgress categoryProgress = getCategoryProgress(category);
+		if (isParentUnavailable(category)) {
+			categoryProgress.pause();
+			return;
+		}
+		if (budget.isStopped()) {
+			LOGGER.info("Processing of the {} feed is skipped, {}", category, budget.getStopReason());
+			categoryProgress.pause();
+			return;
+		}
+		if (!leaseManager.tryAcquire(getOperation(), category, budget)) {
+			LOGGER.info("Processing of the {} feed is skipped, it is processed by another node", category);
+			return;
+		}
+		try {
+			processFeed(category, budget, categoryProgress);
+		} finally {
+			leaseManager.release(getOperation(), category, budget);
+		}
+	}
+
+	private void processFeed(String category, SyncRunBudget budget, FeedProgress categoryProgress) {
+		CategoryFeed feed = getCategoryFeed(category);
+		synchronized (feed) {
+			categoryProgress.start();
+			feed.setBudget(budget);
+			int eventLanes = getEventLanes();
+			feed.worker.configure(eventLanes, eventLanes * SyncConstants.EVENTS_AHEAD_PER_LANE);
+			feed.coalescer.setWindowSize(getCoalescingWindow());
+			feed.readAhead.configure(getPrefetchDepth(), getPrefetchMaxBytes());
+			try {
+				feed.setUri(new URI(getResourceUrlWithCategory(category)));
+				boolean stopped = processAndAwait(feed);
+				if (!stopped && CircuitBreakerRegistry.getOpenCircuitBreaker(OpenMRSSyncInstance.PARENT) == null) {
+					stopped = processFailedEvents(feed);
+				}
+				if (stopped) {
+					categoryProgress.pause();
+					LOGGER.info("Stopped processing of the {} feed, {}: {}", category, feed.getStopReason(),
+							categoryProgress);
+					CircuitBreaker circuitBreaker = CircuitBreakerRegistry.getOpenCircuitBreaker(
+							OpenMRSSyncInstance.PARENT);
+					if (circuitBreaker != null) {
+						reportOutage(category, circuitBreaker);
+					}
+				} else {
+					categoryProgress.complete();
+					LOGGER.info("Finished processing of the {} feed: {}", category, categoryProgress);
+				}
+			} catch (URISyntaxException e) {
+				categoryProgress.fail(e);
+				throw new SyncException("Atomfeed URI is not correct. ", e);
+			} catch (Exception e) {
+				categoryProgress.fail(e);
+				throw new SyncException(String.format("Error during processing atomfeeds for category %s: ",
+						category), e);
+			}
+		}
+	}
+
+	/**
+	 * Processes the enabled categories in the order of their dependencies, see {@link CategoryDependencyGraph}.
+	 * The category is processed only after all categories it depends on were processed, and the categories
+	 * which don't depend on each other are processed in parallel, using at most
+	 * {@link SyncMethodConfiguration#getMaxConcurrentCategories()} threads. If the category fails, the categories
+	 * depending on it are skipped until the next run, the failure is rethrown when all categories are processed.
+	 * The run is limited by {@link SyncMethodConfiguration#getMaxRunTime()} and
+	 * {@link SyncMethodConfiguration#getMaxRunEvents()}, the categories which weren't processed within the budget
+	 * are skipped until the next run.
+	 */
 	protected void readAndProcessFeedsByConfiguration(List<ClassConfiguration> conf) {
-		for (ClassConfiguration classConf : conf) {
-			if (classConf.isEnabled()) {
-				readAndProcessFeedByCategory(classConf.getCategory());
+		SyncRunBudget budget = startRun();
+		try {
+			readAndProcessFeedsByConfiguration(conf, budget);
+		} finally {
+			activeRuns.remove(budget);
+		}
+	}
+
+	private void readAndProcessFeedsByConfiguration(List<ClassConfiguration> conf, SyncRunBudget budget) {
+		CategoryDependencyGraph graph = CategoryDependencyGraph.ofEnabled(conf);
+		List<String> categories = graph.getCategoriesInDependencyOrder();
+
+		int maxConcurrentCategories = getMaxConcurrentCategories();
+		if (Math.min(maxConcurrentCategories, categories.size()) <= 1) {
+			readAndProcessFeedsSequentially(graph, categories, budget);
+			return;
+		}
+
+		ExecutorService executor = getExecutor(maxConcurrentCategories);
+		Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+		for (String category : categories) {
+			List<CompletableFuture<Void>> prerequisites = new ArrayList<>();
+			for (String dependency : graph.getDependencies(category)) {
+				prerequisites.add(futures.get(dependency));
+			}
+			Supplier<Void> task = ContextUtils.withCurrentUserContext(() -> {
+				readAndProcessFeedByCategory(category, budget);
+				return null;
+			});
+			futures.put(category, CompletableFuture
+					.allOf(prerequisites.toArray(new CompletableFuture[prerequisites.size()]))
+					.handleAsync((ignored, failure) -> {
+						if (failure != null) {
+							throw skipDependentCategory(category);
+						}
+						return task.get();
+					}, executor));
+		}
+		joinAll(new ArrayList<>(futures.values()));
+	}
+
+	/**
+	 * The failure of the category doesn't stop the processing of the following categories, only the categories
+	 * depending on it are skipped, the same way as when the categories are processed in parallel.
+	 */
+	private void readAndProcessFeedsSequentially(CategoryDependencyGraph graph, List<String> categories,
+			SyncRunBudget budget) {
+		Set<String> failedCategories = new HashSet<>();
+		RuntimeException failure = null;
+		for (String category : categories) {
+			try {
+				if (!Collections.disjoint(graph.getDependencies(category), failedCategories)) {
+					throw skipDependentCategory(category);
+				}
+				readAndProcessFeedByCategory(category, budget);
+			} catch (RuntimeException e) {
+				failedCategories.add(category);
+				failure = addFailure(failure, e);
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private SyncException skipDependentCategory(String category) {
+		getCategoryProgress(category).pause();
+		return new SyncException(String.format("The %s feed is skipped, because the feed it depends on failed",
+				category));
+	}
+
+	private void joinAll(List<CompletableFuture<Void>> futures) {
+		RuntimeException failure = null;
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				SyncClientExecutor.join(future);
+			} catch (RuntimeException e) {
+				failure = addFailure(failure, e);
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private static RuntimeException addFailure(RuntimeException failure, RuntimeException e) {
+		if (failure == null) {
+			return e;
+		}
+		if (failure != e) {
+			failure.addSuppressed(e);
+		}
+		return failure;
+	}
+
+	/**
+	 * The feed isn't read while the parent is unavailable, so its markers stay in place. When the parent becomes
+	 * unavailable during the run, the feed is stopped before the next event, see {@link BudgetFeedEventWorker}.
+	 */
+	private boolean isParentUnavailable(String category) {
+		CircuitBreaker circuitBreaker = CircuitBreakerRegistry.getOpenCircuitBreaker(OpenMRSSyncInstance.PARENT);
+		if (circuitBreaker == null) {
+			return false;
+		}
+		LOGGER.warn("Processing of the {} feed is paused, {} is unavailable", category, circuitBreaker.getEndpoint());
+		reportOutage(category, circuitBreaker);
+		return true;
+	}
+
+	/**
+	 * A single audit message is saved per outage.
+	 */
+	private void reportOutage(String category, CircuitBreaker circuitBreaker) {
+		if (circuitBreaker.markOutageReported()) {
+			AuditMessage auditMessage = SyncAuditUtils.prepareBaseAuditMessage(getOperation().getValue(),
+					SyncConstants.REST_CLIENT);
+			auditMessage.setResourceName(category);
+			auditMessage.setSuccess(false);
+			auditMessage.setDetails(String.format(OUTAGE_MESSAGE_FORMAT, circuitBreaker.getEndpoint(),
+					circuitBreaker.getFailures(), circuitBreaker.getRejected()));
+			syncAuditService.saveAuditMessage(auditMessage);
+		}
+	}
+
+	/**
+	 * The events whose synchronization is deferred by the workers are kept as the failed events of the feed until
+	 * they are synchronized, see {@link FeedEventJournal}.
+	 *
+	 * @return true if the feed was stopped, because the budget of the run is exhausted or the parent is unavailable
+	 */
+	private boolean processAndAwait(CategoryFeed feed) {
+		boolean stopped = false;
+		try {
+			try {
+				feed.client.process();
+			} catch (SyncRunStoppedError e) {
+				LOGGER.debug(e.getMessage());
+				stopped = true;
+			}
+			feed.coalescer.flush();
+			feed.readAhead.flush();
+		} finally {
+			try {
+				feed.worker.awaitCompletion();
+			} finally {
+				feed.readAhead.releasePrefetched();
+				feed.journal.commit();
 			}
 		}
+		return stopped;
+	}
+
+	/**
+	 * The failed events are processed one by one by the calling thread, the event is removed from the failed events
+	 * only when it is synchronized.
+	 *
+	 * @return true if the feed was stopped, because the budget of the run is exhausted or the parent is unavailable
+	 */
+	private boolean processFailedEvents(CategoryFeed feed) {
+		try {
+			feed.replayClient.processFailedEntries();
+			return false;
+		} catch (SyncRunStoppedError e) {
+			LOGGER.debug(e.getMessage());
+			return true;
+		}
+	}
+
+	private SyncRunBudget startRun() {
+		SyncMethodConfiguration methodConf = getSyncMethodConf();
+		SyncRunBudget budget = new SyncRunBudget(methodConf.getMaxRunTime(), methodConf.getMaxRunEvents());
+		activeRuns.add(budget);
+		return budget;
+	}
+
+	private CategoryFeed getCategoryFeed(String category) {
+		return feeds.computeIfAbsent(category, key -> {
+			FeedEventJournal journal = createJournal();
+			PartitionedFeedEventWorker worker = new PartitionedFeedEventWorker(
+					new ProgressFeedEventWorker(feedEventWorker, getCategoryProgress(key)), key, journal);
+			ReadAheadFeedEventWorker readAhead = new ReadAheadFeedEventWorker(worker, getOperation(), journal);
+			CoalescingFeedEventWorker coalescer = new CoalescingFeedEventWorker(readAhead, journal);
+			BudgetFeedEventWorker budget = new BudgetFeedEventWorker(coalescer);
+			BudgetFeedEventWorker replayBudget = new BudgetFeedEventWorker(
+					new ProgressFeedEventWorker(feedEventWorker, getCategoryProgress(key)));
+			return new CategoryFeed(createClient(budget), createClient(replayBudget), budget, replayBudget, journal,
+					coalescer, readAhead, worker);
+		});
+	}
+
+	private AtomFeedClient createClient(FeedEventWorker worker) {
+		AtomFeedClient feedClient = AtomFeedClientFactory.createClient(worker);
+		AtomfeedUtils.disableMaxFailedEventCondition(feedClient);
+		return feedClient;
+	}
+
+	/**
+	 * The journal stores the events in the failed events of the feed, using the same transactions as the feed client.
+	 */
+	private FeedEventJournal createJournal() {
+		AtomFeedSpringTransactionManager transactionManager = new AtomFeedSpringTransactionManager(
+				ContextUtils.getFirstRegisteredComponent(PlatformTransactionManager.class));
+		return new FeedEventJournal(new AllFailedEventsJdbcImpl(transactionManager), transactionManager);
+	}
+
+	private FeedProgress getCategoryProgress(String category) {
+		return progress.computeIfAbsent(category, FeedProgress::new);
+	}
+
+	private CategorySchedule getCategorySchedule(String category) {
+		return schedules.computeIfAbsent(category, CategorySchedule::new);
+	}
+
+	private int getMaxConcurrentCategories() {
+		Integer maxConcurrentCategories = getSyncMethodConf().getMaxConcurrentCategories();
+		return maxConcurrentCategories != null && maxConcurrentCategories > 0 ? maxConcurrentCategories
+				: SyncConstants.DEFAULT_MAX_CONCURRENT_CATEGORIES;
+	}
+
+	private int getEventLanes() {
+		Integer eventLanes = getSyncMethodConf().getEventLanes();
+		return eventLanes != null && eventLanes > 0 ? eventLanes : SyncConstants.DEFAULT_EVENT_LANES;
+	}
+
+	private int getCoalescingWindow() {
+		Integer coalescingWindow = getSyncMethodConf().getCoalescingWindow();
+		return coalescingWindow != null && coalescingWindow > 0 ? coalescingWindow
+				: SyncConstants.DEFAULT_COALESCING_WINDOW;
+	}
+
+	private int getPrefetchDepth() {
+		Integer prefetchDepth = getSyncMethodConf().getPrefetchDepth();
+		return prefetchDepth != null && prefetchDepth >= 0 ? prefetchDepth : SyncConstants.DEFAULT_PREFETCH_DEPTH;
+	}
+
+	private long getPrefetchMaxBytes() {
+		Integer prefetchMaxBytes = getSyncMethodConf().getPrefetchMaxBytes();
+		return prefetchMaxBytes != null && prefetchMaxBytes > 0 ? prefetchMaxBytes
+				: SyncConstants.DEFAULT_PREFETCH_MAX_BYTES;
+	}
+
+	/**
+	 * The executor is shared by the runs of the reader, its threads stop when they are idle for a while.
+	 * The number of its threads follows {@link SyncMethodConfiguration#getMaxConcurrentCategories()}.
+	 */
+	private synchronized ExecutorService getExecutor(int threads) {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), createThreadFactory());
+			executor.allowCoreThreadTimeOut(true);
+		} else if (executor.getMaximumPoolSize() != threads) {
+			SyncClientExecutor.setPoolSize(executor, threads);
+		}
+		return executor;
+	}
+
+	private ThreadFactory createThreadFactory() {
+		AtomicInteger counter = new AtomicInteger();
+		return runnable -> new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
 	}
 
 	protected abstract SyncMethodConfiguration getSyncMethodConf();
 
+	protected abstract SyncOperation getOperation();
+
 	protected abstract String getBaseUri();
+
+	/**
+	 * The feed has two clients with the same uri. The first one reads the new events using the workers which defer
+	 * their synchronization, the second one processes the failed events synchronously.
+	 */
+	private static class CategoryFeed {
+
+		private final AtomFeedClient client;
+
+		private final AtomFeedClient replayClient;
+
+		private final BudgetFeedEventWorker budget;
+
+		private final BudgetFeedEventWorker replayBudget;
+
+		private final FeedEventJournal journal;
+
+		private final CoalescingFeedEventWorker coalescer;
+
+		private final ReadAheadFeedEventWorker readAhead;
+
+		private final PartitionedFeedEventWorker worker;
+
+		CategoryFeed(AtomFeedClient client, AtomFeedClient replayClient, BudgetFeedEventWorker budget,
+				BudgetFeedEventWorker replayBudget, FeedEventJournal journal, CoalescingFeedEventWorker coalescer,
+				ReadAheadFeedEventWorker readAhead, PartitionedFeedEventWorker worker) {
+			this.client = client;
+			this.replayClient = replayClient;
+			this.budget = budget;
+			this.replayBudget = replayBudget;
+			this.journal = journal;
+			this.coalescer = coalescer;
+			this.readAhead = readAhead;
+			this.worker = worker;
+		}
+
+		void setBudget(SyncRunBudget runBudget) {
+			budget.setBudget(runBudget);
+			replayBudget.setBudget(runBudget);
+		}
+
+		void setUri(URI uri) {
+			client.setUri(uri);
+			replayClient.setUri(uri);
+			journal.setFeedUri(uri.toString());
+		}
+
+		String getStopReason() {
+			return budget.getStopReason() != null ? budget.getStopReason() : replayBudget.getStopReason();
+		}
+	}
 }
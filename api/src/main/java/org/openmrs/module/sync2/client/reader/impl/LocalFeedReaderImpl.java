@@ -2,6 +2,7 @@ package org.openmrs.module.sync2.client.reader.impl;
 
 import org.openmrs.module.sync2.api.exceptions.SyncException;
 import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
+import org.openmrs.module.sync2.api.model.enums.SyncOperation;
 import org.openmrs.module.sync2.client.reader.LocalFeedReader;
 import org.openmrs.module.sync2.client.reader.LocalFeedWorker;
 import org.springframework.stereotype.Component;
@@ -18,6 +19,11 @@ public class LocalFeedReaderImpl extends AbstractFeedReader implements LocalFeed
 		return configurationService.getSyncConfiguration().getPush();
 	}
 
+	@Override
+	protected SyncOperation getOperation() {
+		return SyncOperation.PUSH;
+	}
+
 	@Override
 	protected String getBaseUri() {
 		return configurationService.getSyncConfiguration().getGeneral().getLocalFeedLocation();
@@ -28,6 +34,11 @@ public class LocalFeedReaderImpl extends AbstractFeedReader implements LocalFeed
 		readAndProcessAllFeeds();
 	}
 
+	@Override
+	public void readAndPushScheduledFeeds() {
+		readAndProcessScheduledFeeds();
+	}
+
 	@Override
 	public void readAndPushAllFeeds(String category) throws SyncException {
 		readAndProcessFeedsForCategory(category);
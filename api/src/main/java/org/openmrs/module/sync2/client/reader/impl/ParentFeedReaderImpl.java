@@ -2,6 +2,7 @@ package org.openmrs.module.sync2.client.reader.impl;
 
 import org.openmrs.module.sync2.api.exceptions.SyncException;
 import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
+import org.openmrs.module.sync2.api.model.enums.SyncOperation;
 import org.openmrs.module.sync2.client.reader.ParentFeedReader;
 import org.openmrs.module.sync2.client.reader.ParentFeedWorker;
 import org.springframework.stereotype.Service;
@@ -18,6 +19,11 @@ public class ParentFeedReaderImpl extends AbstractFeedReader implements ParentFe
 		return configurationService.getSyncConfiguration().getPull();
 	}
 
+	@Override
+	protected SyncOperation getOperation() {
+		return SyncOperation.PULL;
+	}
+
 	@Override
 	protected String getBaseUri() {
 		return configurationService.getSyncConfiguration().getGeneral().getParentFeedLocation();
@@ -28,6 +34,11 @@ public class ParentFeedReaderImpl extends AbstractFeedReader implements ParentFe
 		readAndProcessAllFeeds();
 	}
 
+	@Override
+	public void pullAndProcessScheduledFeeds() {
+		readAndProcessScheduledFeeds();
+	}
+
 	@Override
 	public void pullAndProcessFeeds(String category) throws SyncException {
 		readAndProcessFeedByCategory(category);
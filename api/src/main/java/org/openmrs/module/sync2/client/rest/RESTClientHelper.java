@@ -26,6 +26,7 @@ import javax.transaction.NotSupportedException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +40,9 @@ public class RESTClientHelper implements ClientHelper {
 
 	private final SimpleObjectMessageConverter simpleConverter = new SimpleObjectMessageConverter();
 
+	private final List<HttpMessageConverter<?>> messageConverters = Collections.unmodifiableList(Arrays.asList(
+			restConverter, new StringHttpMessageConverter(), simpleConverter));
+
 	@Override
 	public RequestEntity retrieveRequest(String url) throws URISyntaxException {
 		return new RequestEntity(HttpMethod.GET, new URI(url));
@@ -87,9 +91,7 @@ public class RESTClientHelper implements ClientHelper {
 
 	@Override
 	public List<HttpMessageConverter<?>> getCustomMessageConverter() {
-		return Arrays.asList(new HttpMessageConverter<?>[]
-				{ new RestHttpMessageConverter(), new StringHttpMessageConverter(),
-						new SimpleObjectMessageConverter() });
+		return messageConverters;
 	}
 
 	@Override
@@ -0,0 +1,44 @@
+package org.openmrs.module.sync2.api.dao.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.api.dao.ParentObjectHashcodeDao;
+import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class ParentObjectHashcodeDaoImplTest extends BaseModuleContextSensitiveTest {
+
+	private static final int OBJECTS = 2500;
+
+	@Autowired
+	private ParentObjectHashcodeDao parentObjectHashcodeDao;
+
+	@Test
+	public void getByObjectUuids_shouldReadTheHashcodesOfMoreObjectsThanASingleQueryAllows() {
+		List<String> objectUuids = new ArrayList<>();
+		for (int i = 0; i < OBJECTS; i++) {
+			String objectUuid = UUID.randomUUID().toString();
+			parentObjectHashcodeDao.save(new ParentObjectHashcode(objectUuid, "hashcode" + i));
+			objectUuids.add(objectUuid);
+		}
+		Context.flushSession();
+		Context.clearSession();
+		objectUuids.add(objectUuids.get(0));
+		objectUuids.add(UUID.randomUUID().toString());
+
+		Set<String> result = new HashSet<>();
+		for (ParentObjectHashcode stored : parentObjectHashcodeDao.getByObjectUuids(objectUuids)) {
+			Assert.assertTrue(result.add(stored.getObjectUuid()));
+		}
+		Assert.assertEquals(OBJECTS, result.size());
+		Assert.assertTrue(result.containsAll(objectUuids.subList(0, OBJECTS)));
+	}
+}
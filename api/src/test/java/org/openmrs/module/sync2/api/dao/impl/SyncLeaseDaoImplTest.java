@@ -0,0 +1,73 @@
+package org.openmrs.module.sync2.api.dao.impl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.api.dao.SyncLeaseDao;
+import org.openmrs.module.sync2.api.model.SyncLease;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class SyncLeaseDaoImplTest extends BaseModuleContextSensitiveTest {
+
+	private static final String OPERATION = "PULL";
+
+	private static final String CATEGORY = "patient";
+
+	private static final String OWNER = "node-1";
+
+	private static final String OTHER_OWNER = "node-2";
+
+	@Autowired
+	private SyncLeaseDao syncLeaseDao;
+
+	private Date now;
+
+	@Before
+	public void setUp() {
+		now = syncLeaseDao.getDatabaseTime();
+		syncLeaseDao.save(new SyncLease(OPERATION, CATEGORY));
+		Context.flushSession();
+	}
+
+	@Test
+	public void claim_shouldNotTakeTheUnexpiredLeaseOfAnotherOwner() {
+		Assert.assertTrue(syncLeaseDao.claim(OPERATION, CATEGORY, OTHER_OWNER, now, addSeconds(now, 60)));
+
+		Assert.assertFalse(syncLeaseDao.claim(OPERATION, CATEGORY, OWNER, now, addSeconds(now, 60)));
+		Assert.assertEquals(OTHER_OWNER, getOwner());
+	}
+
+	@Test
+	public void claim_shouldTakeTheExpiredLeaseOfAnotherOwner() {
+		Assert.assertTrue(syncLeaseDao.claim(OPERATION, CATEGORY, OTHER_OWNER, addSeconds(now, -120),
+				addSeconds(now, -60)));
+
+		Assert.assertTrue(syncLeaseDao.claim(OPERATION, CATEGORY, OWNER, now, addSeconds(now, 60)));
+		Assert.assertEquals(OWNER, getOwner());
+	}
+
+	@Test
+	public void renew_shouldNotRenewTheLeaseOfAnotherOwner() {
+		Assert.assertTrue(syncLeaseDao.claim(OPERATION, CATEGORY, OTHER_OWNER, now, addSeconds(now, 60)));
+
+		Assert.assertEquals(0, syncLeaseDao.renew(OPERATION, CATEGORY, OWNER, now, addSeconds(now, 60)));
+		Assert.assertEquals(1, syncLeaseDao.renew(OPERATION, CATEGORY, OTHER_OWNER, now, addSeconds(now, 60)));
+	}
+
+	/**
+	 * The leases are changed by the bulk updates, so the lease is read again from the database.
+	 */
+	private String getOwner() {
+		Context.clearSession();
+		return syncLeaseDao.getLease(OPERATION, CATEGORY).getOwner();
+	}
+
+	private Date addSeconds(Date date, int seconds) {
+		return new Date(date.getTime() + TimeUnit.SECONDS.toMillis(seconds));
+	}
+}
@@ -0,0 +1,147 @@
+package org.openmrs.module.sync2.api.dao.liquibase;
+
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HashcodeDigestsChangeSetTest {
+
+	private static final int ROWS = 1500;
+
+	private static final String UNCONVERTIBLE_HASHCODE = "unconvertible";
+
+	private Connection connection;
+
+	@Before
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:hashcodeDigests");
+		connection.setAutoCommit(false);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE sync_parent_object_hashcode (parent_object_hashcode_id int PRIMARY KEY, "
+					+ "hashcode varchar(255), hashcode_version int, hashcode_digest binary(64))");
+		}
+		try (PreparedStatement statement = connection.prepareStatement(
+				"INSERT INTO sync_parent_object_hashcode (parent_object_hashcode_id, hashcode) VALUES (?, ?)")) {
+			for (int id = 1; id <= ROWS; id++) {
+				statement.setInt(1, id);
+				statement.setString(2, getHashcode(id));
+				statement.addBatch();
+			}
+			statement.setInt(1, ROWS + 1);
+			statement.setString(2, UNCONVERTIBLE_HASHCODE);
+			statement.addBatch();
+			statement.setInt(1, ROWS + 2);
+			statement.setString(2, getHashcode(ROWS + 2).toUpperCase());
+			statement.addBatch();
+			statement.executeBatch();
+		}
+		connection.commit();
+	}
+
+	@After
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@Test
+	public void execute_shouldContinueTheInterruptedConversion() throws Exception {
+		try {
+			new HashcodeDigestsChangeSet().execute(createDatabase(interruptAtSecondCommit(connection)));
+			Assert.fail("The conversion should be interrupted");
+		}
+		catch (CustomChangeException e) {
+			connection.rollback();
+		}
+		Assert.assertEquals(1000, countConvertedRows());
+
+		HashcodeDigestsChangeSet changeSet = new HashcodeDigestsChangeSet();
+		changeSet.execute(createDatabase(connection));
+
+		Assert.assertEquals(ROWS, countConvertedRows());
+		Assert.assertEquals("Converted 500 hashcodes to the binary digests", changeSet.getConfirmationMessage());
+		try (PreparedStatement statement = connection.prepareStatement("SELECT hashcode_version, hashcode_digest "
+				+ "FROM sync_parent_object_hashcode WHERE parent_object_hashcode_id = 1")) {
+			try (ResultSet resultSet = statement.executeQuery()) {
+				Assert.assertTrue(resultSet.next());
+				Assert.assertEquals(1, resultSet.getInt(1));
+				Assert.assertArrayEquals(DigestUtils.sha512(String.valueOf(1)), resultSet.getBytes(2));
+			}
+		}
+	}
+
+	@Test
+	public void execute_shouldLeaveTheHashcodesWhichCantBeConverted() throws Exception {
+		new HashcodeDigestsChangeSet().execute(createDatabase(connection));
+
+		Assert.assertEquals(UNCONVERTIBLE_HASHCODE, getStoredHashcode(ROWS + 1));
+		Assert.assertEquals(getHashcode(ROWS + 2).toUpperCase(), getStoredHashcode(ROWS + 2));
+		Assert.assertEquals(ROWS, countConvertedRows());
+	}
+
+	private String getHashcode(int id) {
+		return DigestUtils.sha512Hex(String.valueOf(id));
+	}
+
+	private int countConvertedRows() throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) "
+				+ "FROM sync_parent_object_hashcode WHERE hashcode IS NULL AND hashcode_digest IS NOT NULL")) {
+			try (ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				return resultSet.getInt(1);
+			}
+		}
+	}
+
+	private String getStoredHashcode(int id) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("SELECT hashcode "
+				+ "FROM sync_parent_object_hashcode WHERE parent_object_hashcode_id = ? AND hashcode_digest IS NULL")) {
+			statement.setInt(1, id);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				return resultSet.next() ? resultSet.getString(1) : null;
+			}
+		}
+	}
+
+	private Database createDatabase(Connection connection) {
+		Database database = mock(Database.class);
+		when(database.getConnection()).thenReturn(new JdbcConnection(connection));
+		return database;
+	}
+
+	/**
+	 * The first batch is committed, the connection fails when the second batch is committed
+	 */
+	private Connection interruptAtSecondCommit(Connection connection) {
+		AtomicInteger commits = new AtomicInteger();
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					if ("commit".equals(method.getName()) && commits.incrementAndGet() > 1) {
+						throw new SQLException("The connection was interrupted");
+					}
+					try {
+						return method.invoke(connection, args);
+					}
+					catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+}
@@ -0,0 +1,81 @@
+package org.openmrs.module.sync2.api.dao.liquibase;
+
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UniqueObjectUuidIndexChangeSetTest {
+
+	private static final String OBJECT_UUID = "0d2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private static final String OTHER_OBJECT_UUID = "5b2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private Connection connection;
+
+	@Before
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:uniqueObjectUuidIndex");
+		connection.setAutoCommit(false);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE sync_parent_object_hashcode (parent_object_hashcode_id int PRIMARY KEY, "
+					+ "object_uuid varchar(38), hashcode varchar(255))");
+		}
+		insert(1, OBJECT_UUID, "first");
+		insert(2, OTHER_OBJECT_UUID, "other");
+		insert(3, OBJECT_UUID, "latest");
+		connection.commit();
+	}
+
+	@After
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@Test
+	public void execute_shouldKeepTheLatestHashcodeOfTheObjectAndAddTheUniqueIndex() throws Exception {
+		Database database = mock(Database.class);
+		when(database.getConnection()).thenReturn(new JdbcConnection(connection));
+
+		new UniqueObjectUuidIndexChangeSet().execute(database);
+
+		try (PreparedStatement statement = connection.prepareStatement("SELECT hashcode "
+				+ "FROM sync_parent_object_hashcode WHERE object_uuid = ?")) {
+			statement.setString(1, OBJECT_UUID);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				Assert.assertTrue(resultSet.next());
+				Assert.assertEquals("latest", resultSet.getString(1));
+				Assert.assertFalse(resultSet.next());
+			}
+		}
+		try {
+			insert(4, OTHER_OBJECT_UUID, "duplicated");
+			Assert.fail("The object uuids should be unique");
+		}
+		catch (SQLException e) {
+			connection.rollback();
+		}
+	}
+
+	private void insert(int id, String objectUuid, String hashcode) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("INSERT INTO sync_parent_object_hashcode "
+				+ "(parent_object_hashcode_id, object_uuid, hashcode) VALUES (?, ?, ?)")) {
+			statement.setInt(1, id);
+			statement.setString(2, objectUuid);
+			statement.setString(3, hashcode);
+			statement.executeUpdate();
+		}
+	}
+}
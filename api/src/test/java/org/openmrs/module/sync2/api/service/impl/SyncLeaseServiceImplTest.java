@@ -0,0 +1,45 @@
+package org.openmrs.module.sync2.api.service.impl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.openmrs.module.sync2.api.dao.SyncLeaseDao;
+import org.openmrs.module.sync2.api.model.SyncLease;
+
+import java.util.Date;
+
+public class SyncLeaseServiceImplTest {
+
+	private static final String OPERATION = "PULL";
+
+	private static final String CATEGORY = "patient";
+
+	private static final String OWNER = "node-1";
+
+	private static final int LEASE_TIME = 60;
+
+	@Mock
+	private SyncLeaseDao syncLeaseDao;
+
+	@InjectMocks
+	private SyncLeaseServiceImpl syncLeaseService;
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+		Mockito.when(syncLeaseDao.getDatabaseTime()).thenReturn(new Date());
+	}
+
+	@Test
+	public void acquire_shouldCreateTheMissingLeaseBeforeClaimingIt() {
+		Mockito.when(syncLeaseDao.claim(Mockito.eq(OPERATION), Mockito.eq(CATEGORY), Mockito.eq(OWNER),
+				Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(true);
+
+		Assert.assertTrue(syncLeaseService.acquire(OPERATION, CATEGORY, OWNER, LEASE_TIME));
+		Mockito.verify(syncLeaseDao).save(Mockito.any(SyncLease.class));
+	}
+}
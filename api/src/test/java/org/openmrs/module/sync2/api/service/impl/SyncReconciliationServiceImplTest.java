@@ -0,0 +1,199 @@
+package org.openmrs.module.sync2.api.service.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openmrs.Patient;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.fhir.api.helper.ClientHelper;
+import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
+import org.openmrs.module.sync2.api.model.RangeDigest;
+import org.openmrs.module.sync2.api.model.audit.AuditMessage;
+import org.openmrs.module.sync2.api.model.configuration.ClassConfiguration;
+import org.openmrs.module.sync2.api.model.configuration.SyncConfiguration;
+import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
+import org.openmrs.module.sync2.api.model.enums.SyncOperation;
+import org.openmrs.module.sync2.api.service.ParentObjectHashcodeService;
+import org.openmrs.module.sync2.api.service.SyncConfigurationService;
+import org.openmrs.module.sync2.api.service.SyncPullService;
+import org.openmrs.module.sync2.api.sync.HashcodeRangeIndex;
+import org.openmrs.module.sync2.api.sync.SyncClient;
+import org.openmrs.module.sync2.api.sync.SyncLeaseManager;
+import org.openmrs.module.sync2.api.sync.SyncRunBudget;
+import org.openmrs.module.sync2.api.utils.SyncConfigurationUtils;
+import org.openmrs.module.sync2.client.ClientHelperFactory;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.openmrs.module.sync2.SyncConstants.REST_CLIENT;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ Context.class, SyncConfigurationUtils.class, ClientHelperFactory.class })
+public class SyncReconciliationServiceImplTest {
+
+	private static final String CATEGORY = "patient";
+
+	private static final String SYNCHRONIZED_UUID = "0d2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private static final String CHANGED_UUID = "5b2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private static final String FILTERED_UUID = "9c2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private static final String HASHCODE = "hashcode";
+
+	private static final String CHANGED_HASHCODE = "changedHashcode";
+
+	@Mock
+	private ParentObjectHashcodeService parentObjectHashcodeService;
+
+	@Mock
+	private SyncConfigurationService syncConfigurationService;
+
+	@Mock
+	private SyncPullService syncPullService;
+
+	@Mock
+	private SyncLeaseManager leaseManager;
+
+	@Mock
+	private SyncClient syncClient;
+
+	@InjectMocks
+	private SyncReconciliationServiceImpl syncReconciliationService;
+
+	private final Map<String, String> parentHashcodes = new HashMap<>();
+
+	private final Map<String, String> localHashcodes = new HashMap<>();
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+		mockStatic(SyncConfigurationUtils.class);
+		mockStatic(Context.class);
+		when(Context.getAdministrationService()).thenReturn(mock(AdministrationService.class));
+
+		ClientHelper clientHelper = mock(ClientHelper.class);
+		when(clientHelper.resolveClassByCategory(CATEGORY)).thenReturn(Patient.class);
+		mockStatic(ClientHelperFactory.class);
+		when(ClientHelperFactory.createClient(REST_CLIENT)).thenReturn(clientHelper);
+
+		SyncConfiguration syncConfiguration = mock(SyncConfiguration.class);
+		when(syncConfiguration.getPull()).thenReturn(new SyncMethodConfiguration(true, 60,
+				Collections.singletonList(new ClassConfiguration("Patient", CATEGORY, "org.openmrs.Patient", true))));
+		when(syncConfigurationService.getSyncConfiguration()).thenReturn(syncConfiguration);
+		when(leaseManager.tryAcquire(eq(SyncOperation.PULL), eq(CATEGORY), any(SyncRunBudget.class))).thenReturn(true);
+
+		when(parentObjectHashcodeService.getHashcodesOfClass(eq(Patient.class), any(String.class), anyInt()))
+				.thenAnswer(invocation -> getPage((String) invocation.getArguments()[1],
+						(Integer) invocation.getArguments()[2]));
+		when(syncClient.pullRangeDigests(eq(CATEGORY), anyListOf(RangeDigest.class))).thenAnswer(invocation -> {
+			HashcodeRangeIndex index = new HashcodeRangeIndex(parentHashcodes);
+			List<RangeDigest> result = new ArrayList<>();
+			for (RangeDigest range : getRanges(invocation.getArguments()[1])) {
+				result.add(index.digest(range.getFrom(), range.getTo()));
+			}
+			return result;
+		});
+		when(syncClient.pullRangeHashcodes(eq(CATEGORY), anyListOf(RangeDigest.class))).thenAnswer(invocation -> {
+			HashcodeRangeIndex index = new HashcodeRangeIndex(parentHashcodes);
+			Map<String, String> result = new LinkedHashMap<>();
+			for (RangeDigest range : getRanges(invocation.getArguments()[1])) {
+				result.putAll(index.getHashcodes(range.getFrom(), range.getTo()));
+			}
+			return result;
+		});
+	}
+
+	@Test
+	public void reconcileCategories_shouldPullOnlyTheObjectsWhichDifferFromTheParent() {
+		localHashcodes.put(SYNCHRONIZED_UUID, HASHCODE);
+		localHashcodes.put(CHANGED_UUID, HASHCODE);
+		parentHashcodes.put(SYNCHRONIZED_UUID, HASHCODE);
+		parentHashcodes.put(CHANGED_UUID, CHANGED_HASHCODE);
+		mockPull(CHANGED_UUID, true);
+
+		syncReconciliationService.reconcileCategories();
+
+		verify(syncPullService).pullAndSaveObjectFromParent(CATEGORY, CHANGED_UUID);
+		verify(syncPullService, never()).pullAndSaveObjectFromParent(CATEGORY, SYNCHRONIZED_UUID);
+		verify(parentObjectHashcodeService, never()).save(anyString(), anyString());
+		verify(leaseManager).release(eq(SyncOperation.PULL), eq(CATEGORY), any(SyncRunBudget.class));
+	}
+
+	@Test
+	public void reconcileCategories_shouldNotPullTheObjectWhichWasNotSavedAgainUntilItChanges() {
+		parentHashcodes.put(FILTERED_UUID, HASHCODE);
+		mockPull(FILTERED_UUID, false);
+
+		syncReconciliationService.reconcileCategories();
+		syncReconciliationService.reconcileCategories();
+		verify(syncPullService, times(1)).pullAndSaveObjectFromParent(CATEGORY, FILTERED_UUID);
+		verify(parentObjectHashcodeService, never()).save(anyString(), anyString());
+
+		parentHashcodes.put(FILTERED_UUID, CHANGED_HASHCODE);
+		syncReconciliationService.reconcileCategories();
+		verify(syncPullService, times(2)).pullAndSaveObjectFromParent(CATEGORY, FILTERED_UUID);
+	}
+
+	@Test
+	public void reconcileCategories_shouldVoidTheHashcodesOfTheObjectsRemovedFromTheParent() {
+		localHashcodes.put(SYNCHRONIZED_UUID, HASHCODE);
+		localHashcodes.put(CHANGED_UUID, HASHCODE);
+		parentHashcodes.put(SYNCHRONIZED_UUID, HASHCODE);
+		ParentObjectHashcode stored = new ParentObjectHashcode(CHANGED_UUID, HASHCODE);
+		when(parentObjectHashcodeService.getByObjectUuids(Collections.singletonList(CHANGED_UUID)))
+				.thenReturn(Collections.singletonList(stored));
+
+		syncReconciliationService.reconcileCategories();
+
+		verify(parentObjectHashcodeService).delete(eq(stored), anyString());
+		verify(syncPullService, never()).pullAndSaveObjectFromParent(anyString(), anyString());
+	}
+
+	private void mockPull(String uuid, boolean saved) {
+		AuditMessage auditMessage = new AuditMessage();
+		auditMessage.setSuccess(true);
+		when(syncPullService.pullAndSaveObjectFromParent(CATEGORY, uuid))
+				.thenReturn(Collections.singletonList(auditMessage));
+		when(parentObjectHashcodeService.getByObjectUuid(uuid))
+				.thenReturn(saved ? new ParentObjectHashcode(uuid, CHANGED_HASHCODE) : null);
+	}
+
+	private Map<String, String> getPage(String afterUuid, int maxResults) {
+		Map<String, String> result = new LinkedHashMap<>();
+		for (Map.Entry<String, String> hashcode : new TreeMap<>(localHashcodes).entrySet()) {
+			if (result.size() < maxResults && (afterUuid == null || hashcode.getKey().compareTo(afterUuid) > 0)) {
+				result.put(hashcode.getKey(), hashcode.getValue());
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<RangeDigest> getRanges(Object argument) {
+		return (List<RangeDigest>) argument;
+	}
+}
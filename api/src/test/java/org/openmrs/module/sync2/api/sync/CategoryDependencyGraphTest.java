@@ -0,0 +1,63 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.configuration.ClassConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CategoryDependencyGraphTest {
+
+	@Test
+	public void getCategoriesInDependencyOrder_shouldPlaceCategoriesAfterTheirDependencies() {
+		CategoryDependencyGraph graph = new CategoryDependencyGraph(Arrays.asList(
+				createClass("observation", true, "encounter"),
+				createClass("encounter", true, "visit", "location"),
+				createClass("location", true),
+				createClass("visit", true, "patient"),
+				createClass("patient", true)));
+
+		Assert.assertEquals(Arrays.asList("location", "patient", "visit", "encounter", "observation"),
+				graph.getCategoriesInDependencyOrder());
+	}
+
+	@Test
+	public void ofEnabled_shouldIgnoreDependenciesOnDisabledCategories() {
+		CategoryDependencyGraph graph = CategoryDependencyGraph.ofEnabled(Arrays.asList(
+				createClass("visit", true, "patient"),
+				createClass("patient", false)));
+
+		Assert.assertEquals(Collections.singletonList("visit"), graph.getCategoriesInDependencyOrder());
+		Assert.assertTrue(graph.getDependencies("visit").isEmpty());
+	}
+
+	@Test(expected = SyncException.class)
+	public void getCategoriesInDependencyOrder_shouldFailForCyclicDependencies() {
+		new CategoryDependencyGraph(Arrays.asList(
+				createClass("visit", true, "encounter"),
+				createClass("encounter", true, "visit"))).getCategoriesInDependencyOrder();
+	}
+
+	@Test
+	public void findCyclicCategories_shouldReturnCategoriesWhichCantBeOrdered() {
+		CategoryDependencyGraph graph = new CategoryDependencyGraph(Arrays.asList(
+				createClass("location", true),
+				createClass("visit", true, "encounter"),
+				createClass("encounter", true, "visit"),
+				createClass("observation", true, "encounter")));
+
+		Assert.assertEquals(Arrays.asList("visit", "encounter", "observation"),
+				new ArrayList<>(graph.findCyclicCategories()));
+	}
+
+	private ClassConfiguration createClass(String category, boolean enabled, String... dependsOn) {
+		ClassConfiguration classConfiguration = new ClassConfiguration(category, category, category, enabled);
+		List<String> dependencies = Arrays.asList(dependsOn);
+		classConfiguration.setDependsOn(dependencies.isEmpty() ? null : dependencies);
+		return classConfiguration;
+	}
+}
@@ -0,0 +1,74 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+	private static final String ENDPOINT = "PARENT http://localhost:8080";
+
+	private static final int FAILURE_THRESHOLD = 2;
+
+	private static final int LONG_OPEN_TIME = 60;
+
+	private static final int NO_OPEN_TIME = 0;
+
+	@Test
+	public void recordFailure_shouldOpenCircuitAfterThreshold() {
+		CircuitBreaker circuitBreaker = new CircuitBreaker(ENDPOINT, FAILURE_THRESHOLD, LONG_OPEN_TIME);
+
+		circuitBreaker.recordFailure();
+		Assert.assertTrue(circuitBreaker.tryAcquire());
+		circuitBreaker.recordFailure();
+
+		Assert.assertTrue(circuitBreaker.isOpen());
+		Assert.assertFalse(circuitBreaker.tryAcquire());
+		Assert.assertEquals(1, circuitBreaker.getRejected());
+	}
+
+	@Test
+	public void tryAcquire_shouldAllowSingleProbeAfterOpenTime() {
+		CircuitBreaker circuitBreaker = openCircuitBreaker(NO_OPEN_TIME);
+
+		Assert.assertTrue(circuitBreaker.tryAcquire());
+		Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+		Assert.assertFalse(circuitBreaker.tryAcquire());
+	}
+
+	@Test
+	public void recordSuccess_shouldCloseCircuitAfterProbe() {
+		CircuitBreaker circuitBreaker = openCircuitBreaker(NO_OPEN_TIME);
+		circuitBreaker.tryAcquire();
+
+		circuitBreaker.recordSuccess();
+
+		Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		Assert.assertTrue(circuitBreaker.tryAcquire());
+	}
+
+	@Test
+	public void recordFailure_shouldReopenCircuitAfterFailedProbe() {
+		CircuitBreaker circuitBreaker = openCircuitBreaker(NO_OPEN_TIME);
+		circuitBreaker.tryAcquire();
+
+		circuitBreaker.recordFailure();
+
+		Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+	}
+
+	@Test
+	public void markOutageReported_shouldReportOutageOnce() {
+		CircuitBreaker circuitBreaker = openCircuitBreaker(LONG_OPEN_TIME);
+
+		Assert.assertTrue(circuitBreaker.markOutageReported());
+		Assert.assertFalse(circuitBreaker.markOutageReported());
+	}
+
+	private CircuitBreaker openCircuitBreaker(int openTime) {
+		CircuitBreaker circuitBreaker = new CircuitBreaker(ENDPOINT, FAILURE_THRESHOLD, openTime);
+		for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+			circuitBreaker.recordFailure();
+		}
+		return circuitBreaker;
+	}
+}
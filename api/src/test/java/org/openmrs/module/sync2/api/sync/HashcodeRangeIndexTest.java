@@ -0,0 +1,51 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.sync2.api.model.RangeDigest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class HashcodeRangeIndexTest {
+
+	@Test
+	public void digest_shouldDifferOnlyInTheRangeOfTheChangedObject() {
+		Map<String, String> hashcodes = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			hashcodes.put(UUID.randomUUID().toString(), "hashcode" + i);
+		}
+		HashcodeRangeIndex index = new HashcodeRangeIndex(hashcodes);
+		String changed = hashcodes.keySet().iterator().next();
+		Map<String, String> otherHashcodes = new HashMap<>(hashcodes);
+		otherHashcodes.put(changed, "changed");
+		HashcodeRangeIndex otherIndex = new HashcodeRangeIndex(otherHashcodes);
+
+		RangeDigest whole = index.digest(0L, HashcodeRangeIndex.RANGE_END);
+		Assert.assertEquals(100, whole.getCount());
+		Assert.assertTrue(whole.matches(new HashcodeRangeIndex(new HashMap<>(hashcodes))
+				.digest(0L, HashcodeRangeIndex.RANGE_END)));
+		Assert.assertFalse(whole.matches(otherIndex.digest(0L, HashcodeRangeIndex.RANGE_END)));
+
+		long position = HashcodeRangeIndex.getPosition(changed);
+		for (RangeDigest range : HashcodeRangeIndex.split(whole, 16)) {
+			boolean containsChanged = range.getFrom() <= position && position < range.getTo();
+			Assert.assertEquals(!containsChanged, index.digest(range.getFrom(), range.getTo())
+					.matches(otherIndex.digest(range.getFrom(), range.getTo())));
+		}
+	}
+
+	@Test
+	public void split_shouldCoverTheWholeRange() {
+		List<RangeDigest> ranges = HashcodeRangeIndex.split(new RangeDigest(10L, 45L), 16);
+
+		Assert.assertEquals(12, ranges.size());
+		Assert.assertEquals(10L, ranges.get(0).getFrom());
+		for (int i = 1; i < ranges.size(); i++) {
+			Assert.assertEquals(ranges.get(i - 1).getTo(), ranges.get(i).getFrom());
+		}
+		Assert.assertEquals(45L, ranges.get(ranges.size() - 1).getTo());
+	}
+}
@@ -0,0 +1,33 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+
+import java.util.concurrent.CompletableFuture;
+
+public class SyncClientExecutorTest {
+
+	private static final String RESULT = "result";
+
+	private static final String ERROR_MESSAGE = "Parent is not available";
+
+	@Test
+	public void join_shouldReturnResult() {
+		Assert.assertEquals(RESULT, SyncClientExecutor.join(CompletableFuture.completedFuture(RESULT)));
+	}
+
+	@Test
+	public void join_shouldRethrowOriginalException() {
+		CompletableFuture<String> future = new CompletableFuture<>();
+		future.completeExceptionally(new SyncException(ERROR_MESSAGE));
+
+		try {
+			SyncClientExecutor.join(future);
+			Assert.fail("Expected SyncException");
+		}
+		catch (SyncException e) {
+			Assert.assertEquals(ERROR_MESSAGE, e.getMessage());
+		}
+	}
+}
@@ -15,6 +15,9 @@ import org.openmrs.Visit;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.fhir.api.helper.FHIRClientHelper;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.InnerResponse;
+import org.openmrs.module.sync2.api.model.PushOperation;
 import org.openmrs.module.sync2.api.model.configuration.GeneralConfiguration;
 import org.openmrs.module.sync2.api.model.configuration.SyncConfiguration;
 import org.openmrs.module.sync2.api.service.SyncConfigurationService;
@@ -27,8 +30,10 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.core.convert.support.DefaultConversionService;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -63,6 +68,7 @@ public class SyncClientTest {
     private static final String USERNAME = "username";
     private static final String PASSWORD = "password";
     private static final String SYNC_ENDPOINT = "openmrs/ws/rest/sync2";
+    private static final String UNRECOGNIZED_ACTION = "MOVED";
 
     private static final String REST_FULL_RESOURCE_URL = PARENT_ADDRESS + REST_RESOURCE_LINK + PATIENT_UUID;
     private static final String FHIR_FULL_RESOURCE_URL = PARENT_ADDRESS + FHIR_RESOURCE_LINK + PATIENT_UUID;
@@ -88,6 +94,7 @@ public class SyncClientTest {
 
         mockStatic(SyncUtils.class);
         when(SyncUtils.getParentBaseUrl(Mockito.anyString())).thenReturn(PARENT_FEED_LOCATION);
+        SyncEndpointRegistry.invalidate();
 
         expectedPatient = createPatient();
         expectedVisit = createVisit();
@@ -155,6 +162,24 @@ public class SyncClientTest {
         assertThat(pulledObject, is(expectedPatient));
     }
 
+    @Test(expected = SyncException.class)
+    public void pushDataBatch_shouldRejectUnrecognizedAction() {
+        SyncClient resourceManager = new SyncClient();
+
+        resourceManager.pushDataBatch(PATIENT_CATEGORY, REST_CLIENT_KEY, Collections.singletonList(
+                new PushOperation(expectedPatient, REST_FULL_RESOURCE_URL, UNRECOGNIZED_ACTION)), PARENT);
+    }
+
+    @Test
+    public void pushDataBatch_shouldReturnEmptyListForNoOperations() {
+        SyncClient resourceManager = new SyncClient();
+
+        List<InnerResponse> responses = resourceManager.pushDataBatch(PATIENT_CATEGORY, REST_CLIENT_KEY,
+                Collections.<PushOperation>emptyList(), PARENT);
+
+        assertThat(responses.isEmpty(), is(true));
+    }
+
     private Patient createPatient() {
         Patient patient = new Patient();
         patient.setUuid(PATIENT_UUID);
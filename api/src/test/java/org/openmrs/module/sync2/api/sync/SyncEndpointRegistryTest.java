@@ -0,0 +1,73 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openmrs.module.sync2.api.model.SyncEndpoint;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+import org.openmrs.module.sync2.client.ClientHelperFactory;
+import org.openmrs.module.sync2.client.rest.RESTClientHelper;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import static org.openmrs.module.sync2.SyncConstants.REST_CLIENT;
+import static org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance.CHILD;
+import static org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance.PARENT;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ SyncUtils.class, ClientHelperFactory.class })
+public class SyncEndpointRegistryTest {
+
+	private static final String PARENT_ADDRESS = "http://localhost:8080/openmrs";
+
+	private static final String LOCAL_ADDRESS = "http://localhost:8081/openmrs";
+
+	private static final String USERNAME = "admin";
+
+	private static final String PASSWORD = "Admin123";
+
+	@Before
+	public void setUp() {
+		mockStatic(SyncUtils.class);
+		when(SyncUtils.getParentBaseUrl(REST_CLIENT)).thenReturn(PARENT_ADDRESS);
+		when(SyncUtils.getLocalBaseUrl()).thenReturn(LOCAL_ADDRESS);
+		when(SyncUtils.getClientLogin(REST_CLIENT, PARENT)).thenReturn(USERNAME);
+		when(SyncUtils.getClientPassword(REST_CLIENT, PARENT)).thenReturn(PASSWORD);
+		when(SyncUtils.clientHasSpecificAddress(REST_CLIENT, PARENT)).thenReturn(false);
+
+		mockStatic(ClientHelperFactory.class);
+		when(ClientHelperFactory.createClient(REST_CLIENT)).thenReturn(new RESTClientHelper());
+
+		SyncEndpointRegistry.invalidate();
+	}
+
+	@Test
+	public void getEndpoint_shouldResolveEndpointOnce() {
+		SyncEndpoint first = SyncEndpointRegistry.getEndpoint(REST_CLIENT, PARENT);
+		SyncEndpoint second = SyncEndpointRegistry.getEndpoint(REST_CLIENT, PARENT);
+
+		Assert.assertSame(first, second);
+		Assert.assertEquals(PARENT_ADDRESS, first.getBaseUrl());
+		Assert.assertEquals(USERNAME, first.getLogin());
+		Assert.assertEquals(PASSWORD, first.getPassword());
+		Assert.assertTrue(first.isWrapped());
+	}
+
+	@Test
+	public void getEndpoint_shouldUseLocalAddressForChild() {
+		Assert.assertEquals(LOCAL_ADDRESS, SyncEndpointRegistry.getEndpoint(REST_CLIENT, CHILD).getBaseUrl());
+	}
+
+	@Test
+	public void invalidate_shouldResolveEndpointAgain() {
+		SyncEndpointRegistry.getEndpoint(REST_CLIENT, PARENT);
+		when(SyncUtils.getClientPassword(REST_CLIENT, PARENT)).thenReturn(USERNAME);
+
+		SyncEndpointRegistry.invalidate();
+
+		Assert.assertEquals(USERNAME, SyncEndpointRegistry.getEndpoint(REST_CLIENT, PARENT).getPassword());
+	}
+}
@@ -0,0 +1,40 @@
+package org.openmrs.module.sync2.api.sync;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final TokenBucket bucket = new TokenBucket(2, 3, clock::get);
+
+	@Test
+	public void reserve_shouldAllowTheBurstAndThenSpreadTheRequests() {
+		Assert.assertEquals(0L, bucket.reserve());
+		Assert.assertEquals(0L, bucket.reserve());
+		Assert.assertEquals(0L, bucket.reserve());
+
+		Assert.assertEquals(SECOND / 2, bucket.reserve());
+		Assert.assertEquals(SECOND, bucket.reserve());
+	}
+
+	@Test
+	public void reserve_shouldRefillTheBucketUpToTheBurst() {
+		bucket.reserve();
+		bucket.reserve();
+		bucket.reserve();
+
+		clock.addAndGet(10 * SECOND);
+
+		Assert.assertEquals(0L, bucket.reserve());
+		Assert.assertEquals(0L, bucket.reserve());
+		Assert.assertEquals(0L, bucket.reserve());
+		Assert.assertEquals(SECOND / 2, bucket.reserve());
+	}
+}
@@ -0,0 +1,70 @@
+package org.openmrs.module.sync2.api.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.sync2.api.exceptions.BatchTooLargeException;
+import org.openmrs.module.sync2.api.model.BatchRequestWrapper;
+import org.openmrs.module.sync2.api.model.InnerRequest;
+import org.springframework.http.HttpMethod;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+public class BatchRequestUtilsTest {
+
+	private static final URI PATIENT_URL = URI.create("http://localhost:8080/openmrs/ws/rest/v1/patient/abc");
+
+	private static final URI LOCATION_URL = URI.create("http://localhost:8080/openmrs/ws/rest/v1/location/def");
+
+	private static final String PATIENT_JSON = "{\"uuid\":\"abc\",\"display\":\"Zoë\"}";
+
+	@Test
+	public void readBatchRequest_shouldReadTheBatchSerializedByTheClient() throws IOException {
+		BatchRequestWrapper expected = createBatch();
+
+		BatchRequestWrapper actual = BatchRequestUtils.readBatchRequest(toStream(expected), 2);
+
+		Assert.assertEquals(expected, actual);
+	}
+
+	@Test
+	public void readBatchRequest_shouldReadTheBatchWithoutRequests() throws IOException {
+		BatchRequestWrapper actual = BatchRequestUtils.readBatchRequest(
+				new ByteArrayInputStream("{\"category\":\"patient\",\"requests\":null}".getBytes(StandardCharsets.UTF_8)),
+				2);
+
+		Assert.assertEquals("patient", actual.getCategory());
+		Assert.assertTrue(actual.getRequests().isEmpty());
+	}
+
+	@Test(expected = BatchTooLargeException.class)
+	public void readBatchRequest_shouldRejectTheBatchWithTooManyRequests() throws IOException {
+		BatchRequestUtils.readBatchRequest(toStream(createBatch()), 1);
+	}
+
+	private BatchRequestWrapper createBatch() {
+		BatchRequestWrapper wrapper = new BatchRequestWrapper();
+		wrapper.setInstanceId("child");
+		wrapper.setClientName("rest");
+		wrapper.setClassName("org.openmrs.Patient");
+		wrapper.setCategory("patient");
+		wrapper.addRequest(createInnerRequest(HttpMethod.POST, PATIENT_URL, PATIENT_JSON));
+		wrapper.addRequest(createInnerRequest(HttpMethod.DELETE, LOCATION_URL, null));
+		return wrapper;
+	}
+
+	private InnerRequest createInnerRequest(HttpMethod method, URI url, String body) {
+		InnerRequest request = new InnerRequest();
+		request.setMethod(method);
+		request.setUrl(url);
+		request.setBody(body);
+		return request;
+	}
+
+	private InputStream toStream(BatchRequestWrapper wrapper) {
+		return new ByteArrayInputStream(SyncUtils.getDefaultGson().toJson(wrapper).getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,57 @@
+package org.openmrs.module.sync2.api.utils;
+
+import com.google.gson.stream.JsonWriter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.sync2.api.model.InnerResponse;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResponseUtilsTest {
+
+	private static final URI PATIENT_URL = URI.create("http://localhost:8080/openmrs/ws/rest/v1/patient/abc");
+
+	private static final URI LOCATION_URL = URI.create("http://localhost:8080/openmrs/ws/rest/v1/location/def");
+
+	private static final String PATIENT_JSON = "{\"uuid\":\"abc\",\"display\":\"Zoë\"}";
+
+	private static final String NOT_FOUND_MESSAGE = "404 Not Found";
+
+	@Test
+	public void writeAndRead_shouldPreserveInnerResponses() throws IOException {
+		InnerResponse found = new InnerResponse(PATIENT_URL, HttpStatus.OK, PATIENT_JSON);
+		InnerResponse missing = new InnerResponse(LOCATION_URL, HttpStatus.NOT_FOUND, NOT_FOUND_MESSAGE);
+
+		StringWriter out = new StringWriter();
+		JsonWriter writer = new JsonWriter(out);
+		writer.beginArray();
+		BatchResponseUtils.writeInnerResponse(writer, found, true);
+		BatchResponseUtils.writeInnerResponse(writer, missing, false);
+		writer.endArray();
+		writer.flush();
+
+		List<InnerResponse> actual = new ArrayList<>();
+		BatchResponseUtils.readInnerResponses(
+				new ByteArrayInputStream(out.toString().getBytes(StandardCharsets.UTF_8)), actual::add);
+
+		Assert.assertEquals(2, actual.size());
+		Assert.assertEquals(found, actual.get(0));
+		Assert.assertEquals(missing, actual.get(1));
+	}
+
+	@Test
+	public void writeInnerResponse_shouldEmbedJsonBody() throws IOException {
+		StringWriter out = new StringWriter();
+		BatchResponseUtils.writeInnerResponse(new JsonWriter(out),
+				new InnerResponse(PATIENT_URL, HttpStatus.OK, PATIENT_JSON), true);
+
+		Assert.assertTrue(out.toString().contains("\"body\":" + PATIENT_JSON));
+	}
+}
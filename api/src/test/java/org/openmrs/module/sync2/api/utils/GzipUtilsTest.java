@@ -0,0 +1,39 @@
+package org.openmrs.module.sync2.api.utils;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+public class GzipUtilsTest {
+
+	private static final String CONTENT = "{\"uuid\":\"abc\",\"names\":[{\"givenName\":\"John\"},{\"givenName\":\"John\"}]}";
+
+	@Test
+	public void acceptsGzip_shouldAcceptListedCoding() {
+		Assert.assertTrue(GzipUtils.acceptsGzip("gzip"));
+		Assert.assertTrue(GzipUtils.acceptsGzip("deflate, GZIP;q=0.5"));
+		Assert.assertTrue(GzipUtils.acceptsGzip("*"));
+	}
+
+	@Test
+	public void acceptsGzip_shouldRejectMissingOrDisabledCoding() {
+		Assert.assertFalse(GzipUtils.acceptsGzip(null));
+		Assert.assertFalse(GzipUtils.acceptsGzip(""));
+		Assert.assertFalse(GzipUtils.acceptsGzip("deflate, br"));
+		Assert.assertFalse(GzipUtils.acceptsGzip("gzip;q=0"));
+	}
+
+	@Test
+	public void compress_shouldProduceValidGzipContent() throws IOException {
+		byte[] compressed = GzipUtils.compress(CONTENT.getBytes(StandardCharsets.UTF_8));
+
+		String actual = IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(compressed)),
+				StandardCharsets.UTF_8.name());
+		Assert.assertEquals(CONTENT, actual);
+	}
+}
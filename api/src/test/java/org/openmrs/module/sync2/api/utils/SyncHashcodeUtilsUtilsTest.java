@@ -1,6 +1,7 @@
 package org.openmrs.module.sync2.api.utils;
 
 import com.google.gson.Gson;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -10,12 +11,19 @@ import org.openmrs.Privilege;
 import org.openmrs.Provider;
 import org.openmrs.User;
 import org.openmrs.Visit;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.ParentObjectHashcode;
+import org.openmrs.module.sync2.api.model.SyncObject;
+import org.openmrs.module.sync2.client.SimpleObjectMessageConverter;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.web.Hyperlink;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import static org.openmrs.module.sync2.api.utils.SyncUtils.createDefaultGson;
 
@@ -71,6 +79,20 @@ public class SyncHashcodeUtilsUtilsTest {
 		Assert.assertEquals(hashcode, hashcode2);
 	}
 
+	@Test
+	public void matchesEntityTag_shouldMatchTagOfTheSameHashcode() {
+		String hashcode = SyncHashcodeUtils.getHashcode(simpleVisit);
+		String updatedHashcode = SyncHashcodeUtils.getHashcode(updatedSimpleVisit);
+		String ifNoneMatch = SyncHashcodeUtils.getEntityTag(updatedHashcode) + ", W/"
+				+ SyncHashcodeUtils.getEntityTag(hashcode);
+
+		Assert.assertTrue(SyncHashcodeUtils.matchesEntityTag(ifNoneMatch, hashcode));
+		Assert.assertTrue(SyncHashcodeUtils.matchesEntityTag(SyncHashcodeUtils.getEntityTag(hashcode), hashcode));
+		Assert.assertFalse(SyncHashcodeUtils.matchesEntityTag(SyncHashcodeUtils.getEntityTag(hashcode),
+				updatedHashcode));
+		Assert.assertFalse(SyncHashcodeUtils.matchesEntityTag(null, hashcode));
+	}
+
 	@Test
 	public void hashCodesEqualWhenVoided() throws IOException {
 		Visit visit = createVisit();
@@ -139,6 +161,102 @@ public class SyncHashcodeUtilsUtilsTest {
 		Assert.assertEquals(hashcode, hashcode2);
 	}
 
+	@Test
+	public void getHashcode_shouldBeEqualToTheHashcodeOfThePreviousModuleVersions() throws IOException {
+		SimpleObject auditInfo = new SimpleObject().add("creator", "admin").add("dateCreated", new Date(1540000000000L));
+		List<SimpleObject> links = Arrays.asList(new SimpleObject().add("rel", "self").add("uri", "http://host/?a=1&b=2"),
+				new SimpleObject().add("rel", "full").add("resourceAlias", new Hyperlink("full", "?v=full")));
+		SimpleObject nested = new SimpleObject()
+				.add("display", "<b>Tom & Jerry</b> a='b'")
+				.add("dose", new BigDecimal("0.50"))
+				.add("voided", true)
+				.add("voidReason", "nested voided fields are hashed")
+				.add("stopReason", null)
+				.add(LINKS_KEY, links)
+				.add("auditInfo", auditInfo);
+		SimpleObject object = new SimpleObject()
+				.add("uuid", VISIT_UUID)
+				.add("display", "Line\u2028separator\u2029 <>&='\"\\ \u00e9\u4e2d\ud83d\ude00")
+				.add("startDatetime", new Date(1540000000000L))
+				.add("weight", 72.5d)
+				.add("height", 180.0d)
+				.add("ratio", 1e20d)
+				.add("dose", new BigDecimal("1.10"))
+				.add("count", new BigDecimal("100"))
+				.add("big", new BigDecimal("12345678901234567890.25"))
+				.add("integer", 5)
+				.add("long", 1234567890123L)
+				.add("indication", null)
+				.add("voided", false)
+				.add("voidReason", "top level voided fields are skipped")
+				.add(LINKS_KEY, links)
+				.add("auditInfo", auditInfo)
+				.add("encounters", Arrays.asList(nested, new SimpleObject().add("uuid", PROVIDER_UUID)
+						.add("auditInfo", auditInfo).add("tags", Arrays.asList("a", null, 1, 2.5d))))
+				.add("matrix", Arrays.asList(Arrays.asList(new SimpleObject().add(LINKS_KEY, TEST_LINK_1))));
+
+		Assert.assertEquals(getPreviousHashcode(object), SyncHashcodeUtils.getHashcode(object));
+		Assert.assertEquals(getPreviousHashcode(simpleVisit), SyncHashcodeUtils.getHashcode(simpleVisit));
+	}
+
+	@Test
+	public void matchesHashcode_shouldVerifyTheHashcodeInItsVersion() {
+		String hashcode = SyncHashcodeUtils.getHashcode(simpleVisit, SyncHashcodeUtils.HASHCODE_VERSION_1);
+
+		Assert.assertTrue(SyncHashcodeUtils.matchesHashcode(simpleVisit, hashcode));
+		Assert.assertFalse(SyncHashcodeUtils.matchesHashcode(updatedSimpleVisit, hashcode));
+	}
+
+	@Test(expected = SyncException.class)
+	public void getHashcode_shouldRejectTheUnsupportedVersion() {
+		SyncHashcodeUtils.getHashcode(simpleVisit, SyncHashcodeUtils.CURRENT_HASHCODE_VERSION + 1);
+	}
+
+	@Test
+	public void getHashcode_shouldBeCachedBySyncObjectUntilTheObjectIsReplaced() {
+		SyncObject syncObject = new SyncObject(createVisit(), simpleVisit);
+		String hashcode = syncObject.getHashcode();
+
+		Assert.assertSame(hashcode, syncObject.getHashcode());
+		Assert.assertTrue(SyncHashcodeUtils.matchesHashcode(syncObject, SyncHashcodeUtils.getHashcode(simpleVisit)));
+
+		syncObject.setBaseObject(createVisit());
+		Assert.assertNull(syncObject.getHashcode());
+
+		syncObject.setSimpleObject(updatedSimpleVisit);
+		Assert.assertEquals(SyncHashcodeUtils.getHashcode(updatedSimpleVisit), syncObject.getHashcode());
+	}
+
+	@Test
+	public void getChangedFields_shouldReturnOnlyThePathsOfTheChangedFields() {
+		SimpleObject object = new SimpleObject().add("uuid", VISIT_UUID)
+				.add(NESTED_OBJECT_KEY, new SimpleObject().add("display", PRIVILEGE).add(LINKS_KEY, TEST_LINK_1));
+		SimpleObject updated = new SimpleObject().add("uuid", VISIT_UUID)
+				.add(NESTED_OBJECT_KEY, new SimpleObject().add("display", PROVIDER_IDENTIFIER).add(LINKS_KEY, TEST_LINK_2))
+				.add("indication", PRIVILEGE);
+
+		Assert.assertEquals(Arrays.asList(NESTED_OBJECT_KEY + ".display", "indication"),
+				SyncHashcodeUtils.getChangedFields(new SyncObject(null, object), new SyncObject(null, updated)));
+		Assert.assertTrue(SyncHashcodeUtils.getChangedFields(new SyncObject(null, object),
+				new SyncObject(null, object)).isEmpty());
+	}
+
+	@Test
+	public void getHashcodeDigest_shouldRestoreTheHashcodesOfAllVersions() {
+		String hex = SyncHashcodeUtils.getHashcode(simpleVisit);
+		for (String hashcode : new String[] { hex, "2:" + hex }) {
+			int version = SyncHashcodeUtils.getHashcodeVersion(hashcode);
+			byte[] digest = SyncHashcodeUtils.getHashcodeDigest(hashcode);
+
+			Assert.assertEquals(SyncHashcodeUtils.HASHCODE_DIGEST_BYTES, digest.length);
+			Assert.assertEquals(hashcode, SyncHashcodeUtils.getHashcode(version, digest));
+			Assert.assertEquals(hashcode, new ParentObjectHashcode(VISIT_UUID, hashcode).getHashcode());
+		}
+		String prefixedVersion1 = "1:" + SyncHashcodeUtils.getHashcode(simpleVisit);
+		Assert.assertNull(SyncHashcodeUtils.getHashcodeDigest(prefixedVersion1));
+		Assert.assertEquals(prefixedVersion1, new ParentObjectHashcode(VISIT_UUID, prefixedVersion1).getHashcode());
+	}
+
 	private Visit createVisit() {
 		Visit visit = new Visit();
 		visit.setUuid(VISIT_UUID);
@@ -181,6 +299,38 @@ public class SyncHashcodeUtilsUtilsTest {
 		return privilege;
 	}
 
+	/**
+	 * The hashcode calculated by the previous module versions: the object was cloned through JSON,
+	 * the voided fields were removed from the object and the links and audit info from the object
+	 * and its nested objects, and the compact JSON was hashed.
+	 */
+	private String getPreviousHashcode(SimpleObject simpleObject) {
+		SimpleObject result = SimpleObjectSerializationUtils.clone(simpleObject);
+		for (String field : Arrays.asList("dateVoided", "voided", "voidedBy", "voidReason", "dateRetired", "retired",
+				"retiredBy", "retireReason")) {
+			result.remove(field);
+		}
+		removeLinksAndAuditInfo(result);
+		return DigestUtils.sha512Hex(new SimpleObjectMessageConverter().convertToJson(result));
+	}
+
+	private void removeLinksAndAuditInfo(Map<?, ?> map) {
+		map.remove(LINKS_KEY);
+		map.remove("auditInfo");
+		for (Object value : map.values()) {
+			if (value instanceof Map) {
+				removeLinksAndAuditInfo((Map<?, ?>) value);
+			}
+			if (value instanceof List) {
+				for (Object element : (List<?>) value) {
+					if (element instanceof Map) {
+						removeLinksAndAuditInfo((Map<?, ?>) element);
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Parse object in order to simulate objects pulled by SyncServices
 	 *
@@ -0,0 +1,64 @@
+package org.openmrs.module.sync2.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openmrs.module.fhir.api.helper.ClientHelper;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.openmrs.module.sync2.client.rest.RESTClientHelper;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.util.List;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.openmrs.module.sync2.SyncConstants.REST_CLIENT;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ ContextUtils.class })
+public class ClientHelperFactoryTest {
+
+	private static final String CUSTOM_CLIENT = "custom";
+
+	@Before
+	public void setUp() {
+		PowerMockito.mockStatic(ContextUtils.class);
+		when(ContextUtils.getConversionService()).thenReturn(new DefaultConversionService());
+	}
+
+	@After
+	public void tearDown() {
+		ClientHelperFactory.unregisterClient(CUSTOM_CLIENT);
+	}
+
+	@Test
+	public void createClient_shouldReturnTheSameInstance() {
+		ClientHelper helper = ClientHelperFactory.createClient(REST_CLIENT);
+
+		assertTrue(helper instanceof RESTClientHelper);
+		assertSame(helper, ClientHelperFactory.createClient(REST_CLIENT));
+	}
+
+	@Test
+	public void createClient_shouldReturnRegisteredClient() {
+		ClientHelper customHelper = mock(ClientHelper.class);
+		ClientHelperFactory.registerClient(CUSTOM_CLIENT, customHelper);
+
+		assertSame(customHelper, ClientHelperFactory.createClient(CUSTOM_CLIENT));
+	}
+
+	@Test
+	public void getMessageConverters_shouldReuseConvertersAndSupportWrappedRequests() {
+		List<HttpMessageConverter<?>> converters = ClientHelperFactory.getMessageConverters(REST_CLIENT);
+
+		assertSame(converters, ClientHelperFactory.getMessageConverters(REST_CLIENT));
+		assertTrue(converters.stream().anyMatch(converter -> converter instanceof RequestWrapperConverter));
+	}
+}
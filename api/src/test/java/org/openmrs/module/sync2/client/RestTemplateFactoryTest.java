@@ -0,0 +1,126 @@
+package org.openmrs.module.sync2.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openmrs.module.fhir.api.helper.ClientHelper;
+import org.openmrs.module.sync2.api.model.SyncEndpoint;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.sync.SyncEndpointRegistry;
+import org.openmrs.module.sync2.api.utils.SyncConfigurationUtils;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.openmrs.module.sync2.SyncConstants.REST_CLIENT;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.whenNew;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ RestTemplateFactory.class, SyncEndpointRegistry.class, SyncConfigurationUtils.class,
+		ClientHelperFactory.class })
+public class RestTemplateFactoryTest {
+
+	private static final OpenMRSSyncInstance INSTANCE = OpenMRSSyncInstance.PARENT;
+
+	private static final String RESOURCE_URL = "http://localhost:8080/openmrs/ws/rest/v1/patient";
+
+	private final HttpComponentsClientHttpRequestFactory firstRequestFactory =
+			mock(HttpComponentsClientHttpRequestFactory.class);
+
+	private final HttpComponentsClientHttpRequestFactory secondRequestFactory =
+			mock(HttpComponentsClientHttpRequestFactory.class);
+
+	@Before
+	public void setUp() throws Exception {
+		ClientHelper clientHelper = mock(ClientHelper.class);
+		when(clientHelper.getCustomInterceptors(anyString(), anyString())).thenReturn(new ArrayList<>());
+
+		mockStatic(SyncEndpointRegistry.class);
+		when(SyncEndpointRegistry.getEndpoint(REST_CLIENT, INSTANCE)).thenReturn(new SyncEndpoint(REST_CLIENT,
+				INSTANCE, "http://localhost:8080/openmrs", "login", "password", false, clientHelper));
+		mockStatic(SyncConfigurationUtils.class);
+		mockStatic(ClientHelperFactory.class);
+		when(ClientHelperFactory.getMessageConverters(REST_CLIENT)).thenReturn(new ArrayList<>());
+
+		whenNew(HttpComponentsClientHttpRequestFactory.class).withAnyArguments()
+				.thenReturn(firstRequestFactory, secondRequestFactory);
+	}
+
+	@After
+	public void tearDown() {
+		RestTemplateFactory.clearCache();
+	}
+
+	@Test
+	public void getRestTemplate_shouldReuseTheCachedTemplate() throws Exception {
+		RestTemplate restTemplate = RestTemplateFactory.getRestTemplate(REST_CLIENT, INSTANCE);
+
+		Assert.assertSame(restTemplate, RestTemplateFactory.getRestTemplate(REST_CLIENT, INSTANCE));
+		verify(firstRequestFactory, never()).destroy();
+	}
+
+	@Test
+	public void clearCache_shouldBuildTheTemplateAgainAndCloseTheUnusedHttpClient() throws Exception {
+		RestTemplate restTemplate = RestTemplateFactory.getRestTemplate(REST_CLIENT, INSTANCE);
+
+		RestTemplateFactory.clearCache();
+
+		verify(firstRequestFactory).destroy();
+		Assert.assertNotSame(restTemplate, RestTemplateFactory.getRestTemplate(REST_CLIENT, INSTANCE));
+		verify(secondRequestFactory, never()).destroy();
+	}
+
+	@Test
+	public void clearCache_shouldCloseTheHttpClientWhenTheRunningRequestCompletes() throws Exception {
+		mockRequest(firstRequestFactory);
+		mockRequest(secondRequestFactory);
+		RestTemplate restTemplate = RestTemplateFactory.getRestTemplate(REST_CLIENT, INSTANCE);
+
+		restTemplate.execute(new URI(RESOURCE_URL), HttpMethod.GET, null, response -> {
+			RestTemplateFactory.clearCache();
+			verify(firstRequestFactory, never()).destroy();
+			return null;
+		});
+		verify(firstRequestFactory).destroy();
+
+		restTemplate.execute(new URI(RESOURCE_URL), HttpMethod.GET, null, response -> null);
+		verify(firstRequestFactory, times(1)).createRequest(any(URI.class), eq(HttpMethod.GET));
+		verify(secondRequestFactory).createRequest(any(URI.class), eq(HttpMethod.GET));
+	}
+
+	private void mockRequest(HttpComponentsClientHttpRequestFactory requestFactory) throws Exception {
+		ClientHttpResponse response = mock(ClientHttpResponse.class);
+		when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+		when(response.getRawStatusCode()).thenReturn(HttpStatus.OK.value());
+		when(response.getHeaders()).thenReturn(new HttpHeaders());
+		when(response.getBody()).thenReturn(new ByteArrayInputStream(new byte[0]));
+
+		ClientHttpRequest request = mock(ClientHttpRequest.class);
+		when(request.getHeaders()).thenReturn(new HttpHeaders());
+		when(request.getBody()).thenReturn(new ByteArrayOutputStream());
+		when(request.execute()).thenReturn(response);
+		when(requestFactory.createRequest(any(URI.class), eq(HttpMethod.GET))).thenReturn(request);
+	}
+}
@@ -0,0 +1,90 @@
+package org.openmrs.module.sync2.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class SimpleObjectMessageConverterTest {
+
+	private static final String UUID = "uuid";
+
+	private static final String DISPLAY = "display";
+
+	private static final String PATIENT_UUID = "patientUuid";
+
+	private static final String NON_ASCII_DISPLAY = "Łukasz Ñúñez 李";
+
+	private final SimpleObjectMessageConverter converter = new SimpleObjectMessageConverter();
+
+	@Test
+	public void write_shouldUseUtf8() throws IOException {
+		SimpleObject simpleObject = new SimpleObject().add(UUID, PATIENT_UUID).add(DISPLAY, NON_ASCII_DISPLAY);
+		TestOutputMessage outputMessage = new TestOutputMessage();
+
+		converter.write(simpleObject, MediaType.APPLICATION_JSON, outputMessage);
+
+		String json = new String(outputMessage.body.toByteArray(), StandardCharsets.UTF_8);
+		Assert.assertTrue(json.contains(NON_ASCII_DISPLAY));
+	}
+
+	@Test
+	public void read_shouldParseUtf8Stream() throws IOException {
+		String json = "{\"" + UUID + "\":\"" + PATIENT_UUID + "\",\"" + DISPLAY + "\":\"" + NON_ASCII_DISPLAY + "\"}";
+		TestInputMessage inputMessage = new TestInputMessage(json.getBytes(StandardCharsets.UTF_8));
+
+		SimpleObject actual = converter.read(SimpleObject.class, inputMessage);
+
+		Assert.assertEquals(PATIENT_UUID, actual.get(UUID));
+		Assert.assertEquals(NON_ASCII_DISPLAY, actual.get(DISPLAY));
+	}
+
+	private static class TestInputMessage implements HttpInputMessage {
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final InputStream body;
+
+		TestInputMessage(byte[] content) {
+			this.body = new ByteArrayInputStream(content);
+			headers.setContentType(MediaType.APPLICATION_JSON);
+		}
+
+		@Override
+		public InputStream getBody() {
+			return body;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+	}
+
+	private static class TestOutputMessage implements HttpOutputMessage {
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+		@Override
+		public OutputStream getBody() {
+			return body;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+	}
+}
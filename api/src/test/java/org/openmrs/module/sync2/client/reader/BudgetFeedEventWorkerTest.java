@@ -0,0 +1,77 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.module.sync2.api.exceptions.SyncRunStoppedError;
+import org.openmrs.module.sync2.api.model.enums.OpenMRSSyncInstance;
+import org.openmrs.module.sync2.api.sync.CircuitBreakerRegistry;
+import org.openmrs.module.sync2.api.sync.SyncRunBudget;
+
+import java.net.URI;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BudgetFeedEventWorkerTest {
+
+	private final FeedEventWorker delegate = mock(FeedEventWorker.class);
+
+	private final Event event = mock(Event.class);
+
+	private final BudgetFeedEventWorker worker = new BudgetFeedEventWorker(delegate);
+
+	@After
+	public void tearDown() {
+		CircuitBreakerRegistry.clear();
+	}
+
+	@Test
+	public void process_shouldStopWhenTheEventBudgetIsExhausted() {
+		SyncRunBudget budget = new SyncRunBudget(null, 2);
+		worker.setBudget(budget);
+
+		worker.process(event);
+		worker.process(event);
+		try {
+			worker.process(event);
+			Assert.fail("The event over the budget should stop the feed");
+		}
+		catch (SyncRunStoppedError e) {
+			verify(delegate, times(2)).process(event);
+		}
+		Assert.assertTrue(budget.isStopped());
+	}
+
+	@Test(expected = SyncRunStoppedError.class)
+	public void process_shouldStopWhenTheRunIsCancelled() {
+		SyncRunBudget budget = new SyncRunBudget(null, null);
+		worker.setBudget(budget);
+		worker.process(event);
+
+		budget.cancel();
+		worker.process(event);
+	}
+
+	@Test
+	public void process_shouldStopWhenTheParentIsUnavailable() {
+		SyncRunBudget budget = new SyncRunBudget(null, 2);
+		worker.setBudget(budget);
+		CircuitBreakerRegistry.getCircuitBreaker(OpenMRSSyncInstance.PARENT, URI.create("http://parent:8080/openmrs"),
+				1, 60).recordFailure();
+
+		try {
+			worker.process(event);
+			Assert.fail("The feed should be stopped while the parent is unavailable");
+		}
+		catch (SyncRunStoppedError e) {
+			verify(delegate, never()).process(event);
+		}
+		Assert.assertEquals("PARENT http://parent:8080 is unavailable", worker.getStopReason());
+		Assert.assertFalse(budget.isStopped());
+	}
+}
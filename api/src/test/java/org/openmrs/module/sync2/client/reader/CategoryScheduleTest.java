@@ -0,0 +1,75 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.sync2.api.model.FeedProgress;
+
+public class CategoryScheduleTest {
+
+	private static final long STARTED_MILLIS = 1000000L;
+
+	private static final long MIN_INTERVAL = 60L;
+
+	private static final long MAX_INTERVAL = 300L;
+
+	private final CategorySchedule schedule = new CategorySchedule("patient");
+
+	@Test
+	public void completed_shouldBackOffExponentiallyWhenTheFeedIsEmpty() {
+		schedule.completed(STARTED_MILLIS, true, true, MIN_INTERVAL, MAX_INTERVAL);
+		Assert.assertEquals(MIN_INTERVAL, schedule.getIntervalSeconds());
+
+		schedule.completed(STARTED_MILLIS, false, true, MIN_INTERVAL, MAX_INTERVAL);
+		Assert.assertEquals(120L, schedule.getIntervalSeconds());
+
+		schedule.completed(STARTED_MILLIS, false, true, MIN_INTERVAL, MAX_INTERVAL);
+		Assert.assertEquals(240L, schedule.getIntervalSeconds());
+
+		schedule.completed(STARTED_MILLIS, false, true, MIN_INTERVAL, MAX_INTERVAL);
+		Assert.assertEquals(MAX_INTERVAL, schedule.getIntervalSeconds());
+
+		schedule.completed(STARTED_MILLIS, true, true, MIN_INTERVAL, MAX_INTERVAL);
+		Assert.assertEquals(MIN_INTERVAL, schedule.getIntervalSeconds());
+	}
+
+	@Test
+	public void completed_shouldKeepTheMaxIntervalWithTheFixedSchedule() {
+		schedule.completed(STARTED_MILLIS, true, false, MIN_INTERVAL, MAX_INTERVAL);
+
+		Assert.assertEquals(MAX_INTERVAL, schedule.getIntervalSeconds());
+		Assert.assertEquals(STARTED_MILLIS + MAX_INTERVAL * 1000L, schedule.getNextRunMillis());
+	}
+
+	@Test
+	public void isDue_shouldAllowTheToleratedEarlyRun() {
+		Assert.assertTrue(schedule.isDue(STARTED_MILLIS, 0L));
+
+		schedule.completed(STARTED_MILLIS, true, true, MIN_INTERVAL, MAX_INTERVAL);
+		long nextRunMillis = schedule.getNextRunMillis();
+
+		Assert.assertFalse(schedule.isDue(nextRunMillis - 10000L, 5000L));
+		Assert.assertTrue(schedule.isDue(nextRunMillis - 3000L, 5000L));
+	}
+
+	@Test
+	public void hadEvents_shouldNotTreatThePausedFeedAsIdle() {
+		FeedProgress progress = new FeedProgress("patient");
+		progress.start();
+		progress.pause();
+
+		Assert.assertTrue(CategorySchedule.hadEvents(progress));
+	}
+
+	@Test
+	public void hadEvents_shouldTreatTheFailedOrEmptyFeedAsIdle() {
+		FeedProgress progress = new FeedProgress("patient");
+		progress.start();
+		progress.complete();
+		Assert.assertFalse(CategorySchedule.hadEvents(progress));
+
+		progress.start();
+		progress.eventProcessed();
+		progress.fail(new IllegalStateException("Unexpected error"));
+		Assert.assertFalse(CategorySchedule.hadEvents(progress));
+	}
+}
@@ -0,0 +1,185 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.ict4h.atomfeed.client.domain.FailedEvent;
+import org.ict4h.atomfeed.client.repository.AllFailedEvents;
+import org.ict4h.atomfeed.transaction.AFTransactionManager;
+import org.ict4h.atomfeed.transaction.AFTransactionWork;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class CoalescingFeedEventWorkerTest {
+
+	private static final String PATIENT_UUID = "0d2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private static final String OTHER_PATIENT_UUID = "5b2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private final CoalescedEventWorker delegate = mock(CoalescedEventWorker.class);
+
+	private final AllFailedEvents allFailedEvents = mock(AllFailedEvents.class);
+
+	private final AFTransactionManager transactionManager = mock(AFTransactionManager.class);
+
+	private final FeedEventJournal journal = new FeedEventJournal(allFailedEvents, transactionManager);
+
+	private final CoalescingFeedEventWorker worker = new CoalescingFeedEventWorker(delegate, journal);
+
+	@Before
+	public void setUp() {
+		worker.setWindowSize(10);
+		when(transactionManager.executeWithTransaction(any(AFTransactionWork.class))).thenAnswer(
+				invocation -> ((AFTransactionWork) invocation.getArguments()[0]).execute());
+	}
+
+	@Test
+	public void flush_shouldCoalesceCreatedAndUpdatedIntoCreated() {
+		Event created = createEvent("1", PATIENT_UUID, "CREATED");
+		worker.process(created);
+		worker.process(createEvent("2", PATIENT_UUID, "UPDATED"));
+		worker.process(createEvent("3", PATIENT_UUID, "UPDATED"));
+		verifyZeroInteractions(delegate);
+
+		worker.flush();
+
+		verify(delegate).process(created, 3);
+		verifyNoMoreInteractions(delegate);
+	}
+
+	@Test
+	public void flush_shouldCoalesceAnythingFollowedByDeletedIntoDeleted() {
+		Event deleted = createEvent("3", PATIENT_UUID, "DELETED");
+		worker.process(createEvent("1", PATIENT_UUID, "CREATED"));
+		worker.process(createEvent("2", PATIENT_UUID, "UPDATED"));
+		worker.process(deleted);
+
+		worker.flush();
+
+		verify(delegate).process(deleted, 3);
+		verifyNoMoreInteractions(delegate);
+	}
+
+	@Test
+	public void flush_shouldKeepTheOrderOfObjectsAndNotMergeVoidedEvents() {
+		Event updated = createEvent("1", PATIENT_UUID, "UPDATED");
+		Event other = createEvent("2", OTHER_PATIENT_UUID, "CREATED");
+		Event voided = createEvent("3", PATIENT_UUID, "VOIDED");
+		Event unvoided = createEvent("4", PATIENT_UUID, "UPDATED");
+		worker.process(updated);
+		worker.process(other);
+		worker.process(voided);
+		worker.process(unvoided);
+
+		worker.flush();
+
+		InOrder inOrder = inOrder(delegate);
+		inOrder.verify(delegate).process(updated);
+		inOrder.verify(delegate).process(other);
+		inOrder.verify(delegate).process(voided);
+		inOrder.verify(delegate).process(unvoided);
+		verifyNoMoreInteractions(delegate);
+	}
+
+	@Test
+	public void flush_shouldPassTheCoalescedEventsAsBatchIfSupported() {
+		BatchEventWorker batchDelegate = mock(BatchEventWorker.class);
+		CoalescingFeedEventWorker batchWorker = new CoalescingFeedEventWorker(batchDelegate, journal);
+		batchWorker.setWindowSize(10);
+		Event created = createEvent("1", PATIENT_UUID, "CREATED");
+		Event other = createEvent("2", OTHER_PATIENT_UUID, "UPDATED");
+		batchWorker.process(created);
+		batchWorker.process(other);
+		batchWorker.process(createEvent("3", PATIENT_UUID, "UPDATED"));
+
+		batchWorker.flush();
+
+		ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+		verify(batchDelegate).process(captor.capture());
+		List<CoalescedEvent> events = captor.getValue();
+		Assert.assertEquals(2, events.size());
+		Assert.assertSame(created, events.get(0).getEvent());
+		Assert.assertEquals(2, events.get(0).getCoalescedEvents());
+		Assert.assertSame(other, events.get(1).getEvent());
+		Assert.assertEquals(1, events.get(1).getCoalescedEvents());
+		verifyNoMoreInteractions(batchDelegate);
+	}
+
+	@Test
+	public void flush_shouldKeepTheEventsInTheJournalUntilTheirObjectIsSynchronized() {
+		Event created = createEvent("1", PATIENT_UUID, "CREATED");
+		Event updated = createEvent("2", PATIENT_UUID, "UPDATED");
+		worker.process(created);
+		worker.process(updated);
+		verify(allFailedEvents, times(2)).addOrUpdate(any(FailedEvent.class));
+
+		worker.flush();
+		journal.commit();
+
+		verify(delegate).process(created, 2);
+		verify(allFailedEvents, times(2)).remove(any(FailedEvent.class));
+	}
+
+	@Test
+	public void flush_shouldKeepTheRepresentativeEventOfTheFailedObject() {
+		Event created = createEvent("1", PATIENT_UUID, "CREATED");
+		Event other = createEvent("2", OTHER_PATIENT_UUID, "CREATED");
+		doThrow(new IllegalStateException("Unexpected error")).when(delegate).process(created, 2);
+		worker.process(created);
+		worker.process(other);
+		worker.process(createEvent("3", PATIENT_UUID, "UPDATED"));
+
+		worker.flush();
+		journal.commit();
+
+		verify(delegate).process(other);
+		verify(allFailedEvents, times(4)).addOrUpdate(any(FailedEvent.class));
+		verify(allFailedEvents, times(2)).remove(any(FailedEvent.class));
+	}
+
+	@Test
+	public void process_shouldPassEventsThroughWhenWindowIsDisabled() {
+		worker.setWindowSize(1);
+		Event created = createEvent("1", PATIENT_UUID, "CREATED");
+
+		worker.process(created);
+
+		verify(delegate).process(created);
+	}
+
+	private Event createEvent(String id, String uuid, String action) {
+		Event event = mock(Event.class);
+		when(event.getId()).thenReturn(id);
+		when(event.getContent()).thenReturn("{\"rest\":\"/ws/rest/v1/patient/" + uuid + "?v=full\"}");
+		when(event.getCategories()).thenReturn(Arrays.asList(new Tag("patient"), new Tag(action)));
+		return event;
+	}
+
+	private static class Tag {
+
+		private final String term;
+
+		Tag(String term) {
+			this.term = term;
+		}
+
+		@Override
+		public String toString() {
+			return "Category.term=" + term;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventSequenceTrackerTest {
+
+	private static final int MAX_AHEAD = 3;
+
+	private final EventSequenceTracker tracker = new EventSequenceTracker();
+
+	@Test
+	public void getWatermark_shouldStopAtTheLowestUncompletedEvent() throws InterruptedException {
+		long first = tracker.begin(MAX_AHEAD);
+		long second = tracker.begin(MAX_AHEAD);
+		long third = tracker.begin(MAX_AHEAD);
+
+		tracker.complete(second);
+		tracker.complete(third);
+		Assert.assertEquals(0L, tracker.getWatermark());
+
+		tracker.complete(first);
+		Assert.assertEquals(third, tracker.getWatermark());
+	}
+
+	@Test
+	public void begin_shouldWaitUntilTheWatermarkMoves() throws InterruptedException {
+		long first = tracker.begin(MAX_AHEAD);
+		tracker.begin(MAX_AHEAD);
+		tracker.begin(MAX_AHEAD);
+
+		Thread reader = new Thread(() -> {
+			try {
+				tracker.begin(MAX_AHEAD);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		reader.start();
+		reader.join(200L);
+		Assert.assertTrue(reader.isAlive());
+
+		tracker.complete(first);
+		reader.join(5000L);
+		Assert.assertFalse(reader.isAlive());
+	}
+}
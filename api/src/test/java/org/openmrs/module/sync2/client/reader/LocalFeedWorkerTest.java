@@ -0,0 +1,96 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.api.model.SyncEvent;
+import org.openmrs.module.sync2.api.service.SyncPushService;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ Context.class })
+public class LocalFeedWorkerTest {
+
+	private static final String PATIENT_UUID = "0d2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private static final String OTHER_PATIENT_UUID = "5b2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private final LocalFeedWorker worker = new LocalFeedWorker();
+
+	private SyncPushService pushService;
+
+	@Before
+	public void setUp() {
+		pushService = mock(SyncPushService.class);
+		mockStatic(Context.class);
+		when(Context.getRegisteredComponent("sync2.syncPushService", SyncPushService.class)).thenReturn(pushService);
+	}
+
+	@Test
+	public void process_shouldPushTheBatchOfEventsAtOnce() {
+		worker.process(Arrays.asList(
+				new CoalescedEvent(createEvent("1", PATIENT_UUID, "CREATED"), 3),
+				new CoalescedEvent(createEvent("2", OTHER_PATIENT_UUID, "DELETED"), 1)));
+
+		ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+		verify(pushService).readAndPushObjectsToParent(captor.capture());
+		verify(pushService, never()).readAndPushObjectToParent(any(SyncEvent.class));
+		List<SyncEvent> events = captor.getValue();
+		Assert.assertEquals(2, events.size());
+		assertEvent(events.get(0), PATIENT_UUID, "CREATED", 3);
+		assertEvent(events.get(1), OTHER_PATIENT_UUID, "DELETED", 1);
+	}
+
+	@Test
+	public void process_shouldPushTheSingleEvent() {
+		worker.process(createEvent("1", PATIENT_UUID, "UPDATED"), 2);
+
+		ArgumentCaptor<SyncEvent> captor = ArgumentCaptor.forClass(SyncEvent.class);
+		verify(pushService).readAndPushObjectToParent(captor.capture());
+		assertEvent(captor.getValue(), PATIENT_UUID, "UPDATED", 2);
+	}
+
+	private void assertEvent(SyncEvent event, String uuid, String action, int coalescedEvents) {
+		Assert.assertEquals("patient", event.getCategory());
+		Assert.assertEquals(action, event.getAction());
+		Assert.assertEquals("/ws/rest/v1/patient/" + uuid + "?v=full", event.getResourceLinks().get("rest"));
+		Assert.assertEquals(coalescedEvents, event.getCoalescedEvents());
+	}
+
+	private Event createEvent(String id, String uuid, String action) {
+		Event event = mock(Event.class);
+		when(event.getId()).thenReturn(id);
+		when(event.getContent()).thenReturn("{\"rest\":\"/ws/rest/v1/patient/" + uuid + "?v=full\"}");
+		when(event.getCategories()).thenReturn(Arrays.asList(new Tag("patient"), new Tag(action)));
+		return event;
+	}
+
+	private static class Tag {
+
+		private final String term;
+
+		Tag(String term) {
+			this.term = term;
+		}
+
+		@Override
+		public String toString() {
+			return "Category.term=" + term;
+		}
+	}
+}
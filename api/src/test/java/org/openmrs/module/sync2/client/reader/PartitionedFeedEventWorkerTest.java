@@ -0,0 +1,139 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.ict4h.atomfeed.client.domain.FailedEvent;
+import org.ict4h.atomfeed.client.repository.AllFailedEvents;
+import org.ict4h.atomfeed.transaction.AFTransactionManager;
+import org.ict4h.atomfeed.transaction.AFTransactionWork;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openmrs.api.context.Context;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ Context.class })
+public class PartitionedFeedEventWorkerTest {
+
+	private static final String PATIENT_UUID = "0d2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private static final String OTHER_PATIENT_UUID = "5b2d6a6e-7e5e-4b7a-8a2c-8a1e2f4b5c6d";
+
+	private static final String ERROR_MESSAGE = "Unexpected error";
+
+	private final CoalescedEventWorker delegate = mock(CoalescedEventWorker.class);
+
+	private final AllFailedEvents allFailedEvents = mock(AllFailedEvents.class);
+
+	private final AFTransactionManager transactionManager = mock(AFTransactionManager.class);
+
+	private final FeedEventJournal journal = new FeedEventJournal(allFailedEvents, transactionManager);
+
+	private final PartitionedFeedEventWorker worker = new PartitionedFeedEventWorker(delegate, "patient", journal);
+
+	@Before
+	public void setUp() {
+		mockStatic(Context.class);
+		when(transactionManager.executeWithTransaction(any(AFTransactionWork.class))).thenAnswer(
+				invocation -> ((AFTransactionWork) invocation.getArguments()[0]).execute());
+		journal.setFeedUri("http://localhost/ws/atomfeed/patient/recent");
+	}
+
+	@After
+	public void tearDown() {
+		worker.shutdown();
+	}
+
+	@Test
+	public void process_shouldProcessEventsByTheCallingThreadWithSingleLane() {
+		worker.configure(1, 16);
+		Event event = createEvent("1", PATIENT_UUID);
+
+		worker.process(event, 2);
+
+		verify(delegate).process(event, 2);
+		verifyZeroInteractions(allFailedEvents);
+	}
+
+	@Test
+	public void process_shouldKeepTheEventsInTheJournalUntilTheyAreProcessed() {
+		worker.configure(2, 16);
+		Event first = createEvent("1", PATIENT_UUID);
+		Event second = createEvent("2", OTHER_PATIENT_UUID);
+
+		worker.process(first);
+		worker.process(Arrays.asList(new CoalescedEvent(second, 1)));
+		worker.awaitCompletion();
+		journal.commit();
+
+		verify(delegate).process(first);
+		verify(delegate).process(second);
+		verify(allFailedEvents, times(2)).addOrUpdate(any(FailedEvent.class));
+		verify(allFailedEvents, times(2)).remove(any(FailedEvent.class));
+	}
+
+	@Test
+	public void awaitCompletion_shouldRethrowTheFirstFailureAndKeepTheFailedEvent() {
+		worker.configure(2, 16);
+		Event failing = createEvent("1", PATIENT_UUID);
+		Event other = createEvent("2", OTHER_PATIENT_UUID);
+		doThrow(new IllegalStateException(ERROR_MESSAGE)).when(delegate).process(failing);
+
+		worker.process(failing);
+		worker.process(other);
+		try {
+			worker.awaitCompletion();
+			Assert.fail("The failure of the lane should be rethrown");
+		}
+		catch (IllegalStateException e) {
+			Assert.assertEquals(ERROR_MESSAGE, e.getMessage());
+		}
+		journal.commit();
+
+		verify(delegate).process(other);
+		verify(allFailedEvents, times(3)).addOrUpdate(any(FailedEvent.class));
+		verify(allFailedEvents, times(1)).remove(any(FailedEvent.class));
+
+		worker.awaitCompletion();
+	}
+
+	@Test
+	public void process_shouldNotDeferTheEventWhenTheJournalFails() {
+		worker.configure(2, 16);
+		Event event = createEvent("1", PATIENT_UUID);
+		doThrow(new IllegalStateException(ERROR_MESSAGE)).when(allFailedEvents).addOrUpdate(any(FailedEvent.class));
+
+		try {
+			worker.process(event);
+			Assert.fail("The failure of the journal should be rethrown");
+		}
+		catch (IllegalStateException e) {
+			Assert.assertEquals(ERROR_MESSAGE, e.getMessage());
+		}
+		worker.awaitCompletion();
+
+		verify(delegate, never()).process(event);
+	}
+
+	private Event createEvent(String id, String uuid) {
+		Event event = mock(Event.class);
+		when(event.getId()).thenReturn(id);
+		when(event.getContent()).thenReturn("{\"rest\":\"/ws/rest/v1/patient/" + uuid + "?v=full\"}");
+		return event;
+	}
+}
@@ -0,0 +1,51 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.atomfeed.client.FeedEventWorker;
+import org.openmrs.module.sync2.api.exceptions.SyncException;
+import org.openmrs.module.sync2.api.model.FeedProgress;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class ProgressFeedEventWorkerTest {
+
+	private static final String CATEGORY = "patient";
+
+	private final FeedEventWorker delegate = mock(FeedEventWorker.class);
+
+	private final Event event = mock(Event.class);
+
+	private final FeedProgress progress = new FeedProgress(CATEGORY);
+
+	private final ProgressFeedEventWorker worker = new ProgressFeedEventWorker(delegate, progress);
+
+	@Test
+	public void process_shouldCountProcessedEvents() {
+		progress.start();
+
+		worker.process(event);
+		worker.process(event);
+
+		Assert.assertEquals(2, progress.getProcessedEvents());
+		Assert.assertEquals(0, progress.getFailedEvents());
+		Assert.assertEquals(FeedProgress.Status.RUNNING, progress.getStatus());
+	}
+
+	@Test
+	public void process_shouldCountAndRethrowFailures() {
+		progress.start();
+		doThrow(new SyncException("Parent is not available")).when(delegate).process(event);
+
+		try {
+			worker.process(event);
+			Assert.fail("Expected SyncException");
+		}
+		catch (SyncException e) {
+			Assert.assertEquals(0, progress.getProcessedEvents());
+			Assert.assertEquals(1, progress.getFailedEvents());
+		}
+	}
+}
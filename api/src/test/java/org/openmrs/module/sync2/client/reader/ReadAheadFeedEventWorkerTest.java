@@ -0,0 +1,112 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.ict4h.atomfeed.client.domain.Event;
+import org.ict4h.atomfeed.client.domain.FailedEvent;
+import org.ict4h.atomfeed.client.repository.AllFailedEvents;
+import org.ict4h.atomfeed.transaction.AFTransactionManager;
+import org.ict4h.atomfeed.transaction.AFTransactionWork;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.openmrs.module.sync2.api.model.enums.SyncOperation;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class ReadAheadFeedEventWorkerTest {
+
+	private static final int DEPTH = 2;
+
+	private static final long MAX_BYTES = 1024L;
+
+	private static final String ERROR_MESSAGE = "Unexpected error";
+
+	private final CoalescedEventWorker delegate = mock(CoalescedEventWorker.class);
+
+	private final AllFailedEvents allFailedEvents = mock(AllFailedEvents.class);
+
+	private final AFTransactionManager transactionManager = mock(AFTransactionManager.class);
+
+	private final FeedEventJournal journal = new FeedEventJournal(allFailedEvents, transactionManager);
+
+	private final ReadAheadFeedEventWorker worker = new ReadAheadFeedEventWorker(delegate, SyncOperation.PULL,
+			journal);
+
+	@Before
+	public void setUp() {
+		when(transactionManager.executeWithTransaction(any(AFTransactionWork.class))).thenAnswer(
+				invocation -> ((AFTransactionWork) invocation.getArguments()[0]).execute());
+		journal.setFeedUri("http://localhost/ws/atomfeed/patient/recent");
+	}
+
+	@Test
+	public void process_shouldSynchronizeEventsWhenTheBufferIsFull() {
+		worker.configure(DEPTH, MAX_BYTES);
+		Event first = createEvent("1");
+		Event second = createEvent("2");
+		Event third = createEvent("3");
+
+		worker.process(first);
+		worker.process(second);
+		verifyZeroInteractions(delegate);
+
+		worker.process(third);
+		verify(delegate).process(first);
+		verifyNoMoreInteractions(delegate);
+
+		worker.flush();
+		InOrder inOrder = inOrder(delegate);
+		inOrder.verify(delegate).process(second);
+		inOrder.verify(delegate).process(third);
+	}
+
+	@Test
+	public void process_shouldPassEventsThroughWhenReadingAheadIsDisabled() {
+		worker.configure(0, MAX_BYTES);
+		Event event = createEvent("1");
+
+		worker.process(event, 3);
+
+		verify(delegate).process(event, 3);
+		verifyZeroInteractions(allFailedEvents);
+	}
+
+	@Test
+	public void flush_shouldRethrowTheFirstFailureAndKeepTheFailedEvent() {
+		worker.configure(DEPTH, MAX_BYTES);
+		Event failing = createEvent("1");
+		Event other = createEvent("2");
+		doThrow(new IllegalStateException(ERROR_MESSAGE)).when(delegate).process(failing);
+
+		worker.process(failing);
+		worker.process(other);
+		try {
+			worker.flush();
+			Assert.fail("The failure of the buffered event should be rethrown");
+		}
+		catch (IllegalStateException e) {
+			Assert.assertEquals(ERROR_MESSAGE, e.getMessage());
+		}
+		journal.commit();
+
+		verify(delegate).process(other);
+		verify(allFailedEvents, times(3)).addOrUpdate(any(FailedEvent.class));
+		verify(allFailedEvents, times(1)).remove(any(FailedEvent.class));
+
+		worker.flush();
+	}
+
+	private Event createEvent(String id) {
+		Event event = mock(Event.class);
+		when(event.getId()).thenReturn(id);
+		return event;
+	}
+}
@@ -0,0 +1,177 @@
+package org.openmrs.module.sync2.client.reader;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openmrs.Allergy;
+import org.openmrs.Location;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.Daemon;
+import org.openmrs.module.DaemonToken;
+import org.openmrs.module.sync2.api.model.configuration.ClassConfiguration;
+import org.openmrs.module.sync2.api.model.configuration.SyncMethodConfiguration;
+import org.openmrs.module.sync2.api.utils.ContextUtils;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ Context.class, Daemon.class })
+public class RealTimePushQueueTest {
+
+	private static final int DEBOUNCE = 100;
+
+	private static final int LONG_DEBOUNCE = 500;
+
+	private static final int QUEUE_SIZE = 10;
+
+	private static final long TIMEOUT = 5000L;
+
+	private final RealTimePushQueue queue = new RealTimePushQueue();
+
+	private final LocalFeedReader feedReader = mock(LocalFeedReader.class);
+
+	private final DaemonToken daemonToken = new DaemonToken("sync2");
+
+	@Before
+	public void setUp() {
+		mockStatic(Context.class, Daemon.class);
+		when(Context.getRegisteredComponent("sync2.localFeedReader", LocalFeedReader.class)).thenReturn(feedReader);
+		when(Daemon.runInDaemonThread(any(Runnable.class), eq(daemonToken))).thenAnswer(invocation -> {
+			Thread thread = new Thread((Runnable) invocation.getArguments()[0]);
+			thread.start();
+			return thread;
+		});
+		ContextUtils.setDaemonToken(daemonToken);
+	}
+
+	@After
+	public void tearDown() {
+		queue.stop();
+		ContextUtils.setDaemonToken(null);
+	}
+
+	@Test
+	public void getCategory_shouldMatchTheRealTimeCategoriesOfTheClassAndItsSuperclasses() {
+		queue.start(createPushConfiguration(true));
+
+		Assert.assertTrue(queue.isActive());
+		Assert.assertEquals("person", queue.getCategory(Patient.class));
+		Assert.assertEquals("allergy", queue.getCategory(Allergy.class));
+		Assert.assertNull(queue.getCategory(Location.class));
+	}
+
+	@Test
+	public void start_shouldStayInactiveWhenThePushIsDisabled() {
+		queue.start(createPushConfiguration(false));
+
+		Assert.assertFalse(queue.isActive());
+		Assert.assertNull(queue.getCategory(Patient.class));
+	}
+
+	@Test
+	public void categoriesChanged_shouldPushTheChangesOfTheDebouncePeriodOnceAsTheDaemon() throws InterruptedException {
+		queue.start(createPushConfiguration(true));
+
+		queue.categoriesChanged(Collections.singletonList("person"));
+		queue.categoriesChanged(Collections.singletonList("person"));
+		verify(feedReader, never()).readAndPushAllFeeds("person");
+
+		verify(feedReader, timeout(TIMEOUT)).readAndPushAllFeeds("person");
+		Thread.sleep(DEBOUNCE * 2);
+		verify(feedReader, times(1)).readAndPushAllFeeds("person");
+		PowerMockito.verifyStatic(times(1));
+		Daemon.runInDaemonThread(any(Runnable.class), eq(daemonToken));
+
+		queue.categoriesChanged(Collections.singletonList("person"));
+		verify(feedReader, timeout(TIMEOUT).times(2)).readAndPushAllFeeds("person");
+	}
+
+	@Test
+	public void categoriesChanged_shouldPostponeThePushWhileTheCategoryIsChanged() throws InterruptedException {
+		SyncMethodConfiguration pushConf = createPushConfiguration(true);
+		pushConf.setRealTimeDebounce(LONG_DEBOUNCE);
+		queue.start(pushConf);
+
+		for (int i = 0; i < 5; i++) {
+			queue.categoriesChanged(Collections.singletonList("person"));
+			Thread.sleep(LONG_DEBOUNCE / 5);
+		}
+		verify(feedReader, never()).readAndPushAllFeeds("person");
+
+		verify(feedReader, timeout(TIMEOUT)).readAndPushAllFeeds("person");
+		Thread.sleep(LONG_DEBOUNCE * 2);
+		verify(feedReader, times(1)).readAndPushAllFeeds("person");
+	}
+
+	@Test
+	public void categoriesChanged_shouldNotPostponeThePushLongerThanTheMaxWait() throws InterruptedException {
+		SyncMethodConfiguration pushConf = createPushConfiguration(true);
+		pushConf.setRealTimeDebounce(LONG_DEBOUNCE);
+		pushConf.setRealTimeMaxWait(LONG_DEBOUNCE / 2);
+		queue.start(pushConf);
+
+		for (int i = 0; i < 10; i++) {
+			queue.categoriesChanged(Collections.singletonList("person"));
+			Thread.sleep(LONG_DEBOUNCE / 5);
+		}
+
+		verify(feedReader, atLeastOnce()).readAndPushAllFeeds("person");
+	}
+
+	@Test
+	public void categoriesChanged_shouldLeaveTheCategoriesWhichDontFitToThePushTask() throws InterruptedException {
+		SyncMethodConfiguration pushConf = createPushConfiguration(true);
+		pushConf.setRealTimeQueueSize(1);
+		queue.start(pushConf);
+
+		queue.categoriesChanged(Arrays.asList("person", "allergy"));
+
+		verify(feedReader, timeout(TIMEOUT)).readAndPushAllFeeds("person");
+		Thread.sleep(DEBOUNCE * 2);
+		verify(feedReader, never()).readAndPushAllFeeds("allergy");
+	}
+
+	@Test
+	public void categoriesChanged_shouldIgnoreTheChangesWhenTheQueueIsStopped() throws InterruptedException {
+		queue.start(createPushConfiguration(false));
+
+		queue.categoriesChanged(Collections.singletonList("person"));
+
+		Thread.sleep(DEBOUNCE * 2);
+		verify(feedReader, never()).readAndPushAllFeeds("person");
+	}
+
+	private SyncMethodConfiguration createPushConfiguration(boolean enabled) {
+		ClassConfiguration person = new ClassConfiguration("Person", "person", "org.openmrs.Person", true);
+		person.setRealTime(true);
+		ClassConfiguration allergy = new ClassConfiguration("Allergy", "allergy", "org.openmrs.Allergy", true);
+		allergy.setRealTime(true);
+		ClassConfiguration location = new ClassConfiguration("Location", "location", "org.openmrs.Location", true);
+
+		SyncMethodConfiguration pushConf = new SyncMethodConfiguration();
+		pushConf.setEnabled(enabled);
+		pushConf.setSchedule(60);
+		pushConf.setRealTimeDebounce(DEBOUNCE);
+		pushConf.setRealTimeQueueSize(QUEUE_SIZE);
+		pushConf.setClasses(Arrays.asList(person, allergy, location));
+		return pushConf;
+	}
+}
@@ -2,7 +2,10 @@ package org.openmrs.module.sync2.web.controller;
 
 import org.openmrs.module.fhir.api.merge.MergeConflict;
 import org.openmrs.module.sync2.api.mapper.MergeConflictMapper;
+import org.openmrs.module.sync2.api.model.SyncObject;
 import org.openmrs.module.sync2.api.service.MergeConflictService;
+import org.openmrs.module.sync2.api.utils.SyncHashcodeUtils;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
 import org.openmrs.module.sync2.client.SimpleObjectMessageConverter;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +30,7 @@ public class ConflictResolutionController {
 	private static final String FOREIGN_OBJ_MODEL_ATTR = "foreignObjJson";
 	private static final String CONFLICT_UUID_MODEL_ATTR = "conflictUuid";
 	private static final String CLASS_NAME_MODEL_ATTR = "className";
+	private static final String CHANGED_FIELDS_MODEL_ATTR = "changedFieldsJson";
 
 	@RequestMapping(value = "/module/sync2/conflictResolution", method = RequestMethod.GET)
 	public void initConflictResolution(ModelMap model,
@@ -38,11 +42,16 @@ public class ConflictResolutionController {
 		org.openmrs.module.sync2.api.model.MergeConflict mergeConflictDAO = mergeConflictService.getByUuid(conflictUuid);
 		MergeConflict mergeConflict = mergeConflictMapper.map(mergeConflictDAO);
 
-		String localObjJson = simpleConverter.convertToJson((SimpleObject) mergeConflict.getOrgLocal());
-		String foreignObjJson = simpleConverter.convertToJson((SimpleObject) mergeConflict.getOrgForeign());
+		SimpleObject localObj = (SimpleObject) mergeConflict.getOrgLocal();
+		SimpleObject foreignObj = (SimpleObject) mergeConflict.getOrgForeign();
+		String localObjJson = simpleConverter.convertToJson(localObj);
+		String foreignObjJson = simpleConverter.convertToJson(foreignObj);
+		String changedFieldsJson = SyncUtils.getDefaultGson().toJson(SyncHashcodeUtils.getChangedFields(
+				new SyncObject(null, localObj), new SyncObject(null, foreignObj)));
 
 		model.addAttribute(LOCAL_OBJ_MODEL_ATTR, localObjJson);
 		model.addAttribute(FOREIGN_OBJ_MODEL_ATTR, foreignObjJson);
+		model.addAttribute(CHANGED_FIELDS_MODEL_ATTR, changedFieldsJson);
 		model.addAttribute(CLASS_NAME_MODEL_ATTR, mergeConflict.getClazz().getCanonicalName());
 	}
 }
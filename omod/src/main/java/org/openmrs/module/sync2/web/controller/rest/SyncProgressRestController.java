@@ -0,0 +1,90 @@
+package org.openmrs.module.sync2.web.controller.rest;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.module.sync2.SyncModuleConfig;
+import org.openmrs.module.sync2.api.model.FeedProgress;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+import org.openmrs.module.sync2.client.reader.LocalFeedReader;
+import org.openmrs.module.sync2.client.reader.ParentFeedReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.openmrs.module.sync2.SyncConstants.ALL_OPERATIONS;
+import static org.openmrs.module.sync2.SyncConstants.PULL_OPERATION;
+import static org.openmrs.module.sync2.SyncConstants.PUSH_OPERATION;
+
+@Controller("sync2.SyncProgressRestController")
+@RequestMapping(value = "/rest/sync2", produces = MediaType.APPLICATION_JSON_VALUE)
+public class SyncProgressRestController {
+
+	private static final ResponseEntity<String> MISSING_PRIVILEGE_RESPONSE = new ResponseEntity<>(
+			String.format("Tried to read the synchronization progress without '%s' privilege",
+					SyncModuleConfig.MODULE_PRIVILEGE),
+			HttpStatus.UNAUTHORIZED);
+
+	private static final ResponseEntity<String> MISSING_CANCEL_PRIVILEGE_RESPONSE = new ResponseEntity<>(
+			String.format("Tried to cancel the synchronization without '%s' privilege",
+					SyncModuleConfig.MODULE_PRIVILEGE),
+			HttpStatus.UNAUTHORIZED);
+
+	@Autowired
+	private ParentFeedReader parentFeedReader;
+
+	@Autowired
+	private LocalFeedReader localFeedReader;
+
+	/**
+	 * Returns the progress of the last processing of each category feed, grouped by the operation
+	 */
+	@RequestMapping(value = "/progress", method = RequestMethod.GET)
+	@ResponseBody
+	public ResponseEntity<String> getProgress() {
+		if (!Context.hasPrivilege(SyncModuleConfig.MODULE_PRIVILEGE)) {
+			return MISSING_PRIVILEGE_RESPONSE;
+		}
+		Map<String, Collection<FeedProgress>> progress = new LinkedHashMap<>();
+		progress.put(PULL_OPERATION, parentFeedReader.getProgress());
+		progress.put(PUSH_OPERATION, localFeedReader.getProgress());
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+				.body(SyncUtils.getDefaultGson().toJson(progress));
+	}
+
+	/**
+	 * Cancels the synchronization runs in progress. The runs stop after the events which are being processed,
+	 * the remaining events are processed by the next runs.
+	 *
+	 * @param operation PULL, PUSH or ALL
+	 * @return the number of the cancelled runs, grouped by the operation
+	 */
+	@RequestMapping(value = "/progress/cancel", method = RequestMethod.POST)
+	@ResponseBody
+	public ResponseEntity<String> cancel(
+			@RequestParam(value = "operation", required = false, defaultValue = ALL_OPERATIONS) String operation) {
+		if (!Context.hasPrivilege(SyncModuleConfig.MODULE_PRIVILEGE)) {
+			return MISSING_CANCEL_PRIVILEGE_RESPONSE;
+		}
+		Map<String, Integer> cancelled = new LinkedHashMap<>();
+		if (PULL_OPERATION.equalsIgnoreCase(operation) || ALL_OPERATIONS.equalsIgnoreCase(operation)) {
+			cancelled.put(PULL_OPERATION, parentFeedReader.cancelRuns());
+		}
+		if (PUSH_OPERATION.equalsIgnoreCase(operation) || ALL_OPERATIONS.equalsIgnoreCase(operation)) {
+			cancelled.put(PUSH_OPERATION, localFeedReader.cancelRuns());
+		}
+		if (cancelled.isEmpty()) {
+			return new ResponseEntity<>(String.format("Unknown operation: %s", operation), HttpStatus.BAD_REQUEST);
+		}
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+				.body(SyncUtils.getDefaultGson().toJson(cancelled));
+	}
+}
@@ -0,0 +1,100 @@
+package org.openmrs.module.sync2.web.controller.rest;
+
+import com.google.gson.JsonParseException;
+import org.openmrs.module.sync2.SyncModuleConfig;
+import org.openmrs.module.sync2.api.model.ReconciliationRequest;
+import org.openmrs.module.sync2.api.model.RequestWrapper;
+import org.openmrs.module.sync2.api.service.SyncReconciliationService;
+import org.openmrs.module.sync2.api.service.SyncRequestWrapperService;
+import org.openmrs.module.sync2.api.utils.SyncUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Answers the reconciliation requests of the children. If the objects of the category are still being read,
+ * the ACCEPTED response without a body is returned and the child repeats the request later.
+ */
+@Controller("sync2.SyncReconciliationRestController")
+@RequestMapping(value = "/rest/sync2/reconciliation", produces = MediaType.APPLICATION_JSON_VALUE)
+public class SyncReconciliationRestController {
+
+	@Autowired
+	private SyncReconciliationService syncReconciliationService;
+
+	@Autowired
+	private SyncRequestWrapperService syncRequestWrapperService;
+
+	/**
+	 * Returns the digests of the objects of the category in the requested ranges, in the order of the ranges
+	 */
+	@RequestMapping(value = "/digests", method = RequestMethod.POST)
+	@ResponseBody
+	public ResponseEntity<String> getRangeDigests(@RequestBody String requestJson) {
+		ReconciliationRequest request;
+		try {
+			request = readRequest(requestJson);
+		}
+		catch (JsonParseException e) {
+			return new ResponseEntity<>("Incorrect reconciliation JSON given", HttpStatus.BAD_REQUEST);
+		}
+		if (!isAuthenticated(request)) {
+			return createMissingPrivilegeResponse(request);
+		}
+		return createResponse(syncReconciliationService.getRangeDigests(request.getCategory(), request.getRanges()));
+	}
+
+	/**
+	 * Returns the hashcodes of the objects of the category in the requested ranges, mapped by the object uuids
+	 */
+	@RequestMapping(value = "/hashcodes", method = RequestMethod.POST)
+	@ResponseBody
+	public ResponseEntity<String> getRangeHashcodes(@RequestBody String requestJson) {
+		ReconciliationRequest request;
+		try {
+			request = readRequest(requestJson);
+		}
+		catch (JsonParseException e) {
+			return new ResponseEntity<>("Incorrect reconciliation JSON given", HttpStatus.BAD_REQUEST);
+		}
+		if (!isAuthenticated(request)) {
+			return createMissingPrivilegeResponse(request);
+		}
+		return createResponse(syncReconciliationService.getRangeHashcodes(request.getCategory(),
+				request.getRanges()));
+	}
+
+	private ReconciliationRequest readRequest(String requestJson) {
+		ReconciliationRequest request = SyncUtils.getDefaultGson().fromJson(requestJson, ReconciliationRequest.class);
+		if (request == null || request.getCategory() == null || request.getRanges() == null) {
+			throw new JsonParseException("The category and the ranges are required");
+		}
+		return request;
+	}
+
+	private boolean isAuthenticated(ReconciliationRequest request) {
+		RequestWrapper wrapper = new RequestWrapper();
+		wrapper.setInstanceId(request.getInstanceId());
+		wrapper.setCategory(request.getCategory());
+		return syncRequestWrapperService.isRequestAuthenticated(wrapper);
+	}
+
+	private ResponseEntity<String> createMissingPrivilegeResponse(ReconciliationRequest request) {
+		return new ResponseEntity<>(String.format("Tried to reconcile %s without '%s' privilege",
+				request.getCategory(), SyncModuleConfig.MODULE_PRIVILEGE), HttpStatus.UNAUTHORIZED);
+	}
+
+	private ResponseEntity<String> createResponse(Object result) {
+		if (result == null) {
+			return new ResponseEntity<>(HttpStatus.ACCEPTED);
+		}
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+				.body(SyncUtils.getDefaultGson().toJson(result));
+	}
+}
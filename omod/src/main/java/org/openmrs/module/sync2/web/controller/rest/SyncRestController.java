@@ -1,14 +1,22 @@
 package org.openmrs.module.sync2.web.controller.rest;
 
+import com.google.gson.stream.JsonWriter;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.exception.ExceptionUtils;
+import org.openmrs.api.context.Context;
 import org.openmrs.module.sync2.SyncModuleConfig;
 import org.openmrs.module.sync2.api.converter.StringToRequestWrapperConverter;
+import org.openmrs.module.sync2.api.exceptions.BatchTooLargeException;
+import org.openmrs.module.sync2.api.model.BatchRequestWrapper;
+import org.openmrs.module.sync2.api.model.InnerRequest;
+import org.openmrs.module.sync2.api.model.InnerResponse;
 import org.openmrs.module.sync2.api.model.RequestWrapper;
 import org.openmrs.module.sync2.api.service.SyncRequestWrapperService;
+import org.openmrs.module.sync2.api.utils.BatchRequestUtils;
+import org.openmrs.module.sync2.api.utils.BatchResponseUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +26,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.openmrs.module.sync2.SyncConstants.BATCH_MAX_REQUESTS_PROPERTY;
+import static org.openmrs.module.sync2.SyncConstants.DEFAULT_BATCH_MAX_REQUESTS;
+
 @Controller("sync2.SyncRestController")
 @RequestMapping(value = "/rest/sync2", produces = MediaType.APPLICATION_JSON_VALUE)
 public class SyncRestController {
@@ -51,20 +68,75 @@ public class SyncRestController {
 					HttpStatus.UNAUTHORIZED);
 		}
 
-		return resolveRequest(wrapper);
+		return syncRequestWrapperService.resolveRequest(wrapper);
+	}
+
+	/**
+	 * Resolves many wrapped requests in a single round trip. The requests are applied one after another
+	 * in the given order and a failure of one of them doesn't stop the others. The inner responses are
+	 * streamed back as a JSON array in the order of the inner requests, each with its own status code.
+	 * The batch with more requests than configured is rejected before any of them is applied.
+	 */
+	@RequestMapping(value = "/batch", method = RequestMethod.POST)
+	public void syncBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		BatchRequestWrapper wrapper;
+		try {
+			wrapper = BatchRequestUtils.readBatchRequest(request.getInputStream(), getBatchMaxRequests());
+		}
+		catch (BatchTooLargeException ex) {
+			response.sendError(HttpStatus.REQUEST_ENTITY_TOO_LARGE.value(), ex.getMessage());
+			return;
+		}
+		catch (IOException | RuntimeException ex) {
+			LOGGER.debug("Incorrect batch JSON given", ex);
+			response.sendError(HttpStatus.BAD_REQUEST.value(), "Incorrect batch JSON given: " + ex.getMessage());
+			return;
+		}
+		LOGGER.debug("Fetched batch of {} wrapped requests", wrapper.getRequests().size());
+
+		if (!syncRequestWrapperService.isRequestAuthenticated(wrapper)) {
+			response.sendError(HttpStatus.UNAUTHORIZED.value(),
+					String.format("Tried to post %s without '%s' privilege",
+							wrapper.getClassName(),
+							SyncModuleConfig.MODULE_PRIVILEGE));
+			return;
+		}
+
+		response.setStatus(HttpStatus.OK.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+		JsonWriter writer = new JsonWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+		writer.beginArray();
+		for (InnerRequest innerRequest : wrapper.getRequests()) {
+			ResponseEntity<String> result = resolveBatchedRequest(wrapper.toRequestWrapper(innerRequest));
+			BatchResponseUtils.writeInnerResponse(writer, new InnerResponse(innerRequest.getUrl(), result),
+					isJsonResponse(result));
+			writer.flush();
+		}
+		writer.endArray();
+		writer.flush();
 	}
 
-	private ResponseEntity<String> resolveRequest(RequestWrapper wrapper) {
-		HttpMethod method = wrapper.getRequest().getMethod();
-
-		if (method.equals(HttpMethod.POST) || method.equals(HttpMethod.PUT)) {
-			return syncRequestWrapperService.sendObject(wrapper);
-		} else if (method.equals(HttpMethod.GET)) {
-			return syncRequestWrapperService.getObject(wrapper);
-		} else if (method.equals(HttpMethod.DELETE)) {
-			return syncRequestWrapperService.deleteObject(wrapper);
-		} else {
-			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+	private ResponseEntity<String> resolveBatchedRequest(RequestWrapper wrapper) {
+		try {
+			return syncRequestWrapperService.resolveRequest(wrapper);
 		}
+		catch (RuntimeException ex) {
+			LOGGER.error("Error during resolving batched request: " + wrapper.getRequest().getUrl(), ex);
+			return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	private int getBatchMaxRequests() {
+		String value = Context.getAdministrationService().getGlobalProperty(BATCH_MAX_REQUESTS_PROPERTY);
+		return StringUtils.isNumeric(value) && StringUtils.isNotEmpty(value) ? Integer.parseInt(value)
+				: DEFAULT_BATCH_MAX_REQUESTS;
+	}
+
+	private boolean isJsonResponse(ResponseEntity<String> result) {
+		MediaType contentType = result.getHeaders().getContentType();
+		return result.getStatusCode().is2xxSuccessful() && contentType != null
+				&& MediaType.APPLICATION_JSON.isCompatibleWith(contentType);
 	}
 }
@@ -0,0 +1,63 @@
+package org.openmrs.module.sync2.web.filter;
+
+import org.openmrs.module.sync2.api.sync.ServerCompressionSettings;
+import org.openmrs.module.sync2.api.utils.GzipUtils;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Negotiates the gzip compression of the messages exchanged with the Sync 2.0 endpoints.
+ * The gzip encoded requests are decompressed, and the responses bigger than the threshold are compressed
+ * if the client accepts it. Every response advertises that the endpoint accepts gzip encoded requests.
+ * The settings are read from the cached {@link ServerCompressionSettings}.
+ */
+public class GzipFilter implements Filter {
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException {
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		if (!(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		HttpServletRequest httpRequest = (HttpServletRequest) request;
+		HttpServletResponse httpResponse = (HttpServletResponse) response;
+		ServerCompressionSettings settings = ServerCompressionSettings.get();
+
+		if (GzipUtils.isGzipEncoded(httpRequest.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+			httpRequest = new GzipRequestWrapper(httpRequest, settings.getMaxRequestSize());
+		}
+		httpResponse.setHeader(HttpHeaders.ACCEPT_ENCODING, GzipUtils.GZIP);
+
+		if (!GzipUtils.acceptsGzip(httpRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))
+				|| settings.isCompressedByOpenmrs()) {
+			chain.doFilter(httpRequest, httpResponse);
+			return;
+		}
+
+		GzipResponseWrapper responseWrapper = new GzipResponseWrapper(httpResponse, settings.getThreshold());
+		try {
+			chain.doFilter(httpRequest, responseWrapper);
+		}
+		finally {
+			responseWrapper.finish();
+		}
+	}
+
+	@Override
+	public void destroy() {
+	}
+}
@@ -0,0 +1,111 @@
+package org.openmrs.module.sync2.web.filter;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Exposes the decompressed body of a gzip encoded request. Reading fails as soon as the decompressed body
+ * exceeds the maximal size, so a small compressed request can't expand into an unbounded amount of data.
+ */
+public class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+	private final int maxSize;
+
+	private ServletInputStream inputStream;
+
+	private BufferedReader reader;
+
+	public GzipRequestWrapper(HttpServletRequest request, int maxSize) {
+		super(request);
+		this.maxSize = maxSize;
+	}
+
+	@Override
+	public ServletInputStream getInputStream() throws IOException {
+		if (inputStream == null) {
+			final GZIPInputStream gzip = new GZIPInputStream(super.getInputStream());
+			inputStream = new ServletInputStream() {
+
+				private long readBytes;
+
+				@Override
+				public int read() throws IOException {
+					int result = gzip.read();
+					if (result != -1) {
+						count(1);
+					}
+					return result;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					int result = gzip.read(b, off, len);
+					if (result > 0) {
+						count(result);
+					}
+					return result;
+				}
+
+				private void count(int bytes) throws IOException {
+					readBytes += bytes;
+					if (readBytes > maxSize) {
+						throw new IOException(String.format(
+								"The decompressed request body exceeds the limit of %d bytes", maxSize));
+					}
+				}
+
+				@Override
+				public void close() throws IOException {
+					gzip.close();
+				}
+			};
+		}
+		return inputStream;
+	}
+
+	@Override
+	public BufferedReader getReader() throws IOException {
+		if (reader == null) {
+			String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+			reader = new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+		}
+		return reader;
+	}
+
+	@Override
+	public int getContentLength() {
+		return -1;
+	}
+
+	@Override
+	public String getHeader(String name) {
+		return isHiddenHeader(name) ? null : super.getHeader(name);
+	}
+
+	@Override
+	public Enumeration<String> getHeaders(String name) {
+		return isHiddenHeader(name) ? Collections.<String>emptyEnumeration() : super.getHeaders(name);
+	}
+
+	@Override
+	public int getIntHeader(String name) {
+		return isHiddenHeader(name) ? -1 : super.getIntHeader(name);
+	}
+
+	/**
+	 * The headers describing the compressed body don't apply to the decompressed one
+	 */
+	private boolean isHiddenHeader(String name) {
+		return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+	}
+}
@@ -0,0 +1,170 @@
+package org.openmrs.module.sync2.web.filter;
+
+import org.openmrs.module.sync2.api.utils.GzipUtils;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the response body with gzip once it reaches the threshold. Smaller bodies are buffered and sent
+ * without compression. After switching to gzip every flush is propagated, so streamed responses are still
+ * delivered incrementally.
+ */
+public class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+	private final int threshold;
+
+	private ThresholdGzipOutputStream outputStream;
+
+	private PrintWriter writer;
+
+	public GzipResponseWrapper(HttpServletResponse response, int threshold) {
+		super(response);
+		this.threshold = threshold;
+	}
+
+	@Override
+	public ServletOutputStream getOutputStream() throws IOException {
+		if (writer != null) {
+			throw new IllegalStateException("getWriter() has already been called on this response");
+		}
+		return getThresholdOutputStream();
+	}
+
+	@Override
+	public PrintWriter getWriter() throws IOException {
+		if (writer == null) {
+			if (outputStream != null) {
+				throw new IllegalStateException("getOutputStream() has already been called on this response");
+			}
+			String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+			writer = new PrintWriter(new OutputStreamWriter(getThresholdOutputStream(), encoding));
+		}
+		return writer;
+	}
+
+	@Override
+	public void flushBuffer() throws IOException {
+		if (writer != null) {
+			writer.flush();
+		} else if (outputStream != null) {
+			outputStream.flush();
+		}
+	}
+
+	@Override
+	public void setContentLength(int len) {
+		// the length is known only after the body is written
+	}
+
+	@Override
+	public void setHeader(String name, String value) {
+		if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			super.setHeader(name, value);
+		}
+	}
+
+	@Override
+	public void addHeader(String name, String value) {
+		if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			super.addHeader(name, value);
+		}
+	}
+
+	/**
+	 * Writes the remaining content. It has to be called after the request is processed.
+	 */
+	public void finish() throws IOException {
+		if (writer != null) {
+			writer.flush();
+		}
+		if (outputStream != null) {
+			outputStream.finish();
+		}
+	}
+
+	private ThresholdGzipOutputStream getThresholdOutputStream() {
+		if (outputStream == null) {
+			outputStream = new ThresholdGzipOutputStream();
+		}
+		return outputStream;
+	}
+
+	private class ThresholdGzipOutputStream extends ServletOutputStream {
+
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		private GZIPOutputStream gzip;
+
+		private boolean finished;
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (finished) {
+				throw new IOException("The response has already been written");
+			}
+			if (gzip != null) {
+				gzip.write(b, off, len);
+				return;
+			}
+			buffer.write(b, off, len);
+			if (buffer.size() >= threshold) {
+				startCompression();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (gzip != null) {
+				gzip.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+		}
+
+		void finish() throws IOException {
+			if (finished) {
+				return;
+			}
+			finished = true;
+			if (gzip != null) {
+				gzip.finish();
+				gzip.flush();
+			} else {
+				if (!isCommitted()) {
+					getResponse().setContentLength(buffer.size());
+				}
+				if (buffer.size() > 0) {
+					buffer.writeTo(getResponse().getOutputStream());
+					getResponse().getOutputStream().flush();
+				}
+			}
+			buffer = null;
+		}
+
+		private void startCompression() throws IOException {
+			HttpServletResponse response = (HttpServletResponse) getResponse();
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, GzipUtils.GZIP);
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			gzip = new GZIPOutputStream(response.getOutputStream(), true);
+			buffer.writeTo(gzip);
+			buffer = null;
+		}
+	}
+}
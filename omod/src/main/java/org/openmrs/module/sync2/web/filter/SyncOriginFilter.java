@@ -0,0 +1,45 @@
+package org.openmrs.module.sync2.web.filter;
+
+import org.openmrs.module.sync2.SyncConstants;
+import org.openmrs.module.sync2.api.sync.SyncOrigin;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Marks the requests sent to the local instance by the synchronization, see {@link SyncOrigin}, so the objects
+ * saved by them aren't pushed back by the real-time push.
+ */
+public class SyncOriginFilter implements Filter {
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException {
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		if (!(request instanceof HttpServletRequest)
+				|| ((HttpServletRequest) request).getHeader(SyncConstants.SYNC_ORIGIN_HEADER) == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		SyncOrigin.begin();
+		try {
+			chain.doFilter(request, response);
+		}
+		finally {
+			SyncOrigin.end();
+		}
+	}
+
+	@Override
+	public void destroy() {
+	}
+}
@@ -47,6 +47,7 @@
         var localObjJson = ${localObjJson};
         var foreignObjJson = ${foreignObjJson};
         var mergedObjJson = ${localObjJson};
+        var changedFields = ${changedFieldsJson};
 
         jQuery("#localObjJson").jsonViewer(localObjJson);
         jQuery("#foreignObjJson").jsonViewer(foreignObjJson);
@@ -54,7 +55,7 @@
         var localObj = jsonToDotNotation(localObjJson, null, {});
         var foreignObj = jsonToDotNotation(foreignObjJson, null, {});
 
-        compareObj(localObj, foreignObj, "objectMergeTable");
+        compareObj(localObj, foreignObj, "objectMergeTable", changedFields);
 
         var form = document.getElementById('objectMergeForm');
         form.addEventListener("submit", function(e) {
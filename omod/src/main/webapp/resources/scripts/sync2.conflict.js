@@ -40,10 +40,16 @@ function jsonToDotNotation(obj, current, dotNotatedObj) {
     return dotNotatedObj;
 }
 
-function compareObj(localObj, foreignObj, objectMergeTableId) {
+// the fields which don't change the hashcode, so they are never listed in the changed fields
+var UNHASHED_FIELDS = ['dateVoided', 'voided', 'voidedBy', 'voidReason', 'dateRetired', 'retired', 'retiredBy',
+    'retireReason'];
+
+function compareObj(localObj, foreignObj, objectMergeTableId, changedFields) {
     for(var i in foreignObj) {
         if(typeof foreignObj[i] === 'object') {
             compareObj (localObj[i], foreignObj[i]);
+        } else if(changedFields && !isChangedField(i, changedFields) && !isChangedField(i, UNHASHED_FIELDS)) {
+            continue;
         } else {
             if(foreignObj[i] !== localObj[i]) {
                 appendFieldValueChoice(i, localObj[i], foreignObj[i], objectMergeTableId);
@@ -52,6 +58,15 @@ function compareObj(localObj, foreignObj, objectMergeTableId) {
     }
 };
 
+function isChangedField(key, changedFields) {
+    for(var i = 0; i < changedFields.length; i++) {
+        if(key === changedFields[i] || key.indexOf(changedFields[i] + ".") === 0) {
+            return true;
+        }
+    }
+    return false;
+}
+
 function appendFieldValueChoice(key, value1, value2, objectMergeTableId) {
     var fieldChoice =
         `<tr>
@@ -0,0 +1,44 @@
+package org.openmrs.module.sync2.web.filter;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.sync2.api.utils.GzipUtils;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class GzipRequestWrapperTest {
+
+	private static final int MAX_SIZE = 1024;
+
+	@Test
+	public void getInputStream_shouldDecompressTheBody() throws IOException {
+		byte[] body = createBody(MAX_SIZE);
+
+		GzipRequestWrapper wrapper = new GzipRequestWrapper(createRequest(body), MAX_SIZE);
+
+		Assert.assertArrayEquals(body, IOUtils.toByteArray(wrapper.getInputStream()));
+	}
+
+	@Test(expected = IOException.class)
+	public void getInputStream_shouldFailWhenTheDecompressedBodyExceedsTheLimit() throws IOException {
+		GzipRequestWrapper wrapper = new GzipRequestWrapper(createRequest(createBody(MAX_SIZE + 1)), MAX_SIZE);
+
+		IOUtils.toByteArray(wrapper.getInputStream());
+	}
+
+	private MockHttpServletRequest createRequest(byte[] body) throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ws/rest/sync2");
+		request.addHeader("Content-Encoding", GzipUtils.GZIP);
+		request.setContent(GzipUtils.compress(body));
+		return request;
+	}
+
+	private byte[] createBody(int size) {
+		byte[] body = new byte[size];
+		Arrays.fill(body, (byte) 'a');
+		return body;
+	}
+}